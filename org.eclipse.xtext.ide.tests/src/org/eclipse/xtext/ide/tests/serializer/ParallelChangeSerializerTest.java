@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.ide.tests.serializer;
+
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.xtext.ide.serializer.IChangeSerializer;
+import org.eclipse.xtext.ide.serializer.IEmfResourceChange;
+import org.eclipse.xtext.ide.serializer.debug.TextDocumentChangeToString;
+import org.eclipse.xtext.ide.serializer.impl.ChangeSerializer;
+import org.eclipse.xtext.ide.serializer.impl.ParallelChangeSerializer;
+import org.eclipse.xtext.ide.tests.testlanguage.partialSerializationTestLanguage.Node;
+import org.eclipse.xtext.ide.tests.testlanguage.tests.PartialSerializationTestLanguageInjectorProvider;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.XtextRunner;
+import org.eclipse.xtext.testing.util.InMemoryURIHandler;
+import org.eclipse.xtext.xbase.lib.Pair;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+
+@RunWith(XtextRunner.class)
+@InjectWith(PartialSerializationTestLanguageInjectorProvider.class)
+public class ParallelChangeSerializerTest extends Assert {
+
+	@Inject
+	private ChangeSerializerTestHelper helper;
+
+	private ExecutorService executorService;
+
+	private InMemoryURIHandler fs;
+
+	@Before
+	public void setUp() {
+		executorService = Executors.newFixedThreadPool(4);
+		fs = new InMemoryURIHandler();
+		helper.operator_add(fs, Pair.of("inmemory:/file0.pstl", "#1 root0;"));
+		for (int i = 1; i <= 10; i++) {
+			helper.operator_add(fs, Pair.of("inmemory:/file" + i + ".pstl", "#1 root" + i + " { ref root0 }"));
+		}
+	}
+
+	@After
+	public void tearDown() {
+		executorService.shutdown();
+	}
+
+	@Test
+	public void testRenameGlobal() {
+		ParallelChangeSerializer parallel = Guice.createInjector().getInstance(ParallelChangeSerializer.class);
+		parallel.setExecutorService(executorService);
+		String expected = rename(Guice.createInjector().getInstance(ChangeSerializer.class));
+		assertEquals(expected, rename(parallel));
+		assertTrue(expected, expected.contains("inmemory:/file10.pstl"));
+	}
+
+	private String rename(IChangeSerializer serializer) {
+		ResourceSet rs = helper.createResourceSet(fs);
+		Node model = helper.contents(rs, "inmemory:/file0.pstl", Node.class);
+		serializer.addModification(model.eResource(), (it) -> model.setName("newroot"));
+		Collection<IEmfResourceChange> changes = helper.endRecordChangesToTextDocuments(serializer);
+		return new TextDocumentChangeToString().add(changes).toString();
+	}
+
+}
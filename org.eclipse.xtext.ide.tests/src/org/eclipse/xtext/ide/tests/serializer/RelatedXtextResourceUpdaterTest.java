@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.ide.tests.serializer;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.xtext.ide.serializer.IChangeSerializer;
+import org.eclipse.xtext.ide.serializer.IEmfResourceChange;
+import org.eclipse.xtext.ide.serializer.debug.TextDocumentChangeToString;
+import org.eclipse.xtext.ide.serializer.impl.ChangeSerializer;
+import org.eclipse.xtext.ide.serializer.impl.RelatedXtextResourceUpdater;
+import org.eclipse.xtext.ide.tests.testlanguage.partialSerializationTestLanguage.Node;
+import org.eclipse.xtext.ide.tests.testlanguage.tests.PartialSerializationTestLanguageInjectorProvider;
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.XtextRunner;
+import org.eclipse.xtext.testing.util.InMemoryURIHandler;
+import org.eclipse.xtext.util.ITextRegion;
+import org.eclipse.xtext.xbase.lib.Pair;
+import org.eclipse.xtext.xbase.lib.Procedures.Procedure1;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+
+/**
+ * Renames elements that are referenced from several related files and compares the text edits of the related files
+ * with the ones that are computed with a text region access for the whole document.
+ */
+@RunWith(XtextRunner.class)
+@InjectWith(PartialSerializationTestLanguageInjectorProvider.class)
+public class RelatedXtextResourceUpdaterTest extends Assert {
+
+	public static class FullDocumentUpdater extends RelatedXtextResourceUpdater {
+		@Override
+		protected Collection<ITextRegion> getReferencingRegions(XtextResource res) {
+			return Collections.emptyList();
+		}
+	}
+
+	public static class FullDocumentChangeSerializer extends ChangeSerializer {
+		@Override
+		protected <T> T getService(URI uri, Class<T> clazz) {
+			if (clazz == RelatedXtextResourceUpdater.class) {
+				return clazz.cast(super.getService(uri, FullDocumentUpdater.class));
+			}
+			return super.getService(uri, clazz);
+		}
+	}
+
+	@Inject
+	private ChangeSerializerTestHelper helper;
+
+	private InMemoryURIHandler fs;
+
+	@Before
+	public void setUp() {
+		fs = new InMemoryURIHandler();
+		helper.operator_add(fs, Pair.of("inmemory:/file0.pstl", "#1 root0 { a; b { c; } }"));
+		for (int i = 1; i <= 5; i++) {
+			StringBuilder file = new StringBuilder();
+			file.append("#1 root").append(i).append(" refs root0.a root0.b.c {\n");
+			file.append("\tx").append(i).append(" { ref root0.b }\n");
+			file.append("\ty").append(i).append(" { ref root").append(i).append(".x").append(i).append(" }\n");
+			file.append("\tz").append(i).append(" refs root0 root").append(i).append(".y").append(i).append(";\n");
+			file.append("\tw").append(i).append(" { ref root0.b.c }\n");
+			file.append("}\n");
+			helper.operator_add(fs, Pair.of("inmemory:/file" + i + ".pstl", file.toString()));
+		}
+	}
+
+	@Test
+	public void testRenameRoot() {
+		assertSameChanges(it -> it.setName("newroot"));
+	}
+
+	@Test
+	public void testRenameChild() {
+		assertSameChanges(it -> it.getChildren().get(1).setName("bb"));
+	}
+
+	@Test
+	public void testRenameNestedChild() {
+		assertSameChanges(it -> it.getChildren().get(1).getChildren().get(0).setName("cc"));
+	}
+
+	private void assertSameChanges(Procedure1<Node> modification) {
+		String expected = rename(Guice.createInjector().getInstance(FullDocumentChangeSerializer.class),
+				modification);
+		String actual = rename(Guice.createInjector().getInstance(ChangeSerializer.class), modification);
+		assertEquals(expected, actual);
+		for (int i = 1; i <= 5; i++) {
+			assertTrue(expected, expected.contains("inmemory:/file" + i + ".pstl"));
+		}
+	}
+
+	private String rename(IChangeSerializer serializer, Procedure1<Node> modification) {
+		ResourceSet rs = helper.createResourceSet(fs);
+		Node model = helper.contents(rs, "inmemory:/file0.pstl", Node.class);
+		serializer.addModification(model.eResource(), (it) -> modification.apply(model));
+		Collection<IEmfResourceChange> changes = helper.endRecordChangesToTextDocuments(serializer);
+		return new TextDocumentChangeToString().add(changes).toString();
+	}
+
+}
@@ -160,14 +160,24 @@ public class ChangeSerializer implements IChangeSerializer {
 			}
 		}
 		monitor.beginTask("Creating Text Changes...", updaters.size());
+		applyChanges(deltas, updaters, changeAcceptor);
+		for (ResourceUpdater updater : updaters) {
+			updater.unload();
+		}
+	}
+
+	/**
+	 * Lets the updaters of the recorded and the related resources create their changes in the given order.
+	 * 
+	 * @since 2.18
+	 */
+	protected void applyChanges(Deltas deltas, List<ResourceUpdater> updaters,
+			IAcceptor<IEmfResourceChange> changeAcceptor) {
 		for (ResourceUpdater updater : updaters) {
 			updater.applyChange(deltas, changeAcceptor);
 			monitor.worked(1);
 			checkCanceled();
 		}
-		for (ResourceUpdater updater : updaters) {
-			updater.unload();
-		}
 	}
 
 	protected void resetState() {
@@ -220,6 +230,13 @@ public class ChangeSerializer implements IChangeSerializer {
 		this.updateRelatedFiles = value;
 	}
 
+	/**
+	 * @since 2.18
+	 */
+	protected IProgressMonitor getProgressMonitor() {
+		return monitor;
+	}
+
 	@Override
 	public void setProgressMonitor(IProgressMonitor monitor) {
 		this.monitor = monitor;
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.ide.serializer.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.ide.serializer.IEmfResourceChange;
+import org.eclipse.xtext.ide.serializer.impl.EObjectDescriptionDeltaProvider.Deltas;
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.util.Exceptions;
+import org.eclipse.xtext.util.IAcceptor;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.inject.Inject;
+
+/**
+ * A change serializer that computes the reference updates of the related Xtext resources concurrently.
+ *
+ * <p>
+ * The recorded resources and the related non-Xtext resources are updated first. Then the related resources are loaded
+ * into the resource set and their cross references are resolved on the calling thread. The related resources are
+ * processed in three phases, each of which is finished before the next one starts:
+ * </p>
+ * <ol>
+ * <li>The workers build the text region access of each resource and ask the
+ * {@link org.eclipse.xtext.ide.serializer.hooks.IReferenceUpdater} for the references to update. They only read the
+ * model and the deltas.</li>
+ * <li>The calling thread applies the model modifications that the reference updaters asked for and rewrites the
+ * references. This is the step that consults the scope provider, which reaches the shared resource descriptions and
+ * the caches that are attached to the resources, so it is not run concurrently.</li>
+ * <li>The workers format the rewritten documents.</li>
+ * </ol>
+ * The changes are passed to the acceptor on the calling thread in the same order as the sequential
+ * {@link ChangeSerializer} passes them.
+ *
+ * Reference updaters and formatters must be safe to use from multiple threads as long as the model is not modified.
+ *
+ * @since 2.18
+ */
+public class ParallelChangeSerializer extends ChangeSerializer {
+
+	@Inject(optional = true)
+	private ExecutorService executorService;
+
+	@Override
+	protected void applyChanges(Deltas deltas, List<ResourceUpdater> updaters,
+			IAcceptor<IEmfResourceChange> changeAcceptor) {
+		Map<ResourceUpdater, List<IEmfResourceChange>> results = Maps.newHashMap();
+		for (ResourceUpdater updater : updaters) {
+			if (!(updater instanceof RelatedXtextResourceUpdater)) {
+				List<IEmfResourceChange> changes = Lists.newArrayList();
+				updater.applyChange(deltas, changes::add);
+				results.put(updater, changes);
+				checkCanceled();
+			}
+		}
+		Map<RelatedXtextResourceUpdater, XtextResource> related = Maps.newLinkedHashMap();
+		for (ResourceUpdater updater : updaters) {
+			if (updater instanceof RelatedXtextResourceUpdater) {
+				XtextResource resource = ((RelatedXtextResourceUpdater) updater).loadIfAffected(deltas);
+				if (resource != null) {
+					EcoreUtil.resolveAll(resource);
+					related.put((RelatedXtextResourceUpdater) updater, resource);
+				}
+				checkCanceled();
+			}
+		}
+		Map<RelatedXtextResourceUpdater, ReferenceUpdaterContext> contexts = invokeAll(related.keySet(),
+				updater -> updater.computeReferenceUpdates(deltas, related.get(updater)));
+		for (Map.Entry<RelatedXtextResourceUpdater, ReferenceUpdaterContext> entry : contexts.entrySet()) {
+			RelatedXtextResourceUpdater updater = entry.getKey();
+			updater.updateReferences(entry.getValue(), related.get(updater));
+			checkCanceled();
+		}
+		Map<RelatedXtextResourceUpdater, TextDocumentChange> changes = invokeAll(related.keySet(),
+				updater -> updater.createTextDocumentChange(contexts.get(updater)));
+		for (ResourceUpdater updater : updaters) {
+			List<IEmfResourceChange> result = results.get(updater);
+			if (result != null) {
+				for (IEmfResourceChange change : result) {
+					changeAcceptor.accept(change);
+				}
+			}
+			TextDocumentChange change = changes.get(updater);
+			if (change != null) {
+				changeAcceptor.accept(change);
+			}
+			getProgressMonitor().worked(1);
+			checkCanceled();
+		}
+	}
+
+	/**
+	 * Runs the given task for each of the given updaters on the {@link #getExecutorService() executor} and waits until
+	 * all of them are done. Returns the results in the order of the updaters.
+	 */
+	protected <T> Map<RelatedXtextResourceUpdater, T> invokeAll(Collection<RelatedXtextResourceUpdater> updaters,
+			Function<RelatedXtextResourceUpdater, T> task) {
+		Map<RelatedXtextResourceUpdater, Future<T>> futures = Maps.newLinkedHashMap();
+		try {
+			for (RelatedXtextResourceUpdater updater : updaters) {
+				futures.put(updater, getExecutorService().submit(() -> task.apply(updater)));
+			}
+			Map<RelatedXtextResourceUpdater, T> result = Maps.newLinkedHashMap();
+			for (Map.Entry<RelatedXtextResourceUpdater, Future<T>> entry : futures.entrySet()) {
+				result.put(entry.getKey(), getResult(entry.getValue()));
+				checkCanceled();
+			}
+			return result;
+		} finally {
+			for (Future<T> future : futures.values()) {
+				future.cancel(false);
+			}
+		}
+	}
+
+	/**
+	 * The executor that computes the changes of the related resources. Uses the common {@link ForkJoinPool} unless an
+	 * {@link ExecutorService} is bound.
+	 */
+	protected ExecutorService getExecutorService() {
+		if (executorService == null) {
+			return ForkJoinPool.commonPool();
+		}
+		return executorService;
+	}
+
+	public void setExecutorService(ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
+	private <T> T getResult(Future<T> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return Exceptions.throwUncheckedException(e);
+		} catch (ExecutionException e) {
+			return Exceptions.throwUncheckedException(e.getCause());
+		}
+	}
+
+}
@@ -7,12 +7,16 @@
  *******************************************************************************/
 package org.eclipse.xtext.ide.serializer.impl;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
+import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.change.ChangeDescription;
 import org.eclipse.emf.ecore.change.util.ChangeRecorder;
 import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.xtext.formatting2.regionaccess.IEObjectRegion;
+import org.eclipse.xtext.formatting2.regionaccess.ISemanticRegion;
 import org.eclipse.xtext.formatting2.regionaccess.ITextRegionAccess;
 import org.eclipse.xtext.formatting2.regionaccess.ITextRegionAccessDiff;
 import org.eclipse.xtext.formatting2.regionaccess.ITextRegionDiffBuilder;
@@ -20,14 +24,20 @@ import org.eclipse.xtext.formatting2.regionaccess.ITextReplacement;
 import org.eclipse.xtext.formatting2.regionaccess.TextRegionAccessBuilder;
 import org.eclipse.xtext.formatting2.regionaccess.internal.StringBasedTextRegionAccessDiffBuilder;
 import org.eclipse.xtext.ide.serializer.IEmfResourceChange;
+import org.eclipse.xtext.ide.serializer.hooks.IReferenceSnapshot;
 import org.eclipse.xtext.ide.serializer.hooks.IReferenceUpdater;
 import org.eclipse.xtext.ide.serializer.hooks.IUpdatableReference;
 import org.eclipse.xtext.ide.serializer.impl.ChangeTreeProvider.ResourceRecording;
 import org.eclipse.xtext.ide.serializer.impl.ChangeTreeProvider.ResourceSetRecording;
 import org.eclipse.xtext.ide.serializer.impl.EObjectDescriptionDeltaProvider.Deltas;
+import org.eclipse.xtext.nodemodel.ICompositeNode;
+import org.eclipse.xtext.nodemodel.util.NodeModelUtils;
 import org.eclipse.xtext.resource.XtextResource;
 import org.eclipse.xtext.util.IAcceptor;
+import org.eclipse.xtext.util.ITextRegion;
+import org.eclipse.xtext.util.TextRegion;
 
+import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 
@@ -56,14 +66,103 @@ public class RelatedXtextResourceUpdater extends RelatedResourceUpdater {
 
 	@Override
 	public void applyChange(Deltas deltas, IAcceptor<IEmfResourceChange> changeAcceptor) {
-		XtextResource res = (XtextResource) lifecycleManager.openAndApplyReferences(getResourceSet(), getResource());
-		if (!referenceUpdater.isAffected(deltas, getResource())) {
+		XtextResource res = loadIfAffected(deltas);
+		if (res == null) {
 			return;
 		}
+		ReferenceUpdaterContext context = computeReferenceUpdates(deltas, res);
+		applyReferenceUpdates(context, res, changeAcceptor);
+	}
+
+	/**
+	 * Loads the related resource and applies the recorded references to it, unless the deltas do not affect it.
+	 * 
+	 * @return the loaded resource or <code>null</code> if it is not affected.
+	 * @since 2.18
+	 */
+	public XtextResource loadIfAffected(Deltas deltas) {
+		if (!referenceUpdater.isAffected(deltas, getResource())) {
+			return null;
+		}
+		return (XtextResource) lifecycleManager.openAndApplyReferences(getResourceSet(), getResource());
+	}
+
+	/**
+	 * Asks the {@link IReferenceUpdater} which references of the loaded resource have to be updated. Does not modify
+	 * the model.
+	 * 
+	 * @since 2.18
+	 */
+	public ReferenceUpdaterContext computeReferenceUpdates(Deltas deltas, XtextResource res) {
+		Collection<ITextRegion> regions = getReferencingRegions(res);
+		ReferenceUpdaterContext context = createReferenceUpdaterContext(deltas, res, regions);
+		if (!regions.isEmpty() && !context.getModifications().isEmpty()) {
+			// modifications of the model may need to serialize any part of the document
+			return transferToDocument(context, deltas, res);
+		}
+		return context;
+	}
+
+	/**
+	 * Moves the modifications and the updatable references of the given context to a new context for the text region
+	 * access of the whole document, so the {@link IReferenceUpdater} does not have to run again. Falls back to a new
+	 * update if the region of a reference can not be found.
+	 * 
+	 * @since 2.18
+	 */
+	protected ReferenceUpdaterContext transferToDocument(ReferenceUpdaterContext context, Deltas deltas,
+			XtextResource res) {
 		ITextRegionAccess base = textRegionBuilderProvider.get().forNodeModel(res).create();
-		ITextRegionDiffBuilder rewriter = new StringBasedTextRegionAccessDiffBuilder(base);
-		ReferenceUpdaterContext context = new ReferenceUpdaterContext(deltas, rewriter, getResource());
-		referenceUpdater.update(context);
+		ReferenceUpdaterContext result = new ReferenceUpdaterContext(deltas,
+				new StringBasedTextRegionAccessDiffBuilder(base), getResource());
+		for (IUpdatableReference ref : context.getUpdatableReferences()) {
+			ISemanticRegion region = findRegion(base, ref.getSourceEObject(), ref.getReferenceRegion());
+			if (region == null) {
+				return createReferenceUpdaterContext(deltas, res, Collections.emptyList());
+			}
+			result.updateReference(new UpdatableReference(ref.getSourceEObject(), ref.getEReference(),
+					ref.getIndexInList(), ref.getTargetEObject(), ref.getCrossReference(), region));
+		}
+		for (Runnable modification : context.getModifications()) {
+			result.modifyModel(modification);
+		}
+		return result;
+	}
+
+	private ISemanticRegion findRegion(ITextRegionAccess access, EObject owner, ISemanticRegion region) {
+		IEObjectRegion ownerRegion = access.regionForEObject(owner);
+		if (ownerRegion == null) {
+			return null;
+		}
+		for (ISemanticRegion candidate : ownerRegion.getSemanticRegions()) {
+			if (candidate.getOffset() == region.getOffset() && candidate.getLength() == region.getLength()) {
+				return candidate;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Applies the {@link ReferenceUpdaterContext#getModifications() model modifications} and the reference updates of
+	 * the given context and passes the resulting text change to the acceptor.
+	 * 
+	 * @since 2.18
+	 */
+	public void applyReferenceUpdates(ReferenceUpdaterContext context, XtextResource res,
+			IAcceptor<IEmfResourceChange> changeAcceptor) {
+		updateReferences(context, res);
+		changeAcceptor.accept(createTextDocumentChange(context));
+	}
+
+	/**
+	 * Applies the {@link ReferenceUpdaterContext#getModifications() model modifications} of the given context and
+	 * rewrites its updatable references in the context's document. This is the step that modifies the model and
+	 * consults the scope provider.
+	 * 
+	 * @since 2.18
+	 */
+	public void updateReferences(ReferenceUpdaterContext context, XtextResource res) {
+		ITextRegionDiffBuilder rewriter = context.getModifyableDocument();
 		if (!context.getModifications().isEmpty()) {
 			ChangeRecorder rec = createChangeRecorder(res);
 			try {
@@ -84,10 +183,52 @@ public class RelatedXtextResourceUpdater extends RelatedResourceUpdater {
 		for (IUpdatableReference upd : context.getUpdatableReferences()) {
 			referenceUpdater.updateReference(rewriter, upd);
 		}
-		ITextRegionAccessDiff rewritten = rewriter.create();
+	}
+
+	/**
+	 * Formats the rewritten document of the given context and returns the text change. Does not modify the model.
+	 * 
+	 * @since 2.18
+	 */
+	public TextDocumentChange createTextDocumentChange(ReferenceUpdaterContext context) {
+		ITextRegionAccessDiff rewritten = context.getModifyableDocument().create();
 		List<ITextReplacement> rep = formatter.format(rewritten);
-		TextDocumentChange change = new TextDocumentChange(rewritten, getResource().getUri(), rep);
-		changeAcceptor.accept(change);
+		return new TextDocumentChange(rewritten, getResource().getUri(), rep);
+	}
+
+	/**
+	 * Creates the context for the {@link IReferenceUpdater}. The text region access of the document is only broken
+	 * down into regions for the tokens of objects that intersect with the given regions. An empty collection requests
+	 * the regions of the whole document.
+	 * 
+	 * @since 2.18
+	 */
+	protected ReferenceUpdaterContext createReferenceUpdaterContext(Deltas deltas, XtextResource res,
+			Collection<ITextRegion> regions) {
+		ITextRegionAccess base = textRegionBuilderProvider.get().forNodeModel(res, regions).create();
+		ITextRegionDiffBuilder rewriter = new StringBasedTextRegionAccessDiffBuilder(base);
+		ReferenceUpdaterContext context = new ReferenceUpdaterContext(deltas, rewriter, getResource());
+		referenceUpdater.update(context);
+		return context;
+	}
+
+	/**
+	 * The text regions of the objects that hold the outgoing references of the related resource. Returns an empty
+	 * collection if one of them can not be found.
+	 * 
+	 * @since 2.18
+	 */
+	protected Collection<ITextRegion> getReferencingRegions(XtextResource res) {
+		List<ITextRegion> result = Lists.newArrayList();
+		for (IReferenceSnapshot ref : getResource().outgoingReferences) {
+			EObject source = res.getEObject(ref.getSourceEObjectUri().fragment());
+			ICompositeNode node = source == null ? null : NodeModelUtils.findActualNodeFor(source);
+			if (node == null) {
+				return Collections.emptyList();
+			}
+			result.add(new TextRegion(node.getOffset(), node.getLength()));
+		}
+		return result;
 	}
 
 	protected ChangeRecorder createChangeRecorder(XtextResource res) {
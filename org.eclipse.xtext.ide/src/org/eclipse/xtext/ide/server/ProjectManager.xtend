@@ -19,6 +19,8 @@ import org.eclipse.xtext.build.IncrementalBuilder
 import org.eclipse.xtext.build.IncrementalBuilder.Result
 import org.eclipse.xtext.build.IndexState
 import org.eclipse.xtext.diagnostics.Severity
+import org.eclipse.xtext.generator.AsynchronousFileWriter
+import org.eclipse.xtext.ide.ExecutorServiceProvider
 import org.eclipse.xtext.resource.IExternalContentSupport
 import org.eclipse.xtext.resource.IExternalContentSupport.IExternalContentProvider
 import org.eclipse.xtext.resource.IResourceServiceProvider
@@ -44,6 +46,10 @@ class ProjectManager {
     @Inject protected IResourceServiceProvider.Registry languagesRegistry
     @Inject protected IFileSystemScanner fileSystemScanner
     @Inject protected IExternalContentSupport externalContentSupport
+    /**
+     * @since 2.18
+     */
+    @Inject protected ExecutorServiceProvider executorServiceProvider
     
     @Accessors(PUBLIC_GETTER)
     IndexState indexState = new IndexState
@@ -103,9 +109,23 @@ class ProjectManager {
                 return true
             ]
             it.cancelIndicator = cancelIndicator
+            if (this.isWriteFilesAsynchronously) {
+                it.writeFilesAsynchronously = true
+                it.fileWriteExecutor = executorServiceProvider.get(AsynchronousFileWriter.name)
+            }
         ]
     }
 
+    /**
+     * Whether the builds of this project write the generated files on background threads. Writes are synchronous by
+     * default. Subclasses may return <code>true</code> to write the files asynchronously.
+     * 
+     * @since 2.18
+     */
+    protected def boolean isWriteFilesAsynchronously() {
+        return false
+    }
+
 	def XtextResourceSet createNewResourceSet(ResourceDescriptionsData newIndex) {
 		resourceSetProvider.get => [
             projectDescription.attachToEmfObject(it)
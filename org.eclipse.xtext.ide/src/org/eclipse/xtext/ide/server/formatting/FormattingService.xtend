@@ -16,6 +16,7 @@ import org.eclipse.lsp4j.Range
 import org.eclipse.lsp4j.TextEdit
 import org.eclipse.xtext.formatting2.FormatterRequest
 import org.eclipse.xtext.formatting2.IFormatter2
+import org.eclipse.xtext.formatting2.regionaccess.ITextRegionAccess
 import org.eclipse.xtext.formatting2.regionaccess.TextRegionAccessBuilder
 import org.eclipse.xtext.ide.server.Document
 import org.eclipse.xtext.preferences.ITypedPreferenceValues
@@ -127,12 +128,39 @@ class FormattingService {
 		if (preferences !== null) {
 			request.preferences = preferences
 		}
-		val regionAccess = regionBuilder.forNodeModel(resource).create()
+		val regionAccess = createTextRegionAccess(resource, selection)
 		request.textRegionAccess = regionAccess
 		val formatter2 = formatter2Provider.get();
 		val replacements = formatter2.format(request)
 		return replacements
 	}
+
+	/**
+	 * Creates the region access for the formatter. It covers the complete node model of the resource. Languages whose
+	 * formatters only inspect the formatted range may override this method and return the
+	 * {@link #createCollapsedTextRegionAccess(XtextResource, ITextRegion) collapsed region access} instead.
+	 * 
+	 * @since 2.18
+	 */
+	protected def ITextRegionAccess createTextRegionAccess(XtextResource resource, ITextRegion selection) {
+		return regionBuilder.forNodeModel(resource).create()
+	}
+
+	/**
+	 * Creates a region access in which objects that are outside of the selection are not broken down into regions for
+	 * their tokens and nested objects. If the complete document is formatted, the region access covers the complete
+	 * node model.
+	 * 
+	 * @since 2.18
+	 */
+	protected def ITextRegionAccess createCollapsedTextRegionAccess(XtextResource resource, ITextRegion selection) {
+		val rootNode = resource.parseResult?.rootNode
+		if (selection === null || rootNode === null
+				|| selection.offset <= 0 && selection.length >= rootNode.totalLength) {
+			return regionBuilder.forNodeModel(resource).create()
+		}
+		return regionBuilder.forNodeModel(resource, #[selection]).create()
+	}
 	
 	private static class OverrideChecker {
 		static val Map<Class<?>, Boolean> CLASSES_WITH_OVERRIDES = new ConcurrentHashMap<Class<?>, Boolean>()
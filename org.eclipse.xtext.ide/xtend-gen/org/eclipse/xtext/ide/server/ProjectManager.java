@@ -24,6 +24,8 @@ import org.eclipse.xtext.build.IncrementalBuilder;
 import org.eclipse.xtext.build.IndexState;
 import org.eclipse.xtext.build.Source2GeneratedMapping;
 import org.eclipse.xtext.diagnostics.Severity;
+import org.eclipse.xtext.generator.AsynchronousFileWriter;
+import org.eclipse.xtext.ide.ExecutorServiceProvider;
 import org.eclipse.xtext.resource.IExternalContentSupport;
 import org.eclipse.xtext.resource.IResourceDescription;
 import org.eclipse.xtext.resource.IResourceServiceProvider;
@@ -66,6 +68,12 @@ public class ProjectManager {
   @Inject
   protected IExternalContentSupport externalContentSupport;
   
+  /**
+   * @since 2.18
+   */
+  @Inject
+  protected ExecutorServiceProvider executorServiceProvider;
+  
   @Accessors(AccessorType.PUBLIC_GETTER)
   private IndexState indexState = new IndexState();
   
@@ -137,10 +145,25 @@ public class ProjectManager {
       };
       it.setAfterValidate(_function_1);
       it.setCancelIndicator(cancelIndicator);
+      boolean _isWriteFilesAsynchronously = this.isWriteFilesAsynchronously();
+      if (_isWriteFilesAsynchronously) {
+        it.setWriteFilesAsynchronously(true);
+        it.setFileWriteExecutor(this.executorServiceProvider.get(AsynchronousFileWriter.class.getName()));
+      }
     };
     return ObjectExtensions.<BuildRequest>operator_doubleArrow(_buildRequest, _function);
   }
   
+  /**
+   * Whether the builds of this project write the generated files on background threads. Writes are synchronous by
+   * default. Subclasses may return <code>true</code> to write the files asynchronously.
+   * 
+   * @since 2.18
+   */
+  protected boolean isWriteFilesAsynchronously() {
+    return false;
+  }
+  
   public XtextResourceSet createNewResourceSet(final ResourceDescriptionsData newIndex) {
     XtextResourceSet _get = this.resourceSetProvider.get();
     final Procedure1<XtextResourceSet> _function = (XtextResourceSet it) -> {
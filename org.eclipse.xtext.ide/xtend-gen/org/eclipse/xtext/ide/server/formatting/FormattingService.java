@@ -26,6 +26,8 @@ import org.eclipse.xtext.formatting2.regionaccess.ITextRegionAccess;
 import org.eclipse.xtext.formatting2.regionaccess.ITextReplacement;
 import org.eclipse.xtext.formatting2.regionaccess.TextRegionAccessBuilder;
 import org.eclipse.xtext.ide.server.Document;
+import org.eclipse.xtext.nodemodel.ICompositeNode;
+import org.eclipse.xtext.parser.IParseResult;
 import org.eclipse.xtext.preferences.ITypedPreferenceValues;
 import org.eclipse.xtext.preferences.MapBasedPreferenceValues;
 import org.eclipse.xtext.resource.XtextResource;
@@ -178,10 +180,41 @@ public class FormattingService {
     if ((preferences != null)) {
       request.setPreferences(preferences);
     }
-    final ITextRegionAccess regionAccess = this.regionBuilder.forNodeModel(resource).create();
+    final ITextRegionAccess regionAccess = this.createTextRegionAccess(resource, selection);
     request.setTextRegionAccess(regionAccess);
     final IFormatter2 formatter2 = this.formatter2Provider.get();
     final List<ITextReplacement> replacements = formatter2.format(request);
     return replacements;
   }
+  
+  /**
+   * Creates the region access for the formatter. It covers the complete node model of the resource. Languages whose
+   * formatters only inspect the formatted range may override this method and return the
+   * {@link #createCollapsedTextRegionAccess(XtextResource, ITextRegion) collapsed region access} instead.
+   * 
+   * @since 2.18
+   */
+  protected ITextRegionAccess createTextRegionAccess(final XtextResource resource, final ITextRegion selection) {
+    return this.regionBuilder.forNodeModel(resource).create();
+  }
+  
+  /**
+   * Creates a region access in which objects that are outside of the selection are not broken down into regions for
+   * their tokens and nested objects. If the complete document is formatted, the region access covers the complete
+   * node model.
+   * 
+   * @since 2.18
+   */
+  protected ITextRegionAccess createCollapsedTextRegionAccess(final XtextResource resource, final ITextRegion selection) {
+    IParseResult _parseResult = resource.getParseResult();
+    ICompositeNode _rootNode = null;
+    if (_parseResult!=null) {
+      _rootNode=_parseResult.getRootNode();
+    }
+    final ICompositeNode rootNode = _rootNode;
+    if ((((selection == null) || (rootNode == null)) || ((selection.getOffset() <= 0) && (selection.getLength() >= rootNode.getTotalLength())))) {
+      return this.regionBuilder.forNodeModel(resource).create();
+    }
+    return this.regionBuilder.forNodeModel(resource, Collections.<ITextRegion>unmodifiableList(CollectionLiterals.<ITextRegion>newArrayList(selection))).create();
+  }
 }
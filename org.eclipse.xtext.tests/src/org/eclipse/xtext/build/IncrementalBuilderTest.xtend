@@ -132,6 +132,31 @@ class IncrementalBuilderTest extends AbstractIncrementalBuilderTest {
 		assertTrue(generated.values.containsSuffix('src-gen/A.txt'))
 	}
 	
+	@Test def void testParallelGeneration() {
+		val buildRequest = newBuildRequest [
+			generateInParallel = true
+			dirtyFiles = #[
+				'src/A.indextestlanguage' - '''
+					foo {
+						entity A {foo.B reference}
+					}
+				''',
+				'src/B.indextestlanguage' - '''
+					foo {
+						entity B {foo.A reference}
+					}
+				'''
+			]
+		]
+		val state = build(buildRequest)
+		assertTrue(issues.toString, issues.isEmpty)
+		assertEquals(2, generated.size)
+		assertTrue(generated.values.containsSuffix('src-gen/B.txt'))
+		assertTrue(generated.values.containsSuffix('src-gen/A.txt'))
+		assertEquals(1, state.fileMappings.getGenerated(uri('src/A.indextestlanguage')).size)
+		assertEquals(1, state.fileMappings.getGenerated(uri('src/B.indextestlanguage')).size)
+	}
+	
 	@Test(expected = OperationCanceledException)
 	def void testCancellation() {
 		val cancelOnFirstModel = new CancelOnFirstModel
@@ -172,6 +197,36 @@ class IncrementalBuilderTest extends AbstractIncrementalBuilderTest {
 		assertEquals(1, result.resourceDescriptions.allResourceDescriptions.size)
 	}
 	
+	@Test
+	def void testUnchangedFilesAreNotReportedAsGenerated() {
+		val contents = '''
+			foo {
+				entity A {}
+			}
+		'''
+		build(newBuildRequest [
+			skipUnchangedFiles = true
+			dirtyFiles = #[
+				'src/MyFile.indextestlanguage' - contents
+			]
+		])
+		assertEquals(1, generated.size)
+		val unchanged = <URI>newArrayList
+		val state = build(newBuildRequest [
+			skipUnchangedFiles = true
+			dirtyFiles = #[
+				'src/MyFile.indextestlanguage' - contents
+			]
+			afterUnchangedFile = [ source, target |
+				unchanged += target
+			]
+		])
+		assertTrue(generated.toString, generated.isEmpty)
+		assertEquals(1, unchanged.size)
+		assertTrue(unchanged.containsSuffix('src-gen/A.txt'))
+		assertEquals(unchanged, state.fileMappings.getGenerated(uri('src/MyFile.indextestlanguage')))
+	}
+	
 	private static class CancelOnFirstModel implements IPostValidationCallback, CancelIndicator {
 		
 		boolean canceled
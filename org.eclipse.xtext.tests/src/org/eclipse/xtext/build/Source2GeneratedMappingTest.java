@@ -0,0 +1,248 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.build;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.xtext.generator.IFileSystemAccess;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+
+public class Source2GeneratedMappingTest extends Assert {
+
+	private final URI source = URI.createURI("src/a.mydsl");
+
+	private final URI generated = URI.createURI("src-gen/a.txt");
+
+	private final URI other = URI.createURI("src-gen/b.txt");
+
+	@Test
+	public void testCopyIsIndependent() {
+		Source2GeneratedMapping original = new Source2GeneratedMapping();
+		original.addSource2Generated(source, generated);
+		original.setContentHash(generated, "hash");
+		Source2GeneratedMapping copy = original.copy();
+		copy.addSource2Generated(source, other, "other");
+		copy.setContentHash(generated, "changed");
+		assertEquals(Arrays.asList(generated), original.getGenerated(source));
+		assertNull(original.getOutputConfigName(other));
+		assertEquals("hash", original.getContentHash(generated));
+
+		Source2GeneratedMapping secondCopy = copy.copy();
+		copy.deleteGenerated(generated);
+		assertEquals(Arrays.asList(other), copy.getGenerated(source));
+		assertEquals(2, secondCopy.getGenerated(source).size());
+		assertEquals("changed", secondCopy.getContentHash(generated));
+		secondCopy.deleteSource(source);
+		assertEquals(Collections.emptyList(), secondCopy.getAllGenerated());
+		assertEquals(Arrays.asList(other), copy.getAllGenerated());
+	}
+
+	@Test
+	public void testRecordedChangesAreApplied() {
+		URI otherSource = URI.createURI("src/b.mydsl");
+		Source2GeneratedMapping mappings = new Source2GeneratedMapping();
+		mappings.addSource2Generated(source, generated, "first");
+		mappings.setContentHash(generated, "hash");
+		Source2GeneratedMapping first = mappings.recordingCopy();
+		Source2GeneratedMapping second = mappings.recordingCopy();
+
+		assertEquals(Collections.singleton(generated), first.deleteSource(source));
+		first.addSource2Generated(source, other, "second");
+		first.setContentHash(other, "first");
+		first.deleteGenerated(generated);
+		second.addSource2Generated(otherSource, other);
+		second.setContentHash(other, "second");
+		assertEquals(Arrays.asList(other), first.getAllGenerated());
+		assertEquals(Arrays.asList(otherSource), second.getSource(other));
+
+		// the mappings are not modified until the changes are applied
+		assertEquals(Arrays.asList(generated), mappings.getGenerated(source));
+		assertEquals("hash", mappings.getContentHash(generated));
+		assertNull(mappings.getOutputConfigName(other));
+
+		first.applyRecordedChanges(mappings);
+		second.applyRecordedChanges(mappings);
+		assertEquals(Arrays.asList(other), mappings.getGenerated(source));
+		assertEquals(new HashSet<>(Arrays.asList(source, otherSource)), new HashSet<>(mappings.getSource(other)));
+		assertEquals(Arrays.asList(other), mappings.getAllGenerated());
+		assertEquals(IFileSystemAccess.DEFAULT_OUTPUT, mappings.getOutputConfigName(other));
+		assertEquals("second", mappings.getContentHash(other));
+		assertNull(mappings.getContentHash(generated));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testCopyDoesNotRecordChanges() {
+		Source2GeneratedMapping copy = new Source2GeneratedMapping().recordingCopy().copy();
+		copy.addSource2Generated(source, generated);
+		copy.applyRecordedChanges(new Source2GeneratedMapping());
+	}
+
+	@Test
+	public void testCopiesOfChangedCopiesAreConsistent() throws Exception {
+		Random random = new Random(42);
+		Source2GeneratedMapping mapping = new Source2GeneratedMapping();
+		Multimap<URI, URI> expected = HashMultimap.create();
+		Map<URI, String> expectedHashes = new HashMap<>();
+		for (int build = 0; build < 50; build++) {
+			Source2GeneratedMapping previous = mapping;
+			List<URI> previousAllGenerated = previous.getAllGenerated();
+			mapping = mapping.copy();
+			for (int i = 0; i < random.nextInt(20); i++) {
+				URI src = URI.createURI("src/" + random.nextInt(30) + ".mydsl");
+				URI gen = URI.createURI("src-gen/" + random.nextInt(60) + ".txt");
+				switch (random.nextInt(4)) {
+					case 0:
+						mapping.addSource2Generated(src, gen);
+						mapping.setContentHash(gen, "hash" + build);
+						expected.put(src, gen);
+						expectedHashes.put(gen, "hash" + build);
+						break;
+					case 1:
+						assertEquals(expected.removeAll(src), mapping.deleteSource(src));
+						break;
+					case 2:
+						mapping.deleteGenerated(gen);
+						expected.values().removeAll(Collections.singleton(gen));
+						expectedHashes.remove(gen);
+						break;
+					default:
+						mapping.removeSource2Generated(src, gen);
+						expected.remove(src, gen);
+				}
+			}
+			assertEquals(previousAllGenerated.size(), previous.getAllGenerated().size());
+			for (URI src : expected.keySet()) {
+				assertEquals(expected.get(src), new HashSet<>(mapping.getGenerated(src)));
+			}
+			assertEquals(new HashSet<>(expected.values()), new HashSet<>(mapping.getAllGenerated()));
+			for (URI gen : mapping.getAllGenerated()) {
+				assertEquals(expectedHashes.get(gen), mapping.getContentHash(gen));
+			}
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		mapping.writeExternal(out);
+		out.close();
+		Source2GeneratedMapping restored = read(bytes.toByteArray());
+		assertEquals(new HashSet<>(mapping.getAllGenerated()), new HashSet<>(restored.getAllGenerated()));
+		for (URI src : expected.keySet()) {
+			assertEquals(expected.get(src), new HashSet<>(restored.getGenerated(src)));
+		}
+	}
+
+	@Test
+	public void testExternalizedMappingIsRestored() throws Exception {
+		Source2GeneratedMapping mapping = new Source2GeneratedMapping();
+		mapping.addSource2Generated(source, generated);
+		mapping.addSource2Generated(source, other, new String("other"));
+		mapping.addSource2Generated(URI.createURI("src/b.mydsl"), other, "other");
+		mapping.setContentHash(generated, "hash");
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		mapping.writeExternal(out);
+		out.close();
+		Source2GeneratedMapping restored = read(bytes.toByteArray());
+
+		assertEquals(2, restored.getGenerated(source).size());
+		assertTrue(restored.getGenerated(source).containsAll(Arrays.asList(generated, other)));
+		assertEquals(2, restored.getSource(other).size());
+		assertEquals(IFileSystemAccess.DEFAULT_OUTPUT, restored.getOutputConfigName(generated));
+		assertSame(mapping.getOutputConfigName(other), restored.getOutputConfigName(other));
+		assertEquals("hash", restored.getContentHash(generated));
+		assertNull(restored.getContentHash(other));
+	}
+
+	@Test
+	public void testFormatBefore2_18IsRead() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeInt(1);
+		out.writeUTF(source.toString());
+		out.writeInt(1);
+		out.writeUTF(generated.toString());
+		out.writeUTF("other");
+		out.close();
+		Source2GeneratedMapping restored = read(bytes.toByteArray());
+
+		assertEquals(Arrays.asList(generated), restored.getGenerated(source));
+		assertEquals("other", restored.getOutputConfigName(generated));
+		assertNull(restored.getContentHash(generated));
+	}
+
+	@Test
+	public void testFormatWithContentHashesIsRead() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeInt(-1);
+		out.writeInt(1);
+		out.writeUTF(source.toString());
+		out.writeInt(1);
+		out.writeUTF(generated.toString());
+		out.writeUTF("other");
+		out.writeInt(1);
+		out.writeUTF(generated.toString());
+		out.writeUTF("hash");
+		out.close();
+		Source2GeneratedMapping restored = read(bytes.toByteArray());
+
+		assertEquals(Arrays.asList(generated), restored.getGenerated(source));
+		assertEquals("other", restored.getOutputConfigName(generated));
+		assertEquals("hash", restored.getContentHash(generated));
+	}
+
+	@Test
+	public void testMappingEmbeddedInStreamIsRestored() throws Exception {
+		Source2GeneratedMapping mapping = new Source2GeneratedMapping();
+		mapping.addSource2Generated(source, generated, "other");
+		mapping.setContentHash(generated, "hash");
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		mapping.writeExternal(out);
+		out.writeUTF("trailing data");
+		out.close();
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		Source2GeneratedMapping restored = new Source2GeneratedMapping();
+		restored.readExternal(in);
+
+		assertEquals(Arrays.asList(generated), restored.getGenerated(source));
+		assertEquals("other", restored.getOutputConfigName(generated));
+		assertEquals("hash", restored.getContentHash(generated));
+		assertEquals("trailing data", in.readUTF());
+		in.close();
+	}
+
+	private Source2GeneratedMapping read(byte[] bytes) throws IOException, ClassNotFoundException {
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes));
+		try {
+			Source2GeneratedMapping result = new Source2GeneratedMapping();
+			result.readExternal(in);
+			return result;
+		} finally {
+			in.close();
+		}
+	}
+
+}
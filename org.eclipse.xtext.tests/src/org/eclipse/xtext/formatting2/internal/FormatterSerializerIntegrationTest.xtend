@@ -21,6 +21,7 @@ import org.eclipse.xtext.formatting2.internal.formattertestlanguage.Formattertes
 import org.eclipse.xtext.formatting2.internal.formattertestlanguage.IDList
 import org.eclipse.xtext.formatting2.internal.tests.FormatterTestLanguageInjectorProvider
 import org.eclipse.xtext.resource.IResourceFactory
+import org.eclipse.xtext.resource.SaveOptions
 import org.eclipse.xtext.testing.InjectWith
 import org.eclipse.xtext.testing.XtextRunner
 import org.junit.Assert
@@ -69,5 +70,16 @@ class FormatterSerializerIntegrationTest {
 		resource.save(new BufferedOutputStream(out), Collections.emptyMap)
 		Assert.assertEquals('idlist  foo', out.toString)
 	}
+
+	@Test def void testStreamingBypassesFormatter() {
+		val resource = factory.createResource(URI.createURI("dummy.ext"))
+		new ResourceSetImpl().resources.add(resource)
+		val model = FormattertestlanguageFactory.eINSTANCE.createIDList
+		model.ids += "foo"
+		resource.contents += model
+		val out = new ByteArrayOutputStream
+		resource.save(new BufferedOutputStream(out), SaveOptions.newBuilder.stream.options.toOptionsMap)
+		Assert.assertEquals('idlist foo', out.toString)
+	}
 }
 
@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.formatting2.internal;
+
+import java.util.Map;
+
+import org.eclipse.xtext.formatting2.FormatterPreferenceKeys;
+import org.eclipse.xtext.formatting2.IFormattableDocument;
+import org.eclipse.xtext.formatting2.ITextReplacer;
+import org.eclipse.xtext.formatting2.ITextReplacerContext;
+import org.eclipse.xtext.formatting2.internal.formattertestlanguage.IDList;
+import org.eclipse.xtext.formatting2.internal.services.FormatterTestLanguageGrammarAccess;
+import org.eclipse.xtext.formatting2.internal.tests.FormatterTestLanguageInjectorProvider;
+import org.eclipse.xtext.formatting2.regionaccess.ISemanticRegion;
+import org.eclipse.xtext.formatting2.regionaccess.ITextRegionExtensions;
+import org.eclipse.xtext.formatting2.regionaccess.ITextSegment;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.XtextRunner;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.google.common.collect.Maps;
+import com.google.inject.Inject;
+
+/**
+ * Compares the incrementally tracked line state of {@link TextReplacerContext} with
+ * {@link TextReplacerContext#computeLeadingCharsInLineCount()}, which walks back the chain of contexts.
+ */
+@RunWith(XtextRunner.class)
+@InjectWith(FormatterTestLanguageInjectorProvider.class)
+public class TextReplacerContextTest extends Assert {
+
+	@Inject
+	private GenericFormatterTester tester;
+
+	@Inject
+	private FormatterTestLanguageGrammarAccess grammarAccess;
+
+	@Test
+	public void testLineStateAfterAutowrap() {
+		final Map<String, Integer> columns = Maps.newHashMap();
+		tester.assertFormatted(request -> {
+			request.preferences(preferences -> preferences.put(FormatterPreferenceKeys.maxLineWidth, 10));
+			request.setToBeFormatted("idlist  aaa  bbb  ccc  ddd  eee  fff\n");
+			request.setFormatter(new GenericFormatter<IDList>() {
+				@Override
+				protected void format(IDList model, ITextRegionExtensions regions, IFormattableDocument document) {
+					for (ISemanticRegion id : regions.regionFor(model).ruleCallsTo(grammarAccess.getIDRule())) {
+						document.prepend(id, it -> {
+							it.autowrap();
+							it.oneSpace();
+						});
+						document.addReplacer(new LineStateChecker(id, columns, null));
+					}
+				}
+			});
+			request.setExpectation("idlist aaa\nbbb ccc\nddd eee fff\n");
+		});
+		assertColumns(columns, "aaa", 7, "bbb", 0, "ccc", 4, "ddd", 0, "eee", 4, "fff", 8);
+	}
+
+	@Test
+	public void testLineStateAfterReplacementWithLineBreak() {
+		final Map<String, Integer> columns = Maps.newHashMap();
+		tester.assertFormatted(request -> {
+			request.setToBeFormatted("idlist  aaa  bbb  ccc  ddd  eee  fff\n");
+			request.setFormatter(new GenericFormatter<IDList>() {
+				@Override
+				protected void format(IDList model, ITextRegionExtensions regions, IFormattableDocument document) {
+					for (ISemanticRegion id : regions.regionFor(model).ruleCallsTo(grammarAccess.getIDRule())) {
+						document.prepend(id, it -> it.oneSpace());
+						String replacement = id.getText().equals("bbb") ? "b\nbb" : null;
+						document.addReplacer(new LineStateChecker(id, columns, replacement));
+					}
+				}
+			});
+			request.setExpectation("idlist aaa b\nbb ccc ddd eee fff\n");
+		});
+		assertColumns(columns, "aaa", 7, "bbb", 11, "ccc", 3, "ddd", 7, "eee", 11, "fff", 15);
+	}
+
+	@Test
+	public void testLineStateAfterAutowrapAndReplacementWithLineBreak() {
+		final Map<String, Integer> columns = Maps.newHashMap();
+		tester.assertFormatted(request -> {
+			request.preferences(preferences -> preferences.put(FormatterPreferenceKeys.maxLineWidth, 10));
+			request.setToBeFormatted("idlist  aaa  bbb  ccc  ddd  eee  fff\n");
+			request.setFormatter(new GenericFormatter<IDList>() {
+				@Override
+				protected void format(IDList model, ITextRegionExtensions regions, IFormattableDocument document) {
+					for (ISemanticRegion id : regions.regionFor(model).ruleCallsTo(grammarAccess.getIDRule())) {
+						document.prepend(id, it -> {
+							it.autowrap();
+							it.oneSpace();
+						});
+						String replacement = id.getText().equals("ccc") ? "c\ncc" : null;
+						document.addReplacer(new LineStateChecker(id, columns, replacement));
+					}
+				}
+			});
+			request.setExpectation("idlist aaa\nbbb c\ncc ddd eee\nfff\n");
+		});
+		assertColumns(columns, "aaa", 7, "bbb", 0, "ccc", 4, "ddd", 3, "eee", 7, "fff", 0);
+	}
+
+	private void assertColumns(Map<String, Integer> columns, Object... expected) {
+		for (int i = 0; i < expected.length; i += 2) {
+			assertEquals(String.valueOf(expected[i]), expected[i + 1], columns.get(expected[i]));
+		}
+	}
+
+	/**
+	 * Asserts that the incremental line state matches the full traversal and records the column of its token. It
+	 * optionally replaces the token.
+	 */
+	private static class LineStateChecker implements ITextReplacer {
+		private final ISemanticRegion region;
+		private final Map<String, Integer> columns;
+		private final String replacement;
+
+		private LineStateChecker(ISemanticRegion region, Map<String, Integer> columns, String replacement) {
+			this.region = region;
+			this.columns = columns;
+			this.replacement = replacement;
+		}
+
+		@Override
+		public ITextSegment getRegion() {
+			return region;
+		}
+
+		@Override
+		public ITextReplacerContext createReplacements(ITextReplacerContext context) {
+			TextReplacerContext textReplacerContext = (TextReplacerContext) context;
+			int column = textReplacerContext.getLeadingCharsInLineCount();
+			assertEquals(region.getText(), textReplacerContext.computeLeadingCharsInLineCount(), column);
+			columns.put(region.getText(), column);
+			if (replacement != null) {
+				context.addReplacement(region.replaceWith(replacement));
+			}
+			return context;
+		}
+	}
+
+}
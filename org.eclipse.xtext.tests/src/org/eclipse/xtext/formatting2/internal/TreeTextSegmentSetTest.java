@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.formatting2.internal;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.xtext.formatting2.FormatterPreferenceKeys;
+import org.eclipse.xtext.formatting2.IFormattableDocument;
+import org.eclipse.xtext.formatting2.ITextReplacer;
+import org.eclipse.xtext.formatting2.internal.formattertestlanguage.KWList;
+import org.eclipse.xtext.formatting2.internal.tests.FormatterTestLanguageInjectorProvider;
+import org.eclipse.xtext.formatting2.regionaccess.ITextRegionExtensions;
+import org.eclipse.xtext.formatting2.regionaccess.ITextSegment;
+import org.eclipse.xtext.formatting2.regionaccess.internal.TextSegment;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.XtextRunner;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.google.common.base.Functions;
+import com.google.common.collect.Lists;
+import com.google.inject.Inject;
+
+@RunWith(XtextRunner.class)
+@InjectWith(FormatterTestLanguageInjectorProvider.class)
+public class TreeTextSegmentSetTest extends Assert {
+
+	@Inject
+	private GenericFormatterTester tester;
+
+	@Test public void testAddValid() {
+		TextSegmentSet<ITextSegment> set = createSet();
+		set.add(new TextSegment(null, 10, 0));
+		set.add(new TextSegment(null, 11, 1));
+		set.add(new TextSegment(null, 99, 1));
+		set.add(new TextSegment(null, 10, 1));
+		set.add(new TextSegment(null, 100, 0));
+		set.add(new TextSegment(null, 12, 1));
+		assertEquals("[10,0] [10,1] [11,1] [12,1] [99,1] [100,0]", toString(set));
+		assertEquals("[100,0] [99,1] [12,1] [11,1] [10,1] [10,0]", toString(set.reverseIterable()));
+	}
+
+	@Test public void testIteratorAfter() {
+		TextSegmentSet<ITextSegment> set = createSet();
+		set.add(new TextSegment(null, 10, 1));
+		set.add(new TextSegment(null, 20, 1));
+		set.add(new TextSegment(null, 30, 1));
+		Iterator<ITextSegment> iterator = set.iteratorAfter(new TextSegment(null, 10, 1));
+		assertEquals(20, iterator.next().getOffset());
+		assertEquals(30, iterator.next().getOffset());
+		assertFalse(iterator.hasNext());
+		assertFalse(set.iteratorAfter(new TextSegment(null, 15, 1)).hasNext());
+	}
+
+	@Test public void testIteratorAfterToleratesChanges() {
+		TextSegmentSet<ITextSegment> set = createSet();
+		set.add(new TextSegment(null, 10, 1));
+		set.add(new TextSegment(null, 20, 1));
+		Iterator<ITextSegment> iterator = set.iteratorAfter(new TextSegment(null, 10, 1));
+		set.add(new TextSegment(null, 15, 1));
+		set.add(new TextSegment(null, 30, 1));
+		assertEquals(15, iterator.next().getOffset());
+		set.add(new TextSegment(null, 25, 1));
+		assertEquals(20, iterator.next().getOffset());
+		assertEquals(25, iterator.next().getOffset());
+		assertEquals(30, iterator.next().getOffset());
+		assertFalse(iterator.hasNext());
+	}
+
+	@Test public void testFailingMergerKeepsExistingEntry() {
+		TextSegmentSet<ITextSegment> arrayList = new ArrayListTextSegmentSet<ITextSegment>(
+				Functions.<ITextSegment>identity(), Functions.toStringFunction(), true);
+		for (TextSegmentSet<ITextSegment> set : Arrays.asList(arrayList, createSet())) {
+			set.add(new TextSegment(null, 10, 1));
+			try {
+				set.add(new TextSegment(null, 10, 1), conflicting -> {
+					throw new IllegalStateException();
+				});
+				fail();
+			} catch (ConflictingRegionsException e) {
+				// expected
+			}
+			assertEquals("[10,1]", toString(set));
+		}
+	}
+
+	@Test public void testAutowrapAddsReplacersWhileIterating() {
+		tester.assertFormatted(request -> {
+			request.preferences(preferences -> preferences.put(FormatterPreferenceKeys.maxLineWidth, 10));
+			request.setToBeFormatted("kwlist  kw1  kw2\n");
+			request.setFormatter(new GenericFormatter<KWList>() {
+				@Override
+				public IFormattableDocument createFormattableRootDocument() {
+					return new RootDocument(this) {
+						@Override
+						protected TextSegmentSet<ITextReplacer> createTextReplacerSet() {
+							return new TreeTextSegmentSet<ITextReplacer>(ITextReplacer.GET_REGION,
+									Functions.toStringFunction(), getRequest().isEnableDebugTracing());
+						}
+					};
+				}
+
+				@Override
+				protected void format(KWList model, ITextRegionExtensions regions, IFormattableDocument document) {
+					document.append(regions.regionFor(model).keyword("kwlist"), it -> {
+						it.autowrap();
+						it.setOnAutowrap((region, wrapped, doc) -> {
+							doc.append(regions.regionFor(model).keyword("kw1"), kw1 -> kw1.setSpace("!"));
+						});
+					});
+					String lineSeparator = System.getProperty("line.separator");
+					document.append(regions.regionFor(model).keyword("kw2"), it -> it.setSpace("@" + lineSeparator));
+				}
+			});
+			request.setExpectation("kwlist\nkw1!kw2@\n");
+		});
+	}
+
+	@Test public void testConflict() {
+		TextSegmentSet<ITextSegment> set = createSet();
+		set.add(new TextSegment(null, 21, 5));
+		try {
+			set.add(new TextSegment(null, 20, 2));
+			fail();
+		} catch (ConflictingRegionsException e) {
+			assertEquals(2, e.getTraces().size());
+		}
+		assertEquals("[21,5]", toString(set));
+	}
+
+	@Test public void testSameResultAsArrayList() {
+		Random random = new Random(42);
+		TextSegmentSet<ITextSegment> expected = new ArrayListTextSegmentSet<ITextSegment>(Functions.<ITextSegment>identity(),
+				Functions.toStringFunction(), true);
+		TextSegmentSet<ITextSegment> actual = createSet();
+		for (int i = 0; i < 2000; i++) {
+			ITextSegment segment = new TextSegment(null, random.nextInt(5000), random.nextInt(4));
+			boolean expectedConflict = add(expected, segment);
+			boolean actualConflict = add(actual, segment);
+			assertEquals(expectedConflict, actualConflict);
+		}
+		assertEquals(toString(expected), toString(actual));
+		assertEquals(toString(expected.reverseIterable()), toString(actual.reverseIterable()));
+	}
+
+	private boolean add(TextSegmentSet<ITextSegment> set, ITextSegment segment) {
+		try {
+			set.add(segment);
+			return false;
+		} catch (ConflictingRegionsException e) {
+			return true;
+		}
+	}
+
+	private TextSegmentSet<ITextSegment> createSet() {
+		return new TreeTextSegmentSet<ITextSegment>(Functions.<ITextSegment>identity(), Functions.toStringFunction(), true);
+	}
+
+	private String toString(Iterable<ITextSegment> segments) {
+		List<String> result = Lists.newArrayList();
+		for (ITextSegment segment : segments) {
+			result.add("[" + segment.getOffset() + "," + segment.getLength() + "]");
+		}
+		return String.join(" ", result);
+	}
+
+}
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.formatting2.regionaccess.internal;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.xtext.formatting2.AbstractFormatter2;
+import org.eclipse.xtext.formatting2.FormatterRequest;
+import org.eclipse.xtext.formatting2.IFormattableDocument;
+import org.eclipse.xtext.formatting2.regionaccess.IEObjectRegion;
+import org.eclipse.xtext.formatting2.regionaccess.ISemanticRegion;
+import org.eclipse.xtext.formatting2.regionaccess.ITextRegionAccess;
+import org.eclipse.xtext.formatting2.regionaccess.ITextReplacement;
+import org.eclipse.xtext.formatting2.regionaccess.TextRegionAccessBuilder;
+import org.eclipse.xtext.formatting2.regionaccess.internal.regionaccesstestlanguage.Named;
+import org.eclipse.xtext.formatting2.regionaccess.internal.regionaccesstestlanguage.Root;
+import org.eclipse.xtext.formatting2.regionaccess.internal.tests.RegionAccessTestLanguageInjectorProvider;
+import org.eclipse.xtext.preferences.MapBasedPreferenceValues;
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.XtextRunner;
+import org.eclipse.xtext.testing.util.ParseHelper;
+import org.eclipse.xtext.util.ExceptionAcceptor;
+import org.eclipse.xtext.util.ITextRegion;
+import org.eclipse.xtext.util.TextRegion;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.inject.Inject;
+
+/**
+ * Formats ranges of a document once with the complete region access and once with a region access that is restricted
+ * to the formatted range and expects the same replacements.
+ */
+@RunWith(XtextRunner.class)
+@InjectWith(RegionAccessTestLanguageInjectorProvider.class)
+public class CollapsedRegionAccessFormattingTest extends Assert {
+
+	@Inject
+	private ParseHelper<Root> parseHelper;
+
+	@Test
+	public void testCollapsedObjectsHaveNoNestedRegions() throws Exception {
+		String text = "5 a + (b + c) + (d + e) + f";
+		XtextResource resource = parse(text);
+		int offset = text.indexOf('f');
+		ITextRegionAccess access = new TextRegionAccessBuilder()
+				.forNodeModel(resource, Collections.<ITextRegion> singletonList(new TextRegion(offset, 1))).create();
+		assertNull(access.regionForEObject(findNamed(resource, "b")));
+		assertNull(access.regionForEObject(findNamed(resource, "d")));
+		assertNotNull(access.regionForEObject(findNamed(resource, "f")));
+		assertEquals(text, access.regionForRootEObject().getText());
+	}
+
+	@Test
+	public void testAllRanges() throws Exception {
+		assertSameReplacementsForAllRanges("5  a  +  ( b  +  c )  +  ( d  +  e )  +  f");
+	}
+
+	@Test
+	public void testAllRangesWithComments() throws Exception {
+		assertSameReplacementsForAllRanges("5 a+/* x */(b+ c)  /* y */\n+(d /* z */+e)+f  ");
+	}
+
+	@Test
+	public void testRangesAtCollapsedBoundaries() throws Exception {
+		String text = "5  a  +  ( b  +  c )  +  f";
+		XtextResource resource = parse(text);
+		int open = text.indexOf('(');
+		int close = text.indexOf(')');
+		// the region ends right before, starts right after, or touches the hidden regions around "( b + c )"
+		assertSameReplacements(resource, open - 1, 1);
+		assertSameReplacements(resource, open, 0);
+		assertSameReplacements(resource, close + 1, 0);
+		assertSameReplacements(resource, close + 1, 2);
+		assertSameReplacements(resource, text.indexOf('a') + 1, 1);
+		assertSameReplacements(resource, text.indexOf('f') - 1, 1);
+	}
+
+	private void assertSameReplacementsForAllRanges(String text) throws Exception {
+		XtextResource resource = parse(text);
+		for (int offset = 0; offset <= text.length(); offset++)
+			for (int length = 0; offset + length <= text.length(); length++)
+				assertSameReplacements(resource, offset, length);
+	}
+
+	private void assertSameReplacements(XtextResource resource, int offset, int length) {
+		Collection<ITextRegion> regions = Collections.<ITextRegion> singletonList(new TextRegion(offset, length));
+		ITextRegionAccess full = new TextRegionAccessBuilder().forNodeModel(resource).create();
+		ITextRegionAccess collapsed = new TextRegionAccessBuilder().forNodeModel(resource, regions).create();
+		String expected = format(full, regions);
+		String actual = format(collapsed, regions);
+		assertEquals("offset " + offset + ", length " + length, expected, actual);
+	}
+
+	private String format(ITextRegionAccess access, Collection<ITextRegion> regions) {
+		FormatterRequest request = new FormatterRequest();
+		request.setTextRegionAccess(access);
+		request.setRegions(regions);
+		request.setPreferences(new MapBasedPreferenceValues(Maps.<String, String> newHashMap()));
+		request.setExceptionHandler(ExceptionAcceptor.THROWING);
+		List<ITextReplacement> replacements = Lists.newArrayList(new SpacingFormatter().format(request));
+		Collections.sort(replacements, (a, b) -> a.getOffset() - b.getOffset());
+		StringBuilder result = new StringBuilder();
+		for (ITextReplacement replacement : replacements) {
+			result.append(replacement.getOffset()).append(":").append(replacement.getLength()).append(":\"")
+					.append(replacement.getReplacementText()).append("\"\n");
+		}
+		return result.toString();
+	}
+
+	private XtextResource parse(String text) throws Exception {
+		Root root = parseHelper.parse(text);
+		assertTrue(root.eResource().getErrors().toString(), root.eResource().getErrors().isEmpty());
+		return (XtextResource) root.eResource();
+	}
+
+	private Named findNamed(XtextResource resource, String name) {
+		return Iterators.getOnlyElement(Iterators.filter(Iterators.filter(resource.getAllContents(), Named.class),
+				n -> name.equals(n.getName())));
+	}
+
+	/**
+	 * Puts one space after every token of the formatted objects.
+	 */
+	private static class SpacingFormatter extends AbstractFormatter2 {
+
+		@Override
+		public void format(Object obj, IFormattableDocument document) {
+			if (obj instanceof XtextResource) {
+				_format((XtextResource) obj, document);
+			} else if (obj instanceof EObject) {
+				IEObjectRegion region = textRegionExtensions.regionForEObject((EObject) obj);
+				if (region != null)
+					for (ISemanticRegion token : region.getSemanticRegions())
+						document.append(token, it -> it.oneSpace());
+				_format((EObject) obj, document);
+			}
+		}
+	}
+
+}
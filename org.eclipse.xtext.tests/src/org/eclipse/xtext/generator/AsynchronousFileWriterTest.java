@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.generator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.emf.ecore.resource.impl.ExtensibleURIConverterImpl;
+import org.eclipse.xtext.util.Files;
+import org.eclipse.xtext.util.RuntimeIOException;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class AsynchronousFileWriterTest extends Assert {
+
+	@Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test public void testFilesAreWrittenOnFlush() throws IOException {
+		File dir = temporaryFolder.newFolder();
+		URIConverter converter = new ExtensibleURIConverterImpl();
+		AsynchronousFileWriter writer = new AsynchronousFileWriter(2, 3, null);
+		try {
+			for (int i = 0; i < 20; i++) {
+				URI uri = URI.createFileURI(new File(dir, "file" + i + ".txt").getAbsolutePath());
+				writer.write(uri, ("content" + i).getBytes("UTF-8"), converter);
+			}
+			writer.flush();
+		} finally {
+			writer.close();
+		}
+		for (int i = 0; i < 20; i++) {
+			assertEquals("content" + i, Files.readFileIntoString(new File(dir, "file" + i + ".txt").getAbsolutePath()));
+		}
+	}
+
+	@Test public void testSharedExecutorIsReused() throws Exception {
+		File dir = temporaryFolder.newFolder();
+		URIConverter converter = new ExtensibleURIConverterImpl();
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			for (int build = 0; build < 3; build++) {
+				AsynchronousFileWriter writer = new AsynchronousFileWriter(executor, 3, null);
+				try {
+					for (int i = 0; i < 10; i++) {
+						URI uri = URI.createFileURI(new File(dir, "file" + i + ".txt").getAbsolutePath());
+						writer.write(uri, ("content" + build + i).getBytes("UTF-8"), converter);
+					}
+					writer.flush();
+				} finally {
+					writer.close();
+				}
+				assertFalse(executor.isShutdown());
+				for (int i = 0; i < 10; i++) {
+					assertEquals("content" + build + i,
+							Files.readFileIntoString(new File(dir, "file" + i + ".txt").getAbsolutePath()));
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test public void testFailureIsRethrown() throws IOException {
+		File dir = temporaryFolder.newFolder();
+		URIConverter converter = new ExtensibleURIConverterImpl() {
+			@Override
+			public OutputStream createOutputStream(URI uri) throws IOException {
+				throw new IOException("expected");
+			}
+		};
+		AsynchronousFileWriter writer = new AsynchronousFileWriter(1, 1, null);
+		try {
+			writer.write(URI.createFileURI(new File(dir, "file.txt").getAbsolutePath()), new byte[0], converter);
+			writer.flush();
+			fail("Expected a RuntimeIOException");
+		} catch (RuntimeIOException e) {
+			assertEquals("expected", e.getCause().getMessage());
+		} finally {
+			writer.close();
+		}
+	}
+
+}
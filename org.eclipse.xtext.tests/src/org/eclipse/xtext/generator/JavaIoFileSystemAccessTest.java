@@ -11,19 +11,25 @@ import static org.eclipse.xtext.util.Strings.*;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 
 import org.eclipse.emf.common.util.URI;
+import org.eclipse.xtext.build.Source2GeneratedMapping;
+import org.eclipse.xtext.generator.JavaIoFileSystemAccess.IFileCallback;
 import org.eclipse.xtext.generator.trace.CharSequenceTraceWrapper;
 import org.eclipse.xtext.generator.trace.SourceRelativeURI;
 import org.eclipse.xtext.generator.trace.TraceFileNameProvider;
 import org.eclipse.xtext.generator.trace.TraceRegionSerializer;
 import org.eclipse.xtext.parser.IEncodingProvider;
 import org.eclipse.xtext.resource.IResourceServiceProvider;
+import org.eclipse.xtext.util.RuntimeIOException;
 import org.eclipse.xtext.util.StringInputStream;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.google.common.collect.Lists;
 import com.google.common.io.ByteStreams;
 
 /**
@@ -157,4 +163,104 @@ public class JavaIoFileSystemAccessTest extends Assert {
 				file.delete();
 		}
 	}
+
+	@Test
+	public void testUnchangedFileIsNotWritten() throws Exception {
+		File file = null;
+		try {
+			JavaIoFileSystemAccess fileSystemAccess = new JavaIoFileSystemAccess(
+					IResourceServiceProvider.Registry.INSTANCE, new IEncodingProvider.Runtime());
+			File tmpDir = configureFileSystemAccess(fileSystemAccess);
+			fileSystemAccess.setContentHashes(new Source2GeneratedMapping());
+			List<File> written = recordWrittenFiles(fileSystemAccess);
+			file = new File(tmpDir, "tmp/Unchanged");
+			fileSystemAccess.generateFile("tmp/Unchanged", "XX");
+			fileSystemAccess.generateFile("tmp/Unchanged", "XX");
+			assertEquals(1, written.size());
+			fileSystemAccess.generateFile("tmp/Unchanged", "YY");
+			assertEquals(2, written.size());
+			assertTrue(file.delete());
+			fileSystemAccess.generateFile("tmp/Unchanged", "YY");
+			assertEquals(3, written.size());
+			assertEquals("YY", fileSystemAccess.readTextFile("tmp/Unchanged"));
+		} finally {
+			if (file != null)
+				file.delete();
+		}
+	}
+
+	@Test
+	public void testExistingContentsAreCompared() throws Exception {
+		File file = null;
+		try {
+			JavaIoFileSystemAccess fileSystemAccess = new JavaIoFileSystemAccess(
+					IResourceServiceProvider.Registry.INSTANCE, new IEncodingProvider.Runtime());
+			File tmpDir = configureFileSystemAccess(fileSystemAccess);
+			fileSystemAccess.setCompareExistingContents(true);
+			List<File> written = recordWrittenFiles(fileSystemAccess);
+			file = new File(tmpDir, "tmp/Compared");
+			fileSystemAccess.generateFile("tmp/Compared", new StringInputStream("XX"));
+			fileSystemAccess.generateFile("tmp/Compared", new StringInputStream("XX"));
+			assertEquals(1, written.size());
+			fileSystemAccess.generateFile("tmp/Compared", new StringInputStream("XXY"));
+			assertEquals(2, written.size());
+			fileSystemAccess.generateFile("tmp/Compared", new StringInputStream("X"));
+			assertEquals(3, written.size());
+			assertEquals("X", fileSystemAccess.readTextFile("tmp/Compared"));
+		} finally {
+			if (file != null)
+				file.delete();
+		}
+	}
+
+	@Test
+	public void testHashOfFailedWriteIsNotRecorded() throws Exception {
+		File file = null;
+		try {
+			final boolean[] failNext = { true };
+			JavaIoFileSystemAccess fileSystemAccess = new JavaIoFileSystemAccess(
+					IResourceServiceProvider.Registry.INSTANCE, new IEncodingProvider.Runtime()) {
+				@Override
+				protected void writeFile(File file, byte[] bytes) throws IOException {
+					if (failNext[0]) {
+						failNext[0] = false;
+						throw new IOException("disk full");
+					}
+					super.writeFile(file, bytes);
+				}
+			};
+			File tmpDir = configureFileSystemAccess(fileSystemAccess);
+			Source2GeneratedMapping hashes = new Source2GeneratedMapping();
+			fileSystemAccess.setContentHashes(hashes);
+			file = new File(tmpDir, "tmp/Failed");
+			try {
+				fileSystemAccess.generateFile("tmp/Failed", "XX");
+				fail();
+			} catch (RuntimeIOException e) {
+				// expected
+			}
+			assertNull(hashes.getContentHash(fileSystemAccess.getURI("tmp/Failed")));
+			fileSystemAccess.generateFile("tmp/Failed", "XX");
+			assertEquals("XX", fileSystemAccess.readTextFile("tmp/Failed"));
+			assertNotNull(hashes.getContentHash(fileSystemAccess.getURI("tmp/Failed")));
+		} finally {
+			if (file != null)
+				file.delete();
+		}
+	}
+
+	protected List<File> recordWrittenFiles(JavaIoFileSystemAccess fileSystemAccess) {
+		final List<File> result = Lists.newArrayList();
+		fileSystemAccess.setCallBack(new IFileCallback() {
+			@Override
+			public void fileAdded(File file) {
+				result.add(file);
+			}
+
+			@Override
+			public void fileDeleted(File file) {
+			}
+		});
+		return result;
+	}
 }
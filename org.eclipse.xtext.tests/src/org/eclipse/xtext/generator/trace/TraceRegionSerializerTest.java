@@ -12,6 +12,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
+import org.eclipse.emf.common.util.URI;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -59,7 +60,7 @@ public class TraceRegionSerializerTest {
 		byte[] currentBytes = outputStream.toByteArray();
 		Assert.assertTrue(v3bytes.length > currentBytes.length);
 		Assert.assertEquals(1213 /* magic number */, v3bytes.length); 
-		Assert.assertEquals(385 /* magic number */, currentBytes.length);
+		Assert.assertEquals(334 /* magic number */, currentBytes.length);
 		Assert.assertEquals(traceRegion, serializer.readTraceRegionFrom(new ByteArrayInputStream(currentBytes)));
 	}
 	
@@ -75,8 +76,41 @@ public class TraceRegionSerializerTest {
 		byte[] currentBytes = outputStream.toByteArray();
 		Assert.assertTrue(v4bytes.length > currentBytes.length);
 		Assert.assertEquals(4610 /* magic number */, v4bytes.length); 
-		Assert.assertEquals(1655 /* magic number */, currentBytes.length);
+		Assert.assertEquals(1410 /* magic number */, currentBytes.length);
 		Assert.assertEquals(traceRegion, serializer.readTraceRegionFrom(new ByteArrayInputStream(currentBytes)));
 	}
 
+	@Test
+	public void testNestedRegionsAreDecodedLazily() throws IOException {
+		TraceRegionSerializer serializer = new TraceRegionSerializer();
+		InputStream in = getClass().getResourceAsStream("version4.trace");
+		AbstractTraceRegion expected = serializer.readTraceRegionFrom(in);
+		in.close();
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		serializer.writeTraceRegionTo(expected, outputStream);
+		byte[] currentBytes = outputStream.toByteArray();
+		AbstractTraceRegion lazy = serializer.readTraceRegionFrom(new ByteArrayInputStream(currentBytes));
+		Assert.assertTrue(lazy instanceof TraceRegionSerializer.LazyTraceRegion);
+		Assert.assertEquals(expected.toString(), lazy.toString());
+		AbstractTraceRegion eager = serializer.doReadFrom(new ByteArrayInputStream(currentBytes), new TraceRegionSerializer.IdentityStrategy());
+		Assert.assertFalse(eager instanceof TraceRegionSerializer.LazyTraceRegion);
+		Assert.assertEquals(expected.toString(), eager.toString());
+	}
+	
+	@Test
+	public void testRoundTripWithDecreasingOffsets() throws IOException {
+		SourceRelativeURI a = new SourceRelativeURI(URI.createURI("a.xtend"));
+		SourceRelativeURI b = new SourceRelativeURI(URI.createURI("b.xtend"));
+		TraceRegion root = new TraceRegion(0, 100, 0, 10, true, 50, 40, 5, 9, null, a);
+		TraceRegion first = new TraceRegion(10, 20, 1, 3, false, 80, 5, 8, 8, root, b);
+		new TraceRegion(12, 2, 1, 1, true, 2, 1, 0, 0, first, b);
+		new TraceRegion(40, 10, 4, 4, true, 0, 10, 0, 0, root, a);
+		TraceRegionSerializer serializer = new TraceRegionSerializer();
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		serializer.writeTraceRegionTo(root, outputStream);
+		AbstractTraceRegion result = serializer.readTraceRegionFrom(new ByteArrayInputStream(outputStream.toByteArray()));
+		Assert.assertEquals(root.toString(), result.toString());
+		Assert.assertEquals(b, result.getNestedRegions().get(0).getNestedRegions().get(0).getAssociatedSrcRelativePath());
+	}
+
 }
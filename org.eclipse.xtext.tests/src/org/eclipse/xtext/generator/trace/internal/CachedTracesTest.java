@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.generator.trace.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.xtext.generator.trace.AbsoluteURI;
+import org.eclipse.xtext.generator.trace.AbstractTraceRegion;
+import org.eclipse.xtext.generator.trace.SourceRelativeURI;
+import org.eclipse.xtext.generator.trace.TraceRegion;
+import org.eclipse.xtext.generator.trace.TraceRegionSerializer;
+import org.eclipse.xtext.generator.trace.internal.AbstractTraceForURIProvider.CachedTraces;
+import org.eclipse.xtext.generator.trace.internal.AbstractTraceForURIProvider.PersistedTrace;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.inject.Guice;
+
+public class CachedTracesTest extends Assert {
+
+	private static class InMemoryTrace implements PersistedTrace {
+		private final AbsoluteURI path;
+		private byte[] contents;
+		private long timestamp;
+		private int reads;
+
+		private InMemoryTrace(String path, byte[] contents) {
+			this.path = new AbsoluteURI(URI.createURI(path));
+			this.contents = contents;
+		}
+
+		@Override
+		public AbsoluteURI getPath() {
+			return path;
+		}
+
+		@Override
+		public long getTimestamp() {
+			return timestamp;
+		}
+
+		@Override
+		public InputStream openStream() throws IOException {
+			reads++;
+			return new ByteArrayInputStream(contents);
+		}
+
+		@Override
+		public boolean exists() {
+			return true;
+		}
+	}
+
+	private static class LazyTraces extends TraceRegionSerializer {
+		private static boolean isDecoded(AbstractTraceRegion region) {
+			return ((LazyTraceRegion) region).isDecoded();
+		}
+	}
+
+	private CachedTraces cachedTraces;
+
+	private byte[] trace;
+
+	@Before
+	public void setUp() throws IOException {
+		cachedTraces = Guice.createInjector().getInstance(CachedTraces.class);
+		TraceRegion root = new TraceRegion(0, 10, 0, 0, true, 0, 10, 0, 0, null, new SourceRelativeURI(URI.createURI("a")));
+		new TraceRegion(2, 3, 0, 0, true, 0, 3, 0, 0, root, null);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new TraceRegionSerializer().writeTraceRegionTo(root, out);
+		trace = out.toByteArray();
+	}
+
+	@Test
+	public void testTraceIsCached() {
+		InMemoryTrace file = new InMemoryTrace("file:/a/.A.java._trace", trace);
+		AbstractTraceRegion first = cachedTraces.getTraceRegion(file);
+		assertSame(first, cachedTraces.getTraceRegion(file));
+		assertEquals(1, file.reads);
+		assertEquals(1, cachedTraces.getStatistics().hitCount());
+		assertEquals(1, cachedTraces.getStatistics().missCount());
+		assertEquals(1, cachedTraces.getSize());
+	}
+
+	@Test
+	public void testChangedTraceIsReloaded() {
+		InMemoryTrace file = new InMemoryTrace("file:/a/.A.java._trace", trace);
+		AbstractTraceRegion first = cachedTraces.getTraceRegion(file);
+		file.timestamp++;
+		assertNotSame(first, cachedTraces.getTraceRegion(file));
+		assertEquals(2, file.reads);
+	}
+
+	@Test
+	public void testInvalidate() {
+		InMemoryTrace file = new InMemoryTrace("file:/a/.A.java._trace", trace);
+		cachedTraces.getTraceRegion(file);
+		cachedTraces.invalidate(file.getPath());
+		assertEquals(0, cachedTraces.getSize());
+		cachedTraces.getTraceRegion(file);
+		assertEquals(2, file.reads);
+	}
+
+	@Test
+	public void testTraceIsWeighedByEncodedSize() {
+		final long[] weighed = { -1 };
+		CachedTraces recording = new CachedTraces() {
+			@Override
+			protected int weigh(long encodedLength) {
+				weighed[0] = encodedLength;
+				return super.weigh(encodedLength);
+			}
+		};
+		Guice.createInjector().injectMembers(recording);
+		recording.getTraceRegion(new InMemoryTrace("file:/a/.A.java._trace", trace));
+		assertEquals(trace.length, weighed[0]);
+	}
+
+	@Test
+	public void testCachedTraceIsNotDecoded() {
+		AbstractTraceRegion region = cachedTraces.getTraceRegion(new InMemoryTrace("file:/a/.A.java._trace", trace));
+		assertFalse(LazyTraces.isDecoded(region));
+		assertEquals(1, region.getNestedRegions().size());
+		assertTrue(LazyTraces.isDecoded(region));
+	}
+
+	@Test
+	public void testMaximumWeightIsReadLazily() {
+		final int[] calls = { 0 };
+		CachedTraces lazy = new CachedTraces() {
+			@Override
+			protected long getMaximumWeight() {
+				calls[0]++;
+				return 1000;
+			}
+		};
+		assertEquals(0, calls[0]);
+		Guice.createInjector().injectMembers(lazy);
+		lazy.getTraceRegion(new InMemoryTrace("file:/a/.A.java._trace", trace));
+		lazy.getTraceRegion(new InMemoryTrace("file:/a/.B.java._trace", trace));
+		assertEquals(1, calls[0]);
+	}
+
+	@Test
+	public void testTracesAreEvictedByWeight() {
+		CachedTraces small = new CachedTraces() {
+			@Override
+			protected long getMaximumWeight() {
+				// the encoded size of two traces
+				return trace.length * 2;
+			}
+		};
+		Guice.createInjector().injectMembers(small);
+		for (int i = 0; i < 10; i++) {
+			small.getTraceRegion(new InMemoryTrace("file:/a/.A" + i + ".java._trace", trace));
+		}
+		assertTrue(small.getSize() <= 2);
+		assertTrue(small.getStatistics().evictionCount() >= 8);
+	}
+
+}
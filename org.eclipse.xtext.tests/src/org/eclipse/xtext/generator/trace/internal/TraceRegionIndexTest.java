@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.generator.trace.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.xtext.generator.trace.AbstractTraceRegion;
+import org.eclipse.xtext.generator.trace.SourceRelativeURI;
+import org.eclipse.xtext.generator.trace.TraceRegion;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class TraceRegionIndexTest extends Assert {
+
+	private SourceRelativeURI newURI(String path) {
+		return new SourceRelativeURI(URI.createURI(path));
+	}
+
+	@Test
+	public void testLeafs() {
+		TraceRegion root = new TraceRegion(0, 10, 0, 0, true, 0, 10, 0, 0, null, newURI("a"));
+		new TraceRegion(2, 3, 0, 0, true, 0, 3, 0, 0, root, newURI("b"));
+		new TraceRegion(6, 2, 0, 0, true, 4, 2, 0, 0, root, null);
+		TraceRegionIndex index = new TraceRegionIndex(root);
+		List<AbstractTraceRegion> leafs = index.getLeafs();
+		assertEquals(Lists.newArrayList(root.leafIterator()), leafs);
+		assertEquals(5, leafs.size());
+		assertEquals(2, index.getFirstLeafIndex(3));
+		assertEquals(5, index.getFirstLeafIndex(9));
+		assertEquals(leafs.subList(1, 4), index.getLeafs(2, 7));
+		assertEquals(leafs.subList(4, 5), index.getLeafs(8, 8));
+		assertEquals(Collections.emptyList(), index.getLeafs(3, 7));
+	}
+
+	@Test
+	public void testRegionsByPath() {
+		TraceRegion root = new TraceRegion(0, 10, 0, 0, true, 0, 10, 0, 0, null, newURI("a"));
+		TraceRegion first = new TraceRegion(2, 3, 0, 0, true, 0, 3, 0, 0, root, newURI("b"));
+		TraceRegion second = new TraceRegion(6, 2, 0, 0, true, 4, 2, 0, 0, root, null);
+		TraceRegionIndex index = new TraceRegionIndex(root);
+		List<AbstractTraceRegion> leafs = index.getLeafs();
+		assertEquals(Arrays.asList(leafs.get(0), root, leafs.get(2), second, leafs.get(4)), index.getRegions(newURI("a")));
+		assertEquals(Arrays.asList(first), index.getRegions(newURI("b")));
+		assertEquals(Collections.emptyList(), index.getRegions(newURI("c")));
+	}
+
+}
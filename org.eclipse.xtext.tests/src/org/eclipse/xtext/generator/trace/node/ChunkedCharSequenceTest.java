@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.generator.trace.node;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ChunkedCharSequenceTest extends Assert {
+
+	@Test
+	public void testAppendsAreSplitAtChunkBoundaries() throws IOException {
+		ChunkedCharSequence sequence = new ChunkedCharSequence(4);
+		sequence.append("ab");
+		sequence.append("cdefghij");
+		sequence.append('k');
+		sequence.append("xlmnopqrx", 1, 8);
+		String expected = "abcdefghijklmnopqr";
+		assertEquals(expected.length(), sequence.length());
+		assertEquals(expected, sequence.toString());
+		for (int i = 0; i < expected.length(); i++) {
+			assertEquals(expected.charAt(i), sequence.charAt(i));
+		}
+		for (int start = 0; start <= expected.length(); start++) {
+			for (int end = start; end <= expected.length(); end++) {
+				assertEquals(expected.substring(start, end), sequence.subSequence(start, end).toString());
+			}
+		}
+		StringBuilder written = new StringBuilder();
+		sequence.writeTo(written);
+		assertEquals(expected, written.toString());
+	}
+
+	@Test
+	public void testEqualContentIsEqualRegardlessOfChunking() {
+		ChunkedCharSequence first = new ChunkedCharSequence(3);
+		first.append("abcdefg");
+		ChunkedCharSequence second = new ChunkedCharSequence(5);
+		second.append("ab").append("cde").append("fg");
+		assertEquals(first, second);
+		assertEquals(first.hashCode(), second.hashCode());
+		assertEquals("abcdefg".hashCode(), first.hashCode());
+	}
+
+}
@@ -31,17 +31,49 @@ class GeneratorNodePerformanceTest {
 	public val Timeout timeout = new Timeout(1000, TimeUnit.MILLISECONDS)
 
 	@Test def void testBasicCreationAndProcessingPerformance() {
+		val node = createNode(numberOfLines)
+		val processor = new GeneratorNodeProcessor
+		Assert.assertFalse(processor.process(node)?.toString.nullOrEmpty)
+	}
+
+	@Test def void testStreamingProcessingPerformance() {
+		val node = createNode(numberOfLines)
+		val processor = new GeneratorNodeProcessor
+		val output = new CharCounter
+		Assert.assertNotNull(processor.process(node, output))
+		Assert.assertTrue(output.count > 0)
+	}
+
+	private def createNode(int lines) {
 		val root = loc(0)
 		var node = root.trace.append('notindented').appendNewLine
-		for (i : 0 ..< numberOfLines) {
+		for (i : 0 ..< lines) {
 			node.indent.trace(loc(1)).append('indented1').appendNewLine.indent.append('indented2').appendNewLine
 		}
 		node.appendNewLine.append('dedented')
-		val processor = new GeneratorNodeProcessor
-		Assert.assertFalse(processor.process(node)?.toString.nullOrEmpty)
+		return node
 	}
 
 	private def loc(int idx) {
 		new LocationData(idx, 100 - idx, 0, 0, new SourceRelativeURI('foo/mymodel.dsl'))
 	}
+
+	static class CharCounter implements Appendable {
+		long count
+
+		override append(CharSequence csq) {
+			count += csq.length
+			return this
+		}
+
+		override append(CharSequence csq, int start, int end) {
+			count += end - start
+			return this
+		}
+
+		override append(char c) {
+			count++
+			return this
+		}
+	}
 }
@@ -7,6 +7,7 @@
  *******************************************************************************/
 package org.eclipse.xtext.generator.trace.node
 
+import java.io.StringWriter
 import org.eclipse.xtend2.lib.StringConcatenation
 import org.eclipse.xtend2.lib.StringConcatenationClient
 import org.eclipse.xtext.generator.trace.LocationData
@@ -193,6 +194,19 @@ class GeneratorNodeTest {
 		parent.append('d').append(new IndentNode('  ', indentImmediately, indentEmptyLines).appendNewLine)
 	}
 	
+	@Test def void testStreamingProcessing() {
+		val node = loc(0).trace
+			.appendTemplate('''
+				someCodeGen(2)
+			''')
+		val processor = new GeneratorNodeProcessor
+		val result = processor.process(node)
+		val output = new StringWriter
+		val traceRegion = processor.process(node, output)
+		assertEquals(result.toString, output.toString)
+		assertEquals(result.traceRegion.toString, traceRegion.toString)
+	}
+	
     private def void assertEquals(String expected, String actual) {
 		val expectedM = expected.toString.replaceAll(System.lineSeparator, "\n")
 		val actualM = actual.toString.replaceAll(System.lineSeparator, "\n")
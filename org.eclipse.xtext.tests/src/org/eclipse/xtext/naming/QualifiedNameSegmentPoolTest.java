@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.naming;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QualifiedNameSegmentPoolTest extends Assert {
+
+	@Test public void testIntern() {
+		QualifiedNameSegmentPool pool = new QualifiedNameSegmentPool();
+		String first = pool.intern(new String("foo"));
+		assertSame(first, pool.intern(new String("foo")));
+	}
+
+	@Test public void testToLowerCase() {
+		QualifiedNameSegmentPool pool = new QualifiedNameSegmentPool();
+		String upper = pool.intern("Foo");
+		String lower = pool.toLowerCase(upper);
+		assertEquals("foo", lower);
+		assertSame(lower, pool.toLowerCase(new String("Foo")));
+		assertSame(lower, pool.toLowerCase(lower));
+		assertSame(lower, pool.intern(new String("foo")));
+	}
+
+}
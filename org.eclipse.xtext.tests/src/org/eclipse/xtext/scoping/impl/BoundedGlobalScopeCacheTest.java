@@ -0,0 +1,299 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.scoping.impl;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.resource.EObjectDescription;
+import org.eclipse.xtext.resource.IContainer;
+import org.eclipse.xtext.resource.IEObjectDescription;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.resource.IResourceDescriptions;
+import org.eclipse.xtext.resource.containers.IContainerState;
+import org.eclipse.xtext.resource.containers.ProjectDescriptionBasedContainer;
+import org.eclipse.xtext.resource.containers.StateBasedContainer;
+import org.eclipse.xtext.resource.impl.ResourceDescriptionChangeEvent;
+import org.eclipse.xtext.resource.impl.ResourceDescriptionsBasedContainer;
+import org.eclipse.xtext.resource.impl.ResourceDescriptionsData;
+import org.eclipse.xtext.resource.persistence.SerializableEObjectDescription;
+import org.eclipse.xtext.resource.persistence.SerializableResourceDescription;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class BoundedGlobalScopeCacheTest extends Assert {
+
+	private final IResourceDescriptions index = new ResourceDescriptionsData(Collections.<IResourceDescription> emptyList());
+
+	private final EClass type = EcorePackage.Literals.ECLASS;
+
+	private final URI a = URI.createURI("a.ecore");
+
+	private final URI b = URI.createURI("b.ecore");
+
+	private final URI c = URI.createURI("c.ecore");
+
+	private final TestState state = new TestState(a, b);
+
+	@Test
+	public void testEqualContainersShareTheirElements() {
+		BoundedGlobalScopeCache cache = new BoundedGlobalScopeCache();
+		TestContainer first = new TestContainer(state, element("x", a));
+		TestContainer second = new TestContainer(state, element("x", a));
+		IContainer cached = cache.getContainer(index, first, type);
+		assertNotSame(first, cached);
+		assertEquals(names("x"), names(cached.getExportedObjectsByType(type)));
+		assertEquals(names("x"), names(cache.getContainer(index, second, type).getExportedObjectsByType(type)));
+		assertEquals(1, first.computed);
+		assertEquals(0, second.computed);
+		assertEquals(1, cache.getStatistics().hitCount());
+		assertEquals(1, cache.getStatistics().missCount());
+
+		cache.getContainer(index, first, EcorePackage.Literals.EDATA_TYPE);
+		IResourceDescriptions otherIndex = new ResourceDescriptionsData(Collections.<IResourceDescription> emptyList());
+		cache.getContainer(otherIndex, first, type);
+		assertEquals(3, first.computed);
+		assertEquals(3, cache.getSize());
+	}
+
+	@Test
+	public void testProjectContainersAreIdentifiedByName() {
+		BoundedGlobalScopeCache cache = new BoundedGlobalScopeCache();
+		TestProjectContainer first = new TestProjectContainer("p", element("x", a));
+		TestProjectContainer second = new TestProjectContainer("p", element("x", a));
+		TestProjectContainer other = new TestProjectContainer("q", element("y", b));
+		assertEquals(names("x"), names(cache.getContainer(index, first, type).getExportedObjectsByType(type)));
+		assertEquals(names("x"), names(cache.getContainer(index, second, type).getExportedObjectsByType(type)));
+		assertEquals(names("y"), names(cache.getContainer(index, other, type).getExportedObjectsByType(type)));
+		assertEquals(1, first.computed);
+		assertEquals(0, second.computed);
+		assertEquals(1, other.computed);
+		assertEquals(2, cache.getSize());
+	}
+
+	@Test
+	public void testCachedContainerDelegatesOtherRequests() {
+		BoundedGlobalScopeCache cache = new BoundedGlobalScopeCache();
+		TestContainer container = new TestContainer(state, element("x", a));
+		IContainer cached = cache.getContainer(index, container, type);
+		assertEquals(names("x"), names(cached.getExportedObjects(type, QualifiedName.create("X"), true)));
+		assertEquals(1, container.computed);
+		cached.getExportedObjectsByType(EcorePackage.Literals.ECLASSIFIER);
+		assertEquals(2, container.computed);
+		assertTrue(cached.hasResourceDescription(b));
+		assertFalse(cached.hasResourceDescription(c));
+	}
+
+	@Test
+	public void testOtherContainersAreNotCached() {
+		BoundedGlobalScopeCache cache = new BoundedGlobalScopeCache();
+		ResourceDescriptionsBasedContainer container = new ResourceDescriptionsBasedContainer(index);
+		assertSame(container, cache.getContainer(index, container, type));
+		assertEquals(0, cache.getSize());
+	}
+
+	@Test
+	public void testInvalidateOnDeltas() {
+		BoundedGlobalScopeCache cache = new BoundedGlobalScopeCache();
+		TestContainer container = new TestContainer(state, element("x", a));
+		cache.getContainer(index, container, type);
+
+		// c exports no objects of the cached type and a did not change its exported objects
+		cache.invalidate(Arrays.asList(delta(c, true, dataType("d", c)), delta(a, false)));
+		cache.getContainer(index, container, type);
+		assertEquals(1, container.computed);
+
+		// b did not contribute before but exports an object of the cached type now
+		cache.invalidate(Arrays.asList(delta(b, true, element("y", b))));
+		cache.getContainer(index, container, type);
+		assertEquals(2, container.computed);
+
+		// a contributed to the value
+		cache.invalidate(Arrays.asList(deletedDelta(a)));
+		cache.getContainer(index, container, type);
+		assertEquals(3, container.computed);
+
+		cache.descriptionsChanged(new ResourceDescriptionChangeEvent(Arrays.asList(newResourceDelta(c, element("z", c)))));
+		assertEquals(0, cache.getSize());
+		cache.getContainer(index, container, type);
+		assertEquals(4, container.computed);
+	}
+
+	@Test
+	public void testLeastRecentlyUsedValuesAreEvicted() {
+		BoundedGlobalScopeCache cache = new BoundedGlobalScopeCache() {
+			@Override
+			protected long getMaximumWeight() {
+				return 3;
+			}
+		};
+		TestContainer first = new TestContainer(new TestState(a), element("x", a), element("y", a));
+		TestContainer second = new TestContainer(new TestState(b), element("z", b), element("w", b));
+		cache.getContainer(index, first, type);
+		cache.getContainer(index, second, type);
+		assertEquals(1, cache.getStatistics().evictionCount());
+		assertEquals(1, cache.getSize());
+		cache.getContainer(index, second, type);
+		assertEquals(1, second.computed);
+		cache.getContainer(index, first, type);
+		assertEquals(2, first.computed);
+	}
+
+	private List<String> names(String... names) {
+		return Arrays.asList(names);
+	}
+
+	private List<String> names(Iterable<IEObjectDescription> elements) {
+		List<String> result = Lists.newArrayList();
+		for (IEObjectDescription element : elements) {
+			result.add(element.getName().toString());
+		}
+		return result;
+	}
+
+	private IEObjectDescription element(String name, URI resource) {
+		return proxy(EcoreFactory.eINSTANCE.createEClass(), name, resource);
+	}
+
+	private IEObjectDescription dataType(String name, URI resource) {
+		return proxy(EcoreFactory.eINSTANCE.createEDataType(), name, resource);
+	}
+
+	private IEObjectDescription proxy(EObject object, String name, URI resource) {
+		((InternalEObject) object).eSetProxyURI(resource.appendFragment(name));
+		return EObjectDescription.create(QualifiedName.create(name), object);
+	}
+
+	private IResourceDescription description(URI uri, IEObjectDescription... exported) {
+		List<SerializableEObjectDescription> descriptions = Lists.newArrayList();
+		for (IEObjectDescription element : exported) {
+			SerializableEObjectDescription copy = new SerializableEObjectDescription();
+			copy.setEObjectURI(element.getEObjectURI());
+			copy.setEClass(element.getEClass());
+			copy.setQualifiedName(element.getQualifiedName());
+			descriptions.add(copy);
+		}
+		SerializableResourceDescription result = new SerializableResourceDescription();
+		result.setURI(uri);
+		result.setDescriptions(descriptions);
+		return result;
+	}
+
+	private IResourceDescription.Delta delta(URI uri, boolean changed, IEObjectDescription... exported) {
+		return new TestDelta(uri, description(uri), description(uri, exported), changed);
+	}
+
+	private IResourceDescription.Delta deletedDelta(URI uri) {
+		return new TestDelta(uri, description(uri), null, true);
+	}
+
+	private IResourceDescription.Delta newResourceDelta(URI uri, IEObjectDescription... exported) {
+		return new TestDelta(uri, null, description(uri, exported), true);
+	}
+
+	private static class TestState implements IContainerState {
+		private final List<URI> contents;
+
+		private TestState(URI... contents) {
+			this.contents = Arrays.asList(contents);
+		}
+
+		@Override
+		public Collection<URI> getContents() {
+			return contents;
+		}
+
+		@Override
+		public boolean contains(URI uri) {
+			return contents.contains(uri);
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return contents.isEmpty();
+		}
+	}
+
+	private class TestContainer extends StateBasedContainer {
+		private final List<IEObjectDescription> elements;
+		private int computed;
+
+		private TestContainer(IContainerState state, IEObjectDescription... elements) {
+			super(index, state);
+			this.elements = Arrays.asList(elements);
+		}
+
+		@Override
+		public Iterable<IEObjectDescription> getExportedObjectsByType(EClass type) {
+			computed++;
+			return elements;
+		}
+	}
+
+	private class TestProjectContainer extends ProjectDescriptionBasedContainer {
+		private final List<IEObjectDescription> elements;
+		private int computed;
+
+		private TestProjectContainer(String projectName, IEObjectDescription... elements) {
+			super(index, projectName);
+			this.elements = Arrays.asList(elements);
+		}
+
+		@Override
+		public Iterable<IEObjectDescription> getExportedObjectsByType(EClass type) {
+			computed++;
+			return elements;
+		}
+	}
+
+	private static class TestDelta implements IResourceDescription.Delta {
+		private final URI uri;
+		private final IResourceDescription old;
+		private final IResourceDescription _new;
+		private final boolean changed;
+
+		private TestDelta(URI uri, IResourceDescription old, IResourceDescription _new, boolean changed) {
+			this.uri = uri;
+			this.old = old;
+			this._new = _new;
+			this.changed = changed;
+		}
+
+		@Override
+		public URI getUri() {
+			return uri;
+		}
+
+		@Override
+		public IResourceDescription getOld() {
+			return old;
+		}
+
+		@Override
+		public IResourceDescription getNew() {
+			return _new;
+		}
+
+		@Override
+		public boolean haveEObjectDescriptionsChanged() {
+			return changed;
+		}
+	}
+
+}
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.serializer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.Grammar;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.XtextRunner;
+import org.eclipse.xtext.testing.util.ParseHelper;
+import org.eclipse.xtext.tests.XtextInjectorProvider;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import org.junit.runner.RunWith;
+
+import com.google.inject.Inject;
+
+/**
+ * Serializes a grammar with many deeply nested alternatives and groups. Most of its objects have list features, thus
+ * the semantic sequencer has to backtrack through the constraints of the Xtext language for each of them.
+ */
+@RunWith(XtextRunner.class)
+@InjectWith(XtextInjectorProvider.class)
+public class NestedModelSerializerPerformanceTest extends Assert {
+
+	private static final int numberOfRules = 200;
+
+	private static final int depth = 8;
+
+	@Rule
+	public final Timeout timeout = new Timeout(10000, TimeUnit.MILLISECONDS);
+
+	@Inject
+	private ParseHelper<Grammar> parseHelper;
+
+	@Inject
+	private ISerializer serializer;
+
+	private Grammar grammar;
+
+	@Before
+	public void setUp() throws Exception {
+		StringBuilder model = new StringBuilder();
+		model.append("grammar org.eclipse.xtext.serializer.NestedModelTestLanguage with org.eclipse.xtext.common.Terminals\n");
+		model.append("generate nestedModel \"http://www.eclipse.org/2019/tmf/xtext/NestedModelTestLanguage\"\n");
+		for (int i = 0; i < numberOfRules; i++) {
+			model.append("Rule").append(i).append(": 'rule").append(i).append("' name=ID ");
+			appendNested(model, depth);
+			if (i + 1 < numberOfRules)
+				model.append(" children+=Rule").append(i + 1).append("*");
+			model.append(";\n");
+		}
+		grammar = parseHelper.parse(model);
+		assertTrue(grammar.eResource().getErrors().toString(), grammar.eResource().getErrors().isEmpty());
+	}
+
+	private void appendNested(StringBuilder model, int level) {
+		model.append("(");
+		model.append("'a").append(level).append("' a").append(level).append("+=ID");
+		model.append(" | 'b").append(level).append("' b").append(level).append("+=INT");
+		if (level > 0) {
+			model.append(" | 'c").append(level).append("' ");
+			appendNested(model, level - 1);
+			model.append(" 'd").append(level).append("'? d").append(level).append("+=STRING*");
+		}
+		model.append(")*");
+	}
+
+	@Test
+	public void testWithNodeModel() {
+		String serialized = serializer.serialize(grammar);
+		assertTrue(serialized.contains("Rule" + (numberOfRules - 1)));
+	}
+
+	@Test
+	public void testWithoutNodeModel() {
+		Resource resource = grammar.eResource().getResourceSet().createResource(URI.createURI("copy.xtext"));
+		Grammar copy = EcoreUtil.copy(grammar);
+		resource.getContents().add(copy);
+		String serialized = serializer.serialize(copy);
+		assertTrue(serialized.contains("Rule" + (numberOfRules - 1)));
+	}
+
+}
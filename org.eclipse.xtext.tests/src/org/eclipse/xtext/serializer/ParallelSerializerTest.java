@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.serializer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.Grammar;
+import org.eclipse.xtext.resource.SaveOptions;
+import org.eclipse.xtext.serializer.acceptor.ISemanticSequenceAcceptor;
+import org.eclipse.xtext.serializer.diagnostic.ISerializationDiagnostic;
+import org.eclipse.xtext.serializer.impl.ParallelSerializer;
+import org.eclipse.xtext.serializer.impl.Serializer;
+import org.eclipse.xtext.testing.InjectWith;
+import org.eclipse.xtext.testing.XtextRunner;
+import org.eclipse.xtext.testing.util.ParseHelper;
+import org.eclipse.xtext.tests.XtextInjectorProvider;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.google.inject.Inject;
+
+@RunWith(XtextRunner.class)
+@InjectWith(XtextInjectorProvider.class)
+public class ParallelSerializerTest extends Assert {
+
+	@Inject
+	private ParseHelper<Grammar> parseHelper;
+
+	@Inject
+	private Serializer sequential;
+
+	@Inject
+	private CountingParallelSerializer parallel;
+
+	private ExecutorService executorService;
+
+	private Grammar grammar;
+
+	@Before
+	public void setUp() throws Exception {
+		executorService = Executors.newFixedThreadPool(4);
+		parallel.setExecutorService(executorService);
+		StringBuilder model = new StringBuilder();
+		model.append("grammar org.eclipse.xtext.serializer.ParallelTestLanguage with org.eclipse.xtext.common.Terminals\n");
+		model.append("generate parallel \"http://www.eclipse.org/2019/tmf/xtext/ParallelTestLanguage\"\n");
+		for (int i = 0; i < 50; i++) {
+			model.append("// rule ").append(i).append("\n");
+			model.append("Rule").append(i).append(" :\n\t'rule' name=ID ('{' (children+=Rule").append((i + 1) % 50)
+					.append(" | values+=INT)* '}')?;\n");
+		}
+		grammar = parseHelper.parse(model);
+		assertTrue(grammar.eResource().getErrors().toString(), grammar.eResource().getErrors().isEmpty());
+	}
+
+	@After
+	public void tearDown() {
+		executorService.shutdown();
+	}
+
+	@Test
+	public void testWithNodeModel() {
+		assertEquals(sequential.serialize(grammar), parallel.serialize(grammar));
+		assertAllChildrenReplayed(grammar);
+	}
+
+	@Test
+	public void testFormatted() {
+		SaveOptions options = SaveOptions.newBuilder().format().getOptions();
+		assertEquals(sequential.serialize(grammar, options), parallel.serialize(grammar, options));
+		assertAllChildrenReplayed(grammar);
+	}
+
+	@Test
+	public void testWithoutNodeModel() {
+		Resource resource = grammar.eResource().getResourceSet().createResource(URI.createURI("copy.xtext"));
+		Grammar copy = EcoreUtil.copy(grammar);
+		resource.getContents().add(copy);
+		assertEquals(sequential.serialize(copy), parallel.serialize(copy));
+		assertAllChildrenReplayed(copy);
+	}
+
+	@Test
+	public void testPendingChildrenAreBounded() {
+		parallel.maximumPendingElements = 3;
+		assertEquals(sequential.serialize(grammar), parallel.serialize(grammar));
+		assertAllChildrenReplayed(grammar);
+		// the window and the sequence that is being replayed
+		assertEquals(4, parallel.maximumPending.get());
+	}
+
+	private void assertAllChildrenReplayed(EObject container) {
+		assertEquals(container.eContents().size(), parallel.recorded.get());
+		assertEquals(parallel.recorded.get(), parallel.replayed.get());
+	}
+
+	/**
+	 * Counts the recorded and the replayed sequences and the children whose sequences are pending at the same time.
+	 */
+	public static class CountingParallelSerializer extends ParallelSerializer {
+		private final AtomicInteger recorded = new AtomicInteger();
+		private final AtomicInteger replayed = new AtomicInteger();
+		private final AtomicInteger pending = new AtomicInteger();
+		private final AtomicInteger maximumPending = new AtomicInteger();
+		private int maximumPendingElements = 8;
+
+		@Override
+		protected int getMaximumPendingElements() {
+			return maximumPendingElements;
+		}
+
+		@Override
+		protected ISerializationContext getChildContext(ISerializationContext context, EObject child) {
+			ISerializationContext result = super.getChildContext(context, child);
+			if (result != null)
+				maximumPending.accumulateAndGet(pending.incrementAndGet(), Math::max);
+			return result;
+		}
+
+		@Override
+		protected RecordedSequence createRecordedSequence(ISerializationContext context) {
+			recorded.incrementAndGet();
+			return new RecordedSequence(context) {
+				@Override
+				public void replay(ISemanticSequenceAcceptor target, ISerializationDiagnostic.Acceptor errors) {
+					pending.decrementAndGet();
+					replayed.incrementAndGet();
+					super.replay(target, errors);
+				}
+			};
+		}
+	}
+
+}
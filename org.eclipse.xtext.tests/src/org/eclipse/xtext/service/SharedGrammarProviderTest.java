@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Iterator;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.Grammar;
+import org.eclipse.xtext.GrammarUtil;
+import org.eclipse.xtext.IGrammarAccess;
+import org.eclipse.xtext.linking.LangATestLanguageRuntimeModule;
+import org.eclipse.xtext.linking.LangATestLanguageStandaloneSetup;
+import org.eclipse.xtext.nodemodel.ICompositeNode;
+import org.eclipse.xtext.resource.SynchronizedXtextResourceSet;
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.xtext.resource.persistence.IResourceStorageFacade;
+import org.eclipse.xtext.resource.persistence.ResourceStorageFacade;
+import org.eclipse.xtext.resource.persistence.StorageAwareResource;
+import org.eclipse.xtext.serializer.HiddenTokenSequencerTestLanguageRuntimeModule;
+import org.eclipse.xtext.serializer.analysis.GrammarAnalysisCache;
+import org.eclipse.xtext.serializer.analysis.GrammarElementDeclarationOrder;
+import org.eclipse.xtext.serializer.analysis.IGrammarConstraintProvider;
+import org.eclipse.xtext.serializer.analysis.ISemanticSequencerNfaProvider;
+import org.eclipse.xtext.serializer.analysis.ISyntacticSequencerPDAProvider;
+import org.eclipse.xtext.xtext.RuleNames;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.Iterables;
+import com.google.common.io.Files;
+import com.google.inject.Binder;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+public class SharedGrammarProviderTest extends Assert {
+
+	public static class SharedGrammarModule extends HiddenTokenSequencerTestLanguageRuntimeModule {
+		public void configureGrammarProvider(Binder binder) {
+			binder.bind(GrammarProvider.class).to(SharedGrammarProvider.class);
+		}
+	}
+
+	public static class SharedStorageModule extends LangATestLanguageRuntimeModule {
+		public void configureGrammarProvider(Binder binder) {
+			binder.bind(GrammarProvider.class).to(SharedGrammarProvider.class);
+		}
+	}
+
+	@Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test public void testGrammarIsShared() {
+		Grammar first = Guice.createInjector(new SharedGrammarModule()).getInstance(IGrammarAccess.class).getGrammar();
+		Grammar second = Guice.createInjector(new SharedGrammarModule()).getInstance(IGrammarAccess.class).getGrammar();
+		assertSame(first, second);
+		assertTrue(GrammarAnalysisCache.isShared(first));
+	}
+
+	@Test public void testAnalysesAreShared() {
+		Injector first = Guice.createInjector(new SharedGrammarModule());
+		Injector second = Guice.createInjector(new SharedGrammarModule());
+		Grammar grammar = first.getInstance(IGrammarAccess.class).getGrammar();
+		assertSame(first.getInstance(IGrammarConstraintProvider.class).getConstraints(grammar),
+				second.getInstance(IGrammarConstraintProvider.class).getConstraints(grammar));
+		assertSame(first.getInstance(ISyntacticSequencerPDAProvider.class).getSyntacticSequencerPDAs(grammar),
+				second.getInstance(ISyntacticSequencerPDAProvider.class).getSyntacticSequencerPDAs(grammar));
+	}
+
+	@Test public void testGrammarKeepsItsOwnResourceSet() {
+		Injector injector = Guice.createInjector(new SharedGrammarModule());
+		Grammar grammar = injector.getInstance(IGrammarAccess.class).getGrammar();
+		ResourceSet resourceSet = grammar.eResource().getResourceSet();
+		assertTrue(resourceSet instanceof SynchronizedXtextResourceSet);
+		assertNotSame(resourceSet, injector.getInstance(XtextResourceSet.class));
+		for (Grammar used : GrammarUtil.allUsedGrammars(grammar))
+			assertSame(resourceSet, used.eResource().getResourceSet());
+	}
+
+	@Test public void testNodeModelIsLoadedFromStorage() throws Exception {
+		Injector injector = new LangATestLanguageStandaloneSetup() {
+			@Override
+			public Injector createInjector() {
+				return Guice.createInjector(new SharedStorageModule());
+			}
+		}.createInjectorAndDoEMFRegistration();
+		ResourceStorageFacade storageFacade = (ResourceStorageFacade) injector.getInstance(IResourceStorageFacade.class);
+		storageFacade.setStoreNodeModel(true);
+		File file = temporaryFolder.newFile("a.langatestlanguage");
+		Files.asCharSink(file, StandardCharsets.UTF_8).write("type A extends B type B");
+		URI uri = URI.createFileURI(file.getAbsolutePath());
+
+		StorageAwareResource resource = createResource(injector, uri);
+		resource.load(null);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		storageFacade.createResourceStorageWritable(bytes).writeResource(resource);
+
+		StorageAwareResource fromStorage = createResource(injector, uri);
+		fromStorage.loadFromStorage(storageFacade.createResourceStorageLoadable(new ByteArrayInputStream(bytes.toByteArray())));
+		assertTrue(fromStorage.isLoadedFromStorage());
+		ICompositeNode rootNode = fromStorage.getParseResult().getRootNode();
+		assertEquals("type A extends B type B", rootNode.getText());
+		assertSame(injector.getInstance(IGrammarAccess.class).getGrammar(), GrammarUtil.getGrammar(rootNode.getGrammarElement()));
+	}
+
+	private StorageAwareResource createResource(Injector injector, URI uri) {
+		StorageAwareResource result = (StorageAwareResource) injector.getInstance(XtextResource.class);
+		result.setURI(uri);
+		injector.getInstance(XtextResourceSet.class).getResources().add(result);
+		return result;
+	}
+
+	@Test public void testAdaptersAreAttachedBeforeSharing() {
+		Injector first = Guice.createInjector(new SharedGrammarModule());
+		Grammar grammar = first.getInstance(IGrammarAccess.class).getGrammar();
+		assertNotNull(EcoreUtil.getAdapter(grammar.eAdapters(), RuleNames.class));
+		assertTrue(grammar.eAdapters().contains(GrammarElementDeclarationOrder.get(grammar)));
+		int adapters = countAdapters(grammar);
+		Injector second = Guice.createInjector(new SharedGrammarModule());
+		for (Injector injector : new Injector[] { first, second }) {
+			injector.getInstance(IGrammarConstraintProvider.class).getConstraints(grammar);
+			injector.getInstance(ISyntacticSequencerPDAProvider.class).getSyntacticSequencerPDAs(grammar);
+			injector.getInstance(ISemanticSequencerNfaProvider.class).getSemanticSequencerNFAs(grammar);
+		}
+		assertEquals(adapters, countAdapters(grammar));
+	}
+
+	private int countAdapters(Grammar grammar) {
+		int result = 0;
+		for (Grammar g : Iterables.concat(Collections.singleton(grammar), GrammarUtil.allUsedGrammars(grammar))) {
+			result += g.eAdapters().size();
+			for (Iterator<EObject> i = g.eAllContents(); i.hasNext();)
+				result += i.next().eAdapters().size();
+		}
+		return result;
+	}
+
+	@Test public void testGrammarIsNotSharedByDefault() {
+		Grammar first = Guice.createInjector(new HiddenTokenSequencerTestLanguageRuntimeModule())
+				.getInstance(IGrammarAccess.class).getGrammar();
+		Grammar second = Guice.createInjector(new HiddenTokenSequencerTestLanguageRuntimeModule())
+				.getInstance(IGrammarAccess.class).getGrammar();
+		assertNotSame(first, second);
+		assertFalse(GrammarAnalysisCache.isShared(first));
+	}
+
+}
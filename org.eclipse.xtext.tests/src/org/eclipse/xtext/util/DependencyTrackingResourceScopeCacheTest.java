@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.util;
+
+import java.util.Collections;
+
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.xtext.util.DependencyTrackingResourceScopeCache.CacheAdapter;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.inject.Provider;
+
+public class DependencyTrackingResourceScopeCacheTest extends Assert {
+
+	private EcoreFactory factory = EcoreFactory.eINSTANCE;
+	private DependencyTrackingResourceScopeCache cache;
+	private Resource resource;
+	private EPackage ePackage;
+	private EClass first;
+	private EClass second;
+
+	@Before
+	public void setUp() {
+		cache = new DependencyTrackingResourceScopeCache();
+		resource = new ResourceImpl();
+		ePackage = factory.createEPackage();
+		first = factory.createEClass();
+		second = factory.createEClass();
+		ePackage.getEClassifiers().add(first);
+		ePackage.getEClassifiers().add(second);
+		resource.getContents().add(ePackage);
+	}
+
+	@Test public void testIndependentValueIsEvicted() {
+		cache.get("key", resource, provider("value"));
+		second.setName("Second");
+		assertNull(adapter().get("key"));
+	}
+
+	@Test public void testUnrelatedSubtreeIsKept() {
+		cache.get("first", resource, first, provider("value"));
+		cache.get("second", resource, second, provider("value"));
+		second.getEStructuralFeatures().add(factory.createEAttribute());
+		assertEquals("value", adapter().get("first"));
+		assertNull(adapter().get("second"));
+		assertEquals(1, adapter().getEvictions());
+	}
+
+	@Test public void testChangeInNestedObjectEvictsContainer() {
+		EAttribute attribute = factory.createEAttribute();
+		first.getEStructuralFeatures().add(attribute);
+		cache.get("package", resource, ePackage, provider("value"));
+		cache.get("first", resource, first, provider("value"));
+		cache.get("second", resource, second, provider("value"));
+		attribute.setName("attribute");
+		assertNull(adapter().get("package"));
+		assertNull(adapter().get("first"));
+		assertEquals("value", adapter().get("second"));
+	}
+
+	@Test public void testFeatureDependency() {
+		cache.get("name", resource, first, Collections.singleton(EcorePackage.Literals.ENAMED_ELEMENT__NAME), provider("value"));
+		first.setAbstract(true);
+		assertEquals("value", adapter().get("name"));
+		first.setName("First");
+		assertNull(adapter().get("name"));
+	}
+
+	@Test public void testRemovedSubtreeIsEvicted() {
+		cache.get("second", resource, second, provider("value"));
+		ePackage.getEClassifiers().remove(second);
+		assertNull(adapter().get("second"));
+	}
+
+	@Test public void testStatistics() {
+		cache.get("key", resource, first, provider("value"));
+		cache.get("key", resource, first, provider("other"));
+		assertEquals("value", cache.get("key", resource, first, provider("other")));
+		assertEquals(2, adapter().getHits());
+		assertEquals(1, adapter().getMisses());
+		assertEquals(1, adapter().getSize());
+	}
+
+	private CacheAdapter adapter() {
+		return cache.getOrCreate(resource);
+	}
+
+	private Provider<String> provider(final String value) {
+		return new Provider<String>() {
+			@Override
+			public String get() {
+				return value;
+			}
+		};
+	}
+
+}
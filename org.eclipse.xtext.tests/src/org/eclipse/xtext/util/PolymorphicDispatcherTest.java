@@ -305,4 +305,53 @@ public class PolymorphicDispatcherTest extends Assert {
 		assertEquals("Number_42", dispatcher.invoke(BigInteger.valueOf(42)));
 	}
 
+	@Test public void testMethodHandles() {
+		Object o1 = new Object() {
+			private String label(Integer i) {
+				return "Integer_" + i;
+			}
+
+			private String label(Number n) {
+				return "Number_" + n;
+			}
+
+			private int label(String s) {
+				return s.length();
+			}
+
+			private String label(Void v) {
+				return "null";
+			}
+		};
+		PolymorphicDispatcher<Object> dispatcher = new PolymorphicDispatcher<Object>("label", Lists.newArrayList(o1));
+		dispatcher.setUseMethodHandles(true);
+		assertEquals("Integer_17", dispatcher.invoke(new Integer(17)));
+		assertEquals("Number_42", dispatcher.invoke(BigInteger.valueOf(42)));
+		assertEquals("Integer_18", dispatcher.invoke(new Integer(18)));
+		assertEquals(3, dispatcher.invoke("foo"));
+		assertEquals("null", dispatcher.invoke((Object) null));
+	}
+
+	@Test public void testMethodHandlesWithErrorHandler() {
+		Object o1 = new Object() {
+			private String label(Integer i) {
+				throw new IllegalArgumentException(String.valueOf(i));
+			}
+		};
+		final List<Throwable> errors = new ArrayList<Throwable>();
+		PolymorphicDispatcher<String> dispatcher = new PolymorphicDispatcher<String>("label", 1, 1, Lists.newArrayList(o1),
+				new PolymorphicDispatcher.ErrorHandler<String>() {
+					@Override
+					public String handle(Object[] params, Throwable throwable) {
+						errors.add(throwable);
+						return "handled";
+					}
+				});
+		dispatcher.setUseMethodHandles(true);
+		assertEquals("handled", dispatcher.invoke(1));
+		assertEquals("1", errors.get(0).getMessage());
+		assertEquals("handled", dispatcher.invoke("foo"));
+		assertTrue(errors.get(1) instanceof NoSuchMethodException);
+	}
+
 }
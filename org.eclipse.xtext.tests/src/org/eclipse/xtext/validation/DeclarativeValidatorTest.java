@@ -7,14 +7,19 @@
  *******************************************************************************/
 package org.eclipse.xtext.validation;
 
+import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.emf.common.util.BasicDiagnostic;
 import org.eclipse.emf.common.util.Diagnostic;
 import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EAttribute;
 import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.ENamedElement;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EcoreFactory;
 import org.eclipse.emf.ecore.EcorePackage;
@@ -27,6 +32,8 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.Sets;
+
 /**
  * @author Sven Efftinge - Initial contribution and API
  * @author Michael Clay
@@ -383,4 +390,118 @@ public class DeclarativeValidatorTest extends Assert {
 			; // this is expected
 		}
 	}
+
+	@Test public void testChecksAreDispatchedByType() {
+		final List<String> called = new ArrayList<String>();
+		AbstractDeclarativeValidator test = new AbstractDeclarativeValidator() {
+			@Check
+			public void checkObject(EObject x) {
+				called.add("EObject");
+			}
+			@Check
+			public void checkNamedElement(ENamedElement x) {
+				called.add("ENamedElement");
+			}
+			@Check
+			public void checkClass(EClass x) {
+				called.add("EClass");
+			}
+			@Check
+			public void checkAttribute(EAttribute x) {
+				called.add("EAttribute");
+			}
+		};
+		test.validate(EcoreFactory.eINSTANCE.createEClass(), new BasicDiagnostic(), null);
+		assertEquals(Sets.newHashSet("EObject", "ENamedElement", "EClass"), Sets.newHashSet(called));
+		assertEquals(3, called.size());
+
+		called.clear();
+		test.validate(EcoreFactory.eINSTANCE.createEAttribute(), new BasicDiagnostic(), null);
+		assertEquals(Sets.newHashSet("EObject", "ENamedElement", "EAttribute"), Sets.newHashSet(called));
+		assertEquals(3, called.size());
+
+		called.clear();
+		test.validate(EcoreFactory.eINSTANCE.createEAnnotation(), new BasicDiagnostic(), null);
+		assertEquals(Collections.singletonList("EObject"), called);
+
+		// the dispatch table of a type is reused
+		called.clear();
+		test.validate(EcoreFactory.eINSTANCE.createEClass(), new BasicDiagnostic(), null);
+		assertEquals(Sets.newHashSet("EObject", "ENamedElement", "EClass"), Sets.newHashSet(called));
+		assertEquals(3, called.size());
+	}
+
+	@Test public void testChecksAreFilteredByMode() {
+		final List<CheckType> called = new ArrayList<CheckType>();
+		AbstractDeclarativeValidator test = new AbstractDeclarativeValidator() {
+			@Check(CheckType.FAST)
+			public void fast(EClass x) {
+				called.add(CheckType.FAST);
+			}
+			@Check(CheckType.NORMAL)
+			public void normal(EClass x) {
+				called.add(CheckType.NORMAL);
+			}
+			@Check(CheckType.EXPENSIVE)
+			public void expensive(EClass x) {
+				called.add(CheckType.EXPENSIVE);
+			}
+		};
+		CheckMode custom = new CheckMode() {
+			@Override
+			public boolean shouldCheck(CheckType type) {
+				return type != CheckType.NORMAL;
+			}
+		};
+		assertChecked(test, called, CheckMode.FAST_ONLY, CheckType.FAST);
+		assertChecked(test, called, CheckMode.NORMAL_ONLY, CheckType.NORMAL);
+		assertChecked(test, called, CheckMode.EXPENSIVE_ONLY, CheckType.EXPENSIVE);
+		assertChecked(test, called, CheckMode.NORMAL_AND_FAST, CheckType.FAST, CheckType.NORMAL);
+		assertChecked(test, called, CheckMode.ALL, CheckType.FAST, CheckType.NORMAL, CheckType.EXPENSIVE);
+		assertChecked(test, called, custom, CheckType.FAST, CheckType.EXPENSIVE);
+		assertChecked(test, called, CheckMode.FAST_ONLY, CheckType.FAST);
+	}
+
+	private void assertChecked(AbstractDeclarativeValidator validator, List<CheckType> called, CheckMode mode,
+			CheckType... expected) {
+		called.clear();
+		validator.validate(EcoreFactory.eINSTANCE.createEClass(), new BasicDiagnostic(),
+				Collections.<Object, Object> singletonMap(CheckMode.KEY, mode));
+		assertEquals(mode.toString(), Sets.newHashSet(expected), Sets.newHashSet(called));
+		assertEquals(mode.toString(), expected.length, called.size());
+	}
+
+	@Test public void testExceptionsArePassedToTheMethodWrapper() {
+		final List<Throwable> handled = new ArrayList<Throwable>();
+		final Exception checked = new Exception("checked");
+		final RuntimeException unchecked = new IllegalStateException("unchecked");
+		AbstractDeclarativeValidator test = new AbstractDeclarativeValidator() {
+			@Check
+			public void throwChecked(EClass x) throws Exception {
+				throw checked;
+			}
+			@Check
+			public void throwUnchecked(EClass x) {
+				throw unchecked;
+			}
+			@Override
+			protected MethodWrapper createMethodWrapper(AbstractDeclarativeValidator instanceToUse, Method method) {
+				return new MethodWrapper(instanceToUse, method) {
+					@Override
+					protected void handleInvocationTargetException(Throwable targetException, State state) {
+						handled.add(targetException);
+					}
+				};
+			}
+		};
+		test.validate(EcoreFactory.eINSTANCE.createEClass(), new BasicDiagnostic(), null);
+		assertEquals(2, handled.size());
+		assertTrue(handled.contains(checked));
+		assertTrue(handled.contains(unchecked));
+		// the checks are invoked through method handles rather than reflection
+		for (StackTraceElement element : unchecked.getStackTrace()) {
+			assertFalse(element.toString(), element.getClassName().endsWith("MethodAccessorImpl"));
+			assertFalse(element.toString(), element.getClassName().equals(Method.class.getName()));
+		}
+	}
 }
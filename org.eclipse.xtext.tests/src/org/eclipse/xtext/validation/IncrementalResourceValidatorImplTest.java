@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.validation;
+
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.BasicDiagnostic;
+import org.eclipse.emf.common.util.Diagnostic;
+import org.eclipse.emf.common.util.DiagnosticChain;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EDataType;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EValidator;
+import org.eclipse.xtext.linking.LangATestLanguageStandaloneSetup;
+import org.eclipse.xtext.linking.langATestLanguage.LangATestLanguagePackage;
+import org.eclipse.xtext.linking.langATestLanguage.Main;
+import org.eclipse.xtext.linking.langATestLanguage.Type;
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.tests.AbstractXtextTests;
+import org.eclipse.xtext.util.StringInputStream;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class IncrementalResourceValidatorImplTest extends AbstractXtextTests {
+
+	private List<String> validated;
+
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		with(new LangATestLanguageStandaloneSetup());
+		validated = Lists.newArrayList();
+		EValidator.Registry.INSTANCE.put(LangATestLanguagePackage.eINSTANCE, new EValidator() {
+
+			@Override
+			public boolean validate(EObject eObject, DiagnosticChain diagnostics, Map<Object, Object> context) {
+				if (eObject instanceof Type) {
+					String name = ((Type) eObject).getName();
+					validated.add(name);
+					if (name.startsWith("Foo"))
+						diagnostics.add(new BasicDiagnostic(Diagnostic.ERROR, "", 12, name, new Object[] { eObject }));
+				}
+				return true;
+			}
+
+			@Override
+			public boolean validate(EClass eClass, EObject eObject, DiagnosticChain diagnostics,
+					Map<Object, Object> context) {
+				return validate(eObject, diagnostics, context);
+			}
+
+			@Override
+			public boolean validate(EDataType eDataType, Object value, DiagnosticChain diagnostics,
+					Map<Object, Object> context) {
+				return false;
+			}
+		});
+	}
+
+	@Override
+	public void tearDown() throws Exception {
+		EValidator.Registry.INSTANCE.remove(LangATestLanguagePackage.eINSTANCE);
+		super.tearDown();
+	}
+
+	@Test public void testUnchangedSubtreesAreNotRevalidated() throws Exception {
+		XtextResource resource = getResourceAndExpect(new StringInputStream("type A extends B type B type FooC"), 0);
+		IResourceValidator validator = get(IncrementalResourceValidatorImpl.class);
+		assertEquals(1, validator.validate(resource, CheckMode.NORMAL_AND_FAST, null).size());
+		assertEquals(3, validated.size());
+		validated.clear();
+		List<Issue> issues = validator.validate(resource, CheckMode.NORMAL_AND_FAST, null);
+		assertEquals(1, issues.size());
+		assertEquals("FooC", issues.get(0).getMessage());
+		assertTrue(validated.isEmpty());
+	}
+
+	@Test public void testChangedSubtreeAndReferencingSubtreesAreRevalidated() throws Exception {
+		XtextResource resource = getResourceAndExpect(new StringInputStream("type A extends B type B type C"), 0);
+		IResourceValidator validator = get(IncrementalResourceValidatorImpl.class);
+		validator.validate(resource, CheckMode.NORMAL_AND_FAST, null);
+		validated.clear();
+		Main main = (Main) resource.getContents().get(0);
+		main.getTypes().get(1).setName("FooB");
+		List<Issue> issues = validator.validate(resource, CheckMode.NORMAL_AND_FAST, null);
+		assertEquals(1, issues.size());
+		assertEquals("FooB", issues.get(0).getMessage());
+		assertEquals(2, validated.size());
+		assertTrue(validated.contains("A"));
+		assertTrue(validated.contains("FooB"));
+	}
+
+	@Test public void testCheckModesAreRememberedSeparately() throws Exception {
+		XtextResource resource = getResourceAndExpect(new StringInputStream("type A type B"), 0);
+		IResourceValidator validator = get(IncrementalResourceValidatorImpl.class);
+		validator.validate(resource, CheckMode.NORMAL_AND_FAST, null);
+		validator.validate(resource, CheckMode.FAST_ONLY, null);
+		assertEquals(4, validated.size());
+		validated.clear();
+		Main main = (Main) resource.getContents().get(0);
+		main.getTypes().get(0).setName("C");
+		validator.validate(resource, CheckMode.FAST_ONLY, null);
+		validator.validate(resource, CheckMode.NORMAL_AND_FAST, null);
+		assertEquals(2, validated.size());
+	}
+
+}
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.validation;
+
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.BasicDiagnostic;
+import org.eclipse.emf.common.util.Diagnostic;
+import org.eclipse.emf.common.util.DiagnosticChain;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EDataType;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EValidator;
+import org.eclipse.xtext.linking.LangATestLanguageStandaloneSetup;
+import org.eclipse.xtext.linking.langATestLanguage.LangATestLanguagePackage;
+import org.eclipse.xtext.linking.langATestLanguage.Type;
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.tests.AbstractXtextTests;
+import org.eclipse.xtext.util.StringInputStream;
+import org.junit.Test;
+
+public class ParallelResourceValidatorImplTest extends AbstractXtextTests {
+
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		with(new LangATestLanguageStandaloneSetup());
+		EValidator.Registry.INSTANCE.put(LangATestLanguagePackage.eINSTANCE, new EValidator() {
+
+			@Override
+			public boolean validate(EObject eObject, DiagnosticChain diagnostics, Map<Object, Object> context) {
+				if (eObject instanceof Type) {
+					String name = ((Type) eObject).getName();
+					if (name.startsWith("Foo"))
+						diagnostics.add(new BasicDiagnostic(Diagnostic.ERROR, "", 12, name, new Object[] { eObject }));
+					if (name.startsWith("Bar"))
+						diagnostics.add(new BasicDiagnostic(Diagnostic.WARNING, "", 12, name, new Object[] { eObject }));
+				}
+				return true;
+			}
+
+			@Override
+			public boolean validate(EClass eClass, EObject eObject, DiagnosticChain diagnostics,
+					Map<Object, Object> context) {
+				return validate(eObject, diagnostics, context);
+			}
+
+			@Override
+			public boolean validate(EDataType eDataType, Object value, DiagnosticChain diagnostics,
+					Map<Object, Object> context) {
+				return false;
+			}
+		});
+	}
+
+	@Override
+	public void tearDown() throws Exception {
+		EValidator.Registry.INSTANCE.remove(LangATestLanguagePackage.eINSTANCE);
+		super.tearDown();
+	}
+
+	@Test public void testSameIssuesAsSequentialValidation() throws Exception {
+		StringBuilder model = new StringBuilder();
+		for (int i = 0; i < 50; i++) {
+			model.append("type Foo").append(i).append(" type Bar").append(i).append(" type Baz").append(i).append("\n");
+		}
+		XtextResource resource = getResourceAndExpect(new StringInputStream(model.toString()), 0);
+		List<Issue> expected = get(ResourceValidatorImpl.class).validate(resource, CheckMode.NORMAL_AND_FAST, null);
+		List<Issue> actual = get(ParallelResourceValidatorImpl.class).validate(resource, CheckMode.NORMAL_AND_FAST, null);
+		assertEquals(100, expected.size());
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getMessage(), actual.get(i).getMessage());
+			assertEquals(expected.get(i).getSeverity(), actual.get(i).getSeverity());
+		}
+	}
+
+}
@@ -9,6 +9,7 @@ package org.eclipse.xtext.build;
 
 import com.google.common.base.Objects;
 import com.google.inject.Inject;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.eclipse.core.runtime.OperationCanceledException;
@@ -194,6 +195,42 @@ public class IncrementalBuilderTest extends AbstractIncrementalBuilderTest {
     Assert.assertTrue(this.containsSuffix(this.generated.values(), "src-gen/A.txt"));
   }
   
+  @Test
+  public void testParallelGeneration() {
+    final Procedure1<BuildRequest> _function = (BuildRequest it) -> {
+      it.setGenerateInParallel(true);
+      StringConcatenation _builder = new StringConcatenation();
+      _builder.append("foo {");
+      _builder.newLine();
+      _builder.append("\t");
+      _builder.append("entity A {foo.B reference}");
+      _builder.newLine();
+      _builder.append("}");
+      _builder.newLine();
+      URI _minus = this.operator_minus(
+        "src/A.indextestlanguage", _builder.toString());
+      StringConcatenation _builder_1 = new StringConcatenation();
+      _builder_1.append("foo {");
+      _builder_1.newLine();
+      _builder_1.append("\t");
+      _builder_1.append("entity B {foo.A reference}");
+      _builder_1.newLine();
+      _builder_1.append("}");
+      _builder_1.newLine();
+      URI _minus_1 = this.operator_minus(
+        "src/B.indextestlanguage", _builder_1.toString());
+      it.setDirtyFiles(Collections.<URI>unmodifiableList(CollectionLiterals.<URI>newArrayList(_minus, _minus_1)));
+    };
+    final BuildRequest buildRequest = this.newBuildRequest(_function);
+    final IndexState state = this.build(buildRequest);
+    Assert.assertTrue(this.issues.toString(), this.issues.isEmpty());
+    Assert.assertEquals(2, this.generated.size());
+    Assert.assertTrue(this.containsSuffix(this.generated.values(), "src-gen/B.txt"));
+    Assert.assertTrue(this.containsSuffix(this.generated.values(), "src-gen/A.txt"));
+    Assert.assertEquals(1, state.getFileMappings().getGenerated(this.uri("src/A.indextestlanguage")).size());
+    Assert.assertEquals(1, state.getFileMappings().getGenerated(this.uri("src/B.indextestlanguage")).size());
+  }
+  
   @Test(expected = OperationCanceledException.class)
   public void testCancellation() {
     final IncrementalBuilderTest.CancelOnFirstModel cancelOnFirstModel = new IncrementalBuilderTest.CancelOnFirstModel();
@@ -255,6 +292,43 @@ public class IncrementalBuilderTest extends AbstractIncrementalBuilderTest {
     Assert.assertEquals(1, IterableExtensions.size(result.getResourceDescriptions().getAllResourceDescriptions()));
   }
   
+  @Test
+  public void testUnchangedFilesAreNotReportedAsGenerated() {
+    StringConcatenation _builder = new StringConcatenation();
+    _builder.append("foo {");
+    _builder.newLine();
+    _builder.append("\t");
+    _builder.append("entity A {}");
+    _builder.newLine();
+    _builder.append("}");
+    _builder.newLine();
+    final String contents = _builder.toString();
+    final Procedure1<BuildRequest> _function = (BuildRequest it) -> {
+      it.setSkipUnchangedFiles(true);
+      URI _minus = this.operator_minus(
+        "src/MyFile.indextestlanguage", contents);
+      it.setDirtyFiles(Collections.<URI>unmodifiableList(CollectionLiterals.<URI>newArrayList(_minus)));
+    };
+    this.build(this.newBuildRequest(_function));
+    Assert.assertEquals(1, this.generated.size());
+    final ArrayList<URI> unchanged = CollectionLiterals.<URI>newArrayList();
+    final Procedure1<BuildRequest> _function_1 = (BuildRequest it) -> {
+      it.setSkipUnchangedFiles(true);
+      URI _minus = this.operator_minus(
+        "src/MyFile.indextestlanguage", contents);
+      it.setDirtyFiles(Collections.<URI>unmodifiableList(CollectionLiterals.<URI>newArrayList(_minus)));
+      final Procedure2<URI, URI> _function_2 = (URI source, URI target) -> {
+        unchanged.add(target);
+      };
+      it.setAfterUnchangedFile(_function_2);
+    };
+    final IndexState state = this.build(this.newBuildRequest(_function_1));
+    Assert.assertTrue(this.generated.toString(), this.generated.isEmpty());
+    Assert.assertEquals(1, unchanged.size());
+    Assert.assertTrue(this.containsSuffix(unchanged, "src-gen/A.txt"));
+    Assert.assertEquals(unchanged, state.getFileMappings().getGenerated(this.uri("src/MyFile.indextestlanguage")));
+  }
+  
   @Test
   public void testDelete_01() {
     final Procedure1<BuildRequest> _function = (BuildRequest it) -> {
@@ -29,6 +29,7 @@ import org.eclipse.xtext.formatting2.internal.formattertestlanguage.Formattertes
 import org.eclipse.xtext.formatting2.internal.formattertestlanguage.IDList;
 import org.eclipse.xtext.formatting2.internal.tests.FormatterTestLanguageInjectorProvider;
 import org.eclipse.xtext.resource.IResourceFactory;
+import org.eclipse.xtext.resource.SaveOptions;
 import org.eclipse.xtext.resource.XtextResource;
 import org.eclipse.xtext.testing.InjectWith;
 import org.eclipse.xtext.testing.XtextRunner;
@@ -119,4 +120,23 @@ public class FormatterSerializerIntegrationTest {
       throw Exceptions.sneakyThrow(_e);
     }
   }
+  
+  @Test
+  public void testStreamingBypassesFormatter() {
+    try {
+      final Resource resource = this.factory.createResource(URI.createURI("dummy.ext"));
+      new ResourceSetImpl().getResources().add(resource);
+      final IDList model = FormattertestlanguageFactory.eINSTANCE.createIDList();
+      EList<String> _ids = model.getIds();
+      _ids.add("foo");
+      EList<EObject> _contents = resource.getContents();
+      _contents.add(model);
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      BufferedOutputStream _bufferedOutputStream = new BufferedOutputStream(out);
+      resource.save(_bufferedOutputStream, SaveOptions.newBuilder().stream().getOptions().toOptionsMap());
+      Assert.assertEquals("idlist foo", out.toString());
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
 }
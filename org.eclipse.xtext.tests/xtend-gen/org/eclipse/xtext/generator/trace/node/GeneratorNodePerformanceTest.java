@@ -26,6 +26,31 @@ import org.junit.rules.Timeout;
  */
 @SuppressWarnings("all")
 public class GeneratorNodePerformanceTest {
+  public static class CharCounter implements Appendable {
+    private long count;
+    
+    @Override
+    public Appendable append(final CharSequence csq) {
+      long _count = this.count;
+      int _length = csq.length();
+      this.count = (_count + _length);
+      return this;
+    }
+    
+    @Override
+    public Appendable append(final CharSequence csq, final int start, final int end) {
+      long _count = this.count;
+      this.count = (_count + (end - start));
+      return this;
+    }
+    
+    @Override
+    public Appendable append(final char c) {
+      this.count++;
+      return this;
+    }
+  }
+  
   @Extension
   private GeneratorNodeExtensions exts = new GeneratorNodeExtensions();
   
@@ -36,13 +61,7 @@ public class GeneratorNodePerformanceTest {
   
   @Test
   public void testBasicCreationAndProcessingPerformance() {
-    final LocationData root = this.loc(0);
-    CompositeGeneratorNode node = this.exts.appendNewLine(this.exts.append(this.exts.trace(root), "notindented"));
-    ExclusiveRange _doubleDotLessThan = new ExclusiveRange(0, GeneratorNodePerformanceTest.numberOfLines, true);
-    for (final Integer i : _doubleDotLessThan) {
-      this.exts.appendNewLine(this.exts.append(this.exts.indent(this.exts.appendNewLine(this.exts.append(this.exts.trace(this.exts.indent(node), this.loc(1)), "indented1"))), "indented2"));
-    }
-    this.exts.append(this.exts.appendNewLine(node), "dedented");
+    final CompositeGeneratorNode node = this.createNode(GeneratorNodePerformanceTest.numberOfLines);
     final GeneratorNodeProcessor processor = new GeneratorNodeProcessor();
     GeneratorNodeProcessor.Result _process = processor.process(node);
     String _string = null;
@@ -52,6 +71,26 @@ public class GeneratorNodePerformanceTest {
     Assert.assertFalse(StringExtensions.isNullOrEmpty(_string));
   }
   
+  @Test
+  public void testStreamingProcessingPerformance() {
+    final CompositeGeneratorNode node = this.createNode(GeneratorNodePerformanceTest.numberOfLines);
+    final GeneratorNodeProcessor processor = new GeneratorNodeProcessor();
+    final GeneratorNodePerformanceTest.CharCounter output = new GeneratorNodePerformanceTest.CharCounter();
+    Assert.assertNotNull(processor.process(node, output));
+    Assert.assertTrue((output.count > 0));
+  }
+  
+  private CompositeGeneratorNode createNode(final int lines) {
+    final LocationData root = this.loc(0);
+    CompositeGeneratorNode node = this.exts.appendNewLine(this.exts.append(this.exts.trace(root), "notindented"));
+    ExclusiveRange _doubleDotLessThan = new ExclusiveRange(0, lines, true);
+    for (final Integer i : _doubleDotLessThan) {
+      this.exts.appendNewLine(this.exts.append(this.exts.indent(this.exts.appendNewLine(this.exts.append(this.exts.trace(this.exts.indent(node), this.loc(1)), "indented1"))), "indented2"));
+    }
+    this.exts.append(this.exts.appendNewLine(node), "dedented");
+    return node;
+  }
+  
   private LocationData loc(final int idx) {
     SourceRelativeURI _sourceRelativeURI = new SourceRelativeURI("foo/mymodel.dsl");
     return new LocationData(idx, (100 - idx), 0, 0, _sourceRelativeURI);
@@ -7,8 +7,10 @@
  */
 package org.eclipse.xtext.generator.trace.node;
 
+import java.io.StringWriter;
 import org.eclipse.xtend2.lib.StringConcatenation;
 import org.eclipse.xtend2.lib.StringConcatenationClient;
+import org.eclipse.xtext.generator.trace.AbstractTraceRegion;
 import org.eclipse.xtext.generator.trace.LocationData;
 import org.eclipse.xtext.generator.trace.SourceRelativeURI;
 import org.eclipse.xtext.generator.trace.node.CompositeGeneratorNode;
@@ -346,6 +348,26 @@ public class GeneratorNodeTest {
     this.exts.append(this.exts.append(parent, "d"), this.exts.appendNewLine(new IndentNode("  ", indentImmediately, indentEmptyLines)));
   }
   
+  @Test
+  public void testStreamingProcessing() {
+    CompositeGeneratorNode _trace = this.exts.trace(this.loc(0));
+    StringConcatenationClient _client = new StringConcatenationClient() {
+      @Override
+      protected void appendTo(StringConcatenationClient.TargetStringConcatenation _builder) {
+        StringConcatenationClient _someCodeGen = GeneratorNodeTest.this.someCodeGen(2);
+        _builder.append(_someCodeGen);
+        _builder.newLineIfNotEmpty();
+      }
+    };
+    final CompositeGeneratorNode node = this.exts.appendTemplate(_trace, _client);
+    final GeneratorNodeProcessor processor = new GeneratorNodeProcessor();
+    final GeneratorNodeProcessor.Result result = processor.process(node);
+    final StringWriter output = new StringWriter();
+    final AbstractTraceRegion traceRegion = processor.process(node, output);
+    this.assertEquals(result.toString(), output.toString());
+    this.assertEquals(result.getTraceRegion().toString(), traceRegion.toString());
+  }
+  
   private void assertEquals(final String expected, final String actual) {
     final String expectedM = expected.toString().replaceAll(System.lineSeparator(), "\n");
     final String actualM = actual.toString().replaceAll(System.lineSeparator(), "\n");
@@ -0,0 +1,381 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.util;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.util.WrappedException;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.Resource.Diagnostic;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.util.concurrent.IUnitOfWork;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+
+/**
+ * A cache implementation that stores its values in the scope of a resource. In contrast to the
+ * {@link OnChangeEvictingCache}, values may declare a dependency on a subtree of the resource's contents and
+ * optionally on a set of features. Only those values are discarded, that depend on the containment path of a
+ * changed object.
+ *
+ * Values that are cached by means of {@link #get(Object, Resource, Provider)} do not declare any dependency and will
+ * be discarded on every semantic change, just like with the {@link OnChangeEvictingCache}.
+ *
+ * Clients may bind this implementation in their runtime module:
+ *
+ * <pre>
+ * public Class&lt;? extends IResourceScopeCache&gt; bindIResourceScopeCache() {
+ * 	return DependencyTrackingResourceScopeCache.class;
+ * }
+ * </pre>
+ *
+ * @since 2.18
+ */
+@Singleton
+public class DependencyTrackingResourceScopeCache implements IResourceScopeCache {
+
+	@Override
+	public <T> T get(Object key, Resource resource, Provider<T> provider) {
+		return get(key, resource, null, null, provider);
+	}
+
+	/**
+	 * Try to obtain the value that is cached for the given key in the given resource. If no value is cached, the
+	 * provider is used to compute it and store it afterwards. The value is discarded as soon as the subtree of the
+	 * given dependency changes.
+	 *
+	 * @param dependency
+	 *            the root of the subtree that the value depends on. If it is <code>null</code>, any semantic change
+	 *            of the resource discards the value.
+	 */
+	public <T> T get(Object key, Resource resource, EObject dependency, Provider<T> provider) {
+		return get(key, resource, dependency, null, provider);
+	}
+
+	/**
+	 * Try to obtain the value that is cached for the given key in the given resource. If no value is cached, the
+	 * provider is used to compute it and store it afterwards. The value is discarded as soon as one of the given
+	 * features of an object in the subtree of the given dependency changes.
+	 *
+	 * @param dependency
+	 *            the root of the subtree that the value depends on. If it is <code>null</code>, any semantic change
+	 *            of the resource discards the value.
+	 * @param features
+	 *            the features that the value depends on. If it is <code>null</code>, any change in the subtree of
+	 *            the dependency discards the value.
+	 */
+	public <T> T get(Object key, Resource resource, EObject dependency, Set<? extends EStructuralFeature> features,
+			Provider<T> provider) {
+		if (resource == null) {
+			return provider.get();
+		}
+		CacheAdapter adapter = getOrCreate(resource);
+		Entry entry = adapter.getEntry(key);
+		if (entry == null) {
+			adapter.misses.incrementAndGet();
+			T value = provider.get();
+			adapter.set(key, value, dependency, features);
+			return value;
+		}
+		adapter.hits.incrementAndGet();
+		@SuppressWarnings("unchecked")
+		T result = (T) entry.value;
+		return result;
+	}
+
+	@Override
+	public void clear(Resource resource) {
+		getOrCreate(resource).clearValues();
+	}
+
+	/**
+	 * Returns the cache adapter that is associated with the resource. Will not return <code>null</code>.
+	 */
+	public CacheAdapter getOrCreate(Resource resource) {
+		CacheAdapter adapter = (CacheAdapter) EcoreUtil.getAdapter(resource.eAdapters(), CacheAdapter.class);
+		if (adapter == null) {
+			adapter = new CacheAdapter();
+			resource.eAdapters().add(adapter);
+		}
+		return adapter;
+	}
+
+	/**
+	 * The transaction will be executed. While it is running, any semantic state change in the given resource will be
+	 * ignored and no values will be discarded.
+	 */
+	public <Result, Param extends Resource> Result execWithoutCacheClear(Param resource,
+			IUnitOfWork<Result, Param> transaction) throws WrappedException {
+		CacheAdapter cacheAdapter = getOrCreate(resource);
+		try {
+			cacheAdapter.ignoreNotifications();
+			return transaction.exec(resource);
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new WrappedException(e);
+		} finally {
+			cacheAdapter.listenToNotifications();
+		}
+	}
+
+	private static class Entry {
+		private final Object value;
+		private final EObject dependency;
+		private final Set<? extends EStructuralFeature> features;
+
+		private Entry(Object value, EObject dependency, Set<? extends EStructuralFeature> features) {
+			this.value = value;
+			this.dependency = dependency;
+			this.features = features;
+		}
+
+		private boolean dependsOn(Object feature) {
+			return features == null || features.contains(feature);
+		}
+	}
+
+	public static class CacheAdapter extends NonRecursiveEContentAdapter {
+
+		private final Map<Object, Entry> values = new ConcurrentHashMap<Object, Entry>(500);
+
+		/**
+		 * The keys of the values that depend on a given subtree, guarded by {@code this}.
+		 */
+		private final Map<EObject, Set<Object>> dependents = Maps.newHashMap();
+
+		/**
+		 * The keys of the values without a dependency, guarded by {@code this}.
+		 */
+		private final Set<Object> independents = Sets.newHashSet();
+
+		private final AtomicInteger ignoreNotificationCounter = new AtomicInteger(0);
+
+		private final AtomicLong hits = new AtomicLong();
+
+		private final AtomicLong misses = new AtomicLong();
+
+		private final AtomicLong evictions = new AtomicLong();
+
+		private Entry getEntry(Object key) {
+			return values.get(key);
+		}
+
+		public <T> T get(Object key) {
+			Entry entry = getEntry(key);
+			if (entry == null) {
+				return null;
+			}
+			@SuppressWarnings("unchecked")
+			T result = (T) entry.value;
+			return result;
+		}
+
+		public synchronized void set(Object key, Object value, EObject dependency,
+				Set<? extends EStructuralFeature> features) {
+			Entry previous = values.put(key, new Entry(value, dependency, features));
+			if (previous != null) {
+				unregister(key, previous);
+			}
+			if (dependency == null) {
+				independents.add(key);
+			} else {
+				Set<Object> keys = dependents.get(dependency);
+				if (keys == null) {
+					keys = Sets.newHashSet();
+					dependents.put(dependency, keys);
+				}
+				keys.add(key);
+			}
+		}
+
+		private void unregister(Object key, Entry entry) {
+			if (entry.dependency == null) {
+				independents.remove(key);
+			} else {
+				Set<Object> keys = dependents.get(entry.dependency);
+				if (keys != null) {
+					keys.remove(key);
+					if (keys.isEmpty()) {
+						dependents.remove(entry.dependency);
+					}
+				}
+			}
+		}
+
+		public void ignoreNotifications() {
+			ignoreNotificationCounter.incrementAndGet();
+		}
+
+		public void listenToNotifications() {
+			if (ignoreNotificationCounter.decrementAndGet() < 0) {
+				throw new IllegalStateException("ignoreNotificationCounter may not be less than zero");
+			}
+		}
+
+		public boolean isIgnoreNotifications() {
+			return ignoreNotificationCounter.get() > 0;
+		}
+
+		@Override
+		public void notifyChanged(Notification notification) {
+			super.notifyChanged(notification);
+			if (ignoreNotificationCounter.get() == 0 && isSemanticStateChange(notification)) {
+				Object notifier = notification.getNotifier();
+				if (notifier instanceof EObject) {
+					evict((EObject) notifier, notification);
+				} else {
+					clearValues();
+				}
+			}
+		}
+
+		/**
+		 * Discards all values that depend on the containment path of the given notifier and all values
+		 * that depend on an object that was removed from the contents.
+		 */
+		protected synchronized void evict(EObject notifier, Notification notification) {
+			if (values.isEmpty()) {
+				return;
+			}
+			evictAll(independents);
+			Object feature = notification.getFeature();
+			for (EObject container = notifier; container != null; container = container.eContainer()) {
+				Set<Object> keys = dependents.get(container);
+				if (keys != null) {
+					for (Object key : Lists.newArrayList(keys)) {
+						Entry entry = values.get(key);
+						if (entry != null && entry.dependsOn(feature)) {
+							evict(key, entry);
+						}
+					}
+				}
+			}
+			if (feature instanceof EReference && ((EReference) feature).isContainment()) {
+				for (EObject removed : getRemovedObjects(notification)) {
+					evictSubtree(removed);
+				}
+			}
+		}
+
+		private void evictSubtree(EObject removed) {
+			Iterator<Map.Entry<EObject, Set<Object>>> iterator = dependents.entrySet().iterator();
+			List<Object> keys = Lists.newArrayList();
+			while (iterator.hasNext()) {
+				Map.Entry<EObject, Set<Object>> next = iterator.next();
+				if (EcoreUtil.isAncestor(removed, next.getKey())) {
+					keys.addAll(next.getValue());
+				}
+			}
+			evictAll(keys);
+		}
+
+		private Collection<EObject> getRemovedObjects(Notification notification) {
+			Object oldValue = notification.getOldValue();
+			if (oldValue instanceof EObject) {
+				return Collections.singletonList((EObject) oldValue);
+			}
+			if (notification.getEventType() == Notification.REMOVE_MANY && oldValue instanceof Collection<?>) {
+				List<EObject> result = Lists.newArrayList();
+				for (Object object : (Collection<?>) oldValue) {
+					if (object instanceof EObject) {
+						result.add((EObject) object);
+					}
+				}
+				return result;
+			}
+			return Collections.emptyList();
+		}
+
+		private void evictAll(Collection<Object> keys) {
+			if (keys.isEmpty()) {
+				return;
+			}
+			for (Object key : Lists.newArrayList(keys)) {
+				Entry entry = values.get(key);
+				if (entry != null) {
+					evict(key, entry);
+				}
+			}
+		}
+
+		private void evict(Object key, Entry entry) {
+			if (values.remove(key, entry)) {
+				unregister(key, entry);
+				evictions.incrementAndGet();
+			}
+		}
+
+		public synchronized void clearValues() {
+			evictions.addAndGet(values.size());
+			values.clear();
+			dependents.clear();
+			independents.clear();
+		}
+
+		private boolean isSemanticStateChange(Notification notification) {
+			return !notification.isTouch() && !(notification.getNewValue() instanceof Diagnostic)
+					&& !(notification.getOldValue() instanceof Diagnostic);
+		}
+
+		/**
+		 * The number of values that were answered from this cache.
+		 */
+		public long getHits() {
+			return hits.get();
+		}
+
+		/**
+		 * The number of values that had to be computed.
+		 */
+		public long getMisses() {
+			return misses.get();
+		}
+
+		/**
+		 * The number of values that were discarded.
+		 */
+		public long getEvictions() {
+			return evictions.get();
+		}
+
+		/**
+		 * The number of values that are currently cached.
+		 */
+		public int getSize() {
+			return values.size();
+		}
+
+		@Override
+		public boolean isAdapterForType(Object type) {
+			return type == getClass();
+		}
+
+		@Override
+		protected boolean resolve() {
+			return false;
+		}
+	}
+
+}
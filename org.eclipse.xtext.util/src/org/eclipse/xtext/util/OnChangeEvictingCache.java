@@ -13,6 +13,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.log4j.Logger;
 import org.eclipse.emf.common.notify.Notification;
@@ -197,6 +198,7 @@ public class OnChangeEvictingCache implements IResourceScopeCache {
 		
 		private int misses = 0;
 		private int hits = 0;
+		private final AtomicLong evictions = new AtomicLong();
 
 		public void set(Object name, Object value) {
 			empty = false;
@@ -240,6 +242,30 @@ public class OnChangeEvictingCache implements IResourceScopeCache {
 			hits++;
 		}
 		
+		/**
+		 * The number of cache hits since the values were cleared the last time.
+		 * @since 2.18
+		 */
+		public int getHits() {
+			return hits;
+		}
+
+		/**
+		 * The number of cache misses since the values were cleared the last time.
+		 * @since 2.18
+		 */
+		public int getMisses() {
+			return misses;
+		}
+
+		/**
+		 * The total number of values that were discarded by this adapter.
+		 * @since 2.18
+		 */
+		public long getEvictions() {
+			return evictions.get();
+		}
+
 		@SuppressWarnings("unchecked")
 		private <T> T internalGet(Object name) {
 			if (empty)
@@ -284,6 +310,7 @@ public class OnChangeEvictingCache implements IResourceScopeCache {
 					log.debug(String.format("Clear %d cache entries for resource %s after %d hits and %d misses (quota: %d%%)", 
 							values.size(), lastSegment, hits, misses, hits + misses != 0 ? hits * 100 / (hits + misses) : 0));
 				}
+				evictions.addAndGet(values.size());
 				values.clear();
 				empty = true;
 				misses = 0;
@@ -10,17 +10,21 @@ package org.eclipse.xtext.util;
 
 import static org.eclipse.xtext.util.ReflectionUtil.*;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.log4j.Logger;
 
-import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 
 /**
@@ -35,6 +39,10 @@ public class PolymorphicDispatcher<RT> {
 
 	private List<MethodDesc> methods;
 
+	private static final boolean USE_METHOD_HANDLES = Boolean.getBoolean("xtext.dispatcher.methodHandles");
+
+	private volatile boolean useMethodHandles = USE_METHOD_HANDLES;
+
 	public static class DefaultErrorHandler<RT> implements ErrorHandler<RT> {
 		@Override
 		public RT handle(Object[] params, Throwable e) {
@@ -246,39 +254,137 @@ public class PolymorphicDispatcher<RT> {
 		return compareTo;
 	}
 
-	private final SimpleCache<List<Class<?>>, List<MethodDesc>> cache =
-		new SimpleCache<List<Class<?>>, List<MethodDesc>>(
-			new Function<List<Class<?>>, List<MethodDesc>>() {
-				@Override
-				public List<MethodDesc> apply(List<Class<?>> paramTypes) {
-					// 'result' contains all best-matched MethodDesc for which 
-					// pairwise compare(m1, m2) == 0, meaning they're equal or unrelated. 
-					List<MethodDesc> result = new ArrayList<MethodDesc>();
-					Iterator<MethodDesc> iterator = methods.iterator();
-					NEXT: while (iterator.hasNext()) {
-						MethodDesc methodDesc = iterator.next();
-						if (methodDesc.isInvokeable(paramTypes)) {
-							if (result.isEmpty()) {
-								result.add(methodDesc);
-							} else {
-								Iterator<MethodDesc> it = result.iterator();
-								while(it.hasNext()) {
-									MethodDesc next = it.next();
-									int compare = compare(next, methodDesc);
-									if (compare < 0) {
-										it.remove();
-									} else if (compare > 0) {
-										continue NEXT;
-									}
-								}
-								result.add(methodDesc);
-							}
+	/**
+	 * Returns all best-matched MethodDesc for which pairwise compare(m1, m2) == 0, meaning they're equal or unrelated.
+	 */
+	private List<MethodDesc> findMethods(List<Class<?>> paramTypes) {
+		List<MethodDesc> result = new ArrayList<MethodDesc>();
+		Iterator<MethodDesc> iterator = methods.iterator();
+		NEXT: while (iterator.hasNext()) {
+			MethodDesc methodDesc = iterator.next();
+			if (methodDesc.isInvokeable(paramTypes)) {
+				if (result.isEmpty()) {
+					result.add(methodDesc);
+				} else {
+					Iterator<MethodDesc> it = result.iterator();
+					while(it.hasNext()) {
+						MethodDesc next = it.next();
+						int compare = compare(next, methodDesc);
+						if (compare < 0) {
+							it.remove();
+						} else if (compare > 0) {
+							continue NEXT;
 						}
 					}
-					return result;
+					result.add(methodDesc);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * A node in the dispatch table. The path from the root to a node is the sequence of parameter types.
+	 */
+	private static class DispatchNode {
+		private final ConcurrentHashMap<Class<?>, DispatchNode> children = new ConcurrentHashMap<Class<?>, DispatchNode>(4);
+		private volatile Object dispatch;
+	}
+
+	/**
+	 * The resolved methods for a sequence of parameter types and, if enabled, the method handle
+	 * of the single best match.
+	 */
+	private class Dispatch {
+		private final List<MethodDesc> methods;
+		private volatile MethodHandle handle;
+		private volatile boolean handleFailed;
+
+		private Dispatch(List<MethodDesc> methods) {
+			this.methods = methods;
+		}
+
+		private MethodHandle getHandle(int arity) {
+			MethodHandle result = handle;
+			if (result == null && !handleFailed) {
+				try {
+					result = createMethodHandle(methods.get(0), arity);
+					handle = result;
+				} catch (IllegalAccessException e) {
+					handleFailed = true;
+				} catch (SecurityException e) {
+					handleFailed = true;
 				}
 			}
-		);
+			return result;
+		}
+	}
+
+	private final DispatchNode dispatchTable = new DispatchNode();
+
+	/**
+	 * Looks up the dispatch for the given arguments. Once the dispatch table is populated for a
+	 * sequence of parameter types, the lookup does not allocate.
+	 */
+	@SuppressWarnings("unchecked")
+	private Dispatch getDispatch(Object[] params) {
+		DispatchNode node = dispatchTable;
+		for (int i = 0; i < params.length; i++) {
+			Class<?> type = params[i] != null ? params[i].getClass() : getDefaultClass(i);
+			if (type == null) {
+				// equivalent to Void.class with respect to MethodDesc.isInvokeable
+				type = Void.class;
+			}
+			DispatchNode child = node.children.get(type);
+			if (child == null) {
+				child = new DispatchNode();
+				DispatchNode existing = node.children.putIfAbsent(type, child);
+				if (existing != null) {
+					child = existing;
+				}
+			}
+			node = child;
+		}
+		Dispatch result = (Dispatch) node.dispatch;
+		if (result == null) {
+			result = new Dispatch(findMethods(getTypes(params)));
+			node.dispatch = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Creates a method handle of type {@code (Object[])Object} that invokes the given method
+	 * with the spread arguments.
+	 */
+	private MethodHandle createMethodHandle(MethodDesc methodDesc, int arity) throws IllegalAccessException {
+		Method method = methodDesc.getMethod();
+		method.setAccessible(true);
+		MethodHandle result = MethodHandles.lookup().unreflect(method);
+		if (!Modifier.isStatic(method.getModifiers())) {
+			result = result.bindTo(methodDesc.getTarget());
+		}
+		return result.asSpreader(Object[].class, arity).asType(MethodType.methodType(Object.class, Object[].class));
+	}
+
+	/**
+	 * If enabled, the best matching method for a sequence of parameter types is invoked through a
+	 * {@link MethodHandle} instead of {@link Method#invoke(Object, Object...) reflection}. Method handles
+	 * are created lazily per sequence of parameter types thus the mode pays off for long living dispatchers.
+	 * Can be enabled for all dispatchers with the system property {@code xtext.dispatcher.methodHandles}.
+	 * 
+	 * @since 2.18
+	 */
+	public void setUseMethodHandles(boolean useMethodHandles) {
+		this.useMethodHandles = useMethodHandles;
+	}
+
+	/**
+	 * @since 2.18
+	 */
+	public boolean isUseMethodHandles() {
+		return useMethodHandles;
+	}
 
 	@SuppressWarnings("unchecked")
 	public RT invoke(Object... params) {
@@ -288,7 +394,8 @@ public class PolymorphicDispatcher<RT> {
 				throw new IllegalArgumentException("Wrong number of arguments. Expected "+filter.getMinParams()+" to "+filter.getMaxParams()+".");
 			}
 		}
-		List<MethodDesc> result = cache.get(getTypes(params));
+		Dispatch dispatch = getDispatch(params);
+		List<MethodDesc> result = dispatch.methods;
 		// check if ambiguous
 		if (result.size()>1)
 			return handleAmbigousMethods(result, params);
@@ -296,6 +403,19 @@ public class PolymorphicDispatcher<RT> {
 		if (result.isEmpty())
 			return handleNoSuchMethod(params);
 
+		if (useMethodHandles) {
+			MethodHandle handle = dispatch.getHandle(params.length);
+			if (handle != null) {
+				try {
+					Object value = (Object) handle.invokeExact(params);
+					return (RT) value;
+				} catch (Error e) {
+					throw e;
+				} catch (Throwable e) {
+					return handler.handle(params, e);
+				}
+			}
+		}
 		try {
 			MethodDesc current = result.get(0);
 			current.method.setAccessible(true);
@@ -31,9 +31,19 @@ class BuildContext {
 	ClusteringStorageAwareResourceLoader loader
 	
 	def <T> Iterable<T> executeClustered(Iterable<URI> uri, (Resource)=>T operation) {
+		return executeClustered(uri, operation, [])
+	}
+	
+	/**
+	 * Like {@link #executeClustered(Iterable, org.eclipse.xtext.xbase.lib.Functions.Function1)}, but invokes the
+	 * given callback after the operation was applied to all resources of a cluster, before the resources are
+	 * unloaded.
+	 * @since 2.18
+	 */
+	def <T> Iterable<T> executeClustered(Iterable<URI> uri, (Resource)=>T operation, ()=>void afterCluster) {
 		if(loader === null) 
 			loader = new ClusteringStorageAwareResourceLoader(this)
-		return loader.executeClustered(uri.filter[canHandle], operation)
+		return loader.executeClustered(uri.filter[canHandle], operation, afterCluster)
 	}
 	
 	protected def boolean canHandle(URI uri) {
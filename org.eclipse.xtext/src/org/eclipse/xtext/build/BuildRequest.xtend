@@ -9,6 +9,8 @@ package org.eclipse.xtext.build
 
 import java.io.File
 import java.util.List
+import java.util.concurrent.Executor
+import java.util.concurrent.ExecutorService
 import org.eclipse.emf.common.util.URI
 import org.eclipse.xtend.lib.annotations.Accessors
 import org.eclipse.xtext.resource.IResourceDescription
@@ -44,11 +46,49 @@ class BuildRequest {
 	IPostValidationCallback afterValidate = new DefaultValidationCallback()
 	(URI, URI)=>void afterGenerateFile = []
 	(URI)=>void afterDeleteFile = []
+	/**
+	 * call back for generated files that were not written again, because they already had the generated content.
+	 * @since 2.18
+	 */
+	(URI, URI)=>void afterUnchangedFile = []
 	
 	IndexState state = new IndexState
 	
 	boolean writeStorageResources = false
 	boolean indexOnly = false
+	/**
+	 * Whether generated files are only written if their content changed. The hashes of the generated contents are
+	 * kept in the {@link Source2GeneratedMapping file mappings} of the {@link #state}.
+	 * @since 2.18
+	 */
+	boolean skipUnchangedFiles = false
+	/**
+	 * Whether generated files are written on background threads while the build proceeds. The build waits for all
+	 * pending writes before it returns.
+	 * @since 2.18
+	 */
+	boolean writeFilesAsynchronously = false
+	/**
+	 * The executor that runs the {@link #writeFilesAsynchronously asynchronous writes}, such that its threads are
+	 * reused across builds. If it is <code>null</code>, each build creates and releases its own threads.
+	 * @since 2.18
+	 */
+	Executor fileWriteExecutor
+	/**
+	 * Whether the generators run concurrently on a pool of worker threads. The resources of a cluster are indexed and
+	 * validated first. Afterwards, the resources that passed the validation are generated concurrently, before the
+	 * next cluster is loaded. Before, all resources that are reachable from the cluster are loaded and resolved, such
+	 * that the generators only read the resource set. They must not load further resources. The callbacks of this
+	 * request are invoked while holding its lock.
+	 * @since 2.18
+	 */
+	boolean generateInParallel = false
+	/**
+	 * The executor that runs the generators if they {@link #generateInParallel run in parallel}, such that its threads
+	 * are reused across builds. If it is <code>null</code>, each build creates and releases its own threads.
+	 * @since 2.18
+	 */
+	ExecutorService generatorExecutor
 	
 	XtextResourceSet resourceSet
 	CancelIndicator cancelIndicator = CancelIndicator.NullImpl
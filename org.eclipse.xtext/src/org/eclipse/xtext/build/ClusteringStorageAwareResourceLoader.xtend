@@ -23,6 +23,13 @@ class ClusteringStorageAwareResourceLoader {
 	val extension BuildContext context
 
 	def <T> Iterable<T> executeClustered(Iterable<URI> uris, (Resource)=>T operation) {
+		return executeClustered(uris, operation, [])
+	}
+
+	/**
+	 * @since 2.18
+	 */
+	def <T> Iterable<T> executeClustered(Iterable<URI> uris, (Resource)=>T operation, ()=>void afterCluster) {
 		var loadedURIsCount = 0
 		val sourceLevelURIs = <URI>newHashSet
 		val resources = newArrayList
@@ -32,6 +39,7 @@ class ClusteringStorageAwareResourceLoader {
 			val uri = iter.next
 			if (!clusteringPolicy.continueProcessing(resourceSet, uri, loadedURIsCount)) {
 				result += resources.map[operation.apply(it)]
+				afterCluster.apply
 				clearResourceSet
 				loadedURIsCount = 0
 			}
@@ -48,6 +56,7 @@ class ClusteringStorageAwareResourceLoader {
 			resources += resourceSet.getResource(uri, true)
 		}
 		result += resources.map[operation.apply(it)]
+		afterCluster.apply
 		return result
 	}
 	
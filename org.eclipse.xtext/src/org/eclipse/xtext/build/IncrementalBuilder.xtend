@@ -7,14 +7,21 @@
  *******************************************************************************/
 package org.eclipse.xtext.build
 
+import com.google.common.collect.Sets
+import com.google.common.util.concurrent.ThreadFactoryBuilder
 import com.google.inject.Inject
 import com.google.inject.Provider
 import java.util.List
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
 import org.eclipse.emf.common.util.URI
 import org.eclipse.emf.ecore.resource.Resource
 import org.eclipse.xtend.lib.annotations.Accessors
 import org.eclipse.xtend.lib.annotations.Data
 import org.eclipse.xtext.EcoreUtil2
+import org.eclipse.xtext.generator.AsynchronousFileWriter
 import org.eclipse.xtext.generator.GeneratorDelegate
 import org.eclipse.xtext.generator.IContextualOutputConfigurationProvider
 import org.eclipse.xtext.generator.IContextualOutputConfigurationProvider2
@@ -30,6 +37,7 @@ import org.eclipse.xtext.resource.clustering.DisabledClusteringPolicy
 import org.eclipse.xtext.resource.clustering.IResourceClusteringPolicy
 import org.eclipse.xtext.resource.persistence.SerializableResourceDescription
 import org.eclipse.xtext.resource.persistence.StorageAwareResource
+import org.eclipse.xtext.scoping.impl.IGlobalScopeCache
 import org.eclipse.xtext.service.OperationCanceledManager
 import org.eclipse.xtext.util.CancelIndicator
 import org.eclipse.xtext.validation.CheckMode
@@ -57,6 +65,12 @@ class IncrementalBuilder {
 		@Inject Indexer indexer
 		@Inject extension OperationCanceledManager
 		
+		AsynchronousFileWriter asynchronousWriter
+		
+		ExecutorService generatorExecutor
+		
+		val List<Resource> pendingGeneration = newArrayList
+		
 		protected def void unloadResource(URI uri) {
 			val resource = request.resourceSet.getResource(uri, false)
 			if (resource !== null) {
@@ -66,6 +80,52 @@ class IncrementalBuilder {
 		}
 		
 		def Result launch() {
+			if (request.isWriteFilesAsynchronously) {
+				asynchronousWriter = createAsynchronousFileWriter
+			}
+			if (request.isGenerateInParallel) {
+				generatorExecutor = createGeneratorExecutor
+			}
+			try {
+				val result = doLaunch
+				asynchronousWriter?.flush
+				return result
+			} finally {
+				if (generatorExecutor !== request.generatorExecutor) {
+					generatorExecutor?.shutdownNow
+				}
+				generatorExecutor = null
+				pendingGeneration.clear
+				asynchronousWriter?.close
+				asynchronousWriter = null
+			}
+		}
+		
+		/**
+		 * @since 2.18
+		 */
+		protected def AsynchronousFileWriter createAsynchronousFileWriter() {
+			if (request.fileWriteExecutor !== null) {
+				return new AsynchronousFileWriter(request.fileWriteExecutor, 64, request.cancelIndicator)
+			}
+			return new AsynchronousFileWriter(2, 64, request.cancelIndicator)
+		}
+		
+		/**
+		 * @since 2.18
+		 */
+		protected def ExecutorService createGeneratorExecutor() {
+			if (request.generatorExecutor !== null) {
+				return request.generatorExecutor
+			}
+			return Executors.newFixedThreadPool(Runtime.runtime.availableProcessors,
+				new ThreadFactoryBuilder().setNameFormat("Generator %d").setDaemon(true).build)
+		}
+		
+		/**
+		 * @since 2.18
+		 */
+		protected def Result doLaunch() {
 			val newSource2GeneratedMapping = request.state.fileMappings
 			val unloaded = newHashSet()
 			for (deleted : request.deletedFiles) {
@@ -93,6 +153,7 @@ class IncrementalBuilder {
 			]
 			val result = indexer.computeAndIndexAffected(request, context)
 			request.cancelIndicator.checkCanceled
+			invalidateGlobalScopeCaches(result.resourceDeltas)
 			for (delta : result.resourceDeltas) {
 				if (unloaded.add(delta.uri)) {
 					unloadResource(delta.uri)
@@ -104,7 +165,7 @@ class IncrementalBuilder {
 			resolvedDeltas += result.resourceDeltas.filter[getNew === null]
 			// add changed and added as fully resolved
 			resolvedDeltas += result.resourceDeltas.filter[getNew !== null].map[uri]
-				.executeClustered [
+				.executeClustered([
 					Resource resource |
 					request.cancelIndicator.checkCanceled
 					resource.contents // fully initialize
@@ -121,14 +182,98 @@ class IncrementalBuilder {
 						&& serviceProvider.get(IShouldGenerate).shouldGenerate(resource, CancelIndicator.NullImpl)
 					) {
 						request.cancelIndicator.checkCanceled
-						resource.generate(request, newSource2GeneratedMapping)
+						if (generatorExecutor !== null) {
+							pendingGeneration += resource
+						} else {
+							resource.generate(request, newSource2GeneratedMapping)
+						}
 					}
 					val old = oldState.resourceDescriptions.getResourceDescription(resource.getURI)
 					return manager.createDelta(old, copiedDescription)
-				]
+				], [
+					generatePending(newSource2GeneratedMapping)
+				])
 			return new Result(request.state, resolvedDeltas)
 		}
 		
+		/**
+		 * Discards the values of the global scope caches that are affected by the deltas of this build. The caches of
+		 * the languages of the changed resources are notified.
+		 * @since 2.18
+		 */
+		protected def void invalidateGlobalScopeCaches(List<IResourceDescription.Delta> deltas) {
+			val caches = Sets.<IGlobalScopeCache>newIdentityHashSet
+			for (delta : deltas) {
+				val serviceProvider = delta.uri.resourceServiceProvider
+				if (serviceProvider !== null) {
+					caches += serviceProvider.get(IGlobalScopeCache)
+				}
+			}
+			for (cache : caches) {
+				cache.invalidate(deltas)
+			}
+		}
+		
+		/**
+		 * Generates the validated resources of the current cluster concurrently. The resource set is resolved before,
+		 * such that the generators only read it. Each generator run works on a {@link Source2GeneratedMapping#recordingCopy()
+		 * recording copy} of the given mappings, whose changes are applied to them in the order of the resources once all
+		 * runs have finished.
+		 * @since 2.18
+		 */
+		protected def void generatePending(Source2GeneratedMapping newMappings) {
+			if (pendingGeneration.empty) {
+				return
+			}
+			resolveResourceSet
+			val runs = <Pair<Source2GeneratedMapping, Future<?>>>newArrayList
+			for (resource : pendingGeneration) {
+				val mappings = newMappings.recordingCopy
+				val Runnable run = [
+					request.cancelIndicator.checkCanceled
+					resource.generate(request, mappings)
+				]
+				runs += mappings -> generatorExecutor.submit(run)
+			}
+			pendingGeneration.clear
+			var Throwable failure = null
+			for (run : runs) {
+				try {
+					run.value.get
+				} catch (ExecutionException e) {
+					if (failure === null)
+						failure = e.cause
+				} catch (InterruptedException e) {
+					Thread.currentThread.interrupt
+					for (pending : runs) {
+						pending.value.cancel(true)
+					}
+					throwOperationCanceledException
+				}
+			}
+			if (failure !== null) {
+				throw failure
+			}
+			for (run : runs) {
+				run.key.applyRecordedChanges(newMappings)
+			}
+		}
+		
+		/**
+		 * Loads all resources that are reachable from the resources of the resource set and resolves their cross
+		 * references, such that concurrent generators do not modify the resource set. This loads the transitive closure
+		 * of the current cluster, so the number of loaded resources is not bounded by the
+		 * {@link IResourceClusteringPolicy clustering policy} while the generators run.
+		 * @since 2.18
+		 */
+		protected def void resolveResourceSet() {
+			val resources = request.resourceSet.resources
+			// resolving a resource may load further resources
+			for (var i = 0; i < resources.size; i++) {
+				EcoreUtil2.resolveAll(resources.get(i), request.cancelIndicator)
+			}
+		}
+		
 		def private IResourceServiceProvider getResourceServiceProvider(Resource resource) {
 			if (resource instanceof XtextResource) {
 				return resource.resourceServiceProvider;
@@ -154,18 +299,35 @@ class IncrementalBuilder {
 			val previous = newMappings.deleteSource(resource.getURI)
 			val fileSystemAccess = createFileSystemAccess(serviceProvider, resource) => [
 				beforeWrite = [ uri, outputCfgName, contents |
+					// unchanged files are recorded as well, but only written files are reported as generated
 					newMappings.addSource2Generated(resource.getURI, uri, outputCfgName)
 					previous.remove(uri)
-					request.afterGenerateFile.apply(resource.getURI, uri)
 					return contents
 				]
+				afterWrite = [ uri, outputCfgName |
+					synchronized (request) {
+						request.afterGenerateFile.apply(resource.getURI, uri)
+					}
+				]
 				beforeDelete = [ uri |
 					newMappings.deleteGenerated(uri)
-					request.afterDeleteFile.apply(uri)
+					synchronized (request) {
+						request.afterDeleteFile.apply(uri)
+					}
 					return true
 				]
+				afterUnchanged = [ uri, outputCfgName |
+					synchronized (request) {
+						request.afterUnchangedFile.apply(resource.getURI, uri)
+					}
+				]
 			]
+			if (fileSystemAccess.contentHashes !== null) {
+				// the generator may run concurrently and record its changes separately
+				fileSystemAccess.contentHashes = newMappings
+			}
 			fileSystemAccess.context = resource
+			fileSystemAccess.asynchronousWriter = asynchronousWriter
 			if (request.isWriteStorageResources) {
 				switch resource {
 					StorageAwareResource case resource.resourceStorageFacade !== null: {
@@ -179,7 +341,9 @@ class IncrementalBuilder {
 			// delete everything that was previously generated, but not this time
 			previous.forEach[
 				context.resourceSet.getURIConverter.delete(it, emptyMap)
-				request.getAfterDeleteFile.apply(it)
+				synchronized (request) {
+					request.getAfterDeleteFile.apply(it)
+				}
 			]
 		}
 		
@@ -209,6 +373,8 @@ class IncrementalBuilder {
 						currentSource = sourceFolder?.name
 					}
 					converter = resource.resourceSet.getURIConverter
+					if (request.isSkipUnchangedFiles)
+						contentHashes = request.state.fileMappings
 				]
 			}
 		}
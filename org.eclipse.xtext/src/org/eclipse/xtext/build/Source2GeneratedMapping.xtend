@@ -8,6 +8,8 @@
 package org.eclipse.xtext.build
 
 import com.google.common.collect.HashMultimap
+import com.google.common.collect.Interner
+import com.google.common.collect.Interners
 import com.google.common.collect.Lists
 import com.google.common.collect.Multimap
 import java.io.Externalizable
@@ -16,28 +18,182 @@ import java.io.ObjectInput
 import java.io.ObjectOutput
 import java.util.HashMap
 import java.util.HashSet
+import java.util.LinkedHashMap
 import java.util.List
 import java.util.Map
 import java.util.Set
 import org.eclipse.emf.common.util.URI
-import org.eclipse.xtend.lib.annotations.FinalFieldsConstructor
 import org.eclipse.xtext.generator.IFileSystemAccess
+import org.eclipse.xtext.generator.IGeneratedContentHashes
 
 /**
+ * The contents of a mapping consist of an immutable base and the changes that were made since the base was created. A
+ * copy shares the base with the original and only copies the changes, such that a build that copies the mapping of the
+ * previous state and touches k files costs O(k). The changes are folded into a new base when a mapping is copied and
+ * they became large compared to the base.
+ * 
  * @author Jan Koehnlein - Initial contribution and API
  */
-@FinalFieldsConstructor class Source2GeneratedMapping implements Externalizable {
+class Source2GeneratedMapping implements Externalizable, IGeneratedContentHashes {
 	
-	val Multimap<URI, URI> source2generated
-	val Multimap<URI, URI> generated2source
-	val Map<URI,String> generated2OutputConfigName
+	static val Interner<String> OUTPUT_CONFIG_NAMES = Interners.newWeakInterner
+	
+	/**
+	 * The first int of the format with content hashes that was written by earlier 2.18 versions. States that were
+	 * written before start with the number of sources and have no content hashes.
+	 */
+	static val int FORMAT_2_18 = -1
+	
+	/**
+	 * The first int of the current format, which stores the output configuration names and the URIs in tables.
+	 */
+	static val int COMPACT_FORMAT_2_18 = -2
+	
+	/*
+	 * The base, which is never modified.
+	 */
+	Multimap<URI, URI> source2generated
+	Multimap<URI, URI> generated2source
+	Map<URI,String> generated2OutputConfigName
+	Map<URI,String> generated2ContentHash
+	
+	/*
+	 * The changes since the base was created. They hold the complete new value of each changed key, where a removed
+	 * output configuration name or content hash is <code>null</code>.
+	 */
+	Map<URI, Set<URI>> changedSource2generated = newHashMap
+	Map<URI, Set<URI>> changedGenerated2source = newHashMap
+	Map<URI,String> changedOutputConfigNames = newHashMap
+	Map<URI,String> changedContentHashes = newHashMap
+	
+	/*
+	 * The changes of a recording copy in the order they were made, or <code>null</code> if this mapping does not
+	 * record its changes.
+	 */
+	List<(Source2GeneratedMapping)=>void> recordedChanges
 	
 	new() {
 		this(HashMultimap.create, HashMultimap.create, newHashMap)
 	}
 	
+	new(Multimap<URI, URI> source2generated, Multimap<URI, URI> generated2source, Map<URI,String> generated2OutputConfigName) {
+		this(source2generated, generated2source, generated2OutputConfigName, newHashMap)
+	}
+	
+	private new(Multimap<URI, URI> source2generated, Multimap<URI, URI> generated2source, Map<URI,String> generated2OutputConfigName, Map<URI,String> generated2ContentHash) {
+		this.source2generated = source2generated
+		this.generated2source = generated2source
+		this.generated2OutputConfigName = generated2OutputConfigName
+		this.generated2ContentHash = generated2ContentHash
+	}
+	
+	/**
+	 * Returns a copy of this mapping. It shares the base with this mapping and copies the changes, unless they are
+	 * large compared to the base. In that case, the copy gets a new base that contains the changes.
+	 */
 	def copy() {
-		new Source2GeneratedMapping(HashMultimap.create(source2generated), HashMultimap.create(generated2source), new HashMap(generated2OutputConfigName))
+		if (isFoldChanges) {
+			return folded
+		}
+		val result = new Source2GeneratedMapping(source2generated, generated2source, generated2OutputConfigName, generated2ContentHash)
+		result.changedSource2generated = changedSource2generated.copyValues
+		result.changedGenerated2source = changedGenerated2source.copyValues
+		result.changedOutputConfigNames = new HashMap(changedOutputConfigNames)
+		result.changedContentHashes = new HashMap(changedContentHashes)
+		return result
+	}
+	
+	/**
+	 * Returns a {@link #copy() copy} of this mapping that records the changes that are made to it, such that they can
+	 * be {@link #applyRecordedChanges(Source2GeneratedMapping) applied} to another mapping afterwards.
+	 * @since 2.18
+	 */
+	def Source2GeneratedMapping recordingCopy() {
+		val result = copy
+		result.recordedChanges = newArrayList
+		return result
+	}
+	
+	/**
+	 * Applies the changes that were made to this {@link #recordingCopy() recording copy} to the given mapping, in the
+	 * order they were made.
+	 * @since 2.18
+	 */
+	def void applyRecordedChanges(Source2GeneratedMapping target) {
+		if (recordedChanges === null) {
+			throw new IllegalStateException("This mapping does not record its changes")
+		}
+		recordedChanges.forEach[change | change.apply(target)]
+	}
+	
+	def private void record((Source2GeneratedMapping)=>void change) {
+		if (recordedChanges !== null) {
+			recordedChanges += change
+		}
+	}
+	
+	/**
+	 * Whether the changes are large compared to the base, such that folding them into a new base takes time in the
+	 * order of the changes.
+	 */
+	def private boolean isFoldChanges() {
+		return changeCount * 2 > generated2source.size + generated2ContentHash.size
+	}
+	
+	def private int getChangeCount() {
+		return changedSource2generated.size + changedGenerated2source.size + changedOutputConfigNames.size + changedContentHashes.size
+	}
+	
+	/**
+	 * Returns a mapping with the same contents whose base contains the changes of this mapping.
+	 */
+	def private Source2GeneratedMapping folded() {
+		val newSource2generated = HashMultimap.create(source2generated)
+		changedSource2generated.forEach[ source, generated |
+			newSource2generated.replaceValues(source, generated)
+		]
+		val newGenerated2source = HashMultimap.create(generated2source)
+		changedGenerated2source.forEach[ generated, sources |
+			newGenerated2source.replaceValues(generated, sources)
+		]
+		return new Source2GeneratedMapping(newSource2generated, newGenerated2source,
+			generated2OutputConfigName.withChanges(changedOutputConfigNames),
+			generated2ContentHash.withChanges(changedContentHashes))
+	}
+	
+	def private static Map<URI, Set<URI>> copyValues(Map<URI, Set<URI>> map) {
+		val result = new HashMap<URI, Set<URI>>(map)
+		result.replaceAll[key, value | new HashSet(value)]
+		return result
+	}
+	
+	def private static Map<URI, String> withChanges(Map<URI, String> base, Map<URI, String> changes) {
+		val result = new HashMap<URI, String>(base)
+		changes.forEach[ key, value |
+			if (value === null)
+				result.remove(key)
+			else
+				result.put(key, value)
+		]
+		return result
+	}
+	
+	def private Set<URI> getGeneratedForUpdate(URI source) {
+		var result = changedSource2generated.get(source)
+		if (result === null) {
+			result = new HashSet(source2generated.get(source))
+			changedSource2generated.put(source, result)
+		}
+		return result
+	}
+	
+	def private Set<URI> getSourcesForUpdate(URI generated) {
+		var result = changedGenerated2source.get(generated)
+		if (result === null) {
+			result = new HashSet(generated2source.get(generated))
+			changedGenerated2source.put(generated, result)
+		}
+		return result
 	}
 	
 	def void addSource2Generated(URI source, URI generated) {
@@ -45,49 +201,121 @@ import org.eclipse.xtext.generator.IFileSystemAccess
 	}
 	
 	def void addSource2Generated(URI source, URI generated, String outputCfgName) {
-		source2generated.put(source, generated)
-		generated2source.put(generated, source)
-		generated2OutputConfigName.put(generated, outputCfgName)
+		getGeneratedForUpdate(source).add(generated)
+		getSourcesForUpdate(generated).add(source)
+		changedOutputConfigNames.put(generated, if (outputCfgName !== null) OUTPUT_CONFIG_NAMES.intern(outputCfgName))
+		record[target | target.addSource2Generated(source, generated, outputCfgName)]
 	}
 	
 	def void removeSource2Generated(URI source, URI generated) {
-		source2generated.remove(source, generated)
-		generated2source.remove(generated, source)
+		getGeneratedForUpdate(source).remove(generated)
+		getSourcesForUpdate(generated).remove(source)
+		record[target | target.removeSource2Generated(source, generated)]
 	}
 	
 	def Set<URI> deleteSource(URI source) {
-		val generated = new HashSet<URI>(source2generated.removeAll(source))
+		val current = getGeneratedForUpdate(source)
+		val generated = new HashSet<URI>(current)
+		current.clear
 		generated.forEach[
-			generated2source.remove(it, source)
+			getSourcesForUpdate(it).remove(source)
 		]
+		record[target | target.deleteSource(source)]
 		return generated
 	}
 
 	def void deleteGenerated(URI generated) {
-		generated2source.removeAll(generated).forEach[
-			source2generated.remove(it, generated)
+		val sources = getSourcesForUpdate(generated)
+		sources.forEach[
+			getGeneratedForUpdate(it).remove(generated)
 		]
-		generated2OutputConfigName.remove(generated)
+		sources.clear
+		changedOutputConfigNames.put(generated, null)
+		changedContentHashes.put(generated, null)
+		record[target | target.deleteGenerated(generated)]
 	}
 	
 	def String getOutputConfigName(URI generated) {
+		if (changedOutputConfigNames.containsKey(generated)) {
+			return changedOutputConfigNames.get(generated)
+		}
 		return generated2OutputConfigName.get(generated)
 	}
 	
 	def List<URI> getGenerated(URI source) {
-		return Lists.newArrayList(source2generated.get(source))
+		return Lists.newArrayList(changedSource2generated.get(source) ?: source2generated.get(source))
 	}
 
 	def List<URI> getSource(URI generated) {
-		return Lists.newArrayList(generated2source.get(generated))
+		return Lists.newArrayList(changedGenerated2source.get(generated) ?: generated2source.get(generated))
 	}
 	
 	def List<URI> getAllGenerated() {
-		return Lists.newArrayList(generated2source.keySet)
+		val result = <URI>newArrayList
+		changedGenerated2source.forEach[ generated, sources |
+			if (!sources.empty)
+				result += generated
+		]
+		generated2source.keySet.forEach[
+			if (!changedGenerated2source.containsKey(it))
+				result += it
+		]
+		return result
+	}
+	
+	/**
+	 * @since 2.18
+	 */
+	override String getContentHash(URI generated) {
+		if (changedContentHashes.containsKey(generated)) {
+			return changedContentHashes.get(generated)
+		}
+		return generated2ContentHash.get(generated)
+	}
+	
+	/**
+	 * @since 2.18
+	 */
+	override void setContentHash(URI generated, String hash) {
+		changedContentHashes.put(generated, hash)
+		record[target | target.setContentHash(generated, hash)]
 	}
 	
 	override readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		val first = in.readInt
+		if (first != COMPACT_FORMAT_2_18) {
+			readExternalWithoutTables(in, first)
+			return
+		}
+		val numNames = in.readInt
+		val names = <String>newArrayList
+		for(i: 0..<numNames) {
+			names += OUTPUT_CONFIG_NAMES.intern(in.readUTF)
+		}
+		val numURIs = in.readInt
+		val uris = <URI>newArrayList
+		for(i: 0..<numURIs) {
+			uris += URI.createURI(in.readUTF)
+		}
 		val numEntries = in.readInt
+		for(i: 0..<numEntries) {
+			val source = uris.get(in.readInt)
+			val numGenerated = in.readInt
+			for(j: 0..<numGenerated) {
+				val generated = uris.get(in.readInt)
+				addSource2Generated(source, generated, names.get(in.readInt))
+			}
+		}
+		val numHashes = in.readInt
+		for(i: 0..<numHashes) {
+			val generated = uris.get(in.readInt)
+			setContentHash(generated, in.readUTF)
+		}
+		foldAfterRead
+	}
+	
+	def private void readExternalWithoutTables(ObjectInput in, int first) throws IOException {
+		val numEntries = if (first == FORMAT_2_18) in.readInt else first
 		for(i: 0..<numEntries) {
 			val source = URI.createURI(in.readUTF)
 			val numGenerated = in.readInt
@@ -97,18 +325,78 @@ import org.eclipse.xtext.generator.IFileSystemAccess
 				addSource2Generated(source, generated, outputConfig)
 			}
 		}
+		if (first == FORMAT_2_18) {
+			val numHashes = in.readInt
+			for(i: 0..<numHashes) {
+				val generated = URI.createURI(in.readUTF)
+				setContentHash(generated, in.readUTF)
+			}
+		}
+		foldAfterRead
+	}
+	
+	/**
+	 * Makes the contents that were read the base of this mapping.
+	 */
+	def private void foldAfterRead() {
+		val result = folded
+		source2generated = result.source2generated
+		generated2source = result.generated2source
+		generated2OutputConfigName = result.generated2OutputConfigName
+		generated2ContentHash = result.generated2ContentHash
+		changedSource2generated.clear
+		changedGenerated2source.clear
+		changedOutputConfigNames.clear
+		changedContentHashes.clear
 	}
 	
 	override writeExternal(ObjectOutput out) throws IOException {
-		val entries = source2generated.asMap.entrySet
+		val contents = if (changeCount == 0) this else folded
+		val entries = contents.source2generated.asMap.entrySet
+		val names = new LinkedHashMap<String, Integer>
+		val uris = new LinkedHashMap<URI, Integer>
+		entries.forEach [
+			uris.addId(key)
+			value.forEach[
+				uris.addId(it)
+				names.addId(contents.getOutputConfigNameOrDefault(it))
+			]
+		]
+		contents.generated2ContentHash.keySet.forEach[
+			uris.addId(it)
+		]
+		out.writeInt(COMPACT_FORMAT_2_18)
+		out.writeInt(names.size)
+		names.keySet.forEach[
+			out.writeUTF(it)
+		]
+		out.writeInt(uris.size)
+		uris.keySet.forEach[
+			out.writeUTF(toString)
+		]
 		out.writeInt(entries.size)
 		entries.forEach [
-			out.writeUTF(key.toString)
+			out.writeInt(uris.get(key))
 			out.writeInt(value.size)
 			value.forEach[
-				out.writeUTF(toString)
-				out.writeUTF(generated2OutputConfigName.get(it)?:IFileSystemAccess.DEFAULT_OUTPUT)
+				out.writeInt(uris.get(it))
+				out.writeInt(names.get(contents.getOutputConfigNameOrDefault(it)))
 			]
 		]
+		out.writeInt(contents.generated2ContentHash.size)
+		contents.generated2ContentHash.forEach [ generated, hash |
+			out.writeInt(uris.get(generated))
+			out.writeUTF(hash)
+		]
+	}
+	
+	def private String getOutputConfigNameOrDefault(URI generated) {
+		return generated2OutputConfigName.get(generated) ?: IFileSystemAccess.DEFAULT_OUTPUT
+	}
+	
+	def private static <T> void addId(Map<T, Integer> ids, T value) {
+		if (!ids.containsKey(value)) {
+			ids.put(value, ids.size)
+		}
 	}
 }
@@ -41,6 +41,14 @@ public class TextReplacerContext implements ITextReplacerContext {
 	private TextSegmentSet<ITextReplacement> replacements = null;
 	private final ITextReplacer replacer;
 
+	/**
+	 * Shared by all contexts of a chain, records changes of contexts whose line state has already been computed.
+	 */
+	private final LineStateTracker lineStateTracker;
+	private final int index;
+	private int lineStateComputedIn = -1;
+	private LineState lineState = null;
+
 	public TextReplacerContext(IFormattableDocument document) {
 		this(document, null, 0, null);
 	}
@@ -53,6 +61,13 @@ public class TextReplacerContext implements ITextReplacerContext {
 		this.previous = previous;
 		this.replacer = replacer;
 		this.replacements = createTextReplacementsSet();
+		if (previous instanceof TextReplacerContext) {
+			this.lineStateTracker = ((TextReplacerContext) previous).lineStateTracker;
+			this.index = ((TextReplacerContext) previous).index + 1;
+		} else {
+			this.lineStateTracker = new LineStateTracker();
+			this.index = 0;
+		}
 	}
 
 	@Override
@@ -98,6 +113,30 @@ public class TextReplacerContext implements ITextReplacerContext {
 
 	@Override
 	public int getLeadingCharsInLineCount() {
+		int offset = replacer.getRegion().getOffset();
+		LineState state = getPreviousLineState();
+		if (state != null) {
+			for (ITextReplacement rep : getLocalReplacements()) {
+				if (rep.getEndOffset() > offset)
+					break;
+				state = advance(state, rep);
+				if (state == null)
+					break;
+			}
+			if (state != null && state.offset <= offset)
+				return getColumn(state, offset);
+		}
+		return computeLeadingCharsInLineCount();
+	}
+
+	/**
+	 * Computes the column of the replacer's offset by walking back the chain of contexts up to the previous line break.
+	 * Used if the incrementally computed line state is not applicable, e.g. because replacements are not in document
+	 * order.
+	 * 
+	 * @since 2.18
+	 */
+	protected int computeLeadingCharsInLineCount() {
 		ITextRegionAccess access = getDocument().getRequest().getTextRegionAccess();
 		int lastOffset = replacer.getRegion().getOffset();
 		ITextReplacerContext current = this;
@@ -133,6 +172,99 @@ public class TextReplacerContext implements ITextReplacerContext {
 		return count;
 	}
 
+	/**
+	 * Returns the line state after the replacements of the previous context or <code>null</code> if it cannot be
+	 * computed incrementally.
+	 */
+	private LineState getPreviousLineState() {
+		if (previous == null)
+			return LineState.DOCUMENT_START;
+		if (previous instanceof TextReplacerContext
+				&& ((TextReplacerContext) previous).lineStateTracker == lineStateTracker)
+			return ((TextReplacerContext) previous).getLineState();
+		return null;
+	}
+
+	/**
+	 * Returns the line state after the replacements of this context. The states of the previous contexts are computed
+	 * and remembered on demand, thus consecutive queries along a chain of contexts take constant time.
+	 */
+	private LineState getLineState() {
+		int epoch = lineStateTracker.getEpoch();
+		List<TextReplacerContext> pending = Lists.newArrayList();
+		TextReplacerContext current = this;
+		LineState state;
+		while (true) {
+			if (current.lineStateComputedIn >= 0
+					&& lineStateTracker.isUnchanged(current.index, current.lineStateComputedIn)) {
+				current.lineStateComputedIn = epoch;
+				state = current.lineState;
+				break;
+			}
+			pending.add(current);
+			ITextReplacerContext prev = current.getPreviousContext();
+			if (prev == null) {
+				state = LineState.DOCUMENT_START;
+				break;
+			}
+			if (!(prev instanceof TextReplacerContext)
+					|| ((TextReplacerContext) prev).lineStateTracker != lineStateTracker) {
+				state = null;
+				break;
+			}
+			current = (TextReplacerContext) prev;
+		}
+		for (int i = pending.size() - 1; i >= 0; i--) {
+			TextReplacerContext context = pending.get(i);
+			if (state != null) {
+				for (ITextReplacement rep : context.getLocalReplacements()) {
+					state = advance(state, rep);
+					if (state == null)
+						break;
+				}
+			}
+			context.lineState = state;
+			context.lineStateComputedIn = epoch;
+		}
+		return state;
+	}
+
+	private void invalidateLineState() {
+		if (lineStateComputedIn >= 0) {
+			lineStateTracker.changed(index);
+			lineStateComputedIn = -1;
+			lineState = null;
+		}
+	}
+
+	/**
+	 * Returns the line state after the given replacement or <code>null</code> if the replacement precedes the given
+	 * state.
+	 */
+	private LineState advance(LineState state, ITextReplacement replacement) {
+		if (replacement.getOffset() < state.offset)
+			return null;
+		int column = getColumn(state, replacement.getOffset());
+		String text = replacement.getReplacementText();
+		int idx = text.lastIndexOf('\n');
+		if (idx >= 0)
+			column = logicalLength(text.substring(idx + 1));
+		else
+			column += logicalLength(text);
+		return new LineState(replacement.getEndOffset(), column, false);
+	}
+
+	private int getColumn(LineState state, int offset) {
+		ITextRegionAccess access = getDocument().getRequest().getTextRegionAccess();
+		String between = access.textForOffset(state.offset, offset - state.offset);
+		int idx = between.lastIndexOf('\n');
+		if (idx >= 0)
+			return logicalLength(between.substring(idx + 1));
+		if (state.documentStart)
+			return state.column + between.length();
+		return state.column + logicalLength(between);
+	}
+
 	@Override
 	public Iterable<ITextReplacement> getLocalReplacements() {
 		if (replacements != null)
@@ -249,6 +381,7 @@ public class TextReplacerContext implements ITextReplacerContext {
 			}
 		}
 		try {
+			invalidateLineState();
 			replacements.add(replacement);
 		} catch (ConflictingRegionsException e) {
 			request.getExceptionHandler().accept(e);
@@ -274,6 +407,7 @@ public class TextReplacerContext implements ITextReplacerContext {
 	public void setAutowrap(boolean value) {
 		this.autowrap = value;
 		this.replacements = createTextReplacementsSet();
+		invalidateLineState();
 	}
 
 	@Override
@@ -402,4 +536,44 @@ public class TextReplacerContext implements ITextReplacerContext {
 		return false;
 	}
 
+	/**
+	 * Records the indices of changed contexts. The line state of a context remains valid as long as no context up to
+	 * its own index has been changed since the state was computed.
+	 */
+	private static class LineStateTracker {
+		private final List<Integer> changedIndices = Lists.newArrayList();
+
+		private int getEpoch() {
+			return changedIndices.size();
+		}
+
+		private void changed(int index) {
+			changedIndices.add(index);
+		}
+
+		private boolean isUnchanged(int index, int since) {
+			for (int i = since; i < changedIndices.size(); i++)
+				if (changedIndices.get(i) <= index)
+					return false;
+			return true;
+		}
+	}
+
+	/**
+	 * The column of an offset in the formatted document, i.e. with all replacements of a chain of contexts applied.
+	 */
+	private static class LineState {
+		private static final LineState DOCUMENT_START = new LineState(0, 0, true);
+
+		private final int offset;
+		private final int column;
+		private final boolean documentStart;
+
+		private LineState(int offset, int column, boolean documentStart) {
+			this.offset = offset;
+			this.column = column;
+			this.documentStart = documentStart;
+		}
+	}
+
 }
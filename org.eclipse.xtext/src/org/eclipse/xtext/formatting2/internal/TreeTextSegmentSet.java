@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.formatting2.internal;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.xtext.formatting2.IMerger;
+import org.eclipse.xtext.formatting2.regionaccess.ITextSegment;
+
+import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+
+/**
+ * A {@link TextSegmentSet} that is backed by a balanced search tree. Segments are added in logarithmic time, thus it is
+ * well suited for large documents with many replacers. It yields the same results as the
+ * {@link ArrayListTextSegmentSet}. Languages can use it by overriding
+ * {@link FormattableDocument#createTextReplacerSet()}.
+ *
+ * @since 2.18
+ */
+public class TreeTextSegmentSet<T> extends TextSegmentSet<T> {
+
+	private final TreeMap<T, T> contents;
+
+	public TreeTextSegmentSet(Function<? super T, ? extends ITextSegment> region, Function<? super T, String> title) {
+		this(region, title, true);
+	}
+
+	public TreeTextSegmentSet(Function<? super T, ? extends ITextSegment> region, Function<? super T, String> title,
+			boolean trace) {
+		super(region, title, trace);
+		this.contents = new TreeMap<T, T>(new RegionComparator<T>(region));
+	}
+
+	@Override
+	public void add(T segment, IMerger<T> merger) throws ConflictingRegionsException, RegionTraceMissingException {
+		Preconditions.checkNotNull(segment);
+		trace(segment);
+		T existing = contents.get(segment);
+		if (existing != null)
+			replaceExistingEntry(segment, existing, merger);
+		else
+			insert(segment, merger);
+	}
+
+	@Override
+	public T get(T segment) {
+		return contents.get(segment);
+	}
+
+	protected void insert(T segment, IMerger<T> merger)
+			throws ConflictingRegionsException, RegionTraceMissingException {
+		List<T> conflicting = null;
+		for (T item : contents.headMap(segment, false).descendingMap().values()) {
+			if (!isConflict(item, segment))
+				break;
+			if (conflicting == null)
+				conflicting = Lists.newArrayList();
+			conflicting.add(item);
+		}
+		for (T item : contents.tailMap(segment, false).values()) {
+			if (!isConflict(item, segment))
+				break;
+			if (conflicting == null)
+				conflicting = Lists.newArrayList();
+			conflicting.add(item);
+		}
+		if (conflicting == null) {
+			trace(segment);
+			contents.put(segment, segment);
+		} else {
+			conflicting.add(0, segment);
+			try {
+				T merged = merger != null ? merger.merge(conflicting) : null;
+				if (merged != null) {
+					removeAll(conflicting);
+					trace(merged);
+					contents.put(merged, merged);
+				} else {
+					int segmentLengh = getRegion(segment).getLength();
+					int totalLength = 0;
+					for (int i = 1; i < conflicting.size(); i++)
+						totalLength += getRegion(conflicting.get(i)).getLength();
+					if (segmentLengh >= totalLength)
+						removeAll(conflicting);
+					if (segmentLengh > totalLength) {
+						trace(segment);
+						contents.put(segment, segment);
+					}
+					handleConflict(conflicting, null);
+				}
+			} catch (ConflictingRegionsException e) {
+				throw e;
+			} catch (Exception e) {
+				handleConflict(conflicting, e);
+			}
+		}
+	}
+
+	private void removeAll(List<T> conflicting) {
+		// the first element is the new segment
+		for (int i = 1; i < conflicting.size(); i++)
+			contents.remove(conflicting.get(i));
+	}
+
+	protected void replaceExistingEntry(T segment, T existing, IMerger<T> merger)
+			throws ConflictingRegionsException, RegionTraceMissingException {
+		List<T> conflicting = ImmutableList.of(segment, existing);
+		try {
+			T merged = merger != null ? merger.merge(conflicting) : null;
+			if (merged != null) {
+				trace(merged);
+				contents.put(existing, merged);
+			} else {
+				contents.remove(existing);
+				handleConflict(conflicting, null);
+			}
+		} catch (ConflictingRegionsException e) {
+			throw e;
+		} catch (Exception e) {
+			handleConflict(conflicting, e);
+		}
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		return Iterators.unmodifiableIterator(contents.values().iterator());
+	}
+
+	@Override
+	public Iterator<T> iteratorAfter(T segment) {
+		if (!contents.containsKey(segment)) {
+			return Collections.emptyIterator();
+		}
+		// replacers may add segments while the formatter iterates, so look up the successor on each step
+		return new AbstractIterator<T>() {
+			private T current = segment;
+
+			@Override
+			protected T computeNext() {
+				Map.Entry<T, T> next = contents.higherEntry(current);
+				if (next == null)
+					return endOfData();
+				current = next.getKey();
+				return next.getValue();
+			}
+		};
+	}
+
+	@Override
+	public Iterable<T> reverseIterable() {
+		return Collections.unmodifiableCollection(contents.descendingMap().values());
+	}
+
+}
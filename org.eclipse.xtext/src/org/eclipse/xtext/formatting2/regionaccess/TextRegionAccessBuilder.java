@@ -7,12 +7,15 @@
  *******************************************************************************/
 package org.eclipse.xtext.formatting2.regionaccess;
 
+import java.util.Collection;
+
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.xtext.formatting2.regionaccess.internal.NodeModelBasedRegionAccessBuilder;
 import org.eclipse.xtext.formatting2.regionaccess.internal.TextRegionAccessBuildingSequencer;
 import org.eclipse.xtext.resource.XtextResource;
 import org.eclipse.xtext.serializer.ISerializationContext;
 import org.eclipse.xtext.serializer.acceptor.ISequenceAcceptor;
+import org.eclipse.xtext.util.ITextRegion;
 
 /**
  * @author Moritz Eysholdt - Initial contribution and API
@@ -28,6 +31,17 @@ public class TextRegionAccessBuilder {
 		return this;
 	}
 
+	/**
+	 * Like {@link #forNodeModel(XtextResource)}, but objects that are outside of the given regions are not broken
+	 * down into regions for their tokens and nested objects. Useful to format a small part of a large document.
+	 * 
+	 * @since 2.18
+	 */
+	public TextRegionAccessBuilder forNodeModel(XtextResource resource, Collection<ITextRegion> regions) {
+		this.fromNodeModel = new NodeModelBasedRegionAccessBuilder().withResource(resource).withRegions(regions);
+		return this;
+	}
+
 	public ISequenceAcceptor forSequence(ISerializationContext ctx, EObject root) {
 		return this.fromSequencer = new TextRegionAccessBuildingSequencer().withRoot(ctx, root);
 	}
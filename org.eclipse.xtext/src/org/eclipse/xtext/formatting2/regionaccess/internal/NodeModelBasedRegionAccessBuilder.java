@@ -7,6 +7,9 @@
  *******************************************************************************/
 package org.eclipse.xtext.formatting2.regionaccess.internal;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -24,8 +27,10 @@ import org.eclipse.xtext.nodemodel.ICompositeNode;
 import org.eclipse.xtext.nodemodel.ILeafNode;
 import org.eclipse.xtext.nodemodel.INode;
 import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.util.ITextRegion;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 public class NodeModelBasedRegionAccessBuilder {
@@ -35,6 +40,8 @@ public class NodeModelBasedRegionAccessBuilder {
 	private NodeHiddenRegion lastHidden;
 	private XtextResource resource;
 	private LinkedList<NodeEObjectRegion> stack = new LinkedList<NodeEObjectRegion>();
+	private Collection<ITextRegion> regions = Collections.emptyList();
+	private int lastSemanticEndOffset = 0;
 
 	protected void add(NodeModelBasedRegionAccess access, INode node) {
 		if (node instanceof ILeafNode && ((ILeafNode) node).isHidden()) {
@@ -51,9 +58,42 @@ public class NodeModelBasedRegionAccessBuilder {
 			eObjectTokens.addChild(newSemantic);
 			newSemantic.setEObjectTokens(eObjectTokens);
 			lastHidden = newHidden;
+			lastSemanticEndOffset = node.getEndOffset();
 		}
 	}
 
+	/**
+	 * Adds a single semantic region for the given node and hidden regions for its leading and trailing hidden leafs.
+	 * Nested objects do not get regions of their own.
+	 * 
+	 * @since 2.18
+	 */
+	protected void addCollapsed(NodeModelBasedRegionAccess access, ICompositeNode node) {
+		boolean hasSemanticLeaf = false;
+		for (ILeafNode leaf : node.getLeafNodes()) {
+			if (!leaf.isHidden()) {
+				hasSemanticLeaf = true;
+				break;
+			}
+			add(access, leaf);
+		}
+		if (!hasSemanticLeaf)
+			return;
+		add(access, node);
+		List<ILeafNode> trailing = Lists.newArrayList();
+		Iterator<INode> reverse = node.getAsTreeIterable().reverse().iterator();
+		while (reverse.hasNext()) {
+			INode next = reverse.next();
+			if (next instanceof ILeafNode) {
+				if (!((ILeafNode) next).isHidden())
+					break;
+				trailing.add(next);
+			}
+		}
+		for (int i = trailing.size() - 1; i >= 0; i--)
+			add(access, trailing.get(i));
+	}
+
 	public NodeModelBasedRegionAccess create() {
 		NodeModelBasedRegionAccess access = new NodeModelBasedRegionAccess(this);
 		return access;
@@ -82,6 +122,7 @@ public class NodeModelBasedRegionAccessBuilder {
 		this.eObjToTokens = Maps.newHashMap();
 		this.firstHidden = createHiddenRegion(regionAccess);
 		this.lastHidden = this.firstHidden;
+		this.lastSemanticEndOffset = 0;
 		NodeModelBasedRegionAccess access = (NodeModelBasedRegionAccess) regionAccess;
 		ICompositeNode rootNode = resource.getParseResult().getRootNode();
 		process(rootNode, access);
@@ -103,6 +144,42 @@ public class NodeModelBasedRegionAccessBuilder {
 		return false;
 	}
 
+	/**
+	 * Returns <code>true</code> if the object that is created by the given node does not need regions for its tokens
+	 * and nested objects, since neither the object nor its surrounding hidden regions intersect with the
+	 * {@link #withRegions(Collection) requested regions}.
+	 * 
+	 * @since 2.18
+	 */
+	protected boolean isCollapsed(ICompositeNode node) {
+		if (regions.isEmpty() || node.getParent() == null)
+			return false;
+		int offset = lastSemanticEndOffset;
+		int endOffset = getNextSemanticOffset(node);
+		for (ITextRegion region : regions) {
+			int regionOffset = region.getOffset();
+			int regionEnd = regionOffset + region.getLength();
+			if (regionOffset <= endOffset && regionEnd >= offset)
+				return false;
+		}
+		return true;
+	}
+
+	private int getNextSemanticOffset(INode node) {
+		INode current = node;
+		while (current != null) {
+			INode sibling = current.getNextSibling();
+			while (sibling != null) {
+				for (ILeafNode leaf : sibling.getLeafNodes())
+					if (!leaf.isHidden())
+						return leaf.getTotalOffset();
+				sibling = sibling.getNextSibling();
+			}
+			current = current.getParent();
+		}
+		return node.getRootNode().getTotalEndOffset();
+	}
+
 	protected boolean isComment(ILeafNode leaf) {
 		String text = leaf.getText();
 		for (int i = 0; i < text.length(); i++)
@@ -215,6 +292,9 @@ public class NodeModelBasedRegionAccessBuilder {
 						break;
 			}
 			this.add(access, node);
+		} else if (creator && tokens.getSemanticElement() != null && tokens.getGrammarElement() != null
+				&& isCollapsed((ICompositeNode) node)) {
+			addCollapsed(access, (ICompositeNode) node);
 		} else if (node instanceof ICompositeNode) {
 			for (INode child : ((ICompositeNode) node).getChildren())
 				process(child, access);
@@ -242,6 +322,19 @@ public class NodeModelBasedRegionAccessBuilder {
 		return this;
 	}
 
+	/**
+	 * Restricts the created regions to the given text regions. Objects that do not intersect with any of them, not even
+	 * with their leading or trailing hidden region, are represented by a single semantic region and their contents get
+	 * no regions at all. This matches the objects that {@link org.eclipse.xtext.formatting2.AbstractFormatter2} does
+	 * not format for a request with the same regions. An empty collection means the whole document.
+	 * 
+	 * @since 2.18
+	 */
+	public NodeModelBasedRegionAccessBuilder withRegions(Collection<ITextRegion> regions) {
+		this.regions = regions;
+		return this;
+	}
+
 	protected NodeHiddenRegion getFirstHidden() {
 		return firstHidden;
 	}
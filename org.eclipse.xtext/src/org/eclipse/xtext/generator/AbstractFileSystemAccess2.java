@@ -10,9 +10,13 @@ package org.eclipse.xtext.generator;
 import java.io.IOException;
 import java.io.InputStream;
 
+import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.xtext.util.RuntimeIOException;
 
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+
 /**
  * Abstract base class for file system access supporting {@link IFileSystemAccess2}.
  *
@@ -21,6 +25,10 @@ import org.eclipse.xtext.util.RuntimeIOException;
  */
 public abstract class AbstractFileSystemAccess2 extends AbstractFileSystemAccess implements IFileSystemAccess2 {
 
+	private IGeneratedContentHashes contentHashes;
+
+	private boolean compareExistingContents = false;
+
 	/**
 	 * @since 2.4
 	 */
@@ -87,4 +95,149 @@ public abstract class AbstractFileSystemAccess2 extends AbstractFileSystemAccess
 		}
 	}
 
+	/**
+	 * The hashes of previously written contents. If set, files whose content hash did not change are not written
+	 * again.
+	 * 
+	 * @since 2.18
+	 */
+	public void setContentHashes(IGeneratedContentHashes contentHashes) {
+		this.contentHashes = contentHashes;
+	}
+
+	/**
+	 * @since 2.18
+	 */
+	public IGeneratedContentHashes getContentHashes() {
+		return contentHashes;
+	}
+
+	/**
+	 * If set, a file whose content hash is not known is compared with the given content before it is written, and it
+	 * is not written if it is equal.
+	 * 
+	 * @since 2.18
+	 */
+	public void setCompareExistingContents(boolean compareExistingContents) {
+		this.compareExistingContents = compareExistingContents;
+	}
+
+	/**
+	 * @since 2.18
+	 */
+	public boolean isCompareExistingContents() {
+		return compareExistingContents;
+	}
+
+	/**
+	 * Whether the file already has the given content, such that writing it can be skipped. Uses the
+	 * {@link #setContentHashes(IGeneratedContentHashes) content hashes} if they are set, and
+	 * {@link #setCompareExistingContents(boolean) compares the existing file} otherwise or if the hash is not known.
+	 * 
+	 * @param hash
+	 *            the {@link #computeContentHash(byte[]) hash} of the contents if content hashes are set,
+	 *            <code>null</code> otherwise.
+	 * @since 2.18
+	 */
+	protected boolean isUnchanged(String fileName, String outputConfigName, byte[] contents, String hash) {
+		URI uri = getURI(fileName, outputConfigName);
+		String previousHash = hash == null ? null : contentHashes.getContentHash(uri);
+		if (previousHash != null) {
+			// the file might have been deleted since it was written
+			return previousHash.equals(hash) && isFile(fileName, outputConfigName);
+		}
+		if (compareExistingContents && hasContents(fileName, outputConfigName, contents)) {
+			// the existing file is known to have the contents
+			contentWritten(uri, hash);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Records the hash of the contents that were written to the given file. Has to be called after the file was
+	 * written successfully, such that a failed write is not mistaken for an unchanged file in the next build.
+	 * 
+	 * @param hash
+	 *            the hash of the written contents or <code>null</code> if content hashes are not set.
+	 * @since 2.18
+	 */
+	protected void contentWritten(URI uri, String hash) {
+		if (contentHashes != null && hash != null) {
+			contentHashes.setContentHash(uri, hash);
+		}
+	}
+
+	/**
+	 * Returns the hash of the given contents if {@link #setContentHashes(IGeneratedContentHashes) content hashes} are
+	 * set, <code>null</code> otherwise.
+	 * 
+	 * @since 2.18
+	 */
+	protected String getContentHashToRecord(byte[] contents) {
+		if (contentHashes == null) {
+			return null;
+		}
+		return computeContentHash(contents);
+	}
+
+	/**
+	 * Whether the generated contents have to be materialized to decide whether a file changed. Otherwise, they can be
+	 * streamed to the file.
+	 * 
+	 * @since 2.18
+	 */
+	protected boolean isSkipUnchangedFiles() {
+		return contentHashes != null || compareExistingContents;
+	}
+
+	/**
+	 * @since 2.18
+	 */
+	protected String computeContentHash(byte[] contents) {
+		return Hashing.sha256().hashBytes(contents).toString();
+	}
+
+	/**
+	 * Compares the existing file with the given content. Stops reading at the first difference.
+	 * 
+	 * @since 2.18
+	 */
+	protected boolean hasContents(String fileName, String outputConfigName, byte[] contents) {
+		InputStream existing;
+		try {
+			existing = readBinaryFile(fileName, outputConfigName);
+		} catch (RuntimeIOException e) {
+			return false;
+		}
+		if (existing == null) {
+			return false;
+		}
+		try {
+			byte[] buffer = new byte[8192];
+			int offset = 0;
+			int read;
+			while ((read = ByteStreams.read(existing, buffer, 0, buffer.length)) > 0) {
+				if (offset + read > contents.length) {
+					return false;
+				}
+				for (int i = 0; i < read; i++) {
+					if (buffer[i] != contents[offset + i]) {
+						return false;
+					}
+				}
+				offset += read;
+			}
+			return offset == contents.length;
+		} catch (IOException e) {
+			return false;
+		} finally {
+			try {
+				existing.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
 }
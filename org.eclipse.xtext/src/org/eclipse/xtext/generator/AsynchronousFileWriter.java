@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.generator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.xtext.service.OperationCanceledManager;
+import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.util.Exceptions;
+import org.eclipse.xtext.util.RuntimeIOException;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Writes the contents of generated files on background threads, such that the generator does not wait for the disk.
+ * At most a fixed number of writes are pending. If the limit is reached, {@link #write(URI, byte[], URIConverter)}
+ * blocks until a write has finished.
+ *
+ * <p>
+ * The writes run either on threads that are owned by the writer or on a shared {@link Executor}, which allows to reuse
+ * the threads across builds. Clients have to call {@link #flush()} to wait for the pending writes and {@link #close()}
+ * to release the writer. Closing a writer that was not flushed discards the writes that did not start yet. Both {@link #write(URI, byte[],
+ * URIConverter) write} and {@link #flush() flush} stop waiting if the build is canceled and rethrow the first
+ * exception of a failed write.
+ * </p>
+ *
+ * @since 2.18
+ */
+public class AsynchronousFileWriter {
+
+	private final Executor executor;
+
+	private final boolean ownsExecutor;
+
+	private volatile boolean closed;
+
+	private final Semaphore capacity;
+
+	private final int maxPendingWrites;
+
+	private final CancelIndicator cancelIndicator;
+
+	private final OperationCanceledManager operationCanceledManager = new OperationCanceledManager();
+
+	private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+	/**
+	 * Creates a writer with its own threads, which are released on {@link #close()}.
+	 */
+	public AsynchronousFileWriter(int threads, int maxPendingWrites, CancelIndicator cancelIndicator) {
+		this(Executors.newFixedThreadPool(threads,
+				new ThreadFactoryBuilder().setNameFormat("Generated file writer %d").setDaemon(true).build()), true,
+				maxPendingWrites, cancelIndicator);
+	}
+
+	/**
+	 * Creates a writer that runs the writes on the given executor, which is not shut down by this writer.
+	 */
+	public AsynchronousFileWriter(Executor executor, int maxPendingWrites, CancelIndicator cancelIndicator) {
+		this(executor, false, maxPendingWrites, cancelIndicator);
+	}
+
+	private AsynchronousFileWriter(Executor executor, boolean ownsExecutor, int maxPendingWrites,
+			CancelIndicator cancelIndicator) {
+		this.executor = executor;
+		this.ownsExecutor = ownsExecutor;
+		this.maxPendingWrites = maxPendingWrites;
+		this.capacity = new Semaphore(maxPendingWrites);
+		this.cancelIndicator = cancelIndicator == null ? CancelIndicator.NullImpl : cancelIndicator;
+	}
+
+	/**
+	 * Schedules writing the given contents to the given URI. The contents must not be modified afterwards.
+	 */
+	public void write(final URI uri, final byte[] contents, final URIConverter converter) {
+		checkFailure();
+		acquire(1);
+		try {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						if (!closed && failure.get() == null) {
+							doWrite(uri, contents, converter);
+						}
+					} catch (Throwable t) {
+						failure.compareAndSet(null, t);
+					} finally {
+						capacity.release();
+					}
+				}
+			});
+		} catch (RuntimeException e) {
+			capacity.release();
+			throw e;
+		}
+	}
+
+	protected void doWrite(URI uri, byte[] contents, URIConverter converter) throws IOException {
+		OutputStream out = converter.createOutputStream(uri);
+		try {
+			out.write(contents);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Waits until all scheduled writes have finished.
+	 */
+	public void flush() {
+		acquire(maxPendingWrites);
+		capacity.release(maxPendingWrites);
+		checkFailure();
+	}
+
+	/**
+	 * Discards the writes that did not start yet, waits for the running ones and releases the threads of this writer
+	 * if it owns them.
+	 */
+	public void close() {
+		closed = true;
+		try {
+			if (ownsExecutor) {
+				ExecutorService executorService = (ExecutorService) executor;
+				executorService.shutdownNow();
+				executorService.awaitTermination(1, TimeUnit.MINUTES);
+			} else if (capacity.tryAcquire(maxPendingWrites, 1, TimeUnit.MINUTES)) {
+				capacity.release(maxPendingWrites);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	protected void acquire(int permits) {
+		try {
+			while (!capacity.tryAcquire(permits, 100, TimeUnit.MILLISECONDS)) {
+				operationCanceledManager.checkCanceled(cancelIndicator);
+				checkFailure();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			operationCanceledManager.throwOperationCanceledException();
+		}
+	}
+
+	protected void checkFailure() {
+		Throwable t = failure.get();
+		if (t instanceof IOException) {
+			throw new RuntimeIOException(t);
+		}
+		if (t != null) {
+			Exceptions.throwUncheckedException(t);
+		}
+	}
+
+}
@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.generator;
+
+import org.eclipse.emf.common.util.URI;
+
+/**
+ * Remembers a hash of the last written content of generated files, such that a file system access can skip writing a
+ * file if its content did not change.
+ *
+ * @see AbstractFileSystemAccess2#setContentHashes(IGeneratedContentHashes)
+ * @since 2.18
+ */
+public interface IGeneratedContentHashes {
+
+	/**
+	 * @return the hash of the last written content of the given file or <code>null</code> if it is not known.
+	 */
+	String getContentHash(URI generated);
+
+	void setContentHash(URI generated, String hash);
+
+}
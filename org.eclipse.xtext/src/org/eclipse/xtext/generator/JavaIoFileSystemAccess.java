@@ -9,6 +9,7 @@ package org.eclipse.xtext.generator;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -104,16 +105,23 @@ public class JavaIoFileSystemAccess extends AbstractFileSystemAccess2 {
 		try {
 			createFolder(file.getParentFile());
 			String encoding = getEncoding(getURI(fileName, outputConfigName));
-			OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(file), encoding);
-			try {
-				writer.append(postProcess(fileName, outputConfigName, contents, encoding));
-				if(callBack != null) 
-					callBack.fileAdded(file);
-				if (writeTrace)
-					generateTrace(fileName, outputConfigName, contents);
-			} finally {
-				writer.close();
+			if (!isSkipUnchangedFiles()) {
+				OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(file), encoding);
+				try {
+					writer.append(postProcess(fileName, outputConfigName, contents, encoding));
+					if(callBack != null) 
+						callBack.fileAdded(file);
+					if (writeTrace)
+						generateTrace(fileName, outputConfigName, contents);
+				} finally {
+					writer.close();
+				}
+				return;
 			}
+			byte[] bytes = postProcess(fileName, outputConfigName, contents, encoding).toString().getBytes(encoding);
+			writeFileIfChanged(fileName, outputConfigName, file, bytes);
+			if (writeTrace)
+				generateTrace(fileName, outputConfigName, contents);
 		} catch (IOException e) {
 			throw new RuntimeIOException(e);
 		}
@@ -127,13 +135,19 @@ public class JavaIoFileSystemAccess extends AbstractFileSystemAccess2 {
 					AbstractTraceRegion traceRegion = ((ITraceRegionProvider) contents).getTraceRegion();
 					String traceFileName = traceFileNameProvider.getTraceFromJava(generatedFile);
 					File traceFile = getFile(traceFileName, outputConfigName);
-					out = new BufferedOutputStream(new FileOutputStream(traceFile));
-					traceSerializer.writeTraceRegionTo(traceRegion, out);
-					if(callBack != null) 
-						callBack.fileAdded(traceFile);
+					if (isSkipUnchangedFiles()) {
+						ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+						traceSerializer.writeTraceRegionTo(traceRegion, bytes);
+						writeFileIfChanged(traceFileName, outputConfigName, traceFile, bytes.toByteArray());
+					} else {
+						out = new BufferedOutputStream(new FileOutputStream(traceFile));
+						traceSerializer.writeTraceRegionTo(traceRegion, out);
+						if(callBack != null) 
+							callBack.fileAdded(traceFile);
+					}
 				} catch (TraceNotFoundException e) {
 					// ok
-				}finally {
+				} finally {
 					if (out != null) {
 						out.close();
 					}
@@ -146,6 +160,34 @@ public class JavaIoFileSystemAccess extends AbstractFileSystemAccess2 {
 		}
 	}
 
+	/**
+	 * Writes the given contents unless the file already has them and records their hash after the write.
+	 * 
+	 * @since 2.18
+	 */
+	protected void writeFileIfChanged(String fileName, String outputConfigName, File file, byte[] bytes)
+			throws IOException {
+		String hash = getContentHashToRecord(bytes);
+		if (!isUnchanged(fileName, outputConfigName, bytes, hash)) {
+			writeFile(file, bytes);
+			contentWritten(getURI(fileName, outputConfigName), hash);
+			if(callBack != null) 
+				callBack.fileAdded(file);
+		}
+	}
+
+	/**
+	 * @since 2.18
+	 */
+	protected void writeFile(File file, byte[] bytes) throws IOException {
+		OutputStream out = new FileOutputStream(file);
+		try {
+			out.write(bytes);
+		} finally {
+			out.close();
+		}
+	}
+
 	/**
 	 * @since 2.4
 	 */
@@ -218,6 +260,14 @@ public class JavaIoFileSystemAccess extends AbstractFileSystemAccess2 {
 		}
 		try {
 			createFolder(file.getParentFile());
+			if (isSkipUnchangedFiles()) {
+				try {
+					writeFileIfChanged(fileName, outputCfgName, file, ByteStreams.toByteArray(content));
+				} finally {
+					content.close();
+				}
+				return;
+			}
 			OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
 			try {
 				ByteStreams.copy(content, out);
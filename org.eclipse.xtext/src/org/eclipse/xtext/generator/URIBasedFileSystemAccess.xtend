@@ -47,6 +47,26 @@ class URIBasedFileSystemAccess extends AbstractFileSystemAccess2 {
 		def InputStream beforeRead(URI changed, InputStream in)
 	}
 	
+	/**
+	 * @since 2.18
+	 */
+	static interface AfterUnchanged {
+		/**
+		 * Called instead of writing a file that already has the generated content.
+		 */
+		def void afterUnchanged(URI unchanged, String outputCfgName)
+	}
+	
+	/**
+	 * @since 2.18
+	 */
+	static interface AfterWrite {
+		/**
+		 * Called after a file was written, but not for files that already had the generated content.
+		 */
+		def void afterWrite(URI changed, String outputCfgName)
+	}
+	
 	@Accessors URIConverter converter
 	@Accessors URI baseDir
 	@Accessors boolean generateTraces = false
@@ -56,6 +76,20 @@ class URIBasedFileSystemAccess extends AbstractFileSystemAccess2 {
 	@Accessors BeforeDelete beforeDelete = [true]
 	@Accessors BeforeWrite beforeWrite = [$2]
 	@Accessors BeforeRead beforeRead = [$1]
+	/**
+	 * @since 2.18
+	 */
+	@Accessors AfterUnchanged afterUnchanged = []
+	/**
+	 * @since 2.18
+	 */
+	@Accessors AfterWrite afterWrite = []
+	/**
+	 * If set, generated files are written in the background. Reading a file back before the writer is flushed may
+	 * return its previous content.
+	 * @since 2.18
+	 */
+	@Accessors AsynchronousFileWriter asynchronousWriter
 	
 	override void setPostProcessor(IFilePostProcessor filePostProcessor) {
 		super.postProcessor = filePostProcessor
@@ -106,6 +140,19 @@ class URIBasedFileSystemAccess extends AbstractFileSystemAccess2 {
 	
 	override generateFile(String fileName, String outputCfgName, InputStream content) throws RuntimeIOException {
 		val uri = getURI(fileName, outputCfgName)
+		if (contentHashes !== null || compareExistingContents || asynchronousWriter !== null) {
+			val bytes = ByteStreams.toByteArray(beforeWrite.beforeWrite(uri, outputCfgName, content))
+			val hash = getContentHashToRecord(bytes)
+			if (isUnchanged(fileName, outputCfgName, bytes, hash)) {
+				afterUnchanged.afterUnchanged(uri, outputCfgName)
+				return
+			}
+			writeFile(uri, bytes)
+			// an asynchronous write that fails later is rethrown on flush and fails the build
+			contentWritten(uri, hash)
+			afterWrite.afterWrite(uri, outputCfgName)
+			return
+		}
 		val out = converter.createOutputStream(uri)
 		try {
 			val processedContent = beforeWrite.beforeWrite(uri, outputCfgName, content)
@@ -113,6 +160,23 @@ class URIBasedFileSystemAccess extends AbstractFileSystemAccess2 {
 		} finally {
 			out.close
 		}
+		afterWrite.afterWrite(uri, outputCfgName)
+	}
+	
+	/**
+	 * @since 2.18
+	 */
+	protected def void writeFile(URI uri, byte[] bytes) {
+		if (asynchronousWriter !== null) {
+			asynchronousWriter.write(uri, bytes, converter)
+			return
+		}
+		val out = converter.createOutputStream(uri)
+		try {
+			out.write(bytes)
+		} finally {
+			out.close
+		}
 	}
 	
 	override readBinaryFile(String fileName, String outputCfgName) throws RuntimeIOException {
@@ -90,11 +90,22 @@ public abstract class AbstractTraceRegion {
 	 * @return the list of directly nested regions.
 	 */
 	public final List<AbstractTraceRegion> getNestedRegions() {
+		loadNestedRegions();
 		if (nestedRegions == null)
 			return Collections.emptyList();
 		return Collections.unmodifiableList(nestedRegions);
 	}
 
+	/**
+	 * Called before the nested regions are read. Subclasses may create their nested regions lazily, e.g. when they
+	 * are decoded from a trace file on demand.
+	 * 
+	 * @since 2.18
+	 */
+	protected void loadNestedRegions() {
+		// nested regions are created eagerly by default
+	}
+
 	protected final List<AbstractTraceRegion> getWritableNestedRegions() {
 		if (nestedRegions == null)
 			nestedRegions = Lists.newArrayListWithCapacity(4);
@@ -303,6 +314,7 @@ public abstract class AbstractTraceRegion {
 	 * @return an unmodifiable iterator for all leafs. Never <code>null</code>.
 	 */
 	public final Iterator<AbstractTraceRegion> leafIterator() {
+		loadNestedRegions();
 		if (nestedRegions == null)
 			return Collections.<AbstractTraceRegion> singleton(this).iterator();
 		return new LeafIterator(this);
@@ -9,6 +9,7 @@ package org.eclipse.xtext.generator.trace;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.DataOutput;
@@ -18,11 +19,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.emf.common.util.URI;
 
 import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
 
 /**
  * @noextend This interface is not intended to be extended by clients.
@@ -91,6 +95,15 @@ public class TraceRegionSerializer {
 	 */
 	private static final int VERSION_5 = 5;
 	
+	/**
+	 * changes compared to version 5:
+	 * 
+	 * - in version 6, offsets and line numbers are encoded as variable length deltas to the parent region and the
+	 * previous location, paths are stored once in a table, and the children of a region are prefixed with their
+	 * encoded length, such that they can be decoded on demand.
+	 */
+	private static final int VERSION_6 = 6;
+	
 	public void writeTraceRegionTo(AbstractTraceRegion region, OutputStream stream) throws IOException {
 		if (region != null && region.getParent() != null)
 			throw new IllegalArgumentException("region must be the root");
@@ -100,73 +113,207 @@ public class TraceRegionSerializer {
 	public <Region, Location> void doWriteTo(final Strategy<Region, Location> strategy, Region region, OutputStream stream) throws IOException {
 		final DataOutputStream dataStream = new DataOutputStream(new BufferedOutputStream(stream));
 		try {
-			dataStream.writeInt(VERSION_5);
+			dataStream.writeInt(VERSION_6);
 			dataStream.writeBoolean(region != null);
 			if (region == null)
 				return;
-			strategy.writeRegion(region, new Callback<Region, Location>() {
-				@Override
-				public void doWriteRegion(int offset, int length, int lineNumber, int endLineNumber, boolean isUseForDebugging, List<Location> locations, List<Region> children) throws IOException {
-					writeCompressedInt(dataStream, offset);
-					writeCompressedInt(dataStream, length);
-					writeCompressedInt(dataStream, lineNumber);
-					writeCompressedInt(dataStream, endLineNumber);
-					dataStream.writeBoolean(isUseForDebugging);
-					writeCompressedInt(dataStream, locations.size());
-					for(Location loc: locations) {
-						strategy.writeLocation(loc, this);
-					}
-					writeCompressedInt(dataStream, children.size());
-					for(Region child: children) {
-						strategy.writeRegion(child, this);
-					}
-				}
-
-				@Override
-				public void doWriteLocation(int offset, int length, int lineNumber, int endLineNumber, SourceRelativeURI path) throws IOException {
-					writeCompressedInt(dataStream, offset);
-					writeCompressedInt(dataStream, length);
-					writeCompressedInt(dataStream, lineNumber);
-					writeCompressedInt(dataStream, endLineNumber);
-					if (path != null) {
-						dataStream.writeBoolean(true);
-						dataStream.writeUTF(path.getURI().toString());
-					} else {
-						dataStream.writeBoolean(false);
-					}
-				}
-			});
+			CompactWriter<Region, Location> writer = new CompactWriter<Region, Location>(strategy);
+			strategy.writeRegion(region, writer);
+			writer.writeTo(dataStream);
 		} finally {
 			dataStream.flush();
 		}
 	}
 	
-	private void writeCompressedInt(DataOutput output, int value) throws IOException {
-		// see EObjectOutputStream.writeCompressedInt
-		++value;
-		if (value < 0) {
-			throw new IOException("All values are expected to be positive, but got: " + String.valueOf(value - 1));
-		} else if (value <= 0x3F) {
-			output.writeByte(value);
-		} else if (value <= 0x3FFF) {
-			output.writeByte(value >> 8 | 0x40);
-			output.writeByte(value & 0xFF);
-		} else if (value <= 0x3FFFFF) {
-			output.writeByte(value >> 16 | 0x80);
-			output.writeByte(value >> 8 & 0xFF);
-			output.writeByte(value & 0xFF);
-		} else if (value <= 0x3FFFFFFF) {
-			output.writeByte(value >> 24 | 0xC0);
-			output.writeByte(value >> 16 & 0xFF);
-			output.writeByte(value >> 8 & 0xFF);
-			output.writeByte(value & 0xFF);
-		} else {
-			throw new IOException("Invalid value: " + String.valueOf(value - 1));
+	/**
+	 * Writes the version 6 format. The regions are encoded into a buffer first, since the table of paths precedes
+	 * them.
+	 * 
+	 * @since 2.18
+	 */
+	protected static class CompactWriter<Region, Location> implements Callback<Region, Location> {
+		
+		private final Strategy<Region, Location> strategy;
+		private final Map<SourceRelativeURI, Integer> paths = new LinkedHashMap<SourceRelativeURI, Integer>();
+		private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		private DataOutputStream output = new DataOutputStream(buffer);
+		private int parentOffset;
+		private int parentLineNumber;
+		private int locationOffset;
+		private int locationLineNumber;
+		
+		public CompactWriter(Strategy<Region, Location> strategy) {
+			this.strategy = strategy;
+		}
+		
+		@Override
+		public void doWriteRegion(int offset, int length, int lineNumber, int endLineNumber, boolean useForDebugging, List<Location> locations, List<Region> children) throws IOException {
+			writeSignedVarInt(output, offset - parentOffset);
+			writeVarInt(output, length);
+			writeSignedVarInt(output, lineNumber - parentLineNumber);
+			writeSignedVarInt(output, endLineNumber - lineNumber);
+			writeVarInt(output, locations.size() << 1 | (useForDebugging ? 1 : 0));
+			for(Location location: locations) {
+				strategy.writeLocation(location, this);
+			}
+			writeVarInt(output, children.size());
+			if (children.isEmpty())
+				return;
+			ByteArrayOutputStream parentBuffer = buffer;
+			DataOutputStream parentOutput = output;
+			int grandParentOffset = parentOffset;
+			int grandParentLineNumber = parentLineNumber;
+			int baseLocationOffset = locationOffset;
+			int baseLocationLineNumber = locationLineNumber;
+			buffer = new ByteArrayOutputStream();
+			output = new DataOutputStream(buffer);
+			parentOffset = offset;
+			parentLineNumber = lineNumber;
+			try {
+				for(Region child: children) {
+					locationOffset = baseLocationOffset;
+					locationLineNumber = baseLocationLineNumber;
+					strategy.writeRegion(child, this);
+				}
+				writeVarInt(parentOutput, buffer.size());
+				buffer.writeTo(parentOutput);
+			} finally {
+				buffer = parentBuffer;
+				output = parentOutput;
+				parentOffset = grandParentOffset;
+				parentLineNumber = grandParentLineNumber;
+			}
+		}
+		
+		@Override
+		public void doWriteLocation(int offset, int length, int lineNumber, int endLineNumber, SourceRelativeURI path) throws IOException {
+			writeSignedVarInt(output, offset - locationOffset);
+			writeVarInt(output, length);
+			writeSignedVarInt(output, lineNumber - locationLineNumber);
+			writeSignedVarInt(output, endLineNumber - lineNumber);
+			writeVarInt(output, getPathIndex(path));
+			locationOffset = offset;
+			locationLineNumber = lineNumber;
+		}
+		
+		protected int getPathIndex(SourceRelativeURI path) {
+			if (path == null)
+				return 0;
+			Integer result = paths.get(path);
+			if (result == null) {
+				result = paths.size() + 1;
+				paths.put(path, result);
+			}
+			return result;
+		}
+		
+		public void writeTo(DataOutputStream dataStream) throws IOException {
+			writeVarInt(dataStream, paths.size());
+			for(SourceRelativeURI path: paths.keySet()) {
+				dataStream.writeUTF(path.getURI().toString());
+			}
+			buffer.writeTo(dataStream);
 		}
 	}
 	
+	private static void writeVarInt(DataOutput output, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			output.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		output.writeByte(value);
+	}
+	
+	private static void writeSignedVarInt(DataOutput output, int value) throws IOException {
+		writeVarInt(output, (value << 1) ^ (value >> 31));
+	}
+	
+	/**
+	 * Reads the root region of a trace. The nested regions of a trace in the current format are decoded when they
+	 * are accessed for the first time.
+	 */
 	public AbstractTraceRegion readTraceRegionFrom(InputStream contents) throws IOException {
-		return doReadFrom(contents, new IdentityStrategy());
+		DataInputStream dataStream = new DataInputStream(new BufferedInputStream(contents));
+		int version = dataStream.readInt();
+		if (version == VERSION_6) {
+			if (!dataStream.readBoolean())
+				return null;
+			return new CompactTrace(dataStream).readTree(new LazyStrategy());
+		}
+		return doReadFrom(version, dataStream, new IdentityStrategy());
+	}
+	
+	/**
+	 * Creates regions that decode their nested regions on demand.
+	 * 
+	 * @since 2.18
+	 */
+	protected static class LazyStrategy extends IdentityStrategy {
+		@Override
+		public AbstractTraceRegion createRegion(int offset, int length, int lineNumber, int endLineNumber, boolean useForDebugging, List<ILocationData> associations,
+				AbstractTraceRegion parent) {
+			return new LazyTraceRegion(offset, length, lineNumber, endLineNumber, useForDebugging, associations, parent);
+		}
+	}
+	
+	/**
+	 * A trace region whose nested regions are decoded from the version 6 format when they are accessed for the first
+	 * time.
+	 * 
+	 * @since 2.18
+	 */
+	protected static class LazyTraceRegion extends TraceRegion {
+		
+		private CompactTrace trace;
+		private int childrenPosition;
+		private int childrenCount;
+		private int baseLocationOffset;
+		private int baseLocationLineNumber;
+		private boolean decoding;
+		private volatile boolean decoded = true;
+		
+		protected LazyTraceRegion(int offset, int length, int lineNumber, int endLineNumber, boolean useForDebugging, List<ILocationData> associations,
+				AbstractTraceRegion parent) {
+			super(offset, length, lineNumber, endLineNumber, useForDebugging, (Collection<ILocationData>) associations, parent);
+		}
+		
+		protected void setEncodedChildren(CompactTrace trace, int position, int count, int locationOffset, int locationLineNumber) {
+			this.trace = trace;
+			this.childrenPosition = position;
+			this.childrenCount = count;
+			this.baseLocationOffset = locationOffset;
+			this.baseLocationLineNumber = locationLineNumber;
+			this.decoded = false;
+		}
+		
+		/**
+		 * Whether the nested regions of this region have been decoded.
+		 */
+		public boolean isDecoded() {
+			return decoded;
+		}
+		
+		@Override
+		protected void loadNestedRegions() {
+			if (decoded)
+				return;
+			synchronized (this) {
+				// the regions check their consistency with the parent while they are decoded
+				if (decoded || decoding)
+					return;
+				decoding = true;
+				try {
+					CompactTrace.Cursor cursor = trace.new Cursor(childrenPosition);
+					for (int i = 0; i < childrenCount; i++) {
+						trace.readRegion(cursor, new LazyStrategy(), this, getMyOffset(), getMyLineNumber(), baseLocationOffset, baseLocationLineNumber);
+					}
+				} finally {
+					trace = null;
+					decoding = false;
+					decoded = true;
+				}
+			}
+		}
 	}
 	
 	protected static class CompressedIntDataInput extends FilterInputStream implements DataInput {
@@ -275,13 +422,18 @@ public class TraceRegionSerializer {
 
 	public <Region, Location> Region doReadFrom(InputStream contents, Strategy<Region, Location> reader) throws IOException {
 		DataInputStream dataStream = new DataInputStream(new BufferedInputStream(contents));
-		int version = dataStream.readInt();
-		if (version != VERSION_3 && version != VERSION_4 && version != VERSION_5)
+		return doReadFrom(dataStream.readInt(), dataStream, reader);
+	}
+	
+	private <Region, Location> Region doReadFrom(int version, DataInputStream dataStream, Strategy<Region, Location> reader) throws IOException {
+		if (version != VERSION_3 && version != VERSION_4 && version != VERSION_5 && version != VERSION_6)
 			return null;
 		boolean isNull = !dataStream.readBoolean();
 		if (isNull)
 			return null;
-		if (version >= VERSION_5) {
+		if (version >= VERSION_6) {
+			return new CompactTrace(dataStream).readTree(reader);
+		} else if (version >= VERSION_5) {
 			return doReadFrom(new CompressedIntDataInput(dataStream), reader, null, version);
 		} else {
 			return doReadFrom(dataStream, reader, null, version);
@@ -340,4 +492,100 @@ public class TraceRegionSerializer {
 		return result;
 	}
 
+	/**
+	 * The decoded table of paths and the encoded regions of a trace in the version 6 format.
+	 * 
+	 * @since 2.18
+	 */
+	protected static class CompactTrace {
+		
+		private final SourceRelativeURI[] paths;
+		private final byte[] data;
+		
+		public CompactTrace(DataInputStream dataStream) throws IOException {
+			paths = new SourceRelativeURI[readVarInt(dataStream)];
+			for (int i = 0; i < paths.length; i++) {
+				paths[i] = new SourceRelativeURI(dataStream.readUTF());
+			}
+			data = ByteStreams.toByteArray(dataStream);
+		}
+		
+		private static int readVarInt(DataInput input) throws IOException {
+			int result = 0;
+			for (int shift = 0; shift < 32; shift += 7) {
+				byte b = input.readByte();
+				result |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0)
+					return result;
+			}
+			throw new IOException("Malformed variable length int");
+		}
+		
+		protected class Cursor {
+			private int position;
+			
+			public Cursor(int position) {
+				this.position = position;
+			}
+			
+			public int readVarInt() {
+				int result = 0;
+				for (int shift = 0; shift < 32; shift += 7) {
+					byte b = data[position++];
+					result |= (b & 0x7F) << shift;
+					if ((b & 0x80) == 0)
+						return result;
+				}
+				throw new IllegalStateException("Malformed variable length int");
+			}
+			
+			public int readSignedVarInt() {
+				int value = readVarInt();
+				return (value >>> 1) ^ -(value & 1);
+			}
+		}
+		
+		/**
+		 * Decodes the root region. Regions that are created by a {@link LazyStrategy} decode their nested regions on
+		 * demand, all other regions are decoded immediately.
+		 */
+		public <Region, Location> Region readTree(Strategy<Region, Location> reader) {
+			return readRegion(new Cursor(0), reader, null, 0, 0, 0, 0);
+		}
+		
+		protected <Region, Location> Region readRegion(Cursor cursor, Strategy<Region, Location> reader, Region parent, int parentOffset, int parentLineNumber,
+				int locationOffset, int locationLineNumber) {
+			int offset = parentOffset + cursor.readSignedVarInt();
+			int length = cursor.readVarInt();
+			int lineNumber = parentLineNumber + cursor.readSignedVarInt();
+			int endLineNumber = lineNumber + cursor.readSignedVarInt();
+			int flags = cursor.readVarInt();
+			int locationSize = flags >>> 1;
+			List<Location> allLocations = Lists.newArrayListWithCapacity(locationSize);
+			for (int i = 0; i < locationSize; i++) {
+				locationOffset += cursor.readSignedVarInt();
+				int locationLength = cursor.readVarInt();
+				locationLineNumber += cursor.readSignedVarInt();
+				int locationEndLineNumber = locationLineNumber + cursor.readSignedVarInt();
+				int pathIndex = cursor.readVarInt();
+				SourceRelativeURI path = pathIndex == 0 ? null : paths[pathIndex - 1];
+				allLocations.add(reader.createLocation(locationOffset, locationLength, locationLineNumber, locationEndLineNumber, path));
+			}
+			Region result = reader.createRegion(offset, length, lineNumber, endLineNumber, (flags & 1) != 0, allLocations, parent);
+			int childrenSize = cursor.readVarInt();
+			if (childrenSize != 0) {
+				int childrenLength = cursor.readVarInt();
+				if (result instanceof LazyTraceRegion) {
+					((LazyTraceRegion) result).setEncodedChildren(this, cursor.position, childrenSize, locationOffset, locationLineNumber);
+					cursor.position += childrenLength;
+				} else {
+					for (int i = 0; i < childrenSize; i++) {
+						readRegion(cursor, reader, result, offset, lineNumber, locationOffset, locationLineNumber);
+					}
+				}
+			}
+			return result;
+		}
+	}
+
 }
@@ -87,6 +87,8 @@ public abstract class AbstractTrace implements ITrace {
 	
 	private AbstractTraceRegion rootTraceRegion;
 	
+	private TraceRegionIndex traceRegionIndex;
+	
 	private ITraceRegionProvider traceRegionProvider;
 	
 	private boolean isTraceToSource;
@@ -104,6 +106,22 @@ public abstract class AbstractTrace implements ITrace {
 		return rootTraceRegion;
 	}
 	
+	/**
+	 * Returns the index over the leafs of the {@link #getRootTraceRegion() root trace region}. It is built once per
+	 * loaded trace.
+	 * @return the index. May be <code>null</code> if no trace data is available.
+	 * @since 2.18
+	 */
+	protected TraceRegionIndex getTraceRegionIndex() {
+		if (traceRegionIndex == null) {
+			AbstractTraceRegion root = getRootTraceRegion();
+			if (root != null) {
+				traceRegionIndex = new TraceRegionIndex(root);
+			}
+		}
+		return traceRegionIndex;
+	}
+	
 	@Override
 	public boolean hasTraceData() {
 		return getRootTraceRegion() != null;
@@ -241,23 +259,43 @@ public abstract class AbstractTrace implements ITrace {
 			// we have an inconsistent state - no candidate matches
 			return null;
 		}
-		outer: while(candidate != null) {
-			// TODO binary search?
+		while(true) {
 			List<? extends AbstractTraceRegion> children = candidate.getNestedRegions();
-			if (children.isEmpty()) {
+			AbstractTraceRegion child = findEnclosingChild(children, offset, includeRegionEnd);
+			if (child == null) {
 				return candidate;
 			}
-			for(AbstractTraceRegion child: children) {
-				if (encloses(child, offset, includeRegionEnd)) {
-					candidate = child;
-					continue outer;
-				} else {
-					if (child.getMyOffset() > offset) {
-						return candidate;
-					}
-				}
+			candidate = child;
+		}
+	}
+	
+	/**
+	 * Finds the first of the given sorted, non-overlapping regions that encloses the offset with a binary search. Only
+	 * the last region that starts before the offset and the first region that starts at the offset are candidates.
+	 * @since 2.18
+	 */
+	protected AbstractTraceRegion findEnclosingChild(List<? extends AbstractTraceRegion> children, int offset, boolean includeRegionEnd) {
+		int low = 0;
+		int high = children.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (children.get(mid).getMyOffset() < offset) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		if (low > 0) {
+			AbstractTraceRegion before = children.get(low - 1);
+			if (encloses(before, offset, includeRegionEnd)) {
+				return before;
+			}
+		}
+		if (low < children.size()) {
+			AbstractTraceRegion at = children.get(low);
+			if (at.getMyOffset() == offset) {
+				return at;
 			}
-			return candidate;
 		}
 		return null;
 	}
@@ -313,12 +351,20 @@ public abstract class AbstractTrace implements ITrace {
 	}
 	
 	protected boolean isAssociatedWith(AbstractTraceRegion region, AbsoluteURI uri, IProjectConfig project) {
+		SourceRelativeURI convertedUri = getURIForTrace(uri, project);
+		return convertedUri.equals(region.getAssociatedSrcRelativePath());
+	}
+	
+	/**
+	 * @return the path of the given URI as it is recorded in the trace regions.
+	 * @since 2.18
+	 */
+	protected SourceRelativeURI getURIForTrace(AbsoluteURI uri, IProjectConfig project) {
 		ITraceURIConverter traceURIConverter = getService(uri, ITraceURIConverter.class);
 		if (traceURIConverter == null) {
 			traceURIConverter = getService(getLocalURI(), ITraceURIConverter.class);
 		}
-		SourceRelativeURI convertedUri = traceURIConverter.getURIForTrace(project, uri);
-		return convertedUri.equals(region.getAssociatedSrcRelativePath());
+		return traceURIConverter.getURIForTrace(project, uri);
 	}
 	
 	protected AbstractTraceRegion findParentByURI(AbstractTraceRegion region, AbsoluteURI uri, IProjectConfig project) {
@@ -336,10 +382,18 @@ public abstract class AbstractTrace implements ITrace {
 	}
 	
 	@Override
-	public Iterable<? extends ILocationInResource> getAllAssociatedLocations(AbsoluteURI uri) {
-		final Iterable<AbstractTraceRegion> allTraceRegions = getAllTraceRegions();
-		Iterable<AbstractTraceRegion> filteredByURI = new TraceRegionsByURI(allTraceRegions, uri, getLocalProjectConfig());
-		return toLocations(filteredByURI);
+	public Iterable<? extends ILocationInResource> getAllAssociatedLocations(final AbsoluteURI uri) {
+		final IProjectConfig projectConfig = getLocalProjectConfig();
+		Iterable<AbstractTraceRegion> regionsByURI = new Iterable<AbstractTraceRegion>() {
+			@Override
+			public Iterator<AbstractTraceRegion> iterator() {
+				TraceRegionIndex index = getTraceRegionIndex();
+				if (index == null)
+					return ImmutableSet.<AbstractTraceRegion>of().iterator();
+				return index.getRegions(getURIForTrace(uri, projectConfig)).iterator();
+			}
+		};
+		return toLocations(regionsByURI);
 	}
 	
 	@Override
@@ -408,40 +462,10 @@ public abstract class AbstractTrace implements ITrace {
 
 			@Override
 			public Iterator<AbstractTraceRegion> iterator() {
-				AbstractTraceRegion root = getRootTraceRegion();
-				if (root == null)
+				TraceRegionIndex index = getTraceRegionIndex();
+				if (index == null)
 					return ImmutableSet.<AbstractTraceRegion>of().iterator();
-				final Iterator<AbstractTraceRegion> allLeafs = root.leafIterator();
-				Iterator<AbstractTraceRegion> result = new AbstractIterator<AbstractTraceRegion>() {
-					
-					AbstractTraceRegion first;
-					{
-						while(first == null && allLeafs.hasNext()) {
-							AbstractTraceRegion next = allLeafs.next();
-							if (next.getMyOffset() == left.getMyOffset()) {
-								this.first = next;
-								break;
-							}
-						}
-					}
-					
-					@Override
-					protected AbstractTraceRegion computeNext() {
-						if (first != null) {
-							AbstractTraceRegion result = first;
-							first = null;
-							return result;
-						}
-						if (!allLeafs.hasNext())
-							return endOfData();
-						AbstractTraceRegion candidate = allLeafs.next();
-						if (candidate.getMyOffset() >= end) {
-							return endOfData();
-						}
-						return candidate;
-					}
-				};
-				return result;
+				return index.getLeafs(left.getMyOffset(), end).iterator();
 			}
 			
 		};
@@ -457,11 +481,10 @@ public abstract class AbstractTrace implements ITrace {
 		return new Iterable<AbstractTraceRegion>() {
 			@Override
 			public Iterator<AbstractTraceRegion> iterator() {
-				AbstractTraceRegion root = getRootTraceRegion();
-				if (root == null)
+				TraceRegionIndex index = getTraceRegionIndex();
+				if (index == null)
 					return ImmutableSet.<AbstractTraceRegion>of().iterator();
-				final Iterator<AbstractTraceRegion> result = root.leafIterator();
-				return result;
+				return index.getLeafs().iterator();
 			}
 		};
 	}
@@ -11,13 +11,12 @@ import static com.google.common.collect.Lists.*;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import org.apache.log4j.Logger;
 import org.eclipse.emf.common.util.URI;
+import org.eclipse.xtext.build.BuildRequest;
 import org.eclipse.xtext.generator.trace.AbsoluteURI;
 import org.eclipse.xtext.generator.trace.AbstractTraceRegion;
 import org.eclipse.xtext.generator.trace.ITraceForURIProvider;
@@ -30,8 +29,15 @@ import org.eclipse.xtext.generator.trace.TraceRegionSerializer;
 import org.eclipse.xtext.resource.IResourceServiceProvider;
 import org.eclipse.xtext.workspace.IProjectConfig;
 import org.eclipse.xtext.workspace.ISourceFolder;
+import org.eclipse.xtext.xbase.lib.Procedures.Procedure1;
+import org.eclipse.xtext.xbase.lib.Procedures.Procedure2;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
 import com.google.common.io.Closeables;
+import com.google.common.io.CountingInputStream;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
@@ -58,72 +64,99 @@ public abstract class AbstractTraceForURIProvider<SomeFile, Trace extends Abstra
 		boolean exists();
 	}
 	
+	/**
+	 * A bounded cache of decoded traces, keyed by the location of the trace file. The values are weighted by the
+	 * {@link #weigh(long) encoded size} of the trace and the least recently used traces are discarded if the
+	 * {@link #getMaximumWeight() maximum weight} is exceeded. A cached trace is only answered if the timestamp of the trace file did not change. Builds
+	 * may discard the traces of the files they write through {@link #invalidate(AbsoluteURI)}.
+	 */
 	@Singleton
 	protected static class CachedTraces {
 		
-		private static class CacheKey {
-
-			private final AbsoluteURI path;
+		protected static class CachedTrace {
 			private final long timestamp;
-
-			public CacheKey(PersistedTrace source) {
-				this.path = source.getPath();
-				this.timestamp = source.getTimestamp();
-			}
-
-			@Override
-			public int hashCode() {
-				final int prime = 31;
-				int result = 1;
-				result = prime * result + ((path == null) ? 0 : path.hashCode());
-				result = prime * result + (int) (timestamp ^ (timestamp >>> 32));
-				return result;
-			}
-
-			@Override
-			public boolean equals(Object obj) {
-				if (this == obj)
-					return true;
-				if (obj == null)
-					return false;
-				if (getClass() != obj.getClass())
-					return false;
-				CacheKey other = (CacheKey) obj;
-				if (path == null) {
-					if (other.path != null)
-						return false;
-				} else if (!path.equals(other.path))
-					return false;
-				if (timestamp != other.timestamp)
-					return false;
-				return true;
-			}
+			private final AbstractTraceRegion region;
+			private final int weight;
 			
+			protected CachedTrace(long timestamp, AbstractTraceRegion region, int weight) {
+				this.timestamp = timestamp;
+				this.region = region;
+				this.weight = weight;
+			}
 		}
 		
 		@Inject
 		private TraceRegionSerializer traceRegionSerializer;
 		
-		private Map<CacheKey, AbstractTraceRegion> cache = new LinkedHashMap<CacheKey, AbstractTraceRegion>(32, 0.75f, true) {
-			private static final long serialVersionUID = 1L;
-			final int MAX_SIZE = 20;
-			@Override
-			protected boolean removeEldestEntry(Map.Entry<CacheKey, AbstractTraceRegion> eldest) {
-		        return size() > MAX_SIZE;
-		    }
-		};
+		private volatile Cache<AbsoluteURI, CachedTrace> cache;
 		
-		protected synchronized AbstractTraceRegion getTraceRegion(PersistedTrace traceFile) throws TraceNotFoundException {
+		/**
+		 * The maximum number of bytes of encoded traces that are held by this cache. The nested regions of a trace are
+		 * only decoded when they are accessed, a fully decoded trace takes about fifteen times its encoded size.
+		 * 
+		 * @since 2.18
+		 */
+		protected long getMaximumWeight() {
+			return 1024 * 1024;
+		}
+		
+		/**
+		 * The weight of a trace that was read from the given number of bytes. The weight is computed before the trace
+		 * is decoded, so it must not access the nested regions.
+		 * 
+		 * @since 2.18
+		 */
+		protected int weigh(long encodedLength) {
+			return (int) Math.min(encodedLength, Integer.MAX_VALUE);
+		}
+		
+		/**
+		 * @since 2.18
+		 */
+		protected Cache<AbsoluteURI, CachedTrace> getCache() {
+			Cache<AbsoluteURI, CachedTrace> result = cache;
+			if (result == null) {
+				synchronized (this) {
+					result = cache;
+					if (result == null) {
+						cache = result = createCache();
+					}
+				}
+			}
+			return result;
+		}
+		
+		/**
+		 * @since 2.18
+		 */
+		protected Cache<AbsoluteURI, CachedTrace> createCache() {
+			return CacheBuilder.newBuilder()
+					.maximumWeight(getMaximumWeight())
+					.weigher(new Weigher<AbsoluteURI, CachedTrace>() {
+						@Override
+						public int weigh(AbsoluteURI key, CachedTrace value) {
+							return value.weight;
+						}
+					})
+					.recordStats()
+					.build();
+		}
+		
+		protected AbstractTraceRegion getTraceRegion(PersistedTrace traceFile) throws TraceNotFoundException {
 			if (traceFile.exists()) {
-				CacheKey key = new CacheKey(traceFile);
-				AbstractTraceRegion result = cache.get(key);
-				if (result != null)
-					return result;
-				InputStream contents = null;
+				AbsoluteURI key = traceFile.getPath();
+				long timestamp = traceFile.getTimestamp();
+				Cache<AbsoluteURI, CachedTrace> cache = getCache();
+				CachedTrace cached = cache.getIfPresent(key);
+				if (cached != null && cached.timestamp == timestamp)
+					return cached.region;
+				CountingInputStream contents = null;
 				try {
-					contents = traceFile.openStream();
-					result = traceRegionSerializer.readTraceRegionFrom(contents);
-					cache.put(key, result);
+					contents = new CountingInputStream(traceFile.openStream());
+					AbstractTraceRegion result = traceRegionSerializer.readTraceRegionFrom(contents);
+					if (result != null) {
+						cache.put(key, new CachedTrace(timestamp, result, weigh(contents.getCount())));
+					}
 					return result;
 				} catch (Exception e) {
 					log.error(e.getMessage(), e);
@@ -137,6 +170,40 @@ public abstract class AbstractTraceForURIProvider<SomeFile, Trace extends Abstra
 			}
 			throw new TraceNotFoundException();
 		}
+		
+		/**
+		 * Discards the cached trace of the given trace file.
+		 * 
+		 * @since 2.18
+		 */
+		public void invalidate(AbsoluteURI traceFile) {
+			getCache().invalidate(traceFile);
+		}
+		
+		/**
+		 * @since 2.18
+		 */
+		public void clear() {
+			getCache().invalidateAll();
+		}
+		
+		/**
+		 * The hit and miss counters, the number of evictions and the load counters of this cache.
+		 * 
+		 * @since 2.18
+		 */
+		public CacheStats getStatistics() {
+			return getCache().stats();
+		}
+		
+		/**
+		 * The number of currently cached traces.
+		 * 
+		 * @since 2.18
+		 */
+		public long getSize() {
+			return getCache().size();
+		}
 	}
 	
 	/**
@@ -282,4 +349,51 @@ public abstract class AbstractTraceForURIProvider<SomeFile, Trace extends Abstra
 	protected TraceFileNameProvider getTraceFileNameProvider() {
 		return traceFileNameProvider;
 	}
+	
+	/**
+	 * Discards the cached trace of the given generated file.
+	 * 
+	 * @since 2.18
+	 */
+	public void invalidateTrace(AbsoluteURI generatedFile) {
+		String path = generatedFile.getURI().toString();
+		if (!traceFileNameProvider.isTraceFileName(path)) {
+			path = traceFileNameProvider.getTraceFromJava(path);
+		}
+		cachedTraces.invalidate(new AbsoluteURI(path));
+	}
+	
+	/**
+	 * Discards the cached traces of the files that are written or deleted by the given build request. The callbacks
+	 * that are already registered with the request are still invoked.
+	 * 
+	 * @since 2.18
+	 */
+	public void invalidateTracesOnBuild(BuildRequest request) {
+		final Procedure2<? super URI, ? super URI> afterGenerateFile = request.getAfterGenerateFile();
+		request.setAfterGenerateFile(new Procedure2<URI, URI>() {
+			@Override
+			public void apply(URI source, URI generated) {
+				invalidateTrace(new AbsoluteURI(generated));
+				afterGenerateFile.apply(source, generated);
+			}
+		});
+		final Procedure1<? super URI> afterDeleteFile = request.getAfterDeleteFile();
+		request.setAfterDeleteFile(new Procedure1<URI>() {
+			@Override
+			public void apply(URI deleted) {
+				invalidateTrace(new AbsoluteURI(deleted));
+				afterDeleteFile.apply(deleted);
+			}
+		});
+	}
+	
+	/**
+	 * The hit and miss counters, the number of evictions and the load counters of the trace cache.
+	 * 
+	 * @since 2.18
+	 */
+	public CacheStats getTraceCacheStatistics() {
+		return cachedTraces.getStatistics();
+	}
 }
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.generator.trace.internal;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.xtext.generator.trace.AbstractTraceRegion;
+import org.eclipse.xtext.generator.trace.SourceRelativeURI;
+
+import com.google.common.collect.Lists;
+
+/**
+ * An index over the leafs of a trace region tree. The leafs are stored in the order of the
+ * {@link AbstractTraceRegion#leafIterator() leaf iterator} together with their offsets, such that the leafs of a local
+ * region can be found with a binary search.
+ *
+ * <p>
+ * The regions that are associated with a source file are indexed lazily. For each leaf, they contain the closest
+ * region on the path to the root that is associated with the file, in the order of the leafs and without consecutive
+ * duplicates.
+ * </p>
+ *
+ * @since 2.18
+ */
+public class TraceRegionIndex {
+
+	private final List<AbstractTraceRegion> leafs;
+
+	private final int[] leafOffsets;
+
+	private volatile Map<SourceRelativeURI, List<AbstractTraceRegion>> regionsByPath;
+
+	public TraceRegionIndex(AbstractTraceRegion root) {
+		List<AbstractTraceRegion> leafs = Lists.newArrayList(root.leafIterator());
+		this.leafs = Collections.unmodifiableList(leafs);
+		this.leafOffsets = new int[leafs.size()];
+		for (int i = 0; i < leafOffsets.length; i++) {
+			leafOffsets[i] = leafs.get(i).getMyOffset();
+		}
+	}
+
+	public List<AbstractTraceRegion> getLeafs() {
+		return leafs;
+	}
+
+	/**
+	 * @return the index of the first leaf that starts at or after the given offset, or the number of leafs if there is
+	 *         no such leaf.
+	 */
+	public int getFirstLeafIndex(int offset) {
+		int low = 0;
+		int high = leafOffsets.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (leafOffsets[mid] < offset) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @return the leafs from the first leaf that starts at the given offset up to the last leaf that starts before
+	 *         the given end. The first leaf is included even if it starts at the end. The result is empty if no leaf
+	 *         starts at the given offset.
+	 */
+	public List<AbstractTraceRegion> getLeafs(int offset, int end) {
+		int from = getFirstLeafIndex(offset);
+		if (from == leafOffsets.length || leafOffsets[from] != offset) {
+			return Collections.emptyList();
+		}
+		int to = Math.max(getFirstLeafIndex(end), from + 1);
+		return leafs.subList(from, to);
+	}
+
+	/**
+	 * @return the regions that are associated with the given source file, in the order of the leafs.
+	 */
+	public List<AbstractTraceRegion> getRegions(SourceRelativeURI path) {
+		List<AbstractTraceRegion> result = getRegionsByPath().get(path);
+		if (result == null) {
+			return Collections.emptyList();
+		}
+		return result;
+	}
+
+	protected Map<SourceRelativeURI, List<AbstractTraceRegion>> getRegionsByPath() {
+		Map<SourceRelativeURI, List<AbstractTraceRegion>> result = regionsByPath;
+		if (result == null) {
+			result = computeRegionsByPath();
+			regionsByPath = result;
+		}
+		return result;
+	}
+
+	protected Map<SourceRelativeURI, List<AbstractTraceRegion>> computeRegionsByPath() {
+		Map<AbstractTraceRegion, SourceRelativeURI> paths = new IdentityHashMap<AbstractTraceRegion, SourceRelativeURI>();
+		Map<SourceRelativeURI, List<AbstractTraceRegion>> result = new HashMap<SourceRelativeURI, List<AbstractTraceRegion>>();
+		Set<SourceRelativeURI> seen = new HashSet<SourceRelativeURI>();
+		for (AbstractTraceRegion leaf : leafs) {
+			seen.clear();
+			for (AbstractTraceRegion region = leaf; region != null; region = region.getParent()) {
+				SourceRelativeURI path = getPath(region, paths);
+				if (path != null && seen.add(path)) {
+					List<AbstractTraceRegion> regions = result.get(path);
+					if (regions == null) {
+						regions = Lists.newArrayList();
+						result.put(path, regions);
+					}
+					if (regions.isEmpty() || !regions.get(regions.size() - 1).equals(region)) {
+						regions.add(region);
+					}
+				}
+			}
+		}
+		for (Map.Entry<SourceRelativeURI, List<AbstractTraceRegion>> entry : result.entrySet()) {
+			entry.setValue(Collections.unmodifiableList(entry.getValue()));
+		}
+		return result;
+	}
+
+	private SourceRelativeURI getPath(AbstractTraceRegion region, Map<AbstractTraceRegion, SourceRelativeURI> paths) {
+		if (paths.containsKey(region)) {
+			return paths.get(region);
+		}
+		SourceRelativeURI result = region.getAssociatedSrcRelativePath();
+		paths.put(region, result);
+		return result;
+	}
+
+}
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.generator.trace.node;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A character sequence that grows by appending chunks of bounded size instead of copying its contents into ever larger
+ * arrays. Appended text is split at the chunk boundaries, such that no chunk exceeds its initial capacity. Random access
+ * uses a binary search over the chunk offsets.
+ *
+ * @since 2.18
+ */
+public class ChunkedCharSequence implements CharSequence, Appendable {
+
+	private static final int DEFAULT_CHUNK_SIZE = 8 * 1024;
+
+	private final int chunkSize;
+
+	private final List<StringBuilder> chunks = new ArrayList<StringBuilder>();
+
+	private int[] offsets = new int[16];
+
+	private int length;
+
+	public ChunkedCharSequence() {
+		this(DEFAULT_CHUNK_SIZE);
+	}
+
+	public ChunkedCharSequence(int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("chunkSize: " + chunkSize);
+		}
+		this.chunkSize = chunkSize;
+	}
+
+	@Override
+	public ChunkedCharSequence append(CharSequence csq) {
+		if (csq == null) {
+			return append("null");
+		}
+		return append(csq, 0, csq.length());
+	}
+
+	@Override
+	public ChunkedCharSequence append(CharSequence csq, int start, int end) {
+		if (csq == null) {
+			return append("null", start, end);
+		}
+		while (start < end) {
+			StringBuilder chunk = currentChunk();
+			int next = Math.min(end, start + chunkSize - chunk.length());
+			chunk.append(csq, start, next);
+			length += next - start;
+			start = next;
+		}
+		return this;
+	}
+
+	@Override
+	public ChunkedCharSequence append(char c) {
+		currentChunk().append(c);
+		length++;
+		return this;
+	}
+
+	private StringBuilder currentChunk() {
+		int size = chunks.size();
+		if (size > 0) {
+			StringBuilder last = chunks.get(size - 1);
+			if (last.length() < chunkSize) {
+				return last;
+			}
+		}
+		if (size == offsets.length) {
+			offsets = Arrays.copyOf(offsets, size * 2);
+		}
+		offsets[size] = length;
+		StringBuilder result = new StringBuilder(chunkSize);
+		chunks.add(result);
+		return result;
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+		}
+		int chunk = chunkIndex(index);
+		return chunks.get(chunk).charAt(index - offsets[chunk]);
+	}
+
+	private int chunkIndex(int offset) {
+		int result = Arrays.binarySearch(offsets, 0, chunks.size(), offset);
+		if (result < 0) {
+			return -result - 2;
+		}
+		return result;
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if (start < 0 || end > length || start > end) {
+			throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + length);
+		}
+		StringBuilder result = new StringBuilder(end - start);
+		if (start == end) {
+			return result;
+		}
+		for (int chunk = chunkIndex(start); chunk < chunks.size() && offsets[chunk] < end; chunk++) {
+			int chunkOffset = offsets[chunk];
+			StringBuilder builder = chunks.get(chunk);
+			result.append(builder, Math.max(start - chunkOffset, 0), Math.min(end - chunkOffset, builder.length()));
+		}
+		return result;
+	}
+
+	/**
+	 * Appends the contents of this sequence to the given output without creating an intermediate string.
+	 */
+	public void writeTo(Appendable output) throws IOException {
+		for (StringBuilder chunk : chunks) {
+			output.append(chunk);
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder(length);
+		for (StringBuilder chunk : chunks) {
+			result.append(chunk);
+		}
+		return result.toString();
+	}
+
+	@Override
+	public int hashCode() {
+		int result = 0;
+		for (StringBuilder chunk : chunks) {
+			for (int i = 0; i < chunk.length(); i++) {
+				result = 31 * result + chunk.charAt(i);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ChunkedCharSequence)) {
+			return false;
+		}
+		ChunkedCharSequence other = (ChunkedCharSequence) obj;
+		if (length != other.length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (charAt(i) != other.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -7,9 +7,9 @@
  *******************************************************************************/
 package org.eclipse.xtext.generator.trace.node
 
+import java.io.IOException
 import java.util.ArrayDeque
 import java.util.Deque
-import java.util.List
 import org.eclipse.xtend.lib.annotations.Data
 import org.eclipse.xtend.lib.annotations.Delegate
 import org.eclipse.xtext.generator.trace.AbstractStatefulTraceRegion
@@ -18,6 +18,7 @@ import org.eclipse.xtext.generator.trace.ILocationData
 import org.eclipse.xtext.generator.trace.ITraceRegionProvider
 import org.eclipse.xtext.generator.trace.TraceNotFoundException
 import org.eclipse.xtext.util.ITextRegionWithLineInformation
+import org.eclipse.xtext.util.RuntimeIOException
 import org.eclipse.xtext.util.TextRegionWithLineInformation
 
 /**
@@ -42,8 +43,13 @@ class GeneratorNodeProcessor {
 		}
 	}
 	
+	/**
+	 * Only the current line is kept in a buffer. Each completed line is appended to the content of the context.
+	 */
 	protected static class Context {
-		List<StringBuilder> _lines = newArrayList(new StringBuilder)
+		ChunkedCharSequence _content = new ChunkedCharSequence
+		StringBuilder _currentLine = new StringBuilder
+		int _currentLineNumber = 0
 		Deque<IndentNode> _currentIndents = new ArrayDeque
 		boolean _pendingIndent = true
 		AbstractTraceRegion _currentRegion = null
@@ -52,7 +58,15 @@ class GeneratorNodeProcessor {
 		int _indentLength = 0
 		
 		def String currentLineContent() {
-			return _lines.get(currentLineNumber).toString
+			return _currentLine.toString
+		}
+		
+		/**
+		 * @return the current line without copying it
+		 * @since 2.18
+		 */
+		def CharSequence currentLine() {
+			return _currentLine
 		}
 		
 		def int contentLength() {
@@ -64,11 +78,41 @@ class GeneratorNodeProcessor {
 		}
 		
 		def int currentLineNumber() {
-			return _lines.size - 1
+			return _currentLineNumber
 		}
 
+		/**
+		 * @return the content that has been processed so far and is held by this context. A
+		 *         {@link StreamingContext streaming context} holds only the current line, since it has written the
+		 *         completed lines to its output.
+		 */
 		def String getContent() {
-			_lines.join
+			return _content.toString + _currentLine
+		}
+		
+		/**
+		 * @return the completed lines held by this context without copying them
+		 * @since 2.18
+		 */
+		protected def CharSequence getCompletedLines() {
+			return _content
+		}
+		
+		/**
+		 * Completes the current line. Called once all nodes have been processed.
+		 * @since 2.18
+		 */
+		def void flush() {
+			lineCompleted(_currentLine)
+			_currentLine.length = 0
+		}
+		
+		/**
+		 * Appends a completed line to the content.
+		 * @since 2.18
+		 */
+		protected def void lineCompleted(CharSequence line) {
+			_content.append(line)
 		}
 		
 		def getCurrentRegion() {
@@ -90,7 +134,7 @@ class GeneratorNodeProcessor {
 		}
 		
 		def void appendToCurrentLine(CharSequence chars) {
-			_lines.get(currentLineNumber).append(chars)
+			_currentLine.append(chars)
 			_contentLength = _contentLength + chars.length
 		}
 		
@@ -99,7 +143,9 @@ class GeneratorNodeProcessor {
 		}
 		
 		def void addNewLine() {
-			_lines.add(new StringBuilder)
+			lineCompleted(_currentLine)
+			_currentLine.length = 0
+			_currentLineNumber++
 		}
 		
 		def void setPendingIndent(boolean pending) {
@@ -107,18 +153,15 @@ class GeneratorNodeProcessor {
 		}
 		
 		/**
-		 * Replace the current line with new StringBuilder
+		 * Discard the content of the current line
 		 */
 		def void resetCurrentLine() {
-			val lineContent = _lines.get(currentLineNumber)
-			if (!lineContent.nullOrEmpty) {
-				_contentLength = _contentLength - lineContent.length
-			}
-			_lines.set(currentLineNumber, new StringBuilder)
+			_contentLength = _contentLength - _currentLine.length
+			_currentLine.length = 0
 		}
 		
 		def void insertIntoCurrentLine(int i, StringBuilder builder) {
-			_lines.get(currentLineNumber).insert(i, builder)
+			_currentLine.insert(i, builder)
 			_contentLength = _contentLength + builder.length
 		}
 		
@@ -135,10 +178,46 @@ class GeneratorNodeProcessor {
 		
 	}
 	
+	/**
+	 * Writes each completed line to an output instead of keeping it in memory. It is used by
+	 * {@link GeneratorNodeProcessor#process(IGeneratorNode, Appendable)}, which does not need the content of the
+	 * context.
+	 * @since 2.18
+	 */
+	protected static class StreamingContext extends Context {
+		Appendable output
+		
+		new(Appendable output) {
+			this.output = output
+		}
+		
+		override protected lineCompleted(CharSequence line) {
+			try {
+				output.append(line)
+			} catch (IOException e) {
+				throw new RuntimeIOException(e)
+			}
+		}
+	}
+	
 	def Result process(IGeneratorNode root) {
-		val ctx = new Context()
+		val ctx = new Context
+		doProcess(root, ctx)
+		ctx.flush
+		return new Result(ctx.completedLines, ctx.currentRegion)
+	}
+	
+	/**
+	 * Writes the text of the given node line by line to the given output instead of keeping it in memory.
+	 * 
+	 * @return the root trace region or <code>null</code> if the node is not traced
+	 * @since 2.18
+	 */
+	def AbstractTraceRegion process(IGeneratorNode root, Appendable output) {
+		val ctx = new StreamingContext(output)
 		doProcess(root, ctx)
-		return new Result(ctx.content, ctx.currentRegion)
+		ctx.flush
+		return ctx.currentRegion
 	}
 
 	/**
@@ -159,7 +238,7 @@ class GeneratorNodeProcessor {
 	}
 	
 	protected def dispatch void doProcess(NewLineNode node, Context ctx) {
-		if (node.ifNotEmpty && !ctx.currentLineContent.hasNonWhitespace) {
+		if (node.ifNotEmpty && !ctx.currentLine.hasNonWhitespace) {
 			ctx.resetCurrentLine()
 		} else {
 			if (ctx.pendingIndent)
@@ -223,7 +302,7 @@ class GeneratorNodeProcessor {
 	}
 	
 	protected def dispatch boolean hasContent(NewLineNode node, Context ctx) {
-		!(node.ifNotEmpty && ctx.currentLineContent.length == 0)
+		!(node.ifNotEmpty && ctx.currentLine.length == 0)
 	}
 
 	protected def dispatch boolean hasContent(TextNode node, Context ctx) {
@@ -37,6 +37,8 @@ public class QualifiedName implements Comparable<QualifiedName> {
 
 	private static final boolean USE_INTERNING = Boolean.getBoolean("xtext.qn.interning");
 
+	private static final boolean USE_SEGMENT_POOL = Boolean.getBoolean("xtext.qn.segmentPool");
+
 	/**
 	 * The single existing empty QualifiedName.
 	 */
@@ -127,8 +129,9 @@ public class QualifiedName implements Comparable<QualifiedName> {
 	}
 
 	/**
-	 * Returns string internal instance from string pool, if a system property {@code xtext.qn.interning} is set to {@code true}, or the
-	 * same object otherwise.
+	 * Returns the canonical instance from the {@link QualifiedNameSegmentPool}, if a system property
+	 * {@code xtext.qn.segmentPool} is set to {@code true}, the internal instance from string pool, if a system
+	 * property {@code xtext.qn.interning} is set to {@code true}, or the same object otherwise.
 	 * <p>
 	 * Implementation notes:
 	 * <ol>
@@ -138,9 +141,20 @@ public class QualifiedName implements Comparable<QualifiedName> {
 	 * </ol>
 	 */
 	private static String intern(String string) {
+		if (USE_SEGMENT_POOL) {
+			return QualifiedNameSegmentPool.getDefault().intern(string);
+		}
 		return USE_INTERNING? CommonUtil.intern(string) : string;
 	}
 
+	private static String internLowerCase(String segment) {
+		if (USE_SEGMENT_POOL) {
+			// segments are already canonical thus the pool can answer the cached lower case variant
+			return QualifiedNameSegmentPool.getDefault().toLowerCase(segment);
+		}
+		return intern(segment.toLowerCase());
+	}
+
 	/**
 	 * Internal low level factory method.
 	 * @noreference This method is not intended to be referenced by clients.
@@ -346,9 +360,9 @@ public class QualifiedName implements Comparable<QualifiedName> {
 		boolean isLowerCase = true;
 		for (int i = 0; i < getSegmentCount(); ++i) {
 			String segment = segments[i];
-			String lowerCaseSegment = segment.toLowerCase();
+			String lowerCaseSegment = internLowerCase(segment);
 			isLowerCase = isLowerCase && segment == lowerCaseSegment;
-			newSegments[i] = intern(lowerCaseSegment);
+			newSegments[i] = lowerCaseSegment;
 		}
 		if (isLowerCase) {
 			lowerCase = this;
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.naming;
+
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * A pool of canonical {@link QualifiedName} segments. It is a weak interner for segment strings that also caches the
+ * lower case variant of each canonical segment, such that {@link QualifiedName#toLowerCase()} does not allocate new
+ * segment strings for segments that are in use. The new qualified name and its segment array are still allocated.
+ *
+ * The pool does not assign ids to segments and does not share common prefixes between qualified names. Pooled
+ * segments only save the memory of duplicate strings, {@link QualifiedName#equals(Object)} and
+ * {@link QualifiedName#hashCode()} still compare and hash the segment strings.
+ *
+ * The pool only references its segments weakly, thus segments that are no longer used by any qualified name are
+ * released. It is used by {@link QualifiedName} if the system property {@code xtext.qn.segmentPool} is set to
+ * {@code true}.
+ *
+ * @since 2.18
+ */
+public final class QualifiedNameSegmentPool {
+
+	private static final QualifiedNameSegmentPool DEFAULT = new QualifiedNameSegmentPool();
+
+	/**
+	 * The JVM wide pool that is used by {@link QualifiedName}.
+	 */
+	public static QualifiedNameSegmentPool getDefault() {
+		return DEFAULT;
+	}
+
+	private final Interner<String> segments = Interners.newWeakInterner();
+
+	/**
+	 * Maps canonical segments to their canonical lower case variant. Keys are compared by identity. Values are weak,
+	 * too, since the lower case variant of a segment is often the segment itself.
+	 */
+	private final ConcurrentMap<String, String> lowerCaseSegments = CacheBuilder.newBuilder().weakKeys().weakValues()
+			.<String, String> build().asMap();
+
+	/**
+	 * Returns the canonical instance of the given segment.
+	 */
+	public String intern(String segment) {
+		return segments.intern(segment);
+	}
+
+	/**
+	 * Returns the canonical lower case variant of the given segment.
+	 */
+	public String toLowerCase(String segment) {
+		String canonical = intern(segment);
+		String result = lowerCaseSegments.get(canonical);
+		if (result == null) {
+			String lowerCase = canonical.toLowerCase();
+			result = lowerCase.equals(canonical) ? canonical : intern(lowerCase);
+			lowerCaseSegments.put(canonical, result);
+		}
+		return result;
+	}
+
+}
@@ -19,6 +19,7 @@ import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
 import org.eclipse.xtext.diagnostics.ExceptionDiagnostic;
 import org.eclipse.xtext.parser.IParseResult;
 import org.eclipse.xtext.resource.persistence.StorageAwareResource;
+import org.eclipse.xtext.util.DependencyTrackingResourceScopeCache;
 import org.eclipse.xtext.util.IResourceScopeCache;
 import org.eclipse.xtext.util.OnChangeEvictingCache;
 
@@ -172,6 +173,8 @@ public class DerivedStateAwareResource extends StorageAwareResource {
 		IResourceScopeCache cache = getCache();
 		if (cache instanceof OnChangeEvictingCache) {
 			((OnChangeEvictingCache) cache).getOrCreate(this);
+		} else if (cache instanceof DependencyTrackingResourceScopeCache) {
+			((DependencyTrackingResourceScopeCache) cache).getOrCreate(this);
 		}
 	}
 	
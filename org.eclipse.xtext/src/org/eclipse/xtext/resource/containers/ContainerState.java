@@ -35,6 +35,24 @@ class ContainerState implements IContainerState {
 		return globalState.isEmpty(root);
 	}
 	
+	/**
+	 * Container states are equal if they describe the same root in the same global state.
+	 */
+	@Override
+	public int hashCode() {
+		return 31 * root.hashCode() + System.identityHashCode(globalState);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this)
+			return true;
+		if (obj == null || obj.getClass() != getClass())
+			return false;
+		ContainerState other = (ContainerState) obj;
+		return root.equals(other.root) && globalState == other.globalState;
+	}
+
 	@Override
 	public String toString() {
 		return "container '" + root +"' from "+globalState;
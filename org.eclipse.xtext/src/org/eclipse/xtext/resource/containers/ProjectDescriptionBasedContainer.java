@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.resource.containers;
+
+import org.eclipse.xtext.resource.IResourceDescriptions;
+import org.eclipse.xtext.resource.impl.ChunkedResourceDescriptions;
+import org.eclipse.xtext.resource.impl.ResourceDescriptionsBasedContainer;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * The container of a project, backed by the project's chunk of the {@link ChunkedResourceDescriptions}. Created by
+ * the {@link ProjectDescriptionBasedContainerManager}.
+ *
+ * @since 2.18
+ */
+@Beta
+public class ProjectDescriptionBasedContainer extends ResourceDescriptionsBasedContainer {
+
+	private final String projectName;
+
+	public ProjectDescriptionBasedContainer(IResourceDescriptions descriptions, String projectName) {
+		super(descriptions);
+		this.projectName = projectName;
+	}
+
+	public String getProjectName() {
+		return projectName;
+	}
+
+}
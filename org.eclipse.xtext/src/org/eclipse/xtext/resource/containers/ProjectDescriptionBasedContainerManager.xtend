@@ -14,7 +14,6 @@ import org.eclipse.xtext.resource.IResourceDescriptions
 import org.eclipse.xtext.resource.impl.ChunkedResourceDescriptions
 import org.eclipse.xtext.resource.impl.LiveShadowedChunkedResourceDescriptions
 import org.eclipse.xtext.resource.impl.ProjectDescription
-import org.eclipse.xtext.resource.impl.ResourceDescriptionsBasedContainer
 import org.eclipse.xtext.resource.impl.ResourceDescriptionsData
 
 /**
@@ -70,6 +69,6 @@ class ProjectDescriptionBasedContainerManager implements IContainer.Manager {
 		if(resourceDescriptions instanceof LiveShadowedChunkedResourceDescriptions) 
 			new LiveShadowedChunkedContainer(resourceDescriptions, projectName)
 		else
-			new ResourceDescriptionsBasedContainer(chunkedResourceDescriptions.getContainer(projectName) ?: new ResourceDescriptionsData(emptySet))
+			new ProjectDescriptionBasedContainer(chunkedResourceDescriptions.getContainer(projectName) ?: new ResourceDescriptionsData(emptySet), projectName)
 	}
 }
@@ -41,6 +41,13 @@ public class StateBasedContainer extends ResourceDescriptionsBasedContainer {
 		super(descriptions);
 		this.state = state;
 	}
+
+	/**
+	 * @since 2.18
+	 */
+	public IContainerState getState() {
+		return state;
+	}
 	
 	@Override
 	protected Iterable<IEObjectDescription> filterByURI(Iterable<IEObjectDescription> unfiltered) {
@@ -0,0 +1,322 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.scoping.impl;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.resource.IContainer;
+import org.eclipse.xtext.resource.IEObjectDescription;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.resource.IResourceDescriptions;
+import org.eclipse.xtext.resource.containers.ProjectDescriptionBasedContainer;
+import org.eclipse.xtext.resource.containers.StateBasedContainer;
+import org.eclipse.xtext.resource.impl.EObjectDescriptionLookUp;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.inject.Singleton;
+
+/**
+ * A bounded {@link IGlobalScopeCache}. The exported objects of a container are cached per
+ * {@link IResourceDescriptions index}, container and type, such that all resources of a resource set share them. A
+ * {@link StateBasedContainer state based container} is identified by its state and a
+ * {@link ProjectDescriptionBasedContainer project's container} by the project name. Other containers are not cached
+ * since they cannot be recognized again, e.g. the live shadowed containers are created per resource set and reflect its
+ * contents, which change without announced deltas.
+ *
+ * The index is referenced weakly, thus the cached values of an index are released together with the index. For each
+ * index, values are weighted by their number of elements and the least recently used values are discarded if the
+ * {@link #getMaximumWeight() maximum weight} is exceeded.
+ *
+ * Cached values are not compared with the contents of the container. The deltas of a build have to be announced through
+ * {@link #invalidate(Iterable)}, which the {@link org.eclipse.xtext.build.IncrementalBuilder IncrementalBuilder} does
+ * for the caches of the languages of the changed resources, or by registering the cache as a listener to an
+ * {@link IResourceDescription.Event.Source event source}. A value is discarded if a changed resource contributed to it
+ * or if it exports objects of the value's type after the change.
+ *
+ * Clients may bind this implementation in their runtime module:
+ *
+ * <pre>
+ * public Class&lt;? extends IGlobalScopeCache&gt; bindIGlobalScopeCache() {
+ * 	return BoundedGlobalScopeCache.class;
+ * }
+ * </pre>
+ *
+ * @since 2.18
+ */
+@Singleton
+public class BoundedGlobalScopeCache implements IGlobalScopeCache, IResourceDescription.Event.Listener {
+
+	private final ConcurrentMap<IResourceDescriptions, Cache<Key, CachedSelectable>> caches = CacheBuilder
+			.newBuilder().weakKeys().<IResourceDescriptions, Cache<Key, CachedSelectable>> build().asMap();
+
+	/**
+	 * The maximum number of exported objects that are held for an index.
+	 */
+	protected long getMaximumWeight() {
+		return 1000000;
+	}
+
+	@Override
+	public IContainer getContainer(IResourceDescriptions resourceDescriptions, IContainer container, EClass type) {
+		Object containerKey = getContainerKey(container);
+		if (containerKey == null) {
+			return container;
+		}
+		Key key = new Key(containerKey, type);
+		Cache<Key, CachedSelectable> cache = getCache(resourceDescriptions);
+		CachedSelectable result = cache.getIfPresent(key);
+		if (result == null) {
+			result = createSelectable(container, type);
+			cache.put(key, result);
+		}
+		return new CachedContainer(container, type, result);
+	}
+
+	/**
+	 * Identifies a container within an index, or returns <code>null</code> if the container is not cached. Containers
+	 * with equal keys have to contain the same resources. The key must not refer to the index.
+	 */
+	protected Object getContainerKey(IContainer container) {
+		if (container instanceof StateBasedContainer) {
+			return ((StateBasedContainer) container).getState();
+		}
+		if (container instanceof ProjectDescriptionBasedContainer) {
+			return ((ProjectDescriptionBasedContainer) container).getProjectName();
+		}
+		return null;
+	}
+
+	protected Cache<Key, CachedSelectable> getCache(IResourceDescriptions resourceDescriptions) {
+		Cache<Key, CachedSelectable> result = caches.get(resourceDescriptions);
+		if (result == null) {
+			Cache<Key, CachedSelectable> newCache = createCache();
+			result = caches.putIfAbsent(resourceDescriptions, newCache);
+			if (result == null) {
+				result = newCache;
+			}
+		}
+		return result;
+	}
+
+	protected Cache<Key, CachedSelectable> createCache() {
+		return CacheBuilder.newBuilder()
+				.maximumWeight(getMaximumWeight())
+				.weigher(new Weigher<Key, CachedSelectable>() {
+					@Override
+					public int weigh(Key key, CachedSelectable value) {
+						return value.size;
+					}
+				})
+				.recordStats()
+				.build();
+	}
+
+	protected CachedSelectable createSelectable(IContainer container, EClass type) {
+		List<IEObjectDescription> elements = Lists.newArrayList(container.getExportedObjectsByType(type));
+		return new CachedSelectable(elements);
+	}
+
+	@Override
+	public void invalidate(Iterable<? extends IResourceDescription.Delta> deltas) {
+		List<IResourceDescription.Delta> changed = null;
+		for (IResourceDescription.Delta delta : deltas) {
+			if (delta.haveEObjectDescriptionsChanged()) {
+				if (changed == null) {
+					changed = Lists.newArrayList();
+				}
+				changed.add(delta);
+			}
+		}
+		if (changed == null) {
+			return;
+		}
+		for (Cache<Key, CachedSelectable> cache : caches.values()) {
+			Iterator<Map.Entry<Key, CachedSelectable>> iterator = cache.asMap().entrySet().iterator();
+			while (iterator.hasNext()) {
+				Map.Entry<Key, CachedSelectable> entry = iterator.next();
+				if (isAffected(entry.getKey(), entry.getValue(), changed)) {
+					iterator.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * A value is affected if one of the changed resources contributed to it or exports objects of its type after the
+	 * change. The latter may be too conservative, since the resource does not need to belong to the value's container.
+	 */
+	protected boolean isAffected(Key key, CachedSelectable value, List<IResourceDescription.Delta> changed) {
+		for (IResourceDescription.Delta delta : changed) {
+			if (value.uris.contains(delta.getUri())) {
+				return true;
+			}
+			IResourceDescription newDescription = delta.getNew();
+			if (newDescription != null && !Iterables.isEmpty(newDescription.getExportedObjectsByType(key.type))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void descriptionsChanged(IResourceDescription.Event event) {
+		invalidate(event.getDeltas());
+	}
+
+	@Override
+	public void clear() {
+		caches.clear();
+	}
+
+	/**
+	 * The summed hit and miss counters, the number of evictions and the load counters of the caches of all live
+	 * indexes.
+	 */
+	public CacheStats getStatistics() {
+		CacheStats result = new CacheStats(0, 0, 0, 0, 0, 0);
+		for (Cache<Key, CachedSelectable> cache : caches.values()) {
+			result = result.plus(cache.stats());
+		}
+		return result;
+	}
+
+	/**
+	 * The number of currently cached values.
+	 */
+	public long getSize() {
+		long result = 0;
+		for (Cache<Key, CachedSelectable> cache : caches.values()) {
+			result += cache.size();
+		}
+		return result;
+	}
+
+	protected static class Key {
+		private final Object container;
+		private final EClass type;
+		private final int hashCode;
+
+		protected Key(Object container, EClass type) {
+			this.container = container;
+			this.type = type;
+			this.hashCode = 31 * container.hashCode() + type.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return hashCode == other.hashCode && type == other.type && container.equals(other.container);
+		}
+	}
+
+	protected static class CachedSelectable extends EObjectDescriptionLookUp {
+		private final Set<URI> uris;
+		private final int size;
+
+		protected CachedSelectable(List<IEObjectDescription> elements) {
+			super(elements);
+			ImmutableSet.Builder<URI> uris = ImmutableSet.builder();
+			for (IEObjectDescription element : elements) {
+				uris.add(element.getEObjectURI().trimFragment());
+			}
+			this.uris = uris.build();
+			this.size = Math.max(1, elements.size());
+		}
+	}
+
+	/**
+	 * Answers the exported objects of the cached type from the cached value and delegates everything else to the
+	 * original container. Created per request, such that the cached value does not refer to the container.
+	 */
+	protected static class CachedContainer implements IContainer {
+		private final IContainer delegate;
+		private final EClass type;
+		private final CachedSelectable selectable;
+
+		protected CachedContainer(IContainer delegate, EClass type, CachedSelectable selectable) {
+			this.delegate = delegate;
+			this.type = type;
+			this.selectable = selectable;
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return delegate.isEmpty();
+		}
+
+		@Override
+		public Iterable<IEObjectDescription> getExportedObjects() {
+			return delegate.getExportedObjects();
+		}
+
+		@Override
+		public Iterable<IEObjectDescription> getExportedObjects(EClass type, QualifiedName name, boolean ignoreCase) {
+			if (type == this.type) {
+				return selectable.getExportedObjects(type, name, ignoreCase);
+			}
+			return delegate.getExportedObjects(type, name, ignoreCase);
+		}
+
+		@Override
+		public Iterable<IEObjectDescription> getExportedObjectsByType(EClass type) {
+			if (type == this.type) {
+				return selectable.getExportedObjectsByType(type);
+			}
+			return delegate.getExportedObjectsByType(type);
+		}
+
+		@Override
+		public Iterable<IEObjectDescription> getExportedObjectsByObject(EObject object) {
+			return delegate.getExportedObjectsByObject(object);
+		}
+
+		@Override
+		public Iterable<IResourceDescription> getResourceDescriptions() {
+			return delegate.getResourceDescriptions();
+		}
+
+		@Override
+		public int getResourceDescriptionCount() {
+			return delegate.getResourceDescriptionCount();
+		}
+
+		@Override
+		public boolean hasResourceDescription(URI uri) {
+			return delegate.hasResourceDescription(uri);
+		}
+
+		@Override
+		public IResourceDescription getResourceDescription(URI uri) {
+			return delegate.getResourceDescription(uri);
+		}
+	}
+
+}
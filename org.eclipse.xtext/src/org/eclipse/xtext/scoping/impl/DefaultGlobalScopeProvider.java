@@ -41,6 +41,9 @@ public class DefaultGlobalScopeProvider extends AbstractGlobalScopeProvider {
 
 	@Inject
 	private IResourceDescription.Manager descriptionManager;
+
+	@Inject
+	private IGlobalScopeCache globalScopeCache;
 	
 	protected IScope getScope(IScope parent, final Resource context, boolean ignoreCase, EClass type, Predicate<IEObjectDescription> filter) {
 		IScope result = parent;
@@ -98,10 +101,27 @@ public class DefaultGlobalScopeProvider extends AbstractGlobalScopeProvider {
 			URI uriToFilter = eResource.getURI();
 			if (container.hasResourceDescription(uriToFilter))
 				container = new FilterUriContainer(uriToFilter, container);
+			else if (globalScopeCache != null && eResource.getResourceSet() != null)
+				// the container does not depend on the context resource thus it may be shared with other resources
+				container = globalScopeCache.getContainer(getResourceDescriptions(eResource), container, type);
 		}
 		return createContainerScope(parent, container, filter, type, ignoreCase);
 	}
 
+	/**
+	 * @since 2.18
+	 */
+	public void setGlobalScopeCache(IGlobalScopeCache globalScopeCache) {
+		this.globalScopeCache = globalScopeCache;
+	}
+
+	/**
+	 * @since 2.18
+	 */
+	public IGlobalScopeCache getGlobalScopeCache() {
+		return globalScopeCache;
+	}
+
 	protected IScope createContainerScope(IScope parent, IContainer container, Predicate<IEObjectDescription> filter, EClass type, boolean ignoreCase) {
 		return SelectableBasedScope.createScope(parent, container, filter, type, ignoreCase);
 	}
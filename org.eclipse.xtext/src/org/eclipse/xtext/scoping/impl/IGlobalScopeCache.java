@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.scoping.impl;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.xtext.resource.IContainer;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.resource.IResourceDescriptions;
+
+import com.google.inject.ImplementedBy;
+
+/**
+ * A cache for the exported objects of visible containers that is shared by all resources. The
+ * {@link DefaultGlobalScopeProvider} uses it for containers that do not contain the resource that the scope is
+ * computed for.
+ *
+ * @since 2.18
+ */
+@ImplementedBy(IGlobalScopeCache.NullImpl.class)
+public interface IGlobalScopeCache {
+
+	/**
+	 * Returns a container that answers the same exported objects of the given type as the given container. May return
+	 * the given container itself if it is not cached.
+	 */
+	IContainer getContainer(IResourceDescriptions resourceDescriptions, IContainer container, EClass type);
+
+	/**
+	 * Discards all cached values that may be affected by the given deltas.
+	 */
+	void invalidate(Iterable<? extends IResourceDescription.Delta> deltas);
+
+	/**
+	 * Discards all cached values.
+	 */
+	void clear();
+
+	class NullImpl implements IGlobalScopeCache {
+
+		@Override
+		public IContainer getContainer(IResourceDescriptions resourceDescriptions, IContainer container, EClass type) {
+			return container;
+		}
+
+		@Override
+		public void invalidate(Iterable<? extends IResourceDescription.Delta> deltas) {
+		}
+
+		@Override
+		public void clear() {
+		}
+	}
+}
@@ -30,6 +30,7 @@ import org.eclipse.xtext.scoping.ICaseInsensitivityHelper;
 import org.eclipse.xtext.scoping.IGlobalScopeProvider;
 import org.eclipse.xtext.scoping.IScope;
 import org.eclipse.xtext.scoping.Scopes;
+import org.eclipse.xtext.util.DependencyTrackingResourceScopeCache;
 import org.eclipse.xtext.util.IResourceScopeCache;
 import org.eclipse.xtext.util.Strings;
 import org.eclipse.xtext.util.Tuples;
@@ -126,12 +127,18 @@ public class ImportedNamespaceAwareLocalScopeProvider extends AbstractGlobalScop
 	}
 
 	protected List<ImportNormalizer> getImportedNamespaceResolvers(final EObject context, final boolean ignoreCase) {
-		return cache.get(Tuples.create(context, ignoreCase, "imports"), context.eResource(), new Provider<List<ImportNormalizer>>() {
+		Object key = Tuples.create(context, ignoreCase, "imports");
+		Provider<List<ImportNormalizer>> provider = new Provider<List<ImportNormalizer>>() {
 			@Override
 			public List<ImportNormalizer> get() {
 				return internalGetImportedNamespaceResolvers(context, ignoreCase);
 			}
-		});
+		};
+		if (cache instanceof DependencyTrackingResourceScopeCache) {
+			// the imports are computed from the children of the context, only
+			return ((DependencyTrackingResourceScopeCache) cache).get(key, context.eResource(), context, provider);
+		}
+		return cache.get(key, context.eResource(), provider);
 	}
 
 	protected List<ImportNormalizer> internalGetImportedNamespaceResolvers(final EObject context, boolean ignoreCase) {
@@ -0,0 +1,243 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.serializer.acceptor;
+
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.xtext.Action;
+import org.eclipse.xtext.Keyword;
+import org.eclipse.xtext.RuleCall;
+import org.eclipse.xtext.nodemodel.ICompositeNode;
+import org.eclipse.xtext.nodemodel.ILeafNode;
+import org.eclipse.xtext.serializer.diagnostic.ISerializationDiagnostic;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Records the output of a semantic sequencer, i.e. the tokens, the entered and left objects and the reported
+ * diagnostics, such that it can be {@link #replay(ISemanticSequenceAcceptor, ISerializationDiagnostic.Acceptor)
+ * replayed} later, e.g. on another thread.
+ *
+ * All objects are entered while recording. If the acceptor refuses to enter an object during the replay, the recorded
+ * sequence of this object is skipped.
+ *
+ * @since 2.18
+ */
+public class SemanticSequenceRecorder implements ISemanticSequenceAcceptor, ISerializationDiagnostic.Acceptor {
+
+	protected static abstract class Event {
+		/**
+		 * Returns <code>false</code> if the target refused to enter an object.
+		 */
+		protected abstract boolean replay(ISemanticSequenceAcceptor target, ISerializationDiagnostic.Acceptor errors);
+
+		protected int getDepthChange() {
+			return 0;
+		}
+	}
+
+	protected static abstract class EnterEvent extends Event {
+		@Override
+		protected int getDepthChange() {
+			return 1;
+		}
+	}
+
+	protected static abstract class LeaveEvent extends Event {
+		@Override
+		protected int getDepthChange() {
+			return -1;
+		}
+	}
+
+	private final List<Event> events = Lists.newArrayList();
+
+	protected void record(Event event) {
+		events.add(event);
+	}
+
+	/**
+	 * Passes the recorded sequence to the given acceptors.
+	 */
+	public void replay(ISemanticSequenceAcceptor target, ISerializationDiagnostic.Acceptor errors) {
+		int skipped = 0;
+		for (Event event : events) {
+			if (skipped > 0) {
+				skipped += event.getDepthChange();
+			} else if (!event.replay(target, errors)) {
+				skipped = 1;
+			}
+		}
+	}
+
+	@Override
+	public void accept(final ISerializationDiagnostic diagnostic) {
+		record(new Event() {
+			@Override
+			protected boolean replay(ISemanticSequenceAcceptor target, ISerializationDiagnostic.Acceptor errors) {
+				if (errors != null)
+					errors.accept(diagnostic);
+				return true;
+			}
+		});
+	}
+
+	@Override
+	public void acceptAssignedCrossRefDatatype(final RuleCall datatypeRC, final String token, final EObject value,
+			final int index, final ICompositeNode node) {
+		record(new Event() {
+			@Override
+			protected boolean replay(ISemanticSequenceAcceptor target, ISerializationDiagnostic.Acceptor errors) {
+				target.acceptAssignedCrossRefDatatype(datatypeRC, token, value, index, node);
+				return true;
+			}
+		});
+	}
+
+	@Override
+	public void acceptAssignedCrossRefEnum(final RuleCall enumRC, final String token, final EObject value,
+			final int index, final ICompositeNode node) {
+		record(new Event() {
+			@Override
+			protected boolean replay(ISemanticSequenceAcceptor target, ISerializationDiagnostic.Acceptor errors) {
+				target.acceptAssignedCrossRefEnum(enumRC, token, value, index, node);
+				return true;
+			}
+		});
+	}
+
+	@Override
+	public void acceptAssignedCrossRefTerminal(final RuleCall terminalRC, final String token, final EObject value,
+			final int index, final ILeafNode node) {
+		record(new Event() {
+			@Override
+			protected boolean replay(ISemanticSequenceAcceptor target, ISerializationDiagnostic.Acceptor errors) {
+				target.acceptAssignedCrossRefTerminal(terminalRC, token, value, index, node);
+				return true;
+			}
+		});
+	}
+
+	@Override
+	public void acceptAssignedCrossRefKeyword(final Keyword kw, final String token, final EObject value,
+			final int index, final ILeafNode node) {
+		record(new Event() {
+			@Override
+			protected boolean replay(ISemanticSequenceAcceptor target, ISerializationDiagnostic.Acceptor errors) {
+				target.acceptAssignedCrossRefKeyword(kw, token, value, index, node);
+				return true;
+			}
+		});
+	}
+
+	@Override
+	public void acceptAssignedDatatype(final RuleCall datatypeRC, final String token, final Object value,
+			final int index, final ICompositeNode node) {
+		record(new Event() {
+			@Override
+			protected boolean replay(ISemanticSequenceAcceptor target, ISerializationDiagnostic.Acceptor errors) {
+				target.acceptAssignedDatatype(datatypeRC, token, value, index, node);
+				return true;
+			}
+		});
+	}
+
+	@Override
+	public void acceptAssignedEnum(final RuleCall enumRC, final String token, final Object value, final int index,
+			final ICompositeNode node) {
+		record(new Event() {
+			@Override
+			protected boolean replay(ISemanticSequenceAcceptor target, ISerializationDiagnostic.Acceptor errors) {
+				target.acceptAssignedEnum(enumRC, token, value, index, node);
+				return true;
+			}
+		});
+	}
+
+	@Override
+	public void acceptAssignedKeyword(final Keyword keyword, final String token, final Object value, final int index,
+			final ILeafNode node) {
+		record(new Event() {
+			@Override
+			protected boolean replay(ISemanticSequenceAcceptor target, ISerializationDiagnostic.Acceptor errors) {
+				target.acceptAssignedKeyword(keyword, token, value, index, node);
+				return true;
+			}
+		});
+	}
+
+	@Override
+	public void acceptAssignedTerminal(final RuleCall terminalRC, final String token, final Object value,
+			final int index, final ILeafNode node) {
+		record(new Event() {
+			@Override
+			protected boolean replay(ISemanticSequenceAcceptor target, ISerializationDiagnostic.Acceptor errors) {
+				target.acceptAssignedTerminal(terminalRC, token, value, index, node);
+				return true;
+			}
+		});
+	}
+
+	@Override
+	public boolean enterAssignedAction(final Action action, final EObject semanticChild, final ICompositeNode node) {
+		record(new EnterEvent() {
+			@Override
+			protected boolean replay(ISemanticSequenceAcceptor target, ISerializationDiagnostic.Acceptor errors) {
+				return target.enterAssignedAction(action, semanticChild, node);
+			}
+		});
+		return true;
+	}
+
+	@Override
+	public boolean enterAssignedParserRuleCall(final RuleCall rc, final EObject semanticChild,
+			final ICompositeNode node) {
+		record(new EnterEvent() {
+			@Override
+			protected boolean replay(ISemanticSequenceAcceptor target, ISerializationDiagnostic.Acceptor errors) {
+				return target.enterAssignedParserRuleCall(rc, semanticChild, node);
+			}
+		});
+		return true;
+	}
+
+	@Override
+	public void finish() {
+		record(new Event() {
+			@Override
+			protected boolean replay(ISemanticSequenceAcceptor target, ISerializationDiagnostic.Acceptor errors) {
+				target.finish();
+				return true;
+			}
+		});
+	}
+
+	@Override
+	public void leaveAssignedAction(final Action action, final EObject semanticChild) {
+		record(new LeaveEvent() {
+			@Override
+			protected boolean replay(ISemanticSequenceAcceptor target, ISerializationDiagnostic.Acceptor errors) {
+				target.leaveAssignedAction(action, semanticChild);
+				return true;
+			}
+		});
+	}
+
+	@Override
+	public void leaveAssignedParserRuleCall(final RuleCall rc, final EObject semanticChild) {
+		record(new LeaveEvent() {
+			@Override
+			protected boolean replay(ISemanticSequenceAcceptor target, ISerializationDiagnostic.Acceptor errors) {
+				target.leaveAssignedParserRuleCall(rc, semanticChild);
+				return true;
+			}
+		});
+	}
+
+}
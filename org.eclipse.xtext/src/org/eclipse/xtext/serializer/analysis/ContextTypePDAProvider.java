@@ -253,6 +253,11 @@ public class ContextTypePDAProvider implements IContextTypePDAProvider {
 		SerializationContextMap<Pda<ISerState, RuleCall>> cached = cache.get(grammar);
 		if (cached != null)
 			return cached;
+		cached = GrammarAnalysisCache.getShared(grammar, getClass());
+		if (cached != null) {
+			cache.put(grammar, cached);
+			return cached;
+		}
 		SerializationContextMap.Builder<Pda<ISerState, RuleCall>> builder = SerializationContextMap.builder();
 
 		SerializationContextMap<Pda<ISerState, RuleCall>> contextPDAs = pdaProvider.getContextPDAs(grammar);
@@ -281,6 +286,7 @@ public class ContextTypePDAProvider implements IContextTypePDAProvider {
 			}
 		}
 		SerializationContextMap<Pda<ISerState, RuleCall>> result = builder.create();
+		result = GrammarAnalysisCache.putShared(grammar, getClass(), result);
 		cache.put(grammar, result);
 		return result;
 	}
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.serializer.analysis;
+
+import java.util.Map;
+
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.Grammar;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Holds the results of the static analyses of a grammar that is shared by several injectors, e.g. by means of the
+ * {@link org.eclipse.xtext.service.SharedGrammarProvider}. The analysis providers still cache their results per
+ * instance, but consult this cache before they compute them. Results are identified by the class of the provider.
+ *
+ * For grammars that are not {@link #share(Grammar) shared}, nothing is cached here.
+ *
+ * @since 2.18
+ */
+public class GrammarAnalysisCache extends AdapterImpl {
+
+	private final Map<Object, Object> analyses = Maps.newHashMap();
+
+	/**
+	 * Enables this cache for the given grammar. Has to be called before the grammar is published to other threads.
+	 */
+	public static void share(Grammar grammar) {
+		if (find(grammar) == null)
+			grammar.eAdapters().add(new GrammarAnalysisCache());
+	}
+
+	public static boolean isShared(Grammar grammar) {
+		return find(grammar) != null;
+	}
+
+	/**
+	 * Returns the result that was stored for the given key, or <code>null</code> if there is none or the grammar is
+	 * not shared.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T getShared(Grammar grammar, Object key) {
+		GrammarAnalysisCache cache = find(grammar);
+		if (cache == null)
+			return null;
+		synchronized (cache) {
+			return (T) cache.analyses.get(key);
+		}
+	}
+
+	/**
+	 * Stores the given result unless another one was stored for the same key in the meantime. Returns the result that
+	 * should be used by the caller.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T putShared(Grammar grammar, Object key, T value) {
+		GrammarAnalysisCache cache = find(grammar);
+		if (cache == null)
+			return value;
+		synchronized (cache) {
+			Object existing = cache.analyses.get(key);
+			if (existing != null)
+				return (T) existing;
+			cache.analyses.put(key, value);
+			return value;
+		}
+	}
+
+	protected static GrammarAnalysisCache find(Grammar grammar) {
+		return (GrammarAnalysisCache) EcoreUtil.getAdapter(grammar.eAdapters(), GrammarAnalysisCache.class);
+	}
+
+	@Override
+	public boolean isAdapterForType(Object type) {
+		return type == GrammarAnalysisCache.class;
+	}
+
+}
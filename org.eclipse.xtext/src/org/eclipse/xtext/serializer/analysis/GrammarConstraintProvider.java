@@ -616,6 +616,11 @@ public class GrammarConstraintProvider implements IGrammarConstraintProvider {
 		SerializationContextMap<IConstraint> cached = cache.get(grammar);
 		if (cached != null)
 			return cached;
+		cached = GrammarAnalysisCache.getShared(grammar, getClass());
+		if (cached != null) {
+			cache.put(grammar, cached);
+			return cached;
+		}
 		SerializationContextMap.Builder<IConstraint> builder = SerializationContextMap.builder();
 		GrammarElementDeclarationOrder.get(grammar);
 		SerializationContextMap<Nfa<ISemState>> nfas = nfaProvider.getSemanticSequencerNFAs(grammar);
@@ -634,6 +639,7 @@ public class GrammarConstraintProvider implements IGrammarConstraintProvider {
 			Constraint constraint = (Constraint) e.getValue();
 			constraint.setName(findBestConstraintName(grammar, typePDAs, constraint));
 		}
+		result = GrammarAnalysisCache.putShared(grammar, getClass(), result);
 		cache.put(grammar, result);
 		return result;
 	}
@@ -235,6 +235,11 @@ public class SemanticSequencerNfaProvider implements ISemanticSequencerNfaProvid
 		SerializationContextMap<Nfa<ISemState>> cached = cache.get(grammar);
 		if (cached != null)
 			return cached;
+		cached = GrammarAnalysisCache.getShared(grammar, getClass());
+		if (cached != null) {
+			cache.put(grammar, cached);
+			return cached;
+		}
 		SerializationContextMap.Builder<Nfa<ISemState>> builder = SerializationContextMap.builder();
 		SerializationContextMap<ISynAbsorberState> PDAs = pdaProvider.getSyntacticSequencerPDAs(grammar);
 		for (SerializationContextMap.Entry<ISynAbsorberState> e : PDAs.values()) {
@@ -250,6 +255,7 @@ public class SemanticSequencerNfaProvider implements ISemanticSequencerNfaProvid
 			}
 		}
 		SerializationContextMap<Nfa<ISemState>> result = builder.create();
+		result = GrammarAnalysisCache.putShared(grammar, getClass(), result);
 		cache.put(grammar, result);
 		return result;
 	}
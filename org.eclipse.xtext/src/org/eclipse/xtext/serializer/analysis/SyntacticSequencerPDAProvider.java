@@ -616,6 +616,11 @@ public class SyntacticSequencerPDAProvider implements ISyntacticSequencerPDAProv
 		SerializationContextMap<ISynAbsorberState> cached = cache.get(grammar);
 		if (cached != null)
 			return cached;
+		cached = GrammarAnalysisCache.getShared(grammar, getClass());
+		if (cached != null) {
+			cache.put(grammar, cached);
+			return cached;
+		}
 		SerializationContextMap.Builder<ISynAbsorberState> builder = SerializationContextMap.builder();
 		SerializationContextMap<Pda<ISerState, RuleCall>> typePDAs = pdaProvider.getContextTypePDAs(grammar);
 		for (Entry<Pda<ISerState, RuleCall>> e : typePDAs.values()) {
@@ -633,6 +638,7 @@ public class SyntacticSequencerPDAProvider implements ISyntacticSequencerPDAProv
 			}
 		}
 		SerializationContextMap<ISynAbsorberState> result = builder.create();
+		result = GrammarAnalysisCache.putShared(grammar, getClass(), result);
 		cache.put(grammar, result);
 		return result;
 	}
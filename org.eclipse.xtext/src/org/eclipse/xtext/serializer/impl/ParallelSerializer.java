@@ -0,0 +1,311 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.serializer.impl;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.xtext.AbstractElement;
+import org.eclipse.xtext.RuleCall;
+import org.eclipse.xtext.serializer.ISerializationContext;
+import org.eclipse.xtext.serializer.acceptor.ISemanticSequenceAcceptor;
+import org.eclipse.xtext.serializer.acceptor.ISequenceAcceptor;
+import org.eclipse.xtext.serializer.acceptor.ISyntacticSequenceAcceptor;
+import org.eclipse.xtext.serializer.acceptor.SemanticSequenceRecorder;
+import org.eclipse.xtext.serializer.acceptor.TokenStreamSequenceAdapter;
+import org.eclipse.xtext.serializer.analysis.IGrammarConstraintProvider;
+import org.eclipse.xtext.serializer.analysis.IGrammarConstraintProvider.IConstraint;
+import org.eclipse.xtext.serializer.analysis.IGrammarConstraintProvider.IConstraintElement;
+import org.eclipse.xtext.serializer.analysis.IGrammarConstraintProvider.IFeatureInfo;
+import org.eclipse.xtext.serializer.analysis.SerializationContext;
+import org.eclipse.xtext.serializer.analysis.SerializationContextMap;
+import org.eclipse.xtext.serializer.diagnostic.ISerializationDiagnostic;
+import org.eclipse.xtext.serializer.sequencer.IHiddenTokenSequencer;
+import org.eclipse.xtext.serializer.sequencer.ISemanticSequencer;
+import org.eclipse.xtext.serializer.sequencer.ISyntacticSequencer;
+import org.eclipse.xtext.xtext.RuleNames;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.inject.Inject;
+
+/**
+ * A serializer that computes the semantic sequences of the children of the serialized object concurrently. Each
+ * worker uses its own {@link ISemanticSequencer} and records its output. The recorded sequences are passed to the
+ * syntactic and the hidden token sequencer on the calling thread in document order, thus the result is the same as
+ * the one of the sequential {@link Serializer}.
+ *
+ * <p>
+ * The workers only read the model. Semantic sequencers, value converters, cross reference serializers and the scope
+ * providers that they use must be safe to use from multiple threads as long as the model is not modified, and
+ * proxies should be resolved beforehand.
+ * </p>
+ *
+ * Clients may bind this implementation in their runtime module:
+ *
+ * <pre>
+ * public Class&lt;? extends ISerializer&gt; bindISerializer() {
+ * 	return ParallelSerializer.class;
+ * }
+ * </pre>
+ *
+ * @since 2.18
+ */
+public class ParallelSerializer extends Serializer {
+
+	@Inject(optional = true)
+	private ExecutorService executorService;
+
+	@Inject
+	private IGrammarConstraintProvider grammarConstraintProvider;
+
+	@Inject
+	private RuleNames ruleNames;
+
+	private volatile SerializationContextMap<IConstraint> constraints;
+
+	@Override
+	protected void serialize(ISerializationContext context, EObject semanticObject, ISequenceAcceptor tokens,
+			ISerializationDiagnostic.Acceptor errors) {
+		List<EObject> children = semanticObject.eContents();
+		if (children.size() < getMinimumParallelElements()) {
+			super.serialize(context, semanticObject, tokens, errors);
+			return;
+		}
+		RecordedSequences recorded = new RecordedSequences(context, semanticObject);
+		try {
+			recorded.submit();
+			ISemanticSequencer semantic = semanticSequencerProvider.get();
+			ISyntacticSequencer syntactic = syntacticSequencerProvider.get();
+			IHiddenTokenSequencer hidden = hiddenTokenSequencerProvider.get();
+			ReplayingSemanticSequencer master = new ReplayingSemanticSequencer(semantic, recorded);
+			semantic.init(master, (ISemanticSequenceAcceptor) syntactic, errors);
+			master.init((ISemanticSequenceAcceptor) syntactic, errors);
+			syntactic.init(context, semanticObject, (ISyntacticSequenceAcceptor) hidden, errors);
+			hidden.init(context, semanticObject, tokens, errors);
+			if (tokens instanceof TokenStreamSequenceAdapter)
+				((TokenStreamSequenceAdapter) tokens).init(context);
+			semantic.createSequence(context, semanticObject);
+		} finally {
+			recorded.cancel();
+		}
+	}
+
+	/**
+	 * Computes the semantic sequence of the given child of the serialized object. Called on a worker thread.
+	 */
+	protected RecordedSequence record(ISerializationContext context, EObject child) {
+		RecordedSequence result = createRecordedSequence(context);
+		ISemanticSequencer semantic = semanticSequencerProvider.get();
+		semantic.init(result, result);
+		semantic.createSequence(context, child);
+		return result;
+	}
+
+	protected RecordedSequence createRecordedSequence(ISerializationContext context) {
+		return new RecordedSequence(context);
+	}
+
+	/**
+	 * Returns the context in which the semantic sequencer will request the sequence of the given child of an object
+	 * that is serialized in the given context, or <code>null</code> if it is ambiguous. The candidates are derived
+	 * from the assignments of the child's containment feature in the constraint of the container's context, like the
+	 * {@link org.eclipse.xtext.serializer.sequencer.IAssignmentFinder} does. Called on the calling thread.
+	 */
+	protected ISerializationContext getChildContext(ISerializationContext context, EObject child) {
+		IConstraint constraint = getConstraints().get(context);
+		if (constraint == null || constraint.getType() != child.eContainer().eClass())
+			return null;
+		IFeatureInfo feature = constraint.getFeatures()[constraint.getType().getFeatureID(child.eContainmentFeature())];
+		if (feature == null)
+			return null;
+		Set<ISerializationContext> candidates = Sets.newLinkedHashSet();
+		for (IConstraintElement assignment : feature.getAssignments()) {
+			AbstractElement element = assignment.getGrammarElement();
+			if (element instanceof RuleCall && !((RuleCall) element).getRule().getType().getClassifier().isInstance(child))
+				continue;
+			candidates.add(SerializationContext.forChild(context, element, child));
+		}
+		if (candidates.size() > 1)
+			candidates = contextFinder.findByContentsAndContainer(child, candidates);
+		if (candidates.size() != 1)
+			return null;
+		return candidates.iterator().next();
+	}
+
+	private SerializationContextMap<IConstraint> getConstraints() {
+		SerializationContextMap<IConstraint> result = constraints;
+		if (result == null) {
+			result = grammarConstraintProvider.getConstraints(ruleNames.getContextGrammar());
+			constraints = result;
+		}
+		return result;
+	}
+
+	/**
+	 * The minimum number of children of the serialized object to compute their sequences concurrently.
+	 */
+	protected int getMinimumParallelElements() {
+		return 2;
+	}
+
+	/**
+	 * The maximum number of children whose sequences are computed or waiting to be replayed at any time. Bounds how
+	 * far the workers can run ahead of the calling thread and thus the memory that the recorded sequences occupy.
+	 */
+	protected int getMaximumPendingElements() {
+		return 4 * Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * The executor that computes the semantic sequences. Uses the common {@link ForkJoinPool} unless an
+	 * {@link ExecutorService} is bound.
+	 */
+	protected ExecutorService getExecutorService() {
+		if (executorService == null) {
+			return ForkJoinPool.commonPool();
+		}
+		return executorService;
+	}
+
+	public void setExecutorService(ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
+	protected static class RecordedSequence extends SemanticSequenceRecorder {
+		private final ISerializationContext context;
+
+		protected RecordedSequence(ISerializationContext context) {
+			this.context = context;
+		}
+
+		public ISerializationContext getContext() {
+			return context;
+		}
+	}
+
+	/**
+	 * The sequences of the children of the serialized object. Only a {@link #getMaximumPendingElements() window} of
+	 * the children is submitted to the executor at a time; the next children are submitted when the calling thread
+	 * takes the recorded sequences. Not thread-safe, used by the calling thread only.
+	 */
+	protected class RecordedSequences {
+		private final ISerializationContext context;
+		private final EObject container;
+		private final Iterator<EObject> children;
+		private final Map<EObject, Future<RecordedSequence>> pending = Maps.newHashMap();
+		private final Set<EObject> taken = Sets.newHashSet();
+
+		protected RecordedSequences(ISerializationContext context, EObject container) {
+			this.context = context;
+			this.container = container;
+			this.children = container.eContents().iterator();
+		}
+
+		protected void submit() {
+			int maximum = getMaximumPendingElements();
+			while (pending.size() < maximum && children.hasNext()) {
+				final EObject child = children.next();
+				if (taken.contains(child))
+					continue;
+				final ISerializationContext childContext = getChildContext(context, child);
+				if (childContext == null)
+					continue;
+				pending.put(child, getExecutorService().submit(new Callable<RecordedSequence>() {
+					@Override
+					public RecordedSequence call() throws Exception {
+						return record(childContext, child);
+					}
+				}));
+			}
+		}
+
+		/**
+		 * Returns the recorded sequence of the given child or <code>null</code> if it has not been submitted or the
+		 * recording failed.
+		 */
+		public RecordedSequence take(EObject child) {
+			Future<RecordedSequence> future = pending.remove(child);
+			if (future == null) {
+				if (child.eContainer() == container)
+					taken.add(child);
+				return null;
+			}
+			try {
+				return future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			} catch (ExecutionException e) {
+				// sequence the object on the calling thread, which reports the problem in document order
+				return null;
+			} finally {
+				submit();
+			}
+		}
+
+		public void cancel() {
+			for (Future<RecordedSequence> future : pending.values()) {
+				future.cancel(false);
+			}
+			pending.clear();
+		}
+	}
+
+	/**
+	 * Replays the recorded sequence of a child if it was recorded for the requested context and delegates to the
+	 * sequential semantic sequencer otherwise, e.g. if the recording failed.
+	 */
+	protected static class ReplayingSemanticSequencer implements ISemanticSequencer {
+		private final ISemanticSequencer delegate;
+		private final RecordedSequences recorded;
+		private ISemanticSequenceAcceptor sequenceAcceptor;
+		private ISerializationDiagnostic.Acceptor errorAcceptor;
+
+		protected ReplayingSemanticSequencer(ISemanticSequencer delegate, RecordedSequences recorded) {
+			this.delegate = delegate;
+			this.recorded = recorded;
+		}
+
+		@Override
+		public void init(ISemanticSequenceAcceptor sequenceAcceptor, ISerializationDiagnostic.Acceptor errorAcceptor) {
+			this.sequenceAcceptor = sequenceAcceptor;
+			this.errorAcceptor = errorAcceptor;
+		}
+
+		@Override
+		public void init(ISemanticSequencer sequencer, ISemanticSequenceAcceptor sequenceAcceptor,
+				ISerializationDiagnostic.Acceptor errorAcceptor) {
+			init(sequenceAcceptor, errorAcceptor);
+		}
+
+		@Override
+		public void createSequence(ISerializationContext context, EObject semanticObject) {
+			RecordedSequence sequence = recorded.take(semanticObject);
+			if (sequence != null && sequence.getContext().equals(context))
+				sequence.replay(sequenceAcceptor, errorAcceptor);
+			else
+				delegate.createSequence(context, semanticObject);
+		}
+
+		@Override
+		@Deprecated
+		public void createSequence(EObject context, EObject semanticObject) {
+			delegate.createSequence(context, semanticObject);
+		}
+	}
+
+}
@@ -194,7 +194,7 @@ public class Serializer implements ISerializer {
 		checkNotNull(obj, "obj must not be null.");
 		checkNotNull(writer, "writer must not be null.");
 		checkNotNull(options, "options must not be null.");
-		if (formatter2Provider != null) {
+		if (formatter2Provider != null && !isStreaming(options)) {
 			serialize(obj, (Appendable) writer, options);
 			writer.flush();
 		} else {
@@ -202,6 +202,18 @@ public class Serializer implements ISerializer {
 		}
 	}
 
+	/**
+	 * Returns <code>true</code> if the tokens are passed to the writer as soon as they are sequenced, such that the
+	 * document is never held in memory as a whole. This is the case if streaming is requested and the document does
+	 * not need to be formatted, since an {@link IFormatter2} operates on the complete document. Hidden regions are
+	 * then taken from the node model or filled by the {@link IFormatter} in whitespace preserving mode.
+	 * 
+	 * @since 2.18
+	 */
+	protected boolean isStreaming(SaveOptions options) {
+		return options.isStreaming() && !options.isFormatting() && formatter != null;
+	}
+
 	@Override
 	public ReplaceRegion serializeReplacement(EObject obj, SaveOptions options) {
 		ICompositeNode node = NodeModelUtils.findActualNodeFor(obj);
@@ -7,8 +7,10 @@
  *******************************************************************************/
 package org.eclipse.xtext.serializer.sequencer;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -46,6 +48,7 @@ import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
 import com.google.inject.Inject;
 
 /**
@@ -426,8 +429,106 @@ public class BacktrackingSemanticSequencer extends AbstractSemanticSequencer {
 
 	}
 
+	/**
+	 * A state of the backtracking: the NFA state and the number of consumed values per feature.
+	 * 
+	 * @since 2.18
+	 */
+	protected static class Configuration {
+		private final ISemState state;
+		private final int[] nextIndex;
+		private final int hashCode;
+
+		protected Configuration(ISemState state, int[] nextIndex) {
+			this.state = state;
+			this.nextIndex = nextIndex;
+			this.hashCode = 31 * state.hashCode() + Arrays.hashCode(nextIndex);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this)
+				return true;
+			if (!(obj instanceof Configuration))
+				return false;
+			Configuration other = (Configuration) obj;
+			return hashCode == other.hashCode && state == other.state && Arrays.equals(nextIndex, other.nextIndex);
+		}
+	}
+
+	/**
+	 * Identifies objects that are sequenced identically: objects of the same type with the same number of values per
+	 * feature for the same constraint.
+	 * 
+	 * @since 2.18
+	 */
+	protected static class Signature {
+		private final IConstraint constraint;
+		private final EClass type;
+		private final int[] valueCounts;
+		private final boolean[] optional;
+		private final int hashCode;
+
+		protected Signature(IConstraint constraint, SerializableObject obj) {
+			this.constraint = constraint;
+			this.type = obj.getEObject().eClass();
+			this.valueCounts = new int[obj.values.length];
+			for (int i = 0; i < valueCounts.length; i++)
+				valueCounts[i] = obj.getValueCount(i);
+			this.optional = obj.optional.clone();
+			this.hashCode = 31 * (31 * (31 * System.identityHashCode(constraint) + type.hashCode())
+					+ Arrays.hashCode(valueCounts))
+					+ Arrays.hashCode(optional);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this)
+				return true;
+			if (!(obj instanceof Signature))
+				return false;
+			Signature other = (Signature) obj;
+			return hashCode == other.hashCode && constraint == other.constraint && type == other.type
+					&& Arrays.equals(valueCounts, other.valueCounts) && Arrays.equals(optional, other.optional);
+		}
+	}
+
+	/**
+	 * The memoized results of the backtracking for all objects with the same {@link Signature}.
+	 * 
+	 * @since 2.18
+	 */
+	protected static class Memo {
+		protected final Set<Configuration> failed = Sets.newHashSet();
+		protected List<ISemState> trace;
+	}
+
+	private static class BacktrackingFrame {
+		private final TraceItem item;
+		private final Iterator<ISemState> followers;
+
+		private BacktrackingFrame(TraceItem item, Iterable<ISemState> followers) {
+			this.item = item;
+			this.followers = followers.iterator();
+		}
+	}
+
 	protected static final Object INVALID = new Object();
 
+	private final Map<IConstraint, Boolean> valueIndependent = Maps.newHashMap();
+
+	private final Map<Signature, Memo> memos = Maps.newHashMap();
+
 	@Inject
 	protected IAssignmentFinder assignmentFinder;
 
@@ -479,7 +580,7 @@ public class BacktrackingSemanticSequencer extends AbstractSemanticSequencer {
 		Nfa<ISemState> nfa = constraint.getNfa();
 		final SerializableObject object = new SerializableObject(context, obj, nodes);
 		TraceItem co = new TraceItem(object);
-		List<TraceItem> trace = new NfaUtil().backtrack(nfa, co, new NfaUtil.BacktrackHandler<ISemState, TraceItem>() {
+		NfaUtil.BacktrackHandler<ISemState, TraceItem> handler = new NfaUtil.BacktrackHandler<ISemState, TraceItem>() {
 			@Override
 			public TraceItem handle(ISemState state, TraceItem previous) {
 				if (!previous.canEnter(state))
@@ -502,7 +603,23 @@ public class BacktrackingSemanticSequencer extends AbstractSemanticSequencer {
 				Collections.sort(r, createFollowerSorter(object, next));
 				return r;
 			}
-		});
+		};
+		List<TraceItem> trace = null;
+		Memo memo = getMemo(constraint, object);
+		// without a node model the followers are sorted by the value counts only, thus the trace can be reused
+		boolean reuseTrace = memo != null && object.getFirstNode() == null;
+		if (reuseTrace && memo.trace != null)
+			trace = replay(memo.trace, co, handler);
+		if (trace == null) {
+			Set<Configuration> failed = memo != null ? memo.failed : Sets.<Configuration> newHashSet();
+			trace = backtrack(nfa, co, handler, failed);
+			if (reuseTrace && trace != null) {
+				List<ISemState> states = Lists.newArrayListWithCapacity(trace.size());
+				for (int i = 1; i < trace.size(); i++)
+					states.add(trace.get(i).getState());
+				memo.trace = states;
+			}
+		}
 		SequenceFeeder feeder = feederProvider.create(context, obj, nodes, masterSequencer, sequenceAcceptor,
 				errorAcceptor);
 		if (trace != null) {
@@ -514,4 +631,98 @@ public class BacktrackingSemanticSequencer extends AbstractSemanticSequencer {
 		feeder.finish();
 	}
 
+	/**
+	 * Searches a path through the NFA like {@link NfaUtil#backtrack(Nfa, Object, NfaUtil.BacktrackHandler)}, but
+	 * remembers the configurations that don't lead to a solution and does not enter them again.
+	 * 
+	 * @since 2.18
+	 */
+	protected List<TraceItem> backtrack(Nfa<ISemState> nfa, TraceItem initial,
+			NfaUtil.BacktrackHandler<ISemState, TraceItem> handler, Set<Configuration> failed) {
+		List<BacktrackingFrame> stack = Lists.newArrayList();
+		stack.add(new BacktrackingFrame(initial, Collections.singleton(nfa.getStart())));
+		ISemState stopState = nfa.getStop();
+		ROOT: while (!stack.isEmpty()) {
+			BacktrackingFrame frame = stack.get(stack.size() - 1);
+			while (frame.followers.hasNext()) {
+				ISemState nextState = frame.followers.next();
+				TraceItem nextItem = handler.handle(nextState, frame.item);
+				if (nextItem != null && !failed.contains(new Configuration(nextState, nextItem.nextIndex))) {
+					Iterable<ISemState> followers = handler.sortFollowers(nextItem, nfa.getFollowers(nextState));
+					stack.add(new BacktrackingFrame(nextItem, followers));
+					if (stopState == nextState && handler.isSolution(nextItem)) {
+						List<TraceItem> result = Lists.newArrayListWithCapacity(stack.size());
+						for (BacktrackingFrame f : stack)
+							result.add(f.item);
+						return result;
+					}
+					continue ROOT;
+				}
+			}
+			stack.remove(stack.size() - 1);
+			if (frame.item.getState() != null)
+				failed.add(new Configuration(frame.item.getState(), frame.item.nextIndex));
+		}
+		return null;
+	}
+
+	/**
+	 * Walks the given states of a previously found trace. Returns <code>null</code> if they don't form a solution
+	 * for the given object.
+	 * 
+	 * @since 2.18
+	 */
+	protected List<TraceItem> replay(List<ISemState> states, TraceItem initial,
+			NfaUtil.BacktrackHandler<ISemState, TraceItem> handler) {
+		List<TraceItem> result = Lists.newArrayListWithCapacity(states.size() + 1);
+		TraceItem current = initial;
+		result.add(current);
+		for (ISemState state : states) {
+			current = handler.handle(state, current);
+			if (current == null)
+				return null;
+			result.add(current);
+		}
+		return handler.isSolution(current) ? result : null;
+	}
+
+	/**
+	 * Returns the memoized backtracking results that are shared by all objects with the same {@link Signature}, or
+	 * <code>null</code> if the results of the given constraint depend on the values themselves rather than on their
+	 * number.
+	 * 
+	 * @since 2.18
+	 */
+	protected Memo getMemo(IConstraint constraint, SerializableObject obj) {
+		if (!isValueIndependent(constraint))
+			return null;
+		Signature signature = new Signature(constraint, obj);
+		Memo result = memos.get(signature);
+		if (result == null) {
+			result = new Memo();
+			memos.put(signature, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns <code>true</code> if no state of the constraint's NFA inspects the values, i.e. the backtracking only
+	 * depends on the number of values per feature.
+	 * 
+	 * @since 2.18
+	 */
+	protected boolean isValueIndependent(IConstraint constraint) {
+		Boolean result = valueIndependent.get(constraint);
+		if (result == null) {
+			result = Boolean.TRUE;
+			for (ISemState state : new NfaUtil().collect(constraint.getNfa()))
+				if (state.isBooleanAssignment() || !state.getToBeValidatedAssignedElements().isEmpty()) {
+					result = Boolean.FALSE;
+					break;
+				}
+			valueIndependent.put(constraint, result);
+		}
+		return result;
+	}
+
 }
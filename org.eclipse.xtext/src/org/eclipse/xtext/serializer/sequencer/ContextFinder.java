@@ -9,10 +9,13 @@ package org.eclipse.xtext.serializer.sequencer;
 
 import static org.eclipse.xtext.serializer.analysis.SerializationContext.*;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
@@ -36,8 +39,10 @@ import org.eclipse.xtext.serializer.sequencer.ITransientValueService.ValueTransi
 import org.eclipse.xtext.xtext.RuleNames;
 
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import com.google.inject.Inject;
@@ -49,6 +54,112 @@ import com.google.inject.Singleton;
 @Singleton
 public class ContextFinder implements IContextFinder {
 
+	/**
+	 * Which features of an object have values and how many values its list features have.
+	 * 
+	 * @since 2.18
+	 */
+	protected static class ValueQuantities {
+		protected final BitSet present = new BitSet();
+		protected final BitSet absent = new BitSet();
+		protected final int[] counts;
+
+		protected ValueQuantities(int featureCount) {
+			this.counts = new int[featureCount];
+		}
+	}
+
+	/**
+	 * Decides whether the value quantities of an object fit a constraint. Features that must not have a value and
+	 * features that must have one are bit masks. Only list features with an upper bound other than zero or unbounded,
+	 * or with a lower bound greater than one, compare the actual number of values.
+	 * 
+	 * @since 2.18
+	 */
+	protected static class ValueQuantityMasks {
+		protected final BitSet forbidden = new BitSet();
+		protected final BitSet required = new BitSet();
+		protected final int[] countedFeatures;
+		protected final int[] lowerBounds;
+		protected final int[] upperBounds;
+
+		protected ValueQuantityMasks(IConstraint constraint) {
+			EClass type = constraint.getType();
+			int featureCount = type == null ? 0 : type.getFeatureCount();
+			List<int[]> counted = Lists.newArrayList();
+			for (int featureID = 0; featureID < featureCount; featureID++) {
+				IFeatureInfo featureInfo = constraint.getFeatures()[featureID];
+				if (type.getEStructuralFeature(featureID).isMany()) {
+					int lower = featureInfo == null ? 0 : featureInfo.getLowerBound();
+					int upper = featureInfo == null ? 0 : featureInfo.getUpperBound();
+					if (upper == 0)
+						forbidden.set(featureID);
+					if (lower > 0)
+						required.set(featureID);
+					if (lower > 1 || (upper != 0 && upper != IGrammarConstraintProvider.MAX))
+						counted.add(new int[] { featureID, lower, upper });
+				} else {
+					if (featureInfo == null || featureInfo.getUpperBound() <= 0)
+						forbidden.set(featureID);
+					if (featureInfo != null && featureInfo.getLowerBound() > 0)
+						required.set(featureID);
+				}
+			}
+			countedFeatures = new int[counted.size()];
+			lowerBounds = new int[counted.size()];
+			upperBounds = new int[counted.size()];
+			for (int i = 0; i < counted.size(); i++) {
+				countedFeatures[i] = counted.get(i)[0];
+				lowerBounds[i] = counted.get(i)[1];
+				upperBounds[i] = counted.get(i)[2];
+			}
+		}
+
+		public boolean accepts(ValueQuantities quantities) {
+			if (quantities.present.intersects(forbidden) || quantities.absent.intersects(required))
+				return false;
+			for (int i = 0; i < countedFeatures.length; i++) {
+				int count = quantities.counts[countedFeatures[i]];
+				if (count < lowerBounds[i] || count > upperBounds[i])
+					return false;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * The constraints grouped by type and their value quantity masks, computed once per grammar.
+	 * 
+	 * @since 2.18
+	 */
+	protected static class ConstraintIndex {
+		protected final SerializationContextMap<IConstraint> constraints;
+		protected final Map<EClass, ImmutableListMultimap<IConstraint, ISerializationContext>> byType;
+		protected final Map<IConstraint, ValueQuantityMasks> masks;
+
+		protected ConstraintIndex(SerializationContextMap<IConstraint> constraints) {
+			this.constraints = constraints;
+			Map<EClass, ImmutableListMultimap.Builder<IConstraint, ISerializationContext>> builders = Maps.newLinkedHashMap();
+			Map<IConstraint, ValueQuantityMasks> masks = new IdentityHashMap<IConstraint, ValueQuantityMasks>();
+			for (SerializationContextMap.Entry<IConstraint> e : constraints.values()) {
+				IConstraint constraint = e.getValue();
+				ImmutableListMultimap.Builder<IConstraint, ISerializationContext> builder = builders.get(constraint.getType());
+				if (builder == null) {
+					builder = ImmutableListMultimap.builder();
+					builders.put(constraint.getType(), builder);
+				}
+				builder.putAll(constraint, e.getContexts());
+				if (!masks.containsKey(constraint))
+					masks.put(constraint, new ValueQuantityMasks(constraint));
+			}
+			Map<EClass, ImmutableListMultimap<IConstraint, ISerializationContext>> byType = Maps.newHashMap();
+			for (Map.Entry<EClass, ImmutableListMultimap.Builder<IConstraint, ISerializationContext>> e : builders.entrySet())
+				byType.put(e.getKey(), e.getValue().build());
+			this.byType = byType;
+			this.masks = masks;
+		}
+	}
+
 	@Inject
 	protected IAssignmentFinder assignmentFinder;
 
@@ -69,6 +180,8 @@ public class ContextFinder implements IContextFinder {
 	@Inject
 	protected TransientValueUtil transientValueUtil;
 
+	private volatile ConstraintIndex constraintIndex;
+
 	protected Set<AbstractElement> findAssignedElements(EObject obj, EStructuralFeature feature,
 			Multimap<AbstractElement, ISerializationContext> assignments) {
 		if (feature.isMany()) {
@@ -137,8 +250,9 @@ public class ContextFinder implements IContextFinder {
 		if (constraints.size() < 2)
 			return Sets.newLinkedHashSet(constraints.values());
 
+		ValueQuantities quantities = getValueQuantities(semanticObject);
 		for (IConstraint cand : Lists.newArrayList(constraints.keySet()))
-			if (!isValidValueQuantity(cand, semanticObject))
+			if (!isValidValueQuantity(cand, quantities))
 				constraints.removeAll(cand);
 
 		if (constraints.size() < 2)
@@ -233,13 +347,21 @@ public class ContextFinder implements IContextFinder {
 	protected Multimap<IConstraint, ISerializationContext> getConstraints(EObject sem) {
 		EClass type = sem == null ? null : sem.eClass();
 		Multimap<IConstraint, ISerializationContext> result = ArrayListMultimap.create();
-		for (SerializationContextMap.Entry<IConstraint> e : constraints.values()) {
-			IConstraint constraint = e.getValue();
-			for (ISerializationContext context : e.getContexts()) {
-				if (constraint.getType() == type) {
-					result.put(constraint, context);
-				}
-			}
+		ImmutableListMultimap<IConstraint, ISerializationContext> constraintsForType = getConstraintIndex().byType.get(type);
+		if (constraintsForType != null)
+			result.putAll(constraintsForType);
+		return result;
+	}
+
+	/**
+	 * @since 2.18
+	 */
+	protected ConstraintIndex getConstraintIndex() {
+		initConstraints();
+		ConstraintIndex result = constraintIndex;
+		if (result == null || result.constraints != constraints) {
+			result = new ConstraintIndex(constraints);
+			constraintIndex = result;
 		}
 		return result;
 	}
@@ -280,36 +402,54 @@ public class ContextFinder implements IContextFinder {
 	protected boolean isValidValueQuantity(IConstraint constraint, EObject semanicObj) {
 		if (constraint == null)
 			return false;
-		for (int featureID = 0; featureID < semanicObj.eClass().getFeatureCount(); featureID++) {
-			IFeatureInfo featureInfo = constraint.getFeatures()[featureID];
-			EStructuralFeature feature = semanicObj.eClass().getEStructuralFeature(featureID);
+		return isValidValueQuantity(constraint, getValueQuantities(semanicObj));
+	}
+
+	/**
+	 * @since 2.18
+	 */
+	protected boolean isValidValueQuantity(IConstraint constraint, ValueQuantities quantities) {
+		if (constraint == null)
+			return false;
+		ValueQuantityMasks masks = getConstraintIndex().masks.get(constraint);
+		if (masks == null)
+			masks = new ValueQuantityMasks(constraint);
+		return masks.accepts(quantities);
+	}
+
+	/**
+	 * Collects the value quantities of the given object, such that they can be matched against all candidate
+	 * constraints without asking the {@link ITransientValueService} again.
+	 * 
+	 * @since 2.18
+	 */
+	protected ValueQuantities getValueQuantities(EObject semanicObj) {
+		EClass type = semanicObj.eClass();
+		ValueQuantities result = new ValueQuantities(type.getFeatureCount());
+		for (int featureID = 0; featureID < type.getFeatureCount(); featureID++) {
+			EStructuralFeature feature = type.getEStructuralFeature(featureID);
 			if (feature.isMany()) {
 				int count = transientValueUtil.countNonTransientListValues(semanicObj, feature);
-				if (count > featureInfo.getUpperBound())
-					return false;
-				if (count < featureInfo.getLowerBound())
-					return false;
+				result.counts[featureID] = count;
+				if (count > 0)
+					result.present.set(featureID);
+				else
+					result.absent.set(featureID);
 			} else {
-				ValueTransient valueTransient = transientValues.isValueTransient(semanicObj, feature);
-				switch (valueTransient) {
+				switch (transientValues.isValueTransient(semanicObj, feature)) {
 					case NO:
-						if (featureInfo == null)
-							return false;
-						if (featureInfo.getUpperBound() <= 0)
-							return false;
+						result.counts[featureID] = 1;
+						result.present.set(featureID);
 						break;
 					case YES:
-						if (featureInfo == null)
-							break;
-						if (featureInfo.getLowerBound() > 0)
-							return false;
+						result.absent.set(featureID);
 						break;
 					case PREFERABLY:
 						break;
 				}
 			}
 		}
-		return true;
+		return result;
 	}
 
 }
@@ -59,12 +59,7 @@ public class GrammarProvider {
 	private Grammar doGetGrammar(Object requestor) {
 		Grammar grammar_ = null;
 		XtextResourceSet resourceSet = resourceSetProvider.get();
-		if (classLoader != null) {
-			resourceSet.setClasspathURIContext(classLoader);
-		} else {
-			final ClassLoader classLoaderToUse = requestor == null ? getClass().getClassLoader() : requestor.getClass().getClassLoader();
-			resourceSet.setClasspathURIContext(classLoaderToUse);
-		}
+		resourceSet.setClasspathURIContext(getClassLoader(requestor));
 		String fileWithoutExt = ClasspathUriUtil.CLASSPATH_SCHEME + ":/" + languageName.replace('.', '/');
 		try {
 			grammar_ = (Grammar) BaseEPackageAccess.loadGrammarFile(fileWithoutExt + ".xtextbin", resourceSet);
@@ -85,6 +80,24 @@ public class GrammarProvider {
 		return grammar_;
 	}
 	
+	/**
+	 * The class loader that the grammar is loaded from.
+	 * 
+	 * @since 2.18
+	 */
+	protected ClassLoader getClassLoader(Object requestor) {
+		if (classLoader != null)
+			return classLoader;
+		return requestor == null ? getClass().getClassLoader() : requestor.getClass().getClassLoader();
+	}
+
+	/**
+	 * @since 2.18
+	 */
+	protected String getLanguageName() {
+		return languageName;
+	}
+
 	/**
 	 * Public for testing purpose.
 	 * @nooverride This method is not intended to be re-implemented or extended by clients.
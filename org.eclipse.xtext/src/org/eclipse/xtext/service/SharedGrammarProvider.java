@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.service;
+
+import java.util.concurrent.ExecutionException;
+
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.Constants;
+import org.eclipse.xtext.Grammar;
+import org.eclipse.xtext.resource.SynchronizedXtextResourceSet;
+import org.eclipse.xtext.serializer.analysis.GrammarAnalysisCache;
+import org.eclipse.xtext.serializer.analysis.GrammarElementDeclarationOrder;
+import org.eclipse.xtext.util.Exceptions;
+import org.eclipse.xtext.util.Pair;
+import org.eclipse.xtext.util.Tuples;
+import org.eclipse.xtext.xtext.RuleNames;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+
+/**
+ * A {@link GrammarProvider} that shares the loaded grammar with all injectors of the same language in the JVM, as long
+ * as they load it from the same class loader. The static analyses of the serializer, e.g. the PDAs of the syntactic
+ * sequencer and the constraints of the semantic sequencer, are attached to the shared grammar, such that they are
+ * computed once instead of once per injector.
+ *
+ * Injectors that share a grammar are expected to configure these analyses identically. The grammar is held softly and
+ * is loaded again if it was reclaimed.
+ *
+ * The shared grammar is loaded into a synchronized resource set of its own, such that its elements can be looked up by
+ * URI from several threads, e.g. when the node model of a resource is loaded from storage. Apart from that, the shared
+ * grammar is used by several threads without synchronization, so it must not be modified after it has been
+ * {@link #prepareForSharing(Grammar) prepared}. In particular, analyses that lazily attach adapters to the grammar or
+ * its elements, e.g. the NFAs of the deprecated formatter and parse tree constructor, are not supported.
+ *
+ * Clients may bind this implementation in their runtime module:
+ *
+ * <pre>
+ * public void configureGrammarProvider(Binder binder) {
+ * 	binder.bind(GrammarProvider.class).to(SharedGrammarProvider.class);
+ * }
+ * </pre>
+ *
+ * @since 2.18
+ */
+@Singleton
+public class SharedGrammarProvider extends GrammarProvider {
+
+	private static final Cache<Pair<ClassLoader, String>, Grammar> grammars = CacheBuilder.newBuilder().softValues()
+			.build();
+
+	private volatile Grammar grammar;
+
+	@Inject
+	public SharedGrammarProvider(@Named(Constants.LANGUAGE_NAME) String languageName) {
+		super(languageName, SynchronizedXtextResourceSet::new);
+	}
+
+	@Override
+	public Grammar getGrammar(final Object requestor) {
+		if (grammar == null) {
+			synchronized (this) {
+				if (grammar == null) {
+					try {
+						grammar = grammars.get(Tuples.create(getClassLoader(requestor), getLanguageName()), () -> {
+							Grammar result = super.getGrammar(requestor);
+							prepareForSharing(result);
+							return result;
+						});
+					} catch (ExecutionException e) {
+						return Exceptions.throwUncheckedException(e.getCause());
+					}
+				}
+			}
+		}
+		return grammar;
+	}
+
+	/**
+	 * Called once per shared grammar before it is published to other injectors. Runs while the shared cache holds the
+	 * lock for the grammar's language, so no other thread can see the grammar yet.
+	 *
+	 * Resolves all proxies in the grammar's dedicated resource set, such that no resources are loaded into it later on.
+	 * Attaches the adapters that the serializer's analyses would otherwise attach lazily, and thus concurrently, to the
+	 * grammar and its rules.
+	 */
+	protected void prepareForSharing(Grammar grammar) {
+		ResourceSet resourceSet = grammar.eResource().getResourceSet();
+		if (resourceSet != null) {
+			EcoreUtil.resolveAll(resourceSet);
+		}
+		RuleNames.ensureAdapterInstalled(grammar);
+		GrammarElementDeclarationOrder.get(grammar);
+		GrammarAnalysisCache.share(grammar);
+	}
+
+}
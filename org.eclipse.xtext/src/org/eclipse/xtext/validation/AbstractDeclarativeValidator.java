@@ -7,6 +7,9 @@
  *******************************************************************************/
 package org.eclipse.xtext.validation;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
@@ -15,6 +18,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.log4j.Logger;
 import org.eclipse.emf.common.util.Diagnostic;
@@ -25,9 +29,7 @@ import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.xtext.diagnostics.Severity;
 import org.eclipse.xtext.util.Exceptions;
-import org.eclipse.xtext.util.SimpleCache;
 
-import com.google.common.base.Function;
 import com.google.common.collect.Sets;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
@@ -92,6 +94,8 @@ public abstract class AbstractDeclarativeValidator extends AbstractInjectableVal
 		private final String s;
 		private final AbstractDeclarativeValidator instance;
 		private final CheckType checkType;
+		private volatile MethodHandle handle;
+		private volatile boolean handleFailed;
 
 		protected MethodWrapper(AbstractDeclarativeValidator instance, Method m) {
 			this.instance = instance;
@@ -110,6 +114,34 @@ public abstract class AbstractDeclarativeValidator extends AbstractInjectableVal
 			return method.getParameterTypes()[0].isAssignableFrom(param);
 		}
 
+		/**
+		 * @since 2.18
+		 */
+		public CheckType getCheckType() {
+			return checkType;
+		}
+
+		/**
+		 * Returns a method handle of type {@code (EObject)void} that invokes the check method on the
+		 * instance or <code>null</code> if no handle can be created.
+		 */
+		private MethodHandle getHandle() {
+			MethodHandle result = handle;
+			if (result == null && !handleFailed) {
+				try {
+					method.setAccessible(true);
+					result = MethodHandles.lookup().unreflect(method).bindTo(instance)
+							.asType(MethodType.methodType(void.class, EObject.class));
+					handle = result;
+				} catch (IllegalAccessException e) {
+					handleFailed = true;
+				} catch (RuntimeException e) {
+					handleFailed = true;
+				}
+			}
+			return result;
+		}
+
 		public void invoke(State state) {
 			State instanceState = instance.state.get();
 			if (instanceState != null && instanceState != state)
@@ -120,9 +152,18 @@ public abstract class AbstractDeclarativeValidator extends AbstractInjectableVal
 			try {
 				if (!state.checkMode.shouldCheck(checkType))
 					return;
+				state.currentMethod = method;
+				state.currentCheckType = checkType;
+				MethodHandle methodHandle = getHandle();
+				if (methodHandle != null) {
+					try {
+						methodHandle.invokeExact(state.currentObject);
+					} catch (Throwable targetException) {
+						handleInvocationTargetException(targetException, state);
+					}
+					return;
+				}
 				try {
-					state.currentMethod = method;
-					state.currentCheckType = checkType;
 					method.setAccessible(true);
 					method.invoke(instance, state.currentObject);
 				} catch (IllegalArgumentException e) {
@@ -249,18 +290,60 @@ public abstract class AbstractDeclarativeValidator extends AbstractInjectableVal
 		return instanceToUse;
 	}
 
-	private final SimpleCache<Class<?>, List<MethodWrapper>> methodsForType = new SimpleCache<Class<?>, List<MethodWrapper>>(
-			new Function<Class<?>, List<MethodWrapper>>() {
-				@Override
-				public List<MethodWrapper> apply(Class<?> param) {
-					List<MethodWrapper> result = new ArrayList<MethodWrapper>();
-					for (MethodWrapper mw : checkMethods) {
-						if (mw.isMatching(param))
-							result.add(mw);
-					}
-					return result;
+	/**
+	 * The check methods that are applicable to instances of a given class. The methods are filtered once
+	 * per {@link CheckMode} and keep the order in which they were collected.
+	 */
+	private static class ChecksForType {
+		private final MethodWrapper[] methods;
+		private final AbstractDeclarativeValidator[] instances;
+		private final Map<CheckMode, MethodWrapper[]> methodsByMode = new ConcurrentHashMap<CheckMode, MethodWrapper[]>(4);
+
+		private ChecksForType(List<MethodWrapper> methods) {
+			this.methods = methods.toArray(new MethodWrapper[methods.size()]);
+			Set<AbstractDeclarativeValidator> instances = Sets.newLinkedHashSet();
+			for (MethodWrapper method : methods) {
+				instances.add(method.getInstance());
+			}
+			this.instances = instances.toArray(new AbstractDeclarativeValidator[instances.size()]);
+		}
+
+		private MethodWrapper[] getMethods(CheckMode checkMode) {
+			MethodWrapper[] result = methodsByMode.get(checkMode);
+			if (result == null) {
+				List<MethodWrapper> filtered = new ArrayList<MethodWrapper>(methods.length);
+				for (MethodWrapper method : methods) {
+					if (checkMode.shouldCheck(method.checkType))
+						filtered.add(method);
 				}
-			});
+				result = filtered.toArray(new MethodWrapper[filtered.size()]);
+				if (isPredefined(checkMode))
+					methodsByMode.put(checkMode, result);
+			}
+			return result;
+		}
+	}
+
+	private static boolean isPredefined(CheckMode checkMode) {
+		return checkMode == CheckMode.ALL || checkMode == CheckMode.FAST_ONLY || checkMode == CheckMode.NORMAL_AND_FAST
+				|| checkMode == CheckMode.NORMAL_ONLY || checkMode == CheckMode.EXPENSIVE_ONLY;
+	}
+
+	private final Map<Class<?>, ChecksForType> checksForType = new ConcurrentHashMap<Class<?>, ChecksForType>();
+
+	private ChecksForType getChecksForType(Class<?> type) {
+		ChecksForType result = checksForType.get(type);
+		if (result == null) {
+			List<MethodWrapper> methods = new ArrayList<MethodWrapper>();
+			for (MethodWrapper mw : checkMethods) {
+				if (mw.isMatching(type))
+					methods.add(mw);
+			}
+			result = new ChecksForType(methods);
+			checksForType.put(type, result);
+		}
+		return result;
+	}
 
 	public static class State {
 		public DiagnosticChain chain = null;
@@ -314,8 +397,29 @@ public abstract class AbstractDeclarativeValidator extends AbstractInjectableVal
 		state.checkMode = checkMode;
 		state.context = context;
 
-		for (MethodWrapper method : methodsForType.get(object.getClass())) {
-			method.invoke(state);
+		ChecksForType checks = getChecksForType(object.getClass());
+		MethodWrapper[] methods = checks.getMethods(checkMode);
+		if (methods.length == 0) {
+			return true;
+		}
+		// assign the state once per validated object rather than once per check method
+		AbstractDeclarativeValidator[] instances = checks.instances;
+		boolean[] assigned = new boolean[instances.length];
+		for (int i = 0; i < instances.length; i++) {
+			if (instances[i].state.get() == null) {
+				instances[i].state.set(state);
+				assigned[i] = true;
+			}
+		}
+		try {
+			for (MethodWrapper method : methods) {
+				method.invoke(state);
+			}
+		} finally {
+			for (int i = 0; i < instances.length; i++) {
+				if (assigned[i])
+					instances[i].state.remove();
+			}
 		}
 
 		return !state.hasErrors;
@@ -40,6 +40,31 @@ public class CancelableDiagnostician extends Diagnostician {
 		return super.validate(eClass, eObject, diagnostics, context);
 	}
 	
+	private final ThreadLocal<EObject> skipContents = new ThreadLocal<EObject>();
+
+	/**
+	 * Validates the given object but not its contents. The given context is used as is thus it may be
+	 * shared with subsequent validations of the contents.
+	 * 
+	 * @since 2.18
+	 */
+	public boolean validateWithoutContents(EObject eObject, DiagnosticChain diagnostics, Map<Object, Object> context) {
+		skipContents.set(eObject);
+		try {
+			return validate(eObject, diagnostics, context);
+		} finally {
+			skipContents.remove();
+		}
+	}
+
+	@Override
+	protected boolean doValidateContents(EObject eObject, DiagnosticChain diagnostics, Map<Object, Object> context) {
+		if (skipContents.get() == eObject) {
+			return true;
+		}
+		return super.doValidateContents(eObject, diagnostics, context);
+	}
+
 	/**
 	 * @since 2.9
 	 */
@@ -0,0 +1,299 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.validation;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.util.BasicDiagnostic;
+import org.eclipse.emf.common.util.Diagnostic;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.util.InternalEList;
+import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.util.IAcceptor;
+import org.eclipse.xtext.util.NonRecursiveEContentAdapter;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * A resource validator that only re-validates the parts of a resource that were changed since the previous
+ * validation. The unit of re-validation is a child of a root element, e.g. a top level declaration. The diagnostics of
+ * each unit are remembered per {@link CheckMode} and reused as long as
+ * <ul>
+ * <li>no object in the subtree of the unit was changed,</li>
+ * <li>the cross references of the subtree still resolve to the same objects and</li>
+ * <li>none of these referenced objects belongs to a unit of the same resource that has to be re-validated.</li>
+ * </ul>
+ * The root elements themselves are validated on every run. Checks that inspect the resource as a whole, e.g. the
+ * {@link NamesAreUniqueValidator}, are thus expected to be triggered by the validation of the root element. Checks that
+ * depend on other information than the validated subtree and the objects that it references, should not be used with
+ * this validator.
+ *
+ * Issues are created from the remembered diagnostics on every run, thus their locations reflect the current state of
+ * the document.
+ *
+ * Clients may bind this implementation in their runtime module:
+ *
+ * <pre>
+ * public Class&lt;? extends IResourceValidator&gt; bindIResourceValidator() {
+ * 	return IncrementalResourceValidatorImpl.class;
+ * }
+ * </pre>
+ *
+ * @since 2.18
+ */
+public class IncrementalResourceValidatorImpl extends ResourceValidatorImpl {
+
+	private static final Logger log = Logger.getLogger(IncrementalResourceValidatorImpl.class);
+
+	@Override
+	protected void validate(Resource resource, CheckMode mode, CancelIndicator monitor, IAcceptor<Issue> acceptor) {
+		if (!(getDiagnostician() instanceof CancelableDiagnostician)) {
+			super.validate(resource, mode, monitor, acceptor);
+			return;
+		}
+		ValidationStateAdapter state = getOrCreateState(resource);
+		Map<EObject, ValidatedSubtree> previous = state.getResults(mode);
+		Map<EObject, ValidatedSubtree> current = Maps.newHashMap();
+		for (EObject root : resource.getContents()) {
+			getOperationCanceledManager().checkCanceled(monitor);
+			validate(resource, root, mode, monitor, previous, current, acceptor);
+		}
+		state.setResults(mode, current);
+	}
+
+	protected void validate(Resource resource, EObject root, CheckMode mode, CancelIndicator monitor,
+			Map<EObject, ValidatedSubtree> previous, Map<EObject, ValidatedSubtree> current,
+			IAcceptor<Issue> acceptor) {
+		CancelableDiagnostician diagnostician = (CancelableDiagnostician) getDiagnostician();
+		try {
+			Map<Object, Object> context = createContext(resource, mode, monitor);
+			BasicDiagnostic rootDiagnostic = diagnostician.createDefaultDiagnostic(root);
+			diagnostician.validateWithoutContents(root, rootDiagnostic, context);
+			List<Diagnostic> diagnostics = Lists.newArrayList(rootDiagnostic.getChildren());
+			List<EObject> subtrees = root.eContents();
+			List<List<EObject>> referencedObjects = Lists.newArrayListWithCapacity(subtrees.size());
+			Set<EObject> changed = Sets.newHashSet();
+			for (EObject subtree : subtrees) {
+				List<EObject> references = getReferencedObjects(subtree);
+				referencedObjects.add(references);
+				ValidatedSubtree validated = previous.get(subtree);
+				if (validated == null || !isSameReferencedObjects(validated.referencedObjects, references)) {
+					changed.add(subtree);
+				}
+			}
+			for (int i = 0; i < subtrees.size(); i++) {
+				getOperationCanceledManager().checkCanceled(monitor);
+				EObject subtree = subtrees.get(i);
+				List<EObject> references = referencedObjects.get(i);
+				ValidatedSubtree validated = previous.get(subtree);
+				if (changed.contains(subtree) || isAffected(references, changed)) {
+					BasicDiagnostic chain = diagnostician.createDefaultDiagnostic(subtree);
+					diagnostician.validate(subtree, chain, context);
+					validated = new ValidatedSubtree(Lists.newArrayList(chain.getChildren()), references);
+				}
+				current.put(subtree, validated);
+				diagnostics.addAll(validated.diagnostics);
+			}
+			for (Diagnostic diagnostic : diagnostics) {
+				issueFromEValidatorDiagnostic(diagnostic, acceptor);
+			}
+		} catch (RuntimeException e) {
+			getOperationCanceledManager().propagateAsErrorIfCancelException(e);
+			log.error(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Returns the objects that are referenced from within the given subtree. Proxies are not resolved.
+	 */
+	protected List<EObject> getReferencedObjects(EObject subtree) {
+		List<EObject> result = Lists.newArrayList();
+		addReferencedObjects(subtree, result);
+		TreeIterator<EObject> iterator = subtree.eAllContents();
+		while (iterator.hasNext()) {
+			addReferencedObjects(iterator.next(), result);
+		}
+		return result;
+	}
+
+	private void addReferencedObjects(EObject object, List<EObject> result) {
+		List<EObject> crossReferences = object.eCrossReferences();
+		if (crossReferences instanceof InternalEList<?>) {
+			Iterator<EObject> iterator = ((InternalEList<EObject>) crossReferences).basicIterator();
+			while (iterator.hasNext()) {
+				result.add(iterator.next());
+			}
+		} else {
+			result.addAll(crossReferences);
+		}
+	}
+
+	protected boolean isSameReferencedObjects(List<EObject> previous, List<EObject> current) {
+		if (previous.size() != current.size()) {
+			return false;
+		}
+		for (int i = 0; i < previous.size(); i++) {
+			EObject left = previous.get(i);
+			EObject right = current.get(i);
+			if (left != right) {
+				if (left == null || right == null || !left.eIsProxy() || !right.eIsProxy()) {
+					return false;
+				}
+				if (!Objects.equal(((InternalEObject) left).eProxyURI(), ((InternalEObject) right).eProxyURI())) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns <code>true</code> if one of the referenced objects belongs to a subtree that has to be re-validated or
+	 * was removed from its resource.
+	 */
+	protected boolean isAffected(List<EObject> referencedObjects, Set<EObject> changed) {
+		for (EObject referenced : referencedObjects) {
+			if (referenced == null || referenced.eIsProxy()) {
+				continue;
+			}
+			if (referenced.eResource() == null || changed.contains(getSubtree(referenced))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Discards the remembered diagnostics of the given resource such that the next validation covers the complete
+	 * resource.
+	 */
+	public void discardState(Resource resource) {
+		ValidationStateAdapter adapter = (ValidationStateAdapter) EcoreUtil.getAdapter(resource.eAdapters(),
+				ValidationStateAdapter.class);
+		if (adapter != null) {
+			resource.eAdapters().remove(adapter);
+		}
+	}
+
+	protected ValidationStateAdapter getOrCreateState(Resource resource) {
+		ValidationStateAdapter adapter = (ValidationStateAdapter) EcoreUtil.getAdapter(resource.eAdapters(),
+				ValidationStateAdapter.class);
+		if (adapter == null) {
+			adapter = new ValidationStateAdapter();
+			resource.eAdapters().add(adapter);
+		}
+		return adapter;
+	}
+
+	/**
+	 * Returns the child of a root element that contains the given object, or <code>null</code> if the object is a root
+	 * element itself.
+	 */
+	protected static EObject getSubtree(EObject object) {
+		EObject result = object;
+		EObject container = result.eContainer();
+		if (container == null) {
+			return null;
+		}
+		while (container.eContainer() != null) {
+			result = container;
+			container = container.eContainer();
+		}
+		return result;
+	}
+
+	protected static class ValidatedSubtree {
+		private final List<Diagnostic> diagnostics;
+		private final List<EObject> referencedObjects;
+
+		protected ValidatedSubtree(List<Diagnostic> diagnostics, List<EObject> referencedObjects) {
+			this.diagnostics = diagnostics;
+			this.referencedObjects = referencedObjects;
+		}
+	}
+
+	/**
+	 * Remembers the validated subtrees of a resource and forgets them as soon as an object in a subtree is changed.
+	 * Changes of cross references are not tracked, since the linker resets them on every reparse. The validator
+	 * compares the referenced objects instead.
+	 */
+	protected static class ValidationStateAdapter extends NonRecursiveEContentAdapter {
+
+		private final Map<CheckMode, Map<EObject, ValidatedSubtree>> results = Maps.newHashMap();
+
+		public synchronized Map<EObject, ValidatedSubtree> getResults(CheckMode mode) {
+			Map<EObject, ValidatedSubtree> result = results.get(mode);
+			if (result == null) {
+				return Collections.emptyMap();
+			}
+			return result;
+		}
+
+		public synchronized void setResults(CheckMode mode, Map<EObject, ValidatedSubtree> validated) {
+			results.put(mode, validated);
+		}
+
+		@Override
+		public void notifyChanged(Notification notification) {
+			super.notifyChanged(notification);
+			if (notification.isTouch()) {
+				return;
+			}
+			Object notifier = notification.getNotifier();
+			if (notifier instanceof Resource) {
+				if (notification.getFeatureID(Resource.class) == Resource.RESOURCE__CONTENTS) {
+					clear();
+				}
+			} else if (notifier instanceof EObject) {
+				Object feature = notification.getFeature();
+				if (feature instanceof EReference && !((EReference) feature).isContainment()) {
+					return;
+				}
+				EObject subtree = getSubtree((EObject) notifier);
+				if (subtree != null) {
+					forget(subtree);
+				}
+			}
+		}
+
+		protected synchronized void forget(EObject subtree) {
+			for (Map<EObject, ValidatedSubtree> validated : results.values()) {
+				validated.remove(subtree);
+			}
+		}
+
+		protected synchronized void clear() {
+			results.clear();
+		}
+
+		@Override
+		public boolean isAdapterForType(Object type) {
+			return type == ValidationStateAdapter.class;
+		}
+
+		@Override
+		protected boolean resolve() {
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2019 itemis AG (http://www.itemis.eu) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.xtext.validation;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.Logger;
+import org.eclipse.emf.common.util.BasicDiagnostic;
+import org.eclipse.emf.common.util.Diagnostic;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.util.Exceptions;
+import org.eclipse.xtext.util.IAcceptor;
+
+import com.google.common.collect.Lists;
+import com.google.inject.Inject;
+
+/**
+ * A resource validator that validates the subtrees of a root element concurrently. All cross references of the
+ * resource are resolved before the validation starts, thus the resource is only read while the checks are executed.
+ * The root element is validated first, its children are validated on an executor and the issues are reported in the
+ * same order as a sequential validation would report them.
+ *
+ * <p>
+ * Concurrency contract for validators:
+ * </p>
+ * <ul>
+ * <li>Validators are shared between the worker threads. The {@link AbstractDeclarativeValidator.State state} of a
+ * declarative validator is thread local, so {@code getCurrentObject()}, {@code getContext()} and the
+ * {@code error}/{@code warning}/{@code info} methods remain safe to use.</li>
+ * <li>Validators must not keep mutable state in fields and must not modify the model or load further resources into
+ * the resource set.</li>
+ * <li>The validation context is shared by all workers of a resource and is synchronized. Entries that are put by the
+ * validation of the root element, e.g. markers for checks that run once per resource, are visible to all workers.</li>
+ * <li>Reported diagnostics are collected per subtree. The {@link IAcceptor} is only called on the calling thread.</li>
+ * </ul>
+ *
+ * Clients may bind this implementation in their runtime module:
+ *
+ * <pre>
+ * public Class&lt;? extends IResourceValidator&gt; bindIResourceValidator() {
+ * 	return ParallelResourceValidatorImpl.class;
+ * }
+ * </pre>
+ *
+ * @since 2.18
+ */
+public class ParallelResourceValidatorImpl extends ResourceValidatorImpl {
+
+	private static final Logger log = Logger.getLogger(ParallelResourceValidatorImpl.class);
+
+	@Inject(optional = true)
+	private ExecutorService executorService;
+
+	@Override
+	protected void validate(Resource resource, final CheckMode mode, final CancelIndicator monitor,
+			IAcceptor<Issue> acceptor) {
+		if (!(getDiagnostician() instanceof CancelableDiagnostician)) {
+			super.validate(resource, mode, monitor, acceptor);
+			return;
+		}
+		for (EObject ele : resource.getContents()) {
+			getOperationCanceledManager().checkCanceled(monitor);
+			if (ele.eContents().size() < getMinimumParallelSubtrees()) {
+				validate(resource, ele, mode, monitor, acceptor);
+			} else {
+				validateConcurrently(resource, ele, mode, monitor, acceptor);
+			}
+		}
+	}
+
+	/**
+	 * The minimum number of children of a root element to validate them concurrently.
+	 */
+	protected int getMinimumParallelSubtrees() {
+		return 2;
+	}
+
+	protected void validateConcurrently(Resource resource, EObject element, CheckMode mode,
+			final CancelIndicator monitor, IAcceptor<Issue> acceptor) {
+		final CancelableDiagnostician diagnostician = (CancelableDiagnostician) getDiagnostician();
+		final Map<Object, Object> context = Collections.synchronizedMap(createContext(resource, mode, monitor));
+		try {
+			BasicDiagnostic rootDiagnostic = diagnostician.createDefaultDiagnostic(element);
+			diagnostician.validateWithoutContents(element, rootDiagnostic, context);
+			List<Future<Diagnostic>> subtrees = Lists.newArrayList();
+			for (final EObject child : element.eContents()) {
+				subtrees.add(getExecutorService().submit(new Callable<Diagnostic>() {
+					@Override
+					public Diagnostic call() throws Exception {
+						getOperationCanceledManager().checkCanceled(monitor);
+						BasicDiagnostic result = diagnostician.createDefaultDiagnostic(child);
+						diagnostician.validate(child, result, context);
+						return result;
+					}
+				}));
+			}
+			List<Diagnostic> diagnostics = Lists.newArrayList(rootDiagnostic.getChildren());
+			try {
+				for (Future<Diagnostic> subtree : subtrees) {
+					diagnostics.addAll(getDiagnostic(subtree).getChildren());
+				}
+			} finally {
+				for (Future<Diagnostic> subtree : subtrees) {
+					subtree.cancel(false);
+				}
+			}
+			for (Diagnostic diagnostic : diagnostics) {
+				issueFromEValidatorDiagnostic(diagnostic, acceptor);
+			}
+		} catch (RuntimeException e) {
+			getOperationCanceledManager().propagateAsErrorIfCancelException(e);
+			log.error(e.getMessage(), e);
+		}
+	}
+
+	private Diagnostic getDiagnostic(Future<Diagnostic> subtree) {
+		try {
+			return subtree.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return Exceptions.throwUncheckedException(e);
+		} catch (ExecutionException e) {
+			return Exceptions.throwUncheckedException(e.getCause());
+		}
+	}
+
+	/**
+	 * The executor that validates the subtrees. Uses the common {@link ForkJoinPool} unless an {@link ExecutorService}
+	 * is bound.
+	 */
+	protected ExecutorService getExecutorService() {
+		if (executorService == null) {
+			return ForkJoinPool.commonPool();
+		}
+		return executorService;
+	}
+
+	public void setExecutorService(ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
+}
@@ -19,6 +19,7 @@ import org.eclipse.xtext.resource.clustering.IResourceClusteringPolicy;
 import org.eclipse.xtext.util.CancelIndicator;
 import org.eclipse.xtext.xbase.lib.Functions.Function1;
 import org.eclipse.xtext.xbase.lib.IterableExtensions;
+import org.eclipse.xtext.xbase.lib.Procedures.Procedure0;
 import org.eclipse.xtext.xbase.lib.Pure;
 
 /**
@@ -45,6 +46,18 @@ public class BuildContext {
   private ClusteringStorageAwareResourceLoader loader;
   
   public <T extends Object> Iterable<T> executeClustered(final Iterable<URI> uri, final Function1<? super Resource, ? extends T> operation) {
+    final Procedure0 _function = () -> {
+    };
+    return this.<T>executeClustered(uri, operation, _function);
+  }
+  
+  /**
+   * Like {@link #executeClustered(Iterable, org.eclipse.xtext.xbase.lib.Functions.Function1)}, but invokes the
+   * given callback after the operation was applied to all resources of a cluster, before the resources are
+   * unloaded.
+   * @since 2.18
+   */
+  public <T extends Object> Iterable<T> executeClustered(final Iterable<URI> uri, final Function1<? super Resource, ? extends T> operation, final Procedure0 afterCluster) {
     if ((this.loader == null)) {
       ClusteringStorageAwareResourceLoader _clusteringStorageAwareResourceLoader = new ClusteringStorageAwareResourceLoader(this);
       this.loader = _clusteringStorageAwareResourceLoader;
@@ -52,7 +65,7 @@ public class BuildContext {
     final Function1<URI, Boolean> _function = (URI it) -> {
       return Boolean.valueOf(this.canHandle(it));
     };
-    return this.loader.<T>executeClustered(IterableExtensions.<URI>filter(uri, _function), operation);
+    return this.loader.<T>executeClustered(IterableExtensions.<URI>filter(uri, _function), operation, afterCluster);
   }
   
   protected boolean canHandle(final URI uri) {
@@ -9,6 +9,8 @@ package org.eclipse.xtext.build;
 
 import java.io.File;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import org.apache.log4j.Logger;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.xtend.lib.annotations.Accessors;
@@ -100,12 +102,57 @@ public class BuildRequest {
   private Procedure1<? super URI> afterDeleteFile = ((Procedure1<URI>) (URI it) -> {
   });
   
+  /**
+   * call back for generated files that were not written again, because they already had the generated content.
+   * @since 2.18
+   */
+  private Procedure2<? super URI, ? super URI> afterUnchangedFile = ((Procedure2<URI, URI>) (URI $0, URI $1) -> {
+  });
+  
   private IndexState state = new IndexState();
   
   private boolean writeStorageResources = false;
   
   private boolean indexOnly = false;
   
+  /**
+   * Whether generated files are only written if their content changed. The hashes of the generated contents are
+   * kept in the {@link Source2GeneratedMapping file mappings} of the {@link #state}.
+   * @since 2.18
+   */
+  private boolean skipUnchangedFiles = false;
+  
+  /**
+   * Whether generated files are written on background threads while the build proceeds. The build waits for all
+   * pending writes before it returns.
+   * @since 2.18
+   */
+  private boolean writeFilesAsynchronously = false;
+  
+  /**
+   * The executor that runs the {@link #writeFilesAsynchronously asynchronous writes}, such that its threads are
+   * reused across builds. If it is <code>null</code>, each build creates and releases its own threads.
+   * @since 2.18
+   */
+  private Executor fileWriteExecutor;
+  
+  /**
+   * Whether the generators run concurrently on a pool of worker threads. The resources of a cluster are indexed and
+   * validated first. Afterwards, the resources that passed the validation are generated concurrently, before the
+   * next cluster is loaded. Before, all resources that are reachable from the cluster are loaded and resolved, such
+   * that the generators only read the resource set. They must not load further resources. The callbacks of this
+   * request are invoked while holding its lock.
+   * @since 2.18
+   */
+  private boolean generateInParallel = false;
+  
+  /**
+   * The executor that runs the generators if they {@link #generateInParallel run in parallel}, such that its threads
+   * are reused across builds. If it is <code>null</code>, each build creates and releases its own threads.
+   * @since 2.18
+   */
+  private ExecutorService generatorExecutor;
+  
   private XtextResourceSet resourceSet;
   
   private CancelIndicator cancelIndicator = CancelIndicator.NullImpl;
@@ -168,6 +215,15 @@ public class BuildRequest {
     this.afterDeleteFile = afterDeleteFile;
   }
   
+  @Pure
+  public Procedure2<? super URI, ? super URI> getAfterUnchangedFile() {
+    return this.afterUnchangedFile;
+  }
+  
+  public void setAfterUnchangedFile(final Procedure2<? super URI, ? super URI> afterUnchangedFile) {
+    this.afterUnchangedFile = afterUnchangedFile;
+  }
+  
   @Pure
   public IndexState getState() {
     return this.state;
@@ -195,6 +251,51 @@ public class BuildRequest {
     this.indexOnly = indexOnly;
   }
   
+  @Pure
+  public boolean isSkipUnchangedFiles() {
+    return this.skipUnchangedFiles;
+  }
+  
+  public void setSkipUnchangedFiles(final boolean skipUnchangedFiles) {
+    this.skipUnchangedFiles = skipUnchangedFiles;
+  }
+  
+  @Pure
+  public boolean isWriteFilesAsynchronously() {
+    return this.writeFilesAsynchronously;
+  }
+  
+  public void setWriteFilesAsynchronously(final boolean writeFilesAsynchronously) {
+    this.writeFilesAsynchronously = writeFilesAsynchronously;
+  }
+  
+  @Pure
+  public Executor getFileWriteExecutor() {
+    return this.fileWriteExecutor;
+  }
+  
+  public void setFileWriteExecutor(final Executor fileWriteExecutor) {
+    this.fileWriteExecutor = fileWriteExecutor;
+  }
+  
+  @Pure
+  public boolean isGenerateInParallel() {
+    return this.generateInParallel;
+  }
+  
+  public void setGenerateInParallel(final boolean generateInParallel) {
+    this.generateInParallel = generateInParallel;
+  }
+  
+  @Pure
+  public ExecutorService getGeneratorExecutor() {
+    return this.generatorExecutor;
+  }
+  
+  public void setGeneratorExecutor(final ExecutorService generatorExecutor) {
+    this.generatorExecutor = generatorExecutor;
+  }
+  
   @Pure
   public XtextResourceSet getResourceSet() {
     return this.resourceSet;
@@ -9,6 +9,8 @@ package org.eclipse.xtext.build;
 
 import com.google.common.base.Objects;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.Singleton;
@@ -17,7 +19,13 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
+import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.xtend.lib.annotations.AccessorType;
@@ -29,11 +37,13 @@ import org.eclipse.xtext.build.BuildRequest;
 import org.eclipse.xtext.build.IndexState;
 import org.eclipse.xtext.build.Indexer;
 import org.eclipse.xtext.build.Source2GeneratedMapping;
+import org.eclipse.xtext.generator.AsynchronousFileWriter;
 import org.eclipse.xtext.generator.GeneratorContext;
 import org.eclipse.xtext.generator.GeneratorDelegate;
 import org.eclipse.xtext.generator.IContextualOutputConfigurationProvider;
 import org.eclipse.xtext.generator.IContextualOutputConfigurationProvider2;
 import org.eclipse.xtext.generator.IFilePostProcessor;
+import org.eclipse.xtext.generator.IGeneratedContentHashes;
 import org.eclipse.xtext.generator.IShouldGenerate;
 import org.eclipse.xtext.generator.OutputConfiguration;
 import org.eclipse.xtext.generator.URIBasedFileSystemAccess;
@@ -50,6 +60,7 @@ import org.eclipse.xtext.resource.impl.ResourceDescriptionsData;
 import org.eclipse.xtext.resource.persistence.IResourceStorageFacade;
 import org.eclipse.xtext.resource.persistence.SerializableResourceDescription;
 import org.eclipse.xtext.resource.persistence.StorageAwareResource;
+import org.eclipse.xtext.scoping.impl.IGlobalScopeCache;
 import org.eclipse.xtext.service.OperationCanceledManager;
 import org.eclipse.xtext.util.CancelIndicator;
 import org.eclipse.xtext.validation.CheckMode;
@@ -64,6 +75,8 @@ import org.eclipse.xtext.xbase.lib.Extension;
 import org.eclipse.xtext.xbase.lib.Functions.Function1;
 import org.eclipse.xtext.xbase.lib.IterableExtensions;
 import org.eclipse.xtext.xbase.lib.ObjectExtensions;
+import org.eclipse.xtext.xbase.lib.Pair;
+import org.eclipse.xtext.xbase.lib.Procedures.Procedure0;
 import org.eclipse.xtext.xbase.lib.Procedures.Procedure1;
 import org.eclipse.xtext.xbase.lib.Pure;
 import org.eclipse.xtext.xbase.lib.util.ToStringBuilder;
@@ -188,6 +201,10 @@ public class IncrementalBuilder {
             it.setCurrentSource(_name);
           }
           it.setConverter(resource.getResourceSet().getURIConverter());
+          boolean _isSkipUnchangedFiles = request.isSkipUnchangedFiles();
+          if (_isSkipUnchangedFiles) {
+            it.setContentHashes(request.getState().getFileMappings());
+          }
         };
         return ObjectExtensions.<URIBasedFileSystemAccess>operator_doubleArrow(_uRIBasedFileSystemAccess, _function);
       }
@@ -207,6 +224,12 @@ public class IncrementalBuilder {
     @Extension
     private OperationCanceledManager _operationCanceledManager;
     
+    private AsynchronousFileWriter asynchronousWriter;
+    
+    private ExecutorService generatorExecutor;
+    
+    private final List<Resource> pendingGeneration = CollectionLiterals.<Resource>newArrayList();
+    
     protected void unloadResource(final URI uri) {
       final Resource resource = this.request.getResourceSet().getResource(uri, false);
       if ((resource != null)) {
@@ -216,6 +239,69 @@ public class IncrementalBuilder {
     }
     
     public IncrementalBuilder.Result launch() {
+      boolean _isWriteFilesAsynchronously = this.request.isWriteFilesAsynchronously();
+      if (_isWriteFilesAsynchronously) {
+        this.asynchronousWriter = this.createAsynchronousFileWriter();
+      }
+      boolean _isGenerateInParallel = this.request.isGenerateInParallel();
+      if (_isGenerateInParallel) {
+        this.generatorExecutor = this.createGeneratorExecutor();
+      }
+      try {
+        final IncrementalBuilder.Result result = this.doLaunch();
+        if (this.asynchronousWriter!=null) {
+          this.asynchronousWriter.flush();
+        }
+        return result;
+      } finally {
+        ExecutorService _generatorExecutor = this.request.getGeneratorExecutor();
+        boolean _tripleNotEquals = (this.generatorExecutor != _generatorExecutor);
+        if (_tripleNotEquals) {
+          if (this.generatorExecutor!=null) {
+            this.generatorExecutor.shutdownNow();
+          }
+        }
+        this.generatorExecutor = null;
+        this.pendingGeneration.clear();
+        if (this.asynchronousWriter!=null) {
+          this.asynchronousWriter.close();
+        }
+        this.asynchronousWriter = null;
+      }
+    }
+    
+    /**
+     * @since 2.18
+     */
+    protected AsynchronousFileWriter createAsynchronousFileWriter() {
+      Executor _fileWriteExecutor = this.request.getFileWriteExecutor();
+      boolean _tripleNotEquals = (_fileWriteExecutor != null);
+      if (_tripleNotEquals) {
+        Executor _fileWriteExecutor_1 = this.request.getFileWriteExecutor();
+        CancelIndicator _cancelIndicator = this.request.getCancelIndicator();
+        return new AsynchronousFileWriter(_fileWriteExecutor_1, 64, _cancelIndicator);
+      }
+      CancelIndicator _cancelIndicator_1 = this.request.getCancelIndicator();
+      return new AsynchronousFileWriter(2, 64, _cancelIndicator_1);
+    }
+    
+    /**
+     * @since 2.18
+     */
+    protected ExecutorService createGeneratorExecutor() {
+      ExecutorService _generatorExecutor = this.request.getGeneratorExecutor();
+      boolean _tripleNotEquals = (_generatorExecutor != null);
+      if (_tripleNotEquals) {
+        return this.request.getGeneratorExecutor();
+      }
+      return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), 
+        new ThreadFactoryBuilder().setNameFormat("Generator %d").setDaemon(true).build());
+    }
+    
+    /**
+     * @since 2.18
+     */
+    protected IncrementalBuilder.Result doLaunch() {
       final Source2GeneratedMapping newSource2GeneratedMapping = this.request.getState().getFileMappings();
       final HashSet<URI> unloaded = CollectionLiterals.<URI>newHashSet();
       List<URI> _deletedFiles = this.request.getDeletedFiles();
@@ -257,6 +343,7 @@ public class IncrementalBuilder {
       this.request.getDeletedFiles().forEach(_function);
       final Indexer.IndexResult result = this.indexer.computeAndIndexAffected(this.request, this.context);
       this._operationCanceledManager.checkCanceled(this.request.getCancelIndicator());
+      this.invalidateGlobalScopeCaches(result.getResourceDeltas());
       List<IResourceDescription.Delta> _resourceDeltas = result.getResourceDeltas();
       for (final IResourceDescription.Delta delta : _resourceDeltas) {
         boolean _add_2 = unloaded.add(delta.getUri());
@@ -291,17 +378,120 @@ public class IncrementalBuilder {
         this._operationCanceledManager.checkCanceled(this.request.getCancelIndicator());
         if ((((!this.request.isIndexOnly()) && this.validate(resource)) && serviceProvider.<IShouldGenerate>get(IShouldGenerate.class).shouldGenerate(resource, CancelIndicator.NullImpl))) {
           this._operationCanceledManager.checkCanceled(this.request.getCancelIndicator());
-          this.generate(resource, this.request, newSource2GeneratedMapping);
+          if ((this.generatorExecutor != null)) {
+            this.pendingGeneration.add(resource);
+          } else {
+            this.generate(resource, this.request, newSource2GeneratedMapping);
+          }
         }
         final IResourceDescription old = this.context.getOldState().getResourceDescriptions().getResourceDescription(resource.getURI());
         return manager.createDelta(old, copiedDescription);
       };
-      Iterable<IResourceDescription.Delta> _executeClustered = this.context.<IResourceDescription.Delta>executeClustered(IterableExtensions.<IResourceDescription.Delta, URI>map(IterableExtensions.<IResourceDescription.Delta>filter(result.getResourceDeltas(), _function_2), _function_3), _function_4);
+      final Procedure0 _function_5 = () -> {
+        this.generatePending(newSource2GeneratedMapping);
+      };
+      Iterable<IResourceDescription.Delta> _executeClustered = this.context.<IResourceDescription.Delta>executeClustered(IterableExtensions.<IResourceDescription.Delta, URI>map(IterableExtensions.<IResourceDescription.Delta>filter(result.getResourceDeltas(), _function_2), _function_3), _function_4, _function_5);
       Iterables.<IResourceDescription.Delta>addAll(resolvedDeltas, _executeClustered);
       IndexState _state = this.request.getState();
       return new IncrementalBuilder.Result(_state, resolvedDeltas);
     }
     
+    /**
+     * Discards the values of the global scope caches that are affected by the deltas of this build. The caches of
+     * the languages of the changed resources are notified.
+     * @since 2.18
+     */
+    protected void invalidateGlobalScopeCaches(final List<IResourceDescription.Delta> deltas) {
+      final Set<IGlobalScopeCache> caches = Sets.<IGlobalScopeCache>newIdentityHashSet();
+      for (final IResourceDescription.Delta delta : deltas) {
+        {
+          final IResourceServiceProvider serviceProvider = this.context.getResourceServiceProvider(delta.getUri());
+          if ((serviceProvider != null)) {
+            IGlobalScopeCache _get = serviceProvider.<IGlobalScopeCache>get(IGlobalScopeCache.class);
+            caches.add(_get);
+          }
+        }
+      }
+      for (final IGlobalScopeCache cache : caches) {
+        cache.invalidate(deltas);
+      }
+    }
+    
+    /**
+     * Generates the validated resources of the current cluster concurrently. The resource set is resolved before,
+     * such that the generators only read it. Each generator run works on a {@link Source2GeneratedMapping#recordingCopy()
+     * recording copy} of the given mappings, whose changes are applied to them in the order of the resources once all
+     * runs have finished.
+     * @since 2.18
+     */
+    protected void generatePending(final Source2GeneratedMapping newMappings) {
+      try {
+        boolean _isEmpty = this.pendingGeneration.isEmpty();
+        if (_isEmpty) {
+          return;
+        }
+        this.resolveResourceSet();
+        final ArrayList<Pair<Source2GeneratedMapping, Future<?>>> runs = CollectionLiterals.<Pair<Source2GeneratedMapping, Future<?>>>newArrayList();
+        for (final Resource resource : this.pendingGeneration) {
+          {
+            final Source2GeneratedMapping mappings = newMappings.recordingCopy();
+            final Runnable _function = () -> {
+              this._operationCanceledManager.checkCanceled(this.request.getCancelIndicator());
+              this.generate(resource, this.request, mappings);
+            };
+            final Runnable run = _function;
+            Future<?> _submit = this.generatorExecutor.submit(run);
+            Pair<Source2GeneratedMapping, Future<?>> _mappedTo = Pair.<Source2GeneratedMapping, Future<?>>of(mappings, _submit);
+            runs.add(_mappedTo);
+          }
+        }
+        this.pendingGeneration.clear();
+        Throwable failure = null;
+        for (final Pair<Source2GeneratedMapping, Future<?>> run_1 : runs) {
+          try {
+            run_1.getValue().get();
+          } catch (final Throwable _t) {
+            if (_t instanceof ExecutionException) {
+              final ExecutionException e = (ExecutionException)_t;
+              if ((failure == null)) {
+                failure = e.getCause();
+              }
+            } else if (_t instanceof InterruptedException) {
+              Thread.currentThread().interrupt();
+              for (final Pair<Source2GeneratedMapping, Future<?>> pending : runs) {
+                pending.getValue().cancel(true);
+              }
+              this._operationCanceledManager.throwOperationCanceledException();
+            } else {
+              throw Exceptions.sneakyThrow(_t);
+            }
+          }
+        }
+        if ((failure != null)) {
+          throw failure;
+        }
+        for (final Pair<Source2GeneratedMapping, Future<?>> run_2 : runs) {
+          run_2.getKey().applyRecordedChanges(newMappings);
+        }
+      } catch (Throwable _e) {
+        throw Exceptions.sneakyThrow(_e);
+      }
+    }
+    
+    /**
+     * Loads all resources that are reachable from the resources of the resource set and resolves their cross
+     * references, such that concurrent generators do not modify the resource set. This loads the transitive closure
+     * of the current cluster, so the number of loaded resources is not bounded by the
+     * {@link IResourceClusteringPolicy clustering policy} while the generators run.
+     * @since 2.18
+     */
+    protected void resolveResourceSet() {
+      final EList<Resource> resources = this.request.getResourceSet().getResources();
+      for (int i = 0; (i < resources.size()); i++) {
+        EcoreUtil2.resolveAll(resources.get(i), this.request.getCancelIndicator());
+      }
+    }
+    
     private IResourceServiceProvider getResourceServiceProvider(final Resource resource) {
       if ((resource instanceof XtextResource)) {
         return ((XtextResource)resource).getResourceServiceProvider();
@@ -330,26 +520,45 @@ public class IncrementalBuilder {
         final URIBasedFileSystemAccess.BeforeWrite _function_1 = (URI uri, String outputCfgName, InputStream contents) -> {
           newMappings.addSource2Generated(resource.getURI(), uri, outputCfgName);
           previous.remove(uri);
-          request.getAfterGenerateFile().apply(resource.getURI(), uri);
           return contents;
         };
         it.setBeforeWrite(_function_1);
-        final URIBasedFileSystemAccess.BeforeDelete _function_2 = (URI uri) -> {
+        final URIBasedFileSystemAccess.AfterWrite _function_2 = (URI uri, String outputCfgName) -> {
+          synchronized (request) {
+            request.getAfterGenerateFile().apply(resource.getURI(), uri);
+          }
+        };
+        it.setAfterWrite(_function_2);
+        final URIBasedFileSystemAccess.BeforeDelete _function_3 = (URI uri) -> {
           newMappings.deleteGenerated(uri);
-          request.getAfterDeleteFile().apply(uri);
+          synchronized (request) {
+            request.getAfterDeleteFile().apply(uri);
+          }
           return true;
         };
-        it.setBeforeDelete(_function_2);
+        it.setBeforeDelete(_function_3);
+        final URIBasedFileSystemAccess.AfterUnchanged _function_4 = (URI uri, String outputCfgName) -> {
+          synchronized (request) {
+            request.getAfterUnchangedFile().apply(resource.getURI(), uri);
+          }
+        };
+        it.setAfterUnchanged(_function_4);
       };
       final URIBasedFileSystemAccess fileSystemAccess = ObjectExtensions.<URIBasedFileSystemAccess>operator_doubleArrow(_createFileSystemAccess, _function);
+      IGeneratedContentHashes _contentHashes = fileSystemAccess.getContentHashes();
+      boolean _tripleNotEquals = (_contentHashes != null);
+      if (_tripleNotEquals) {
+        fileSystemAccess.setContentHashes(newMappings);
+      }
       fileSystemAccess.setContext(resource);
+      fileSystemAccess.setAsynchronousWriter(this.asynchronousWriter);
       boolean _isWriteStorageResources = request.isWriteStorageResources();
       if (_isWriteStorageResources) {
         boolean _matched = false;
         if (resource instanceof StorageAwareResource) {
           IResourceStorageFacade _resourceStorageFacade = ((StorageAwareResource)resource).getResourceStorageFacade();
-          boolean _tripleNotEquals = (_resourceStorageFacade != null);
-          if (_tripleNotEquals) {
+          boolean _tripleNotEquals_1 = (_resourceStorageFacade != null);
+          if (_tripleNotEquals_1) {
             _matched=true;
             ((StorageAwareResource)resource).getResourceStorageFacade().saveResource(((StorageAwareResource)resource), fileSystemAccess);
           }
@@ -361,7 +570,9 @@ public class IncrementalBuilder {
       final Consumer<URI> _function_1 = (URI it) -> {
         try {
           this.context.getResourceSet().getURIConverter().delete(it, CollectionLiterals.<Object, Object>emptyMap());
-          request.getAfterDeleteFile().apply(it);
+          synchronized (request) {
+            request.getAfterDeleteFile().apply(it);
+          }
         } catch (Throwable _e) {
           throw Exceptions.sneakyThrow(_e);
         }
@@ -8,47 +8,224 @@
 package org.eclipse.xtext.build;
 
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import org.eclipse.emf.common.util.URI;
-import org.eclipse.xtend.lib.annotations.FinalFieldsConstructor;
 import org.eclipse.xtext.generator.IFileSystemAccess;
+import org.eclipse.xtext.generator.IGeneratedContentHashes;
 import org.eclipse.xtext.xbase.lib.CollectionLiterals;
 import org.eclipse.xtext.xbase.lib.Exceptions;
 import org.eclipse.xtext.xbase.lib.ExclusiveRange;
+import org.eclipse.xtext.xbase.lib.Procedures.Procedure1;
 
 /**
+ * The contents of a mapping consist of an immutable base and the changes that were made since the base was created. A
+ * copy shares the base with the original and only copies the changes, such that a build that copies the mapping of the
+ * previous state and touches k files costs O(k). The changes are folded into a new base when a mapping is copied and
+ * they became large compared to the base.
+ * 
  * @author Jan Koehnlein - Initial contribution and API
  */
-@FinalFieldsConstructor
 @SuppressWarnings("all")
-public class Source2GeneratedMapping implements Externalizable {
-  private final Multimap<URI, URI> source2generated;
+public class Source2GeneratedMapping implements Externalizable, IGeneratedContentHashes {
+  private static final Interner<String> OUTPUT_CONFIG_NAMES = Interners.<String>newWeakInterner();
   
-  private final Multimap<URI, URI> generated2source;
+  /**
+   * The first int of the format with content hashes that was written by earlier 2.18 versions. States that were
+   * written before start with the number of sources and have no content hashes.
+   */
+  private static final int FORMAT_2_18 = (-1);
   
-  private final Map<URI, String> generated2OutputConfigName;
+  /**
+   * The first int of the current format, which stores the output configuration names and the URIs in tables.
+   */
+  private static final int COMPACT_FORMAT_2_18 = (-2);
+  
+  private Multimap<URI, URI> source2generated;
+  
+  private Multimap<URI, URI> generated2source;
+  
+  private Map<URI, String> generated2OutputConfigName;
+  
+  private Map<URI, String> generated2ContentHash;
+  
+  private Map<URI, Set<URI>> changedSource2generated = CollectionLiterals.<URI, Set<URI>>newHashMap();
+  
+  private Map<URI, Set<URI>> changedGenerated2source = CollectionLiterals.<URI, Set<URI>>newHashMap();
+  
+  private Map<URI, String> changedOutputConfigNames = CollectionLiterals.<URI, String>newHashMap();
+  
+  private Map<URI, String> changedContentHashes = CollectionLiterals.<URI, String>newHashMap();
+  
+  private List<Procedure1<? super Source2GeneratedMapping>> recordedChanges;
   
   public Source2GeneratedMapping() {
     this(HashMultimap.<URI, URI>create(), HashMultimap.<URI, URI>create(), CollectionLiterals.<URI, String>newHashMap());
   }
   
+  public Source2GeneratedMapping(final Multimap<URI, URI> source2generated, final Multimap<URI, URI> generated2source, final Map<URI, String> generated2OutputConfigName) {
+    this(source2generated, generated2source, generated2OutputConfigName, CollectionLiterals.<URI, String>newHashMap());
+  }
+  
+  private Source2GeneratedMapping(final Multimap<URI, URI> source2generated, final Multimap<URI, URI> generated2source, final Map<URI, String> generated2OutputConfigName, final Map<URI, String> generated2ContentHash) {
+    this.source2generated = source2generated;
+    this.generated2source = generated2source;
+    this.generated2OutputConfigName = generated2OutputConfigName;
+    this.generated2ContentHash = generated2ContentHash;
+  }
+  
+  /**
+   * Returns a copy of this mapping. It shares the base with this mapping and copies the changes, unless they are
+   * large compared to the base. In that case, the copy gets a new base that contains the changes.
+   */
   public Source2GeneratedMapping copy() {
-    HashMultimap<URI, URI> _create = HashMultimap.<URI, URI>create(this.source2generated);
-    HashMultimap<URI, URI> _create_1 = HashMultimap.<URI, URI>create(this.generated2source);
-    HashMap<URI, String> _hashMap = new HashMap<URI, String>(this.generated2OutputConfigName);
-    return new Source2GeneratedMapping(_create, _create_1, _hashMap);
+    boolean _isFoldChanges = this.isFoldChanges();
+    if (_isFoldChanges) {
+      return this.folded();
+    }
+    final Source2GeneratedMapping result = new Source2GeneratedMapping(this.source2generated, this.generated2source, this.generated2OutputConfigName, this.generated2ContentHash);
+    result.changedSource2generated = Source2GeneratedMapping.copyValues(this.changedSource2generated);
+    result.changedGenerated2source = Source2GeneratedMapping.copyValues(this.changedGenerated2source);
+    HashMap<URI, String> _hashMap = new HashMap<URI, String>(this.changedOutputConfigNames);
+    result.changedOutputConfigNames = _hashMap;
+    HashMap<URI, String> _hashMap_1 = new HashMap<URI, String>(this.changedContentHashes);
+    result.changedContentHashes = _hashMap_1;
+    return result;
+  }
+  
+  /**
+   * Returns a {@link #copy() copy} of this mapping that records the changes that are made to it, such that they can
+   * be {@link #applyRecordedChanges(Source2GeneratedMapping) applied} to another mapping afterwards.
+   * @since 2.18
+   */
+  public Source2GeneratedMapping recordingCopy() {
+    final Source2GeneratedMapping result = this.copy();
+    result.recordedChanges = CollectionLiterals.<Procedure1<? super Source2GeneratedMapping>>newArrayList();
+    return result;
+  }
+  
+  /**
+   * Applies the changes that were made to this {@link #recordingCopy() recording copy} to the given mapping, in the
+   * order they were made.
+   * @since 2.18
+   */
+  public void applyRecordedChanges(final Source2GeneratedMapping target) {
+    if ((this.recordedChanges == null)) {
+      throw new IllegalStateException("This mapping does not record its changes");
+    }
+    final Consumer<Procedure1<? super Source2GeneratedMapping>> _function = (Procedure1<? super Source2GeneratedMapping> change) -> {
+      change.apply(target);
+    };
+    this.recordedChanges.forEach(_function);
+  }
+  
+  private void record(final Procedure1<? super Source2GeneratedMapping> change) {
+    if ((this.recordedChanges != null)) {
+      this.recordedChanges.add(change);
+    }
+  }
+  
+  /**
+   * Whether the changes are large compared to the base, such that folding them into a new base takes time in the
+   * order of the changes.
+   */
+  private boolean isFoldChanges() {
+    int _changeCount = this.getChangeCount();
+    int _multiply = (_changeCount * 2);
+    int _size = this.generated2source.size();
+    int _size_1 = this.generated2ContentHash.size();
+    int _plus = (_size + _size_1);
+    return (_multiply > _plus);
+  }
+  
+  private int getChangeCount() {
+    int _size = this.changedSource2generated.size();
+    int _size_1 = this.changedGenerated2source.size();
+    int _plus = (_size + _size_1);
+    int _size_2 = this.changedOutputConfigNames.size();
+    int _plus_1 = (_plus + _size_2);
+    int _size_3 = this.changedContentHashes.size();
+    return (_plus_1 + _size_3);
+  }
+  
+  /**
+   * Returns a mapping with the same contents whose base contains the changes of this mapping.
+   */
+  private Source2GeneratedMapping folded() {
+    final HashMultimap<URI, URI> newSource2generated = HashMultimap.<URI, URI>create(this.source2generated);
+    final BiConsumer<URI, Set<URI>> _function = (URI source, Set<URI> generated) -> {
+      newSource2generated.replaceValues(source, generated);
+    };
+    this.changedSource2generated.forEach(_function);
+    final HashMultimap<URI, URI> newGenerated2source = HashMultimap.<URI, URI>create(this.generated2source);
+    final BiConsumer<URI, Set<URI>> _function_1 = (URI generated, Set<URI> sources) -> {
+      newGenerated2source.replaceValues(generated, sources);
+    };
+    this.changedGenerated2source.forEach(_function_1);
+    Map<URI, String> _withChanges = Source2GeneratedMapping.withChanges(this.generated2OutputConfigName, this.changedOutputConfigNames);
+    Map<URI, String> _withChanges_1 = Source2GeneratedMapping.withChanges(this.generated2ContentHash, this.changedContentHashes);
+    return new Source2GeneratedMapping(newSource2generated, newGenerated2source, _withChanges, _withChanges_1);
+  }
+  
+  private static Map<URI, Set<URI>> copyValues(final Map<URI, Set<URI>> map) {
+    final HashMap<URI, Set<URI>> result = new HashMap<URI, Set<URI>>(map);
+    final BiFunction<URI, Set<URI>, Set<URI>> _function = (URI key, Set<URI> value) -> {
+      return new HashSet<URI>(value);
+    };
+    result.replaceAll(_function);
+    return result;
+  }
+  
+  private static Map<URI, String> withChanges(final Map<URI, String> base, final Map<URI, String> changes) {
+    final HashMap<URI, String> result = new HashMap<URI, String>(base);
+    final BiConsumer<URI, String> _function = (URI key, String value) -> {
+      if ((value == null)) {
+        result.remove(key);
+      } else {
+        result.put(key, value);
+      }
+    };
+    changes.forEach(_function);
+    return result;
+  }
+  
+  private Set<URI> getGeneratedForUpdate(final URI source) {
+    Set<URI> result = this.changedSource2generated.get(source);
+    if ((result == null)) {
+      Collection<URI> _get = this.source2generated.get(source);
+      HashSet<URI> _hashSet = new HashSet<URI>(_get);
+      result = _hashSet;
+      this.changedSource2generated.put(source, result);
+    }
+    return result;
+  }
+  
+  private Set<URI> getSourcesForUpdate(final URI generated) {
+    Set<URI> result = this.changedGenerated2source.get(generated);
+    if ((result == null)) {
+      Collection<URI> _get = this.generated2source.get(generated);
+      HashSet<URI> _hashSet = new HashSet<URI>(_get);
+      result = _hashSet;
+      this.changedGenerated2source.put(generated, result);
+    }
+    return result;
   }
   
   public void addSource2Generated(final URI source, final URI generated) {
@@ -56,53 +233,190 @@ public class Source2GeneratedMapping implements Externalizable {
   }
   
   public void addSource2Generated(final URI source, final URI generated, final String outputCfgName) {
-    this.source2generated.put(source, generated);
-    this.generated2source.put(generated, source);
-    this.generated2OutputConfigName.put(generated, outputCfgName);
+    this.getGeneratedForUpdate(source).add(generated);
+    this.getSourcesForUpdate(generated).add(source);
+    String _xifexpression = null;
+    if ((outputCfgName != null)) {
+      _xifexpression = Source2GeneratedMapping.OUTPUT_CONFIG_NAMES.intern(outputCfgName);
+    }
+    this.changedOutputConfigNames.put(generated, _xifexpression);
+    final Procedure1<Source2GeneratedMapping> _function = (Source2GeneratedMapping target) -> {
+      target.addSource2Generated(source, generated, outputCfgName);
+    };
+    this.record(_function);
   }
   
   public void removeSource2Generated(final URI source, final URI generated) {
-    this.source2generated.remove(source, generated);
-    this.generated2source.remove(generated, source);
+    this.getGeneratedForUpdate(source).remove(generated);
+    this.getSourcesForUpdate(generated).remove(source);
+    final Procedure1<Source2GeneratedMapping> _function = (Source2GeneratedMapping target) -> {
+      target.removeSource2Generated(source, generated);
+    };
+    this.record(_function);
   }
   
   public Set<URI> deleteSource(final URI source) {
-    Collection<URI> _removeAll = this.source2generated.removeAll(source);
-    final HashSet<URI> generated = new HashSet<URI>(_removeAll);
+    final Set<URI> current = this.getGeneratedForUpdate(source);
+    final HashSet<URI> generated = new HashSet<URI>(current);
+    current.clear();
     final Consumer<URI> _function = (URI it) -> {
-      this.generated2source.remove(it, source);
+      this.getSourcesForUpdate(it).remove(source);
     };
     generated.forEach(_function);
+    final Procedure1<Source2GeneratedMapping> _function_1 = (Source2GeneratedMapping target) -> {
+      target.deleteSource(source);
+    };
+    this.record(_function_1);
     return generated;
   }
   
   public void deleteGenerated(final URI generated) {
+    final Set<URI> sources = this.getSourcesForUpdate(generated);
     final Consumer<URI> _function = (URI it) -> {
-      this.source2generated.remove(it, generated);
+      this.getGeneratedForUpdate(it).remove(generated);
+    };
+    sources.forEach(_function);
+    sources.clear();
+    this.changedOutputConfigNames.put(generated, null);
+    this.changedContentHashes.put(generated, null);
+    final Procedure1<Source2GeneratedMapping> _function_1 = (Source2GeneratedMapping target) -> {
+      target.deleteGenerated(generated);
     };
-    this.generated2source.removeAll(generated).forEach(_function);
-    this.generated2OutputConfigName.remove(generated);
+    this.record(_function_1);
   }
   
   public String getOutputConfigName(final URI generated) {
+    boolean _containsKey = this.changedOutputConfigNames.containsKey(generated);
+    if (_containsKey) {
+      return this.changedOutputConfigNames.get(generated);
+    }
     return this.generated2OutputConfigName.get(generated);
   }
   
   public List<URI> getGenerated(final URI source) {
-    return Lists.<URI>newArrayList(this.source2generated.get(source));
+    Collection<URI> _elvis = null;
+    Set<URI> _get = this.changedSource2generated.get(source);
+    if (_get != null) {
+      _elvis = _get;
+    } else {
+      Collection<URI> _get_1 = this.source2generated.get(source);
+      _elvis = _get_1;
+    }
+    return Lists.<URI>newArrayList(_elvis);
   }
   
   public List<URI> getSource(final URI generated) {
-    return Lists.<URI>newArrayList(this.generated2source.get(generated));
+    Collection<URI> _elvis = null;
+    Set<URI> _get = this.changedGenerated2source.get(generated);
+    if (_get != null) {
+      _elvis = _get;
+    } else {
+      Collection<URI> _get_1 = this.generated2source.get(generated);
+      _elvis = _get_1;
+    }
+    return Lists.<URI>newArrayList(_elvis);
   }
   
   public List<URI> getAllGenerated() {
-    return Lists.<URI>newArrayList(this.generated2source.keySet());
+    final ArrayList<URI> result = CollectionLiterals.<URI>newArrayList();
+    final BiConsumer<URI, Set<URI>> _function = (URI generated, Set<URI> sources) -> {
+      boolean _isEmpty = sources.isEmpty();
+      boolean _not = (!_isEmpty);
+      if (_not) {
+        result.add(generated);
+      }
+    };
+    this.changedGenerated2source.forEach(_function);
+    final Consumer<URI> _function_1 = (URI it) -> {
+      boolean _containsKey = this.changedGenerated2source.containsKey(it);
+      boolean _not = (!_containsKey);
+      if (_not) {
+        result.add(it);
+      }
+    };
+    this.generated2source.keySet().forEach(_function_1);
+    return result;
+  }
+  
+  /**
+   * @since 2.18
+   */
+  @Override
+  public String getContentHash(final URI generated) {
+    boolean _containsKey = this.changedContentHashes.containsKey(generated);
+    if (_containsKey) {
+      return this.changedContentHashes.get(generated);
+    }
+    return this.generated2ContentHash.get(generated);
+  }
+  
+  /**
+   * @since 2.18
+   */
+  @Override
+  public void setContentHash(final URI generated, final String hash) {
+    this.changedContentHashes.put(generated, hash);
+    final Procedure1<Source2GeneratedMapping> _function = (Source2GeneratedMapping target) -> {
+      target.setContentHash(generated, hash);
+    };
+    this.record(_function);
   }
   
   @Override
   public void readExternal(final ObjectInput in) throws IOException, ClassNotFoundException {
+    final int first = in.readInt();
+    if ((first != Source2GeneratedMapping.COMPACT_FORMAT_2_18)) {
+      this.readExternalWithoutTables(in, first);
+      return;
+    }
+    final int numNames = in.readInt();
+    final ArrayList<String> names = CollectionLiterals.<String>newArrayList();
+    ExclusiveRange _doubleDotLessThan = new ExclusiveRange(0, numNames, true);
+    for (final Integer i : _doubleDotLessThan) {
+      String _intern = Source2GeneratedMapping.OUTPUT_CONFIG_NAMES.intern(in.readUTF());
+      names.add(_intern);
+    }
+    final int numURIs = in.readInt();
+    final ArrayList<URI> uris = CollectionLiterals.<URI>newArrayList();
+    ExclusiveRange _doubleDotLessThan_1 = new ExclusiveRange(0, numURIs, true);
+    for (final Integer i_1 : _doubleDotLessThan_1) {
+      URI _createURI = URI.createURI(in.readUTF());
+      uris.add(_createURI);
+    }
     final int numEntries = in.readInt();
+    ExclusiveRange _doubleDotLessThan_2 = new ExclusiveRange(0, numEntries, true);
+    for (final Integer i_2 : _doubleDotLessThan_2) {
+      {
+        final URI source = uris.get(in.readInt());
+        final int numGenerated = in.readInt();
+        ExclusiveRange _doubleDotLessThan_3 = new ExclusiveRange(0, numGenerated, true);
+        for (final Integer j : _doubleDotLessThan_3) {
+          {
+            final URI generated = uris.get(in.readInt());
+            this.addSource2Generated(source, generated, names.get(in.readInt()));
+          }
+        }
+      }
+    }
+    final int numHashes = in.readInt();
+    ExclusiveRange _doubleDotLessThan_3 = new ExclusiveRange(0, numHashes, true);
+    for (final Integer i_3 : _doubleDotLessThan_3) {
+      {
+        final URI generated = uris.get(in.readInt());
+        this.setContentHash(generated, in.readUTF());
+      }
+    }
+    this.foldAfterRead();
+  }
+  
+  private void readExternalWithoutTables(final ObjectInput in, final int first) throws IOException {
+    int _xifexpression = (int) 0;
+    if ((first == Source2GeneratedMapping.FORMAT_2_18)) {
+      _xifexpression = in.readInt();
+    } else {
+      _xifexpression = first;
+    }
+    final int numEntries = _xifexpression;
     ExclusiveRange _doubleDotLessThan = new ExclusiveRange(0, numEntries, true);
     for (final Integer i : _doubleDotLessThan) {
       {
@@ -118,43 +432,127 @@ public class Source2GeneratedMapping implements Externalizable {
         }
       }
     }
+    if ((first == Source2GeneratedMapping.FORMAT_2_18)) {
+      final int numHashes = in.readInt();
+      ExclusiveRange _doubleDotLessThan_1 = new ExclusiveRange(0, numHashes, true);
+      for (final Integer i_1 : _doubleDotLessThan_1) {
+        {
+          final URI generated = URI.createURI(in.readUTF());
+          this.setContentHash(generated, in.readUTF());
+        }
+      }
+    }
+    this.foldAfterRead();
+  }
+  
+  /**
+   * Makes the contents that were read the base of this mapping.
+   */
+  private void foldAfterRead() {
+    final Source2GeneratedMapping result = this.folded();
+    this.source2generated = result.source2generated;
+    this.generated2source = result.generated2source;
+    this.generated2OutputConfigName = result.generated2OutputConfigName;
+    this.generated2ContentHash = result.generated2ContentHash;
+    this.changedSource2generated.clear();
+    this.changedGenerated2source.clear();
+    this.changedOutputConfigNames.clear();
+    this.changedContentHashes.clear();
   }
   
   @Override
   public void writeExternal(final ObjectOutput out) throws IOException {
-    final Set<Map.Entry<URI, Collection<URI>>> entries = this.source2generated.asMap().entrySet();
-    out.writeInt(entries.size());
+    Source2GeneratedMapping _xifexpression = null;
+    int _changeCount = this.getChangeCount();
+    boolean _equals = (_changeCount == 0);
+    if (_equals) {
+      _xifexpression = this;
+    } else {
+      _xifexpression = this.folded();
+    }
+    final Source2GeneratedMapping contents = _xifexpression;
+    final Set<Map.Entry<URI, Collection<URI>>> entries = contents.source2generated.asMap().entrySet();
+    final LinkedHashMap<String, Integer> names = new LinkedHashMap<String, Integer>();
+    final LinkedHashMap<URI, Integer> uris = new LinkedHashMap<URI, Integer>();
     final Consumer<Map.Entry<URI, Collection<URI>>> _function = (Map.Entry<URI, Collection<URI>> it) -> {
+      Source2GeneratedMapping.<URI>addId(uris, it.getKey());
+      final Consumer<URI> _function_1 = (URI it_1) -> {
+        Source2GeneratedMapping.<URI>addId(uris, it_1);
+        Source2GeneratedMapping.<String>addId(names, contents.getOutputConfigNameOrDefault(it_1));
+      };
+      it.getValue().forEach(_function_1);
+    };
+    entries.forEach(_function);
+    final Consumer<URI> _function_1 = (URI it) -> {
+      Source2GeneratedMapping.<URI>addId(uris, it);
+    };
+    contents.generated2ContentHash.keySet().forEach(_function_1);
+    out.writeInt(Source2GeneratedMapping.COMPACT_FORMAT_2_18);
+    out.writeInt(names.size());
+    final Consumer<String> _function_2 = (String it) -> {
+      try {
+        out.writeUTF(it);
+      } catch (Throwable _e) {
+        throw Exceptions.sneakyThrow(_e);
+      }
+    };
+    names.keySet().forEach(_function_2);
+    out.writeInt(uris.size());
+    final Consumer<URI> _function_3 = (URI it) -> {
+      try {
+        out.writeUTF(it.toString());
+      } catch (Throwable _e) {
+        throw Exceptions.sneakyThrow(_e);
+      }
+    };
+    uris.keySet().forEach(_function_3);
+    out.writeInt(entries.size());
+    final Consumer<Map.Entry<URI, Collection<URI>>> _function_4 = (Map.Entry<URI, Collection<URI>> it) -> {
       try {
-        out.writeUTF(it.getKey().toString());
+        out.writeInt((uris.get(it.getKey())).intValue());
         out.writeInt(it.getValue().size());
-        final Consumer<URI> _function_1 = (URI it_1) -> {
+        final Consumer<URI> _function_5 = (URI it_1) -> {
           try {
-            out.writeUTF(it_1.toString());
-            String _elvis = null;
-            String _get = this.generated2OutputConfigName.get(it_1);
-            if (_get != null) {
-              _elvis = _get;
-            } else {
-              _elvis = IFileSystemAccess.DEFAULT_OUTPUT;
-            }
-            out.writeUTF(_elvis);
+            out.writeInt((uris.get(it_1)).intValue());
+            out.writeInt((names.get(contents.getOutputConfigNameOrDefault(it_1))).intValue());
           } catch (Throwable _e) {
             throw Exceptions.sneakyThrow(_e);
           }
         };
-        it.getValue().forEach(_function_1);
+        it.getValue().forEach(_function_5);
       } catch (Throwable _e) {
         throw Exceptions.sneakyThrow(_e);
       }
     };
-    entries.forEach(_function);
+    entries.forEach(_function_4);
+    out.writeInt(contents.generated2ContentHash.size());
+    final BiConsumer<URI, String> _function_5 = (URI generated, String hash) -> {
+      try {
+        out.writeInt((uris.get(generated)).intValue());
+        out.writeUTF(hash);
+      } catch (Throwable _e) {
+        throw Exceptions.sneakyThrow(_e);
+      }
+    };
+    contents.generated2ContentHash.forEach(_function_5);
   }
   
-  public Source2GeneratedMapping(final Multimap<URI, URI> source2generated, final Multimap<URI, URI> generated2source, final Map<URI, String> generated2OutputConfigName) {
-    super();
-    this.source2generated = source2generated;
-    this.generated2source = generated2source;
-    this.generated2OutputConfigName = generated2OutputConfigName;
+  private String getOutputConfigNameOrDefault(final URI generated) {
+    String _elvis = null;
+    String _get = this.generated2OutputConfigName.get(generated);
+    if (_get != null) {
+      _elvis = _get;
+    } else {
+      _elvis = IFileSystemAccess.DEFAULT_OUTPUT;
+    }
+    return _elvis;
+  }
+  
+  private static <T extends Object> void addId(final Map<T, Integer> ids, final T value) {
+    boolean _containsKey = ids.containsKey(value);
+    boolean _not = (!_containsKey);
+    if (_not) {
+      ids.put(value, Integer.valueOf(ids.size()));
+    }
   }
 }
@@ -20,6 +20,7 @@ import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.URIConverter;
 import org.eclipse.xtend.lib.annotations.Accessors;
 import org.eclipse.xtext.generator.AbstractFileSystemAccess2;
+import org.eclipse.xtext.generator.AsynchronousFileWriter;
 import org.eclipse.xtext.generator.IFilePostProcessor;
 import org.eclipse.xtext.generator.trace.AbstractTraceRegion;
 import org.eclipse.xtext.generator.trace.ITraceRegionProvider;
@@ -53,6 +54,26 @@ public class URIBasedFileSystemAccess extends AbstractFileSystemAccess2 {
     public abstract InputStream beforeRead(final URI changed, final InputStream in);
   }
   
+  /**
+   * @since 2.18
+   */
+  public interface AfterUnchanged {
+    /**
+     * Called instead of writing a file that already has the generated content.
+     */
+    public abstract void afterUnchanged(final URI unchanged, final String outputCfgName);
+  }
+  
+  /**
+   * @since 2.18
+   */
+  public interface AfterWrite {
+    /**
+     * Called after a file was written, but not for files that already had the generated content.
+     */
+    public abstract void afterWrite(final URI changed, final String outputCfgName);
+  }
+  
   @Accessors
   private URIConverter converter;
   
@@ -86,6 +107,28 @@ public class URIBasedFileSystemAccess extends AbstractFileSystemAccess2 {
     return $1;
   });
   
+  /**
+   * @since 2.18
+   */
+  @Accessors
+  private URIBasedFileSystemAccess.AfterUnchanged afterUnchanged = ((URIBasedFileSystemAccess.AfterUnchanged) (URI $0, String $1) -> {
+  });
+  
+  /**
+   * @since 2.18
+   */
+  @Accessors
+  private URIBasedFileSystemAccess.AfterWrite afterWrite = ((URIBasedFileSystemAccess.AfterWrite) (URI $0, String $1) -> {
+  });
+  
+  /**
+   * If set, generated files are written in the background. Reading a file back before the writer is flushed may
+   * return its previous content.
+   * @since 2.18
+   */
+  @Accessors
+  private AsynchronousFileWriter asynchronousWriter;
+  
   @Override
   public void setPostProcessor(final IFilePostProcessor filePostProcessor) {
     super.setPostProcessor(filePostProcessor);
@@ -155,6 +198,19 @@ public class URIBasedFileSystemAccess extends AbstractFileSystemAccess2 {
   public void generateFile(final String fileName, final String outputCfgName, final InputStream content) throws RuntimeIOException {
     try {
       final URI uri = this.getURI(fileName, outputCfgName);
+      if ((((this.getContentHashes() != null) || this.isCompareExistingContents()) || (this.asynchronousWriter != null))) {
+        final byte[] bytes = ByteStreams.toByteArray(this.beforeWrite.beforeWrite(uri, outputCfgName, content));
+        final String hash = this.getContentHashToRecord(bytes);
+        boolean _isUnchanged = this.isUnchanged(fileName, outputCfgName, bytes, hash);
+        if (_isUnchanged) {
+          this.afterUnchanged.afterUnchanged(uri, outputCfgName);
+          return;
+        }
+        this.writeFile(uri, bytes);
+        this.contentWritten(uri, hash);
+        this.afterWrite.afterWrite(uri, outputCfgName);
+        return;
+      }
       final OutputStream out = this.converter.createOutputStream(uri);
       try {
         final InputStream processedContent = this.beforeWrite.beforeWrite(uri, outputCfgName, content);
@@ -162,6 +218,27 @@ public class URIBasedFileSystemAccess extends AbstractFileSystemAccess2 {
       } finally {
         out.close();
       }
+      this.afterWrite.afterWrite(uri, outputCfgName);
+    } catch (Throwable _e) {
+      throw Exceptions.sneakyThrow(_e);
+    }
+  }
+  
+  /**
+   * @since 2.18
+   */
+  protected void writeFile(final URI uri, final byte[] bytes) {
+    try {
+      if ((this.asynchronousWriter != null)) {
+        this.asynchronousWriter.write(uri, bytes, this.converter);
+        return;
+      }
+      final OutputStream out = this.converter.createOutputStream(uri);
+      try {
+        out.write(bytes);
+      } finally {
+        out.close();
+      }
     } catch (Throwable _e) {
       throw Exceptions.sneakyThrow(_e);
     }
@@ -280,4 +357,31 @@ public class URIBasedFileSystemAccess extends AbstractFileSystemAccess2 {
   public void setBeforeRead(final URIBasedFileSystemAccess.BeforeRead beforeRead) {
     this.beforeRead = beforeRead;
   }
+  
+  @Pure
+  public URIBasedFileSystemAccess.AfterUnchanged getAfterUnchanged() {
+    return this.afterUnchanged;
+  }
+  
+  public void setAfterUnchanged(final URIBasedFileSystemAccess.AfterUnchanged afterUnchanged) {
+    this.afterUnchanged = afterUnchanged;
+  }
+  
+  @Pure
+  public URIBasedFileSystemAccess.AfterWrite getAfterWrite() {
+    return this.afterWrite;
+  }
+  
+  public void setAfterWrite(final URIBasedFileSystemAccess.AfterWrite afterWrite) {
+    this.afterWrite = afterWrite;
+  }
+  
+  @Pure
+  public AsynchronousFileWriter getAsynchronousWriter() {
+    return this.asynchronousWriter;
+  }
+  
+  public void setAsynchronousWriter(final AsynchronousFileWriter asynchronousWriter) {
+    this.asynchronousWriter = asynchronousWriter;
+  }
 }
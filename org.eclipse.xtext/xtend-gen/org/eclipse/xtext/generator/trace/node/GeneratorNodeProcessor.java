@@ -7,6 +7,7 @@
  */
 package org.eclipse.xtext.generator.trace.node;
 
+import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Deque;
@@ -19,6 +20,7 @@ import org.eclipse.xtext.generator.trace.AbstractTraceRegion;
 import org.eclipse.xtext.generator.trace.ILocationData;
 import org.eclipse.xtext.generator.trace.ITraceRegionProvider;
 import org.eclipse.xtext.generator.trace.TraceNotFoundException;
+import org.eclipse.xtext.generator.trace.node.ChunkedCharSequence;
 import org.eclipse.xtext.generator.trace.node.CompositeGeneratorNode;
 import org.eclipse.xtext.generator.trace.node.IGeneratorNode;
 import org.eclipse.xtext.generator.trace.node.IndentNode;
@@ -27,8 +29,9 @@ import org.eclipse.xtext.generator.trace.node.TextNode;
 import org.eclipse.xtext.generator.trace.node.TraceNode;
 import org.eclipse.xtext.util.ITextRegion;
 import org.eclipse.xtext.util.ITextRegionWithLineInformation;
+import org.eclipse.xtext.util.RuntimeIOException;
 import org.eclipse.xtext.util.TextRegionWithLineInformation;
-import org.eclipse.xtext.xbase.lib.CollectionLiterals;
+import org.eclipse.xtext.xbase.lib.Exceptions;
 import org.eclipse.xtext.xbase.lib.Functions.Function1;
 import org.eclipse.xtext.xbase.lib.Functions.Function2;
 import org.eclipse.xtext.xbase.lib.IterableExtensions;
@@ -124,8 +127,15 @@ public class GeneratorNodeProcessor {
     }
   }
   
+  /**
+   * Only the current line is kept in a buffer. Each completed line is appended to the content of the context.
+   */
   protected static class Context {
-    private List<StringBuilder> _lines = CollectionLiterals.<StringBuilder>newArrayList(new StringBuilder());
+    private ChunkedCharSequence _content = new ChunkedCharSequence();
+    
+    private StringBuilder _currentLine = new StringBuilder();
+    
+    private int _currentLineNumber = 0;
     
     private Deque<IndentNode> _currentIndents = new ArrayDeque<IndentNode>();
     
@@ -138,7 +148,15 @@ public class GeneratorNodeProcessor {
     private int _indentLength = 0;
     
     public String currentLineContent() {
-      return this._lines.get(this.currentLineNumber()).toString();
+      return this._currentLine.toString();
+    }
+    
+    /**
+     * @return the current line without copying it
+     * @since 2.18
+     */
+    public CharSequence currentLine() {
+      return this._currentLine;
     }
     
     public int contentLength() {
@@ -151,12 +169,42 @@ public class GeneratorNodeProcessor {
     }
     
     public int currentLineNumber() {
-      int _size = this._lines.size();
-      return (_size - 1);
+      return this._currentLineNumber;
     }
     
+    /**
+     * @return the content that has been processed so far and is held by this context. A
+     *         {@link StreamingContext streaming context} holds only the current line, since it has written the
+     *         completed lines to its output.
+     */
     public String getContent() {
-      return IterableExtensions.join(this._lines);
+      String _string = this._content.toString();
+      return (_string + this._currentLine);
+    }
+    
+    /**
+     * @return the completed lines held by this context without copying them
+     * @since 2.18
+     */
+    protected CharSequence getCompletedLines() {
+      return this._content;
+    }
+    
+    /**
+     * Completes the current line. Called once all nodes have been processed.
+     * @since 2.18
+     */
+    public void flush() {
+      this.lineCompleted(this._currentLine);
+      this._currentLine.setLength(0);
+    }
+    
+    /**
+     * Appends a completed line to the content.
+     * @since 2.18
+     */
+    protected void lineCompleted(final CharSequence line) {
+      this._content.append(line);
     }
     
     public AbstractTraceRegion getCurrentRegion() {
@@ -182,7 +230,7 @@ public class GeneratorNodeProcessor {
     }
     
     public void appendToCurrentLine(final CharSequence chars) {
-      this._lines.get(this.currentLineNumber()).append(chars);
+      this._currentLine.append(chars);
       int _length = chars.length();
       int _plus = (this._contentLength + _length);
       this._contentLength = _plus;
@@ -193,8 +241,9 @@ public class GeneratorNodeProcessor {
     }
     
     public void addNewLine() {
-      StringBuilder _stringBuilder = new StringBuilder();
-      this._lines.add(_stringBuilder);
+      this.lineCompleted(this._currentLine);
+      this._currentLine.setLength(0);
+      this._currentLineNumber++;
     }
     
     public void setPendingIndent(final boolean pending) {
@@ -202,24 +251,17 @@ public class GeneratorNodeProcessor {
     }
     
     /**
-     * Replace the current line with new StringBuilder
+     * Discard the content of the current line
      */
     public void resetCurrentLine() {
-      final StringBuilder lineContent = this._lines.get(this.currentLineNumber());
-      boolean _isNullOrEmpty = GeneratorNodeProcessor.isNullOrEmpty(lineContent);
-      boolean _not = (!_isNullOrEmpty);
-      if (_not) {
-        int _length = lineContent.length();
-        int _minus = (this._contentLength - _length);
-        this._contentLength = _minus;
-      }
-      int _currentLineNumber = this.currentLineNumber();
-      StringBuilder _stringBuilder = new StringBuilder();
-      this._lines.set(_currentLineNumber, _stringBuilder);
+      int _length = this._currentLine.length();
+      int _minus = (this._contentLength - _length);
+      this._contentLength = _minus;
+      this._currentLine.setLength(0);
     }
     
     public void insertIntoCurrentLine(final int i, final StringBuilder builder) {
-      this._lines.get(this.currentLineNumber()).insert(i, builder);
+      this._currentLine.insert(i, builder);
       int _length = builder.length();
       int _plus = (this._contentLength + _length);
       this._contentLength = _plus;
@@ -237,6 +279,34 @@ public class GeneratorNodeProcessor {
     }
   }
   
+  /**
+   * Writes each completed line to an output instead of keeping it in memory. It is used by
+   * {@link GeneratorNodeProcessor#process(IGeneratorNode, Appendable)}, which does not need the content of the
+   * context.
+   * @since 2.18
+   */
+  protected static class StreamingContext extends GeneratorNodeProcessor.Context {
+    private Appendable output;
+    
+    public StreamingContext(final Appendable output) {
+      this.output = output;
+    }
+    
+    @Override
+    protected void lineCompleted(final CharSequence line) {
+      try {
+        this.output.append(line);
+      } catch (final Throwable _t) {
+        if (_t instanceof IOException) {
+          final IOException e = (IOException)_t;
+          throw new RuntimeIOException(e);
+        } else {
+          throw Exceptions.sneakyThrow(_t);
+        }
+      }
+    }
+  }
+  
   /**
    * Used to avoid multi-pass processing, when constructing a trace region tree.
    * 
@@ -312,9 +382,23 @@ public class GeneratorNodeProcessor {
   public GeneratorNodeProcessor.Result process(final IGeneratorNode root) {
     final GeneratorNodeProcessor.Context ctx = new GeneratorNodeProcessor.Context();
     this.doProcess(root, ctx);
-    String _content = ctx.getContent();
+    ctx.flush();
+    CharSequence _completedLines = ctx.getCompletedLines();
     AbstractTraceRegion _currentRegion = ctx.getCurrentRegion();
-    return new GeneratorNodeProcessor.Result(_content, _currentRegion);
+    return new GeneratorNodeProcessor.Result(_completedLines, _currentRegion);
+  }
+  
+  /**
+   * Writes the text of the given node line by line to the given output instead of keeping it in memory.
+   * 
+   * @return the root trace region or <code>null</code> if the node is not traced
+   * @since 2.18
+   */
+  public AbstractTraceRegion process(final IGeneratorNode root, final Appendable output) {
+    final GeneratorNodeProcessor.StreamingContext ctx = new GeneratorNodeProcessor.StreamingContext(output);
+    this.doProcess(root, ctx);
+    ctx.flush();
+    return ctx.getCurrentRegion();
   }
   
   /**
@@ -336,7 +420,7 @@ public class GeneratorNodeProcessor {
   }
   
   protected void _doProcess(final NewLineNode node, final GeneratorNodeProcessor.Context ctx) {
-    if ((node.isIfNotEmpty() && (!GeneratorNodeProcessor.hasNonWhitespace(ctx.currentLineContent())))) {
+    if ((node.isIfNotEmpty() && (!GeneratorNodeProcessor.hasNonWhitespace(ctx.currentLine())))) {
       ctx.resetCurrentLine();
     } else {
       boolean _isPendingIndent = ctx.isPendingIndent();
@@ -418,7 +502,7 @@ public class GeneratorNodeProcessor {
   }
   
   protected boolean _hasContent(final NewLineNode node, final GeneratorNodeProcessor.Context ctx) {
-    return (!(node.isIfNotEmpty() && (ctx.currentLineContent().length() == 0)));
+    return (!(node.isIfNotEmpty() && (ctx.currentLine().length() == 0)));
   }
   
   protected boolean _hasContent(final TextNode node, final GeneratorNodeProcessor.Context ctx) {
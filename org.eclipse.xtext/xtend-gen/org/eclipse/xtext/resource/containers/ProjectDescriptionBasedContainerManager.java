@@ -16,10 +16,10 @@ import org.eclipse.xtext.resource.IContainer;
 import org.eclipse.xtext.resource.IResourceDescription;
 import org.eclipse.xtext.resource.IResourceDescriptions;
 import org.eclipse.xtext.resource.containers.LiveShadowedChunkedContainer;
+import org.eclipse.xtext.resource.containers.ProjectDescriptionBasedContainer;
 import org.eclipse.xtext.resource.impl.ChunkedResourceDescriptions;
 import org.eclipse.xtext.resource.impl.LiveShadowedChunkedResourceDescriptions;
 import org.eclipse.xtext.resource.impl.ProjectDescription;
-import org.eclipse.xtext.resource.impl.ResourceDescriptionsBasedContainer;
 import org.eclipse.xtext.resource.impl.ResourceDescriptionsData;
 import org.eclipse.xtext.xbase.lib.CollectionLiterals;
 
@@ -102,7 +102,7 @@ public class ProjectDescriptionBasedContainerManager implements IContainer.Manag
         ResourceDescriptionsData _resourceDescriptionsData = new ResourceDescriptionsData(_emptySet);
         _elvis = _resourceDescriptionsData;
       }
-      _xifexpression = new ResourceDescriptionsBasedContainer(_elvis);
+      _xifexpression = new ProjectDescriptionBasedContainer(_elvis, projectName);
     }
     return _xifexpression;
   }